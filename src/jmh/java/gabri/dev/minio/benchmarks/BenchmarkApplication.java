@@ -0,0 +1,59 @@
+package gabri.dev.minio.benchmarks;
+
+import gabri.dev.minio.JavaSpringComposeApplication;
+import okhttp3.OkHttpClient;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * Levanta el contexto de la aplicación, sin servidor web, apuntando a un {@link S3StandIn}.
+ * Las cachés y el índice de metadatos se deshabilitan para que cada operación llegue a S3.
+ */
+public final class BenchmarkApplication {
+
+    private BenchmarkApplication() {
+    }
+
+    /**
+     * Inicia el contexto de la aplicación.
+     *
+     * @param s3         servidor S3 al que se conectan los clientes de MinIO.
+     * @param properties propiedades adicionales, con el formato {@code clave=valor}.
+     * @return el contexto iniciado, que se debe cerrar al terminar el benchmark.
+     */
+    public static ConfigurableApplicationContext start(S3StandIn s3, String... properties) {
+        //como argumentos de línea de comandos tienen prioridad sobre application.properties
+        Stream<String> defaults = Stream.of(
+                "minio.url=" + s3.url(),
+                "minio.cache.memory.enabled=false",
+                "minio.cache.disk.enabled=false",
+                "minio.index.enabled=false",
+                "spring.main.banner-mode=off",
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN");
+        String[] args = Stream.concat(defaults, Arrays.stream(properties))
+                .map(p -> "--" + p)
+                .toArray(String[]::new);
+        return new SpringApplicationBuilder(JavaSpringComposeApplication.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(args);
+    }
+
+    /**
+     * Cierra el contexto y los hilos del cliente HTTP de MinIO, que no son demonio y de otro modo
+     * demoran el fin del proceso del benchmark.
+     *
+     * @param context el contexto a cerrar.
+     */
+    public static void stop(ConfigurableApplicationContext context) {
+        OkHttpClient httpClient = context.getBean(OkHttpClient.class);
+        context.close();
+        httpClient.dispatcher().executorService().shutdown();
+        httpClient.connectionPool().evictAll();
+    }
+}
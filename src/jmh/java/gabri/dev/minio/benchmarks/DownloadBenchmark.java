@@ -0,0 +1,133 @@
+package gabri.dev.minio.benchmarks;
+
+import gabri.dev.minio.controllers.MinioFileController;
+import gabri.dev.minio.services.MinioFilesService;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Descarga de un objeto, leyendo el flujo de {@link MinioFilesService#download} y a través del
+ * ciclo de copia de {@link MinioFileController#downloadFile} hacia la respuesta. Las cachés están
+ * deshabilitadas, por lo que cada descarga lee el objeto de S3.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class DownloadBenchmark {
+
+    private static final String BUCKET = "bench-download";
+    private static final String OBJECT = "download.bin";
+
+    /**
+     * Tamaño del objeto: 1KB, 1MB, 32MB y 1GB.
+     */
+    @Param({"1024", "1048576", "33554432", "1073741824"})
+    long objectSize;
+
+    private S3StandIn s3;
+    private ConfigurableApplicationContext context;
+    private MinioFilesService filesService;
+    private MinioFileController fileController;
+
+    /**
+     * Buffer de lectura de cada hilo, para no contar su reserva en la tasa de asignación.
+     */
+    @State(Scope.Thread)
+    public static class ReadBuffer {
+        final byte[] bytes = new byte[64 * 1024];
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        s3 = new S3StandIn();
+        s3.putObject(BUCKET, OBJECT, objectSize);
+        context = BenchmarkApplication.start(s3);
+        filesService = context.getBean("minioFilesService", MinioFilesService.class);
+        fileController = context.getBean(MinioFileController.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkApplication.stop(context);
+        s3.close();
+    }
+
+    @Benchmark
+    public long download(ReadBuffer buffer) throws Exception {
+        long total = 0;
+        try (InputStream stream = filesService.download(BUCKET, OBJECT)) {
+            int read;
+            while ((read = stream.read(buffer.bytes)) != -1) {
+                total += read;
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long downloadFile() throws Exception {
+        DiscardingResponse response = new DiscardingResponse();
+        fileController.downloadFile(BUCKET, OBJECT, null,
+                new MockHttpServletRequest("GET", "/minio/file/download"), response);
+        return response.written;
+    }
+
+    /**
+     * Respuesta que descarta el cuerpo y solo cuenta los bytes escritos, para no acumular
+     * en memoria los objetos grandes.
+     */
+    static class DiscardingResponse extends MockHttpServletResponse {
+
+        long written;
+
+        private final ServletOutputStream output = new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return true;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener listener) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void write(int b) {
+                written++;
+            }
+
+            @Override
+            public void write(byte[] bytes, int offset, int length) {
+                written += length;
+            }
+        };
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return output;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package gabri.dev.minio.benchmarks;
+
+import gabri.dev.minio.dtos.common.FileInfo;
+import gabri.dev.minio.dtos.common.FilePage;
+import gabri.dev.minio.services.MinioFilesService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listado de un bucket con {@link MinioFilesService#listFiles}, completo y por páginas, que
+ * siempre se resuelve contra S3.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ListFilesBenchmark {
+
+    private static final String BUCKET = "bench-list";
+    private static final int FILES_PER_FOLDER = 100;
+
+    /**
+     * Cantidad de objetos del bucket, repartidos en carpetas de {@value #FILES_PER_FOLDER}.
+     */
+    @Param({"1000", "10000"})
+    int objectCount;
+
+    private S3StandIn s3;
+    private ConfigurableApplicationContext context;
+    private MinioFilesService filesService;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        s3 = new S3StandIn();
+        for (int i = 0; i < objectCount; i++) {
+            s3.putObject(BUCKET, String.format("folder-%04d/file-%06d.bin", i / FILES_PER_FOLDER, i), 1024);
+        }
+        context = BenchmarkApplication.start(s3);
+        filesService = context.getBean("minioFilesService", MinioFilesService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkApplication.stop(context);
+        s3.close();
+    }
+
+    @Benchmark
+    public List<FileInfo> listAll() {
+        return filesService.listFiles(BUCKET);
+    }
+
+    @Benchmark
+    public FilePage listPage() {
+        return filesService.listFiles(BUCKET, null, null, null, 100);
+    }
+
+    @Benchmark
+    public FilePage listFolders() {
+        return filesService.listFiles(BUCKET, null, "/", null, 100);
+    }
+}
@@ -0,0 +1,402 @@
+package gabri.dev.minio.benchmarks;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor S3 mínimo en memoria para los benchmarks. No guarda el contenido de los objetos:
+ * descarta los bytes subidos y sirve un contenido sintético del tamaño registrado, así los
+ * objetos de 1GB no ocupan memoria y lo que se mide es el camino del cliente.
+ * No valida las firmas de las peticiones.
+ */
+public class S3StandIn implements AutoCloseable {
+
+    private static final String NAMESPACE = "http://s3.amazonaws.com/doc/2006-03-01/";
+    private static final DateTimeFormatter HEADER_DATE =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter XML_DATE =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+    private static final int MAX_KEYS = 1000;
+
+    /**
+     * Contenido sintético: el byte en la posición {@code i} de cualquier objeto es {@code (byte) i}.
+     */
+    private static final byte[] PATTERN = new byte[64 * 1024];
+
+    static {
+        //sin TCP_NODELAY las respuestas chicas esperan el ACK demorado del cliente y se mide la red, no el cliente
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        for (int i = 0; i < PATTERN.length; i++) {
+            PATTERN[i] = (byte) i;
+        }
+    }
+
+    private record StoredObject(long size, String etag, String contentType, Instant lastModified) {
+    }
+
+    private final Map<String, NavigableMap<String, StoredObject>> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Map<Integer, Long>> uploads = new ConcurrentHashMap<>();
+    private final AtomicLong etags = new AtomicLong();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "s3-stand-in");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Levanta el servidor en un puerto libre de la interfaz local.
+     *
+     * @throws IOException si no se puede abrir el puerto.
+     */
+    public S3StandIn() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 512);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Obtiene la URL base del servidor.
+     *
+     * @return la URL, por ejemplo {@code http://127.0.0.1:40123}.
+     */
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    /**
+     * Crea un bucket vacío, si no existía.
+     *
+     * @param bucket nombre del bucket.
+     */
+    public void createBucket(String bucket) {
+        buckets.computeIfAbsent(bucket, b -> new ConcurrentSkipListMap<>());
+    }
+
+    /**
+     * Registra un objeto sin subirlo, para preparar los datos de un benchmark.
+     *
+     * @param bucket     nombre del bucket, que se crea si no existe.
+     * @param objectName nombre del objeto.
+     * @param size       tamaño en bytes del objeto.
+     */
+    public void putObject(String bucket, String objectName, long size) {
+        createBucket(bucket);
+        buckets.get(bucket).put(objectName, new StoredObject(size, nextEtag(),
+                "application/octet-stream", Instant.now()));
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getRawPath();
+            int slash = path.indexOf('/', 1);
+            String bucket = decode(slash < 0 ? path.substring(1) : path.substring(1, slash));
+            String key = slash < 0 || slash == path.length() - 1 ? null : decode(path.substring(slash + 1));
+            Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+            String method = exchange.getRequestMethod();
+
+            if (bucket.isEmpty()) {
+                listBuckets(exchange);
+            } else if (key == null) {
+                handleBucket(exchange, method, bucket, query);
+            } else {
+                handleObject(exchange, method, bucket, key, query);
+            }
+        } catch (RuntimeException e) {
+            error(exchange, 500, "InternalError", String.valueOf(e.getMessage()));
+        }
+    }
+
+    private void handleBucket(HttpExchange exchange, String method, String bucket, Map<String, String> query)
+            throws IOException {
+        NavigableMap<String, StoredObject> objects = buckets.get(bucket);
+        if ("PUT".equals(method)) {
+            drain(exchange.getRequestBody());
+            createBucket(bucket);
+            empty(exchange, 200);
+        } else if (objects == null) {
+            error(exchange, 404, "NoSuchBucket", bucket);
+        } else if ("HEAD".equals(method)) {
+            empty(exchange, 200);
+        } else if ("GET".equals(method) && query.containsKey("location")) {
+            xml(exchange, 200, "<LocationConstraint xmlns=\"" + NAMESPACE + "\">us-east-1</LocationConstraint>");
+        } else if ("GET".equals(method)) {
+            listObjects(exchange, bucket, objects, query);
+        } else if ("POST".equals(method) && query.containsKey("delete")) {
+            drain(exchange.getRequestBody());
+            xml(exchange, 200, "<DeleteResult xmlns=\"" + NAMESPACE + "\"></DeleteResult>");
+        } else if ("DELETE".equals(method)) {
+            buckets.remove(bucket);
+            empty(exchange, 204);
+        } else {
+            error(exchange, 501, "NotImplemented", method + " " + bucket);
+        }
+    }
+
+    private void handleObject(HttpExchange exchange, String method, String bucket, String key,
+                              Map<String, String> query) throws IOException {
+        NavigableMap<String, StoredObject> objects = buckets.get(bucket);
+        if (objects == null) {
+            drain(exchange.getRequestBody());
+            error(exchange, 404, "NoSuchBucket", bucket);
+            return;
+        }
+        String uploadId = query.get("uploadId");
+        switch (method) {
+            case "PUT" -> {
+                long size = drain(exchange.getRequestBody());
+                String etag = nextEtag();
+                if (uploadId != null) {
+                    Map<Integer, Long> parts = uploads.get(uploadId);
+                    if (parts == null) {
+                        error(exchange, 404, "NoSuchUpload", uploadId);
+                        return;
+                    }
+                    parts.put(Integer.parseInt(query.get("partNumber")), size);
+                } else {
+                    objects.put(key, new StoredObject(size, etag,
+                            exchange.getRequestHeaders().getFirst("Content-Type"), Instant.now()));
+                }
+                exchange.getResponseHeaders().set("ETag", etag);
+                empty(exchange, 200);
+            }
+            case "POST" -> {
+                drain(exchange.getRequestBody());
+                if (query.containsKey("uploads")) {
+                    String id = UUID.randomUUID().toString();
+                    uploads.put(id, new ConcurrentHashMap<>());
+                    xml(exchange, 200, "<InitiateMultipartUploadResult xmlns=\"" + NAMESPACE + "\"><Bucket>"
+                            + escape(bucket) + "</Bucket><Key>" + escape(key) + "</Key><UploadId>" + id
+                            + "</UploadId></InitiateMultipartUploadResult>");
+                } else if (uploadId != null) {
+                    Map<Integer, Long> parts = uploads.remove(uploadId);
+                    if (parts == null) {
+                        error(exchange, 404, "NoSuchUpload", uploadId);
+                        return;
+                    }
+                    String etag = nextEtag();
+                    objects.put(key, new StoredObject(parts.values().stream().mapToLong(Long::longValue).sum(),
+                            etag, exchange.getRequestHeaders().getFirst("Content-Type"), Instant.now()));
+                    xml(exchange, 200, "<CompleteMultipartUploadResult xmlns=\"" + NAMESPACE + "\"><Bucket>"
+                            + escape(bucket) + "</Bucket><Key>" + escape(key) + "</Key><ETag>" + escape(etag)
+                            + "</ETag></CompleteMultipartUploadResult>");
+                } else {
+                    error(exchange, 501, "NotImplemented", "POST " + key);
+                }
+            }
+            case "DELETE" -> {
+                if (uploadId != null) {
+                    uploads.remove(uploadId);
+                } else {
+                    objects.remove(key);
+                }
+                empty(exchange, 204);
+            }
+            case "HEAD", "GET" -> {
+                StoredObject object = objects.get(key);
+                if (object == null) {
+                    error(exchange, 404, "NoSuchKey", key);
+                    return;
+                }
+                getObject(exchange, "HEAD".equals(method), object);
+            }
+            default -> error(exchange, 501, "NotImplemented", method + " " + key);
+        }
+    }
+
+    private void getObject(HttpExchange exchange, boolean head, StoredObject object) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        headers.set("ETag", object.etag());
+        headers.set("Last-Modified", HEADER_DATE.format(object.lastModified()));
+        headers.set("Content-Type", object.contentType() != null
+                ? object.contentType() : "application/octet-stream");
+        headers.set("Accept-Ranges", "bytes");
+
+        long start = 0;
+        long length = object.size();
+        int status = 200;
+        String range = exchange.getRequestHeaders().getFirst("Range");
+        if (range != null && range.startsWith("bytes=")) {
+            String[] bounds = range.substring("bytes=".length()).split("-", 2);
+            start = Long.parseLong(bounds[0]);
+            long end = bounds[1].isEmpty() ? object.size() - 1 : Math.min(Long.parseLong(bounds[1]), object.size() - 1);
+            length = end - start + 1;
+            status = 206;
+            headers.set("Content-Range", "bytes " + start + "-" + end + "/" + object.size());
+        }
+        if (head) {
+            headers.set("Content-Length", Long.toString(length));
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(status, length == 0 ? -1 : length);
+        OutputStream output = exchange.getResponseBody();
+        long position = start;
+        long remaining = length;
+        while (remaining > 0) {
+            int offset = (int) (position % PATTERN.length);
+            int count = (int) Math.min(remaining, PATTERN.length - offset);
+            output.write(PATTERN, offset, count);
+            position += count;
+            remaining -= count;
+        }
+    }
+
+    private void listBuckets(HttpExchange exchange) throws IOException {
+        StringBuilder xml = new StringBuilder("<ListAllMyBucketsResult xmlns=\"" + NAMESPACE
+                + "\"><Owner><ID>bench</ID><DisplayName>bench</DisplayName></Owner><Buckets>");
+        for (String bucket : buckets.keySet()) {
+            xml.append("<Bucket><Name>").append(escape(bucket)).append("</Name><CreationDate>")
+                    .append(XML_DATE.format(Instant.EPOCH)).append("</CreationDate></Bucket>");
+        }
+        xml(exchange, 200, xml.append("</Buckets></ListAllMyBucketsResult>").toString());
+    }
+
+    /**
+     * Responde un listado {@code ListObjectsV2}, con soporte de prefijo, delimitador y paginado.
+     */
+    private void listObjects(HttpExchange exchange, String bucket, NavigableMap<String, StoredObject> objects,
+                             Map<String, String> query) throws IOException {
+        String prefix = query.getOrDefault("prefix", "");
+        String delimiter = query.getOrDefault("delimiter", "");
+        int maxKeys = Math.min(MAX_KEYS, Integer.parseInt(query.getOrDefault("max-keys", "1000")));
+        String token = query.get("continuation-token");
+        String after = token != null && !token.isEmpty()
+                ? new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                : query.getOrDefault("start-after", "");
+
+        StringBuilder contents = new StringBuilder();
+        String lastPrefix = null;
+        String last = null;
+        int count = 0;
+        boolean truncated = false;
+        for (Map.Entry<String, StoredObject> entry : objects.tailMap(after, false).entrySet()) {
+            String key = entry.getKey();
+            if (!key.startsWith(prefix)) {
+                if (key.compareTo(prefix) > 0) {
+                    break;
+                }
+                continue;
+            }
+            int index = delimiter.isEmpty() ? -1 : key.indexOf(delimiter, prefix.length());
+            if (index >= 0 && key.substring(0, index + delimiter.length()).equals(lastPrefix)) {
+                continue;
+            }
+            if (count == maxKeys) {
+                truncated = true;
+                break;
+            }
+            if (index >= 0) {
+                lastPrefix = key.substring(0, index + delimiter.length());
+                contents.append("<CommonPrefixes><Prefix>").append(escape(lastPrefix))
+                        .append("</Prefix></CommonPrefixes>");
+                last = lastPrefix + Character.MAX_VALUE;
+            } else {
+                StoredObject object = entry.getValue();
+                contents.append("<Contents><Key>").append(escape(key)).append("</Key><LastModified>")
+                        .append(XML_DATE.format(object.lastModified())).append("</LastModified><ETag>")
+                        .append(escape(object.etag())).append("</ETag><Size>").append(object.size())
+                        .append("</Size><StorageClass>STANDARD</StorageClass></Contents>");
+                last = key;
+            }
+            count++;
+        }
+
+        StringBuilder xml = new StringBuilder("<ListBucketResult xmlns=\"" + NAMESPACE + "\"><Name>")
+                .append(escape(bucket)).append("</Name><Prefix>").append(escape(prefix))
+                .append("</Prefix><KeyCount>").append(count).append("</KeyCount><MaxKeys>").append(maxKeys)
+                .append("</MaxKeys><Delimiter>").append(escape(delimiter)).append("</Delimiter><IsTruncated>")
+                .append(truncated).append("</IsTruncated>");
+        if (truncated) {
+            xml.append("<NextContinuationToken>")
+                    .append(Base64.getUrlEncoder().encodeToString(last.getBytes(StandardCharsets.UTF_8)))
+                    .append("</NextContinuationToken>");
+        }
+        xml(exchange, 200, xml.append(contents).append("</ListBucketResult>").toString());
+    }
+
+    private String nextEtag() {
+        return "\"" + Long.toHexString(etags.incrementAndGet()) + "\"";
+    }
+
+    private static void empty(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+    }
+
+    private static void xml(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>" + body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/xml");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void error(HttpExchange exchange, int status, String code, String message) throws IOException {
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            empty(exchange, status);
+            return;
+        }
+        xml(exchange, status, "<Error><Code>" + code + "</Code><Message>" + escape(message)
+                + "</Message><RequestId>bench</RequestId><HostId>bench</HostId></Error>");
+    }
+
+    private static long drain(InputStream input) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            total += read;
+        }
+        return total;
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            params.put(decode(eq < 0 ? pair : pair.substring(0, eq)), eq < 0 ? "" : decode(pair.substring(eq + 1)));
+        }
+        return params;
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value.replace("+", "%2B"), StandardCharsets.UTF_8);
+    }
+
+    private static String escape(String value) {
+        return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;")
+                .replace("\"", "&quot;");
+    }
+}
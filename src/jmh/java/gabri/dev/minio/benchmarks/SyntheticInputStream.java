@@ -0,0 +1,55 @@
+package gabri.dev.minio.benchmarks;
+
+import java.io.InputStream;
+
+/**
+ * Flujo de un tamaño fijo con el mismo contenido sintético que sirve {@link S3StandIn},
+ * generado sin reservar memoria para que el benchmark mida solo la subida.
+ */
+public class SyntheticInputStream extends InputStream {
+
+    private final long size;
+    private long position;
+
+    /**
+     * Crea un flujo de {@code size} bytes.
+     *
+     * @param size cantidad de bytes que entrega el flujo.
+     */
+    public SyntheticInputStream(long size) {
+        this.size = size;
+    }
+
+    @Override
+    public int read() {
+        return position < size ? (byte) position++ & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) {
+        if (length == 0) {
+            return 0;
+        }
+        if (position >= size) {
+            return -1;
+        }
+        int count = (int) Math.min(length, size - position);
+        for (int i = 0; i < count; i++) {
+            buffer[offset + i] = (byte) (position + i);
+        }
+        position += count;
+        return count;
+    }
+
+    @Override
+    public long skip(long n) {
+        long skipped = Math.max(0, Math.min(n, size - position));
+        position += skipped;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, size - position);
+    }
+}
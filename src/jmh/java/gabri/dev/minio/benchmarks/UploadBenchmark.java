@@ -0,0 +1,72 @@
+package gabri.dev.minio.benchmarks;
+
+import gabri.dev.minio.services.MinioFilesService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subida de un objeto con {@link MinioFilesService#uploadFile}. Con tamaño conocido y menor a la
+ * parte configurada se hace un único {@code PutObject}; con tamaño desconocido o mayor, una subida
+ * multipart en paralelo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class UploadBenchmark {
+
+    private static final String BUCKET = "bench-upload";
+
+    /**
+     * Tamaño del objeto: 1KB, 1MB, 32MB (dos partes) y 1GB.
+     */
+    @Param({"1024", "1048576", "33554432", "1073741824"})
+    long objectSize;
+
+    private S3StandIn s3;
+    private ConfigurableApplicationContext context;
+    private MinioFilesService filesService;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        s3 = new S3StandIn();
+        s3.createBucket(BUCKET);
+        context = BenchmarkApplication.start(s3);
+        filesService = context.getBean("minioFilesService", MinioFilesService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkApplication.stop(context);
+        s3.close();
+    }
+
+    @Benchmark
+    public void uploadFile() throws Exception {
+        filesService.uploadFile(new SyntheticInputStream(objectSize), BUCKET, "upload.bin",
+                objectSize, "application/octet-stream");
+    }
+
+    @Benchmark
+    public void uploadFileUnknownSize() throws Exception {
+        filesService.uploadFile(new SyntheticInputStream(objectSize), BUCKET, "upload.bin",
+                -1, "application/octet-stream");
+    }
+}
@@ -2,11 +2,13 @@ package gabri.dev.minio;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Clase Main.
  */
 @SpringBootApplication
+@EnableScheduling
 public class JavaSpringComposeApplication {
     /**
      * Main program.
@@ -0,0 +1,78 @@
+package gabri.dev.minio.clients;
+
+import javax.net.SocketFactory;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Fábrica de sockets que fija los tamaños de los buffers de envío y recepción antes de conectar,
+ * para que el sistema operativo los tenga en cuenta al negociar la ventana TCP.
+ * OkHttp crea los sockets sin conectar, y en https monta TLS sobre ellos.
+ */
+public class BufferSizeSocketFactory extends SocketFactory {
+
+    private final SocketFactory delegate = SocketFactory.getDefault();
+    private final Integer sendBufferSize;
+    private final Integer receiveBufferSize;
+
+    /**
+     * Crea la fábrica.
+     *
+     * @param sendBufferSize    tamaño del buffer de envío en bytes, o {@code null} para no cambiarlo.
+     * @param receiveBufferSize tamaño del buffer de recepción en bytes, o {@code null} para no cambiarlo.
+     */
+    public BufferSizeSocketFactory(Integer sendBufferSize, Integer receiveBufferSize) {
+        this.sendBufferSize = sendBufferSize;
+        this.receiveBufferSize = receiveBufferSize;
+    }
+
+    @Override
+    public Socket createSocket() throws IOException {
+        return configure(delegate.createSocket());
+    }
+
+    @Override
+    public Socket createSocket(String host, int port) throws IOException {
+        return connect(new InetSocketAddress(host, port));
+    }
+
+    @Override
+    public Socket createSocket(String host, int port, InetAddress localHost, int localPort) throws IOException {
+        Socket socket = createSocket();
+        socket.bind(new InetSocketAddress(localHost, localPort));
+        socket.connect(new InetSocketAddress(host, port));
+        return socket;
+    }
+
+    @Override
+    public Socket createSocket(InetAddress host, int port) throws IOException {
+        return connect(new InetSocketAddress(host, port));
+    }
+
+    @Override
+    public Socket createSocket(InetAddress address, int port, InetAddress localAddress, int localPort)
+            throws IOException {
+        Socket socket = createSocket();
+        socket.bind(new InetSocketAddress(localAddress, localPort));
+        socket.connect(new InetSocketAddress(address, port));
+        return socket;
+    }
+
+    private Socket connect(InetSocketAddress address) throws IOException {
+        Socket socket = createSocket();
+        socket.connect(address);
+        return socket;
+    }
+
+    private Socket configure(Socket socket) throws IOException {
+        if (sendBufferSize != null) {
+            socket.setSendBufferSize(sendBufferSize);
+        }
+        if (receiveBufferSize != null) {
+            socket.setReceiveBufferSize(receiveBufferSize);
+        }
+        return socket;
+    }
+}
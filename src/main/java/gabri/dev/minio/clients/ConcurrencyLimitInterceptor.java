@@ -0,0 +1,146 @@
+package gabri.dev.minio.clients;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Interceptor de OkHttp que limita la cantidad de peticiones a MinIO en curso.
+ * El lugar se ocupa al enviar la petición y se libera cuando el cuerpo de la respuesta se lee
+ * por completo o se cierra, por lo que una descarga lo mantiene mientras se está leyendo.
+ */
+public class ConcurrencyLimitInterceptor implements Interceptor {
+
+    private final Semaphore permits;
+    private final int limit;
+    private final long timeoutNanos;
+
+    /**
+     * Crea el interceptor.
+     *
+     * @param limit          cantidad máxima de peticiones en curso.
+     * @param acquireTimeout tiempo máximo de espera por un lugar.
+     */
+    public ConcurrencyLimitInterceptor(int limit, Duration acquireTimeout) {
+        this.permits = new Semaphore(limit, true);
+        this.limit = limit;
+        this.timeoutNanos = acquireTimeout.toNanos();
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        acquire();
+        Runnable release = releaseOnce();
+        Response response;
+        try {
+            response = chain.proceed(chain.request());
+        } catch (IOException | RuntimeException e) {
+            release.run();
+            throw e;
+        }
+        ResponseBody body = response.body();
+        //el SDK no cierra las respuestas sin cuerpo, como las de statObject
+        if (body == null || body.contentLength() == 0 || "HEAD".equals(chain.request().method())) {
+            release.run();
+            return response;
+        }
+        return response.newBuilder().body(new ReleasingBody(body, release)).build();
+    }
+
+    /**
+     * Obtiene la cantidad de peticiones en curso.
+     *
+     * @return las peticiones que ocupan un lugar.
+     */
+    public int inFlight() {
+        return limit - permits.availablePermits();
+    }
+
+    /**
+     * Obtiene la cantidad de peticiones esperando un lugar.
+     *
+     * @return las peticiones en espera.
+     */
+    public int waiting() {
+        return permits.getQueueLength();
+    }
+
+    private void acquire() throws IOException {
+        try {
+            if (!permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new IOException("Se alcanzó el límite de " + limit + " peticiones a MinIO en curso");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Espera de un lugar para la petición a MinIO interrumpida");
+        }
+    }
+
+    private Runnable releaseOnce() {
+        AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        };
+    }
+
+    /**
+     * Cuerpo de respuesta que libera el lugar al terminar de leerse o al cerrarse.
+     */
+    private static final class ReleasingBody extends ResponseBody {
+
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+
+        ReleasingBody(ResponseBody delegate, Runnable release) {
+            this.delegate = delegate;
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    long read = super.read(sink, byteCount);
+                    if (read == -1) {
+                        release.run();
+                    }
+                    return read;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        release.run();
+                    }
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package gabri.dev.minio.clients;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.IOException;
+
+/**
+ * El servidor de MinIO dueño de un bucket no está disponible y la petición no puede atenderla otro servidor.
+ * Se responde con 503 para que el cliente reintente más tarde.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE, reason = "El servidor de MinIO del bucket no está disponible")
+public class EndpointUnavailableException extends IOException {
+
+    /**
+     * Crea la excepción.
+     *
+     * @param message descripción del servidor y la petición.
+     * @param cause   el error de conexión, o {@code null} si el servidor ya estaba marcado como no disponible.
+     */
+    public EndpointUnavailableException(String message, IOException cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,71 @@
+package gabri.dev.minio.clients;
+
+import com.google.common.hash.Hashing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Anillo de hashing consistente con nodos virtuales. Cada nodo ocupa una cantidad de puntos
+ * proporcional a su peso, y una clave pertenece al primer punto que sigue a su hash.
+ * Al agregar o quitar un nodo solo cambian de dueño las claves de sus puntos.
+ *
+ * @param <T> el tipo de los nodos.
+ */
+public class HashRing<T> {
+
+    private final NavigableMap<Long, T> ring = new TreeMap<>();
+    private final int size;
+
+    /**
+     * Crea el anillo.
+     *
+     * @param nodes        los nodos del anillo.
+     * @param id           identificador estable de cada nodo, del que se derivan sus puntos.
+     * @param weight       peso de cada nodo.
+     * @param virtualNodes cantidad de puntos por unidad de peso.
+     */
+    public HashRing(List<T> nodes, Function<T, String> id, ToIntFunction<T> weight, int virtualNodes) {
+        for (T node : nodes) {
+            int points = Math.max(1, weight.applyAsInt(node)) * Math.max(1, virtualNodes);
+            for (int i = 0; i < points; i++) {
+                ring.putIfAbsent(hash(id.apply(node) + "#" + i), node);
+            }
+        }
+        this.size = nodes.size();
+    }
+
+    /**
+     * Obtiene los nodos de una clave en orden de preferencia: primero su dueño y luego los
+     * siguientes nodos distintos del anillo, que son los que la reciben si el dueño no está disponible.
+     *
+     * @param key la clave a ubicar.
+     * @return los nodos sin repetir, empezando por el dueño de la clave.
+     */
+    public List<T> lookup(String key) {
+        Set<T> nodes = new LinkedHashSet<>();
+        long hash = hash(key);
+        for (T node : ring.tailMap(hash, true).values()) {
+            if (nodes.add(node) && nodes.size() == size) {
+                return new ArrayList<>(nodes);
+            }
+        }
+        for (T node : ring.headMap(hash, false).values()) {
+            if (nodes.add(node) && nodes.size() == size) {
+                break;
+            }
+        }
+        return new ArrayList<>(nodes);
+    }
+
+    private static long hash(String value) {
+        return Hashing.murmur3_128().hashString(value, StandardCharsets.UTF_8).asLong();
+    }
+}
@@ -0,0 +1,69 @@
+package gabri.dev.minio.clients;
+
+import okhttp3.HttpUrl;
+
+/**
+ * Servidor de MinIO al que se pueden dirigir las peticiones, con sus credenciales
+ * y su último estado de disponibilidad conocido.
+ */
+public class MinioEndpoint {
+
+    private final HttpUrl url;
+    private final String accessKey;
+    private final String secretKey;
+    private final int weight;
+    private volatile boolean healthy = true;
+
+    /**
+     * Crea el servidor.
+     *
+     * @param url       la URL del servidor.
+     * @param accessKey la clave de acceso.
+     * @param secretKey la clave secreta.
+     * @param weight    el peso relativo en el reparto de buckets.
+     */
+    public MinioEndpoint(HttpUrl url, String accessKey, String secretKey, int weight) {
+        this.url = url;
+        this.accessKey = accessKey;
+        this.secretKey = secretKey;
+        this.weight = weight;
+    }
+
+    public HttpUrl url() {
+        return url;
+    }
+
+    public String accessKey() {
+        return accessKey;
+    }
+
+    public String secretKey() {
+        return secretKey;
+    }
+
+    public int weight() {
+        return weight;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    /**
+     * Identificador estable del servidor, usado para ubicarlo en el anillo.
+     *
+     * @return el esquema, host y puerto del servidor.
+     */
+    public String id() {
+        return url.scheme() + "://" + url.host() + ":" + url.port();
+    }
+
+    @Override
+    public String toString() {
+        return id();
+    }
+}
@@ -0,0 +1,206 @@
+package gabri.dev.minio.clients;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reparte los buckets entre varios servidores de MinIO con un anillo de hashing consistente
+ * y lleva el estado de disponibilidad de cada servidor. Un bucket se dirige siempre a su dueño en el anillo.
+ * Solo si los servidores replican sus buckets entre sí, las lecturas se pueden dirigir al siguiente
+ * servidor disponible cuando el dueño no responde.
+ */
+@Slf4j
+public class MinioEndpointRouter implements MeterBinder {
+
+    private final List<MinioEndpoint> endpoints;
+    private final HashRing<MinioEndpoint> ring;
+    private final OkHttpClient healthClient;
+    private final String healthCheckPath;
+    private final Duration healthCheckInterval;
+    private final boolean replicated;
+    private ScheduledExecutorService healthChecker;
+
+    /**
+     * Crea el router.
+     *
+     * @param endpoints          los servidores, vacío si no se reparte.
+     * @param virtualNodes       cantidad de puntos en el anillo por unidad de peso.
+     * @param healthCheckPath     ruta consultada para verificar la disponibilidad.
+     * @param healthCheckInterval espera entre verificaciones.
+     * @param healthCheckTimeout  tiempo máximo de cada verificación.
+     * @param replicated          si los servidores replican sus buckets entre sí.
+     */
+    public MinioEndpointRouter(List<MinioEndpoint> endpoints, int virtualNodes, String healthCheckPath,
+                               Duration healthCheckInterval, Duration healthCheckTimeout, boolean replicated) {
+        this.endpoints = List.copyOf(endpoints);
+        this.ring = new HashRing<>(this.endpoints, MinioEndpoint::id, MinioEndpoint::weight, virtualNodes);
+        this.healthCheckPath = healthCheckPath;
+        this.healthCheckInterval = healthCheckInterval;
+        this.replicated = replicated;
+        //cliente aparte, sin el ruteo ni el límite de peticiones del cliente de MinIO
+        this.healthClient = new OkHttpClient.Builder()
+                .connectTimeout(healthCheckTimeout)
+                .readTimeout(healthCheckTimeout)
+                .build();
+    }
+
+    /**
+     * Inicia las verificaciones periódicas de disponibilidad en un hilo propio. Es el único camino
+     * por el que un servidor marcado como no disponible vuelve a recibir peticiones, así que no
+     * comparte el planificador de la aplicación, donde una tarea larga lo demoraría.
+     */
+    @PostConstruct
+    public void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        healthChecker = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "minio-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = healthCheckInterval.toMillis();
+        healthChecker.scheduleWithFixedDelay(() -> {
+            try {
+                checkHealth();
+            } catch (RuntimeException e) {
+                //una excepción no capturada cancelaría las verificaciones siguientes
+                log.warn("Error al verificar la disponibilidad de los servidores de MinIO", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Detiene las verificaciones de disponibilidad.
+     */
+    @PreDestroy
+    public void stop() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+    }
+
+    /**
+     * Indica si hay varios servidores configurados entre los que repartir los buckets.
+     *
+     * @return {@code true} si se reparte.
+     */
+    public boolean isEnabled() {
+        return !endpoints.isEmpty();
+    }
+
+    /**
+     * Obtiene todos los servidores configurados.
+     *
+     * @return los servidores.
+     */
+    public List<MinioEndpoint> endpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Obtiene el servidor que guarda un bucket: su dueño en el anillo, esté disponible o no.
+     *
+     * @param bucket el nombre del bucket.
+     * @return el servidor dueño del bucket.
+     */
+    public MinioEndpoint owner(String bucket) {
+        return ring.lookup(bucket).get(0);
+    }
+
+    /**
+     * Obtiene los servidores a los que dirigir una petición de un bucket, en orden de preferencia.
+     * Las escrituras, y las lecturas si los servidores no replican sus buckets, solo pueden ir al dueño.
+     * Las lecturas con replicación van a los disponibles en el orden del anillo y al final a los que
+     * no respondieron.
+     *
+     * @param bucket el nombre del bucket.
+     * @param read   {@code true} si la petición es una lectura idempotente.
+     * @return los servidores candidatos.
+     */
+    public List<MinioEndpoint> route(String bucket, boolean read) {
+        if (!read || !replicated) {
+            return List.of(owner(bucket));
+        }
+        List<MinioEndpoint> candidates = ring.lookup(bucket);
+        List<MinioEndpoint> ordered = new ArrayList<>(candidates.size());
+        candidates.stream().filter(MinioEndpoint::isHealthy).forEach(ordered::add);
+        candidates.stream().filter(e -> !e.isHealthy()).forEach(ordered::add);
+        return ordered;
+    }
+
+    /**
+     * Indica si dos buckets están en el mismo servidor, lo que permite copiar entre ellos sin
+     * pasar los datos por la aplicación. Sin reparto todos los buckets están en el mismo servidor.
+     *
+     * @param bucket      el nombre de un bucket.
+     * @param otherBucket el nombre del otro bucket.
+     * @return {@code true} si ambos buckets se dirigen al mismo servidor.
+     */
+    public boolean sameEndpoint(String bucket, String otherBucket) {
+        return !isEnabled() || bucket.equals(otherBucket) || owner(bucket) == owner(otherBucket);
+    }
+
+    /**
+     * Marca un servidor como no disponible, por ejemplo al fallar una conexión.
+     * La próxima verificación lo vuelve a habilitar si responde.
+     *
+     * @param endpoint el servidor que falló.
+     */
+    public void markDown(MinioEndpoint endpoint) {
+        if (endpoint.isHealthy()) {
+            log.warn("Servidor de MinIO {} no disponible", endpoint);
+            endpoint.setHealthy(false);
+        }
+    }
+
+    /**
+     * Verifica la disponibilidad de cada servidor. Un servidor está disponible si
+     * responde a la ruta de verificación con un código menor a 500.
+     */
+    public void checkHealth() {
+        for (MinioEndpoint endpoint : endpoints) {
+            Request request = new Request.Builder()
+                    .url(endpoint.url().resolve(healthCheckPath))
+                    .get()
+                    .build();
+            boolean healthy;
+            try (Response response = healthClient.newCall(request).execute()) {
+                healthy = response.code() < 500;
+            } catch (IOException e) {
+                healthy = false;
+            }
+            if (healthy && !endpoint.isHealthy()) {
+                log.info("Servidor de MinIO {} disponible", endpoint);
+                endpoint.setHealthy(true);
+            } else if (!healthy) {
+                markDown(endpoint);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (MinioEndpoint endpoint : endpoints) {
+            Gauge.builder("minio.routing.endpoint.healthy", endpoint, e -> e.isHealthy() ? 1 : 0)
+                    .tag("endpoint", endpoint.id())
+                    .description("1 si el servidor de MinIO está disponible, 0 si no")
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package gabri.dev.minio.clients;
+
+import io.minio.errors.*;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Utilidades para esperar los resultados del cliente asíncrono de MinIO
+ * con las mismas excepciones que lanza el cliente sincrónico.
+ */
+public final class MinioFutures {
+
+    private MinioFutures() {
+    }
+
+    /**
+     * Espera el resultado de una operación asíncrona de MinIO.
+     *
+     * @param future la operación en curso.
+     * @param <T>    el tipo de la respuesta.
+     * @return la respuesta de la operación.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida o se interrumpe la espera.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    public static <T> T await(CompletableFuture<T> future)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Operación de MinIO interrumpida");
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    /**
+     * Inicia una operación asíncrona de MinIO. Los métodos asíncronos del SDK pueden lanzar
+     * excepciones al armar la petición; en ese caso se devuelve un resultado ya fallido,
+     * para que el llamador maneje todos los errores en el mismo lugar.
+     *
+     * @param call la operación a iniciar.
+     * @param <T>  el tipo de la respuesta.
+     * @return la operación en curso.
+     */
+    public static <T> CompletableFuture<T> call(AsyncCall<T> call) {
+        try {
+            return call.call();
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Obtiene la causa original de un fallo asíncrono, sin las excepciones que la envuelven.
+     *
+     * @param error el fallo recibido.
+     * @return la causa original.
+     */
+    public static Throwable unwrap(Throwable error) {
+        while ((error instanceof CompletionException || error instanceof ExecutionException)
+                && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    /**
+     * Indica si un fallo es una respuesta de error de MinIO con cierto código, por ejemplo {@code NoSuchKey}.
+     *
+     * @param error el fallo recibido.
+     * @param code  el código de error de S3.
+     * @return {@code true} si MinIO respondió con ese código.
+     */
+    public static boolean isErrorCode(Throwable error, String code) {
+        return unwrap(error) instanceof ErrorResponseException e && code.equals(e.errorResponse().code());
+    }
+
+    /**
+     * Operación asíncrona del SDK de MinIO, que puede lanzar excepciones al iniciarse.
+     *
+     * @param <T> el tipo de la respuesta.
+     */
+    @FunctionalInterface
+    public interface AsyncCall<T> {
+        CompletableFuture<T> call() throws Exception;
+    }
+
+    /**
+     * Relanza la causa de un fallo asíncrono como la excepción original del SDK de MinIO.
+     *
+     * @param cause la causa del fallo.
+     * @return nunca retorna, se declara para poder usar {@code throw rethrow(e)}.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    public static IOException rethrow(Throwable cause)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        cause = unwrap(cause);
+        if (cause instanceof MinioException minioException) {
+            throwMinioException(minioException);
+        }
+        if (cause instanceof IOException ioException) {
+            throw ioException;
+        }
+        if (cause instanceof NoSuchAlgorithmException noSuchAlgorithmException) {
+            throw noSuchAlgorithmException;
+        }
+        if (cause instanceof InvalidKeyException invalidKeyException) {
+            throw invalidKeyException;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        throw new IOException(cause);
+    }
+
+    private static void throwMinioException(MinioException e)
+            throws ServerException, InsufficientDataException, ErrorResponseException, InvalidResponseException, XmlParserException, InternalException, IOException {
+        if (e instanceof ErrorResponseException errorResponseException) {
+            throw errorResponseException;
+        }
+        if (e instanceof ServerException serverException) {
+            throw serverException;
+        }
+        if (e instanceof InsufficientDataException insufficientDataException) {
+            throw insufficientDataException;
+        }
+        if (e instanceof InvalidResponseException invalidResponseException) {
+            throw invalidResponseException;
+        }
+        if (e instanceof XmlParserException xmlParserException) {
+            throw xmlParserException;
+        }
+        if (e instanceof InternalException internalException) {
+            throw internalException;
+        }
+        throw new IOException(e);
+    }
+}
@@ -0,0 +1,99 @@
+package gabri.dev.minio.clients;
+
+import com.google.common.collect.Multimap;
+import io.minio.AbortMultipartUploadResponse;
+import io.minio.CreateMultipartUploadResponse;
+import io.minio.ListMultipartUploadsResponse;
+import io.minio.ListPartsResponse;
+import io.minio.MinioAsyncClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.UploadPartResponse;
+import io.minio.errors.InsufficientDataException;
+import io.minio.errors.InternalException;
+import io.minio.errors.XmlParserException;
+import io.minio.messages.Part;
+
+import java.io.IOException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Cliente asíncrono de MinIO que expone las primitivas de subida multipart
+ * (crear, subir parte, listar partes, completar, abortar y listar subidas), que el SDK deja como protegidas.
+ *
+ * @author Gabriel Scipioni
+ */
+public class MultipartMinioClient extends MinioAsyncClient {
+
+    /**
+     * Crea el cliente a partir de un {@link MinioAsyncClient} ya configurado.
+     *
+     * @param client el cliente asíncrono con el endpoint y las credenciales.
+     */
+    public MultipartMinioClient(MinioAsyncClient client) {
+        super(client);
+    }
+
+    @Override
+    public CompletableFuture<CreateMultipartUploadResponse> createMultipartUploadAsync(
+            String bucketName, String region, String objectName,
+            Multimap<String, String> headers, Multimap<String, String> extraQueryParams)
+            throws InsufficientDataException, InternalException, InvalidKeyException, IOException,
+            NoSuchAlgorithmException, XmlParserException {
+        return super.createMultipartUploadAsync(bucketName, region, objectName, headers, extraQueryParams);
+    }
+
+    @Override
+    public CompletableFuture<UploadPartResponse> uploadPartAsync(
+            String bucketName, String region, String objectName, Object data, long length,
+            String uploadId, int partNumber,
+            Multimap<String, String> extraHeaders, Multimap<String, String> extraQueryParams)
+            throws InsufficientDataException, InternalException, InvalidKeyException, IOException,
+            NoSuchAlgorithmException, XmlParserException {
+        return super.uploadPartAsync(bucketName, region, objectName, data, length,
+                uploadId, partNumber, extraHeaders, extraQueryParams);
+    }
+
+    @Override
+    public CompletableFuture<ListPartsResponse> listPartsAsync(
+            String bucketName, String region, String objectName, Integer maxParts,
+            Integer partNumberMarker, String uploadId,
+            Multimap<String, String> extraHeaders, Multimap<String, String> extraQueryParams)
+            throws InsufficientDataException, InternalException, InvalidKeyException, IOException,
+            NoSuchAlgorithmException, XmlParserException {
+        return super.listPartsAsync(bucketName, region, objectName, maxParts,
+                partNumberMarker, uploadId, extraHeaders, extraQueryParams);
+    }
+
+    @Override
+    public CompletableFuture<ObjectWriteResponse> completeMultipartUploadAsync(
+            String bucketName, String region, String objectName, String uploadId, Part[] parts,
+            Multimap<String, String> extraHeaders, Multimap<String, String> extraQueryParams)
+            throws InsufficientDataException, InternalException, InvalidKeyException, IOException,
+            NoSuchAlgorithmException, XmlParserException {
+        return super.completeMultipartUploadAsync(bucketName, region, objectName, uploadId,
+                parts, extraHeaders, extraQueryParams);
+    }
+
+    @Override
+    public CompletableFuture<AbortMultipartUploadResponse> abortMultipartUploadAsync(
+            String bucketName, String region, String objectName, String uploadId,
+            Multimap<String, String> extraHeaders, Multimap<String, String> extraQueryParams)
+            throws InsufficientDataException, InternalException, InvalidKeyException, IOException,
+            NoSuchAlgorithmException, XmlParserException {
+        return super.abortMultipartUploadAsync(bucketName, region, objectName, uploadId,
+                extraHeaders, extraQueryParams);
+    }
+
+    @Override
+    public CompletableFuture<ListMultipartUploadsResponse> listMultipartUploadsAsync(
+            String bucketName, String region, String delimiter, String encodingType, String keyMarker,
+            Integer maxUploads, String prefix, String uploadIdMarker,
+            Multimap<String, String> extraHeaders, Multimap<String, String> extraQueryParams)
+            throws InsufficientDataException, InternalException, InvalidKeyException, IOException,
+            NoSuchAlgorithmException, XmlParserException {
+        return super.listMultipartUploadsAsync(bucketName, region, delimiter, encodingType, keyMarker,
+                maxUploads, prefix, uploadIdMarker, extraHeaders, extraQueryParams);
+    }
+}
@@ -0,0 +1,64 @@
+package gabri.dev.minio.clients;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+/**
+ * Publica como métricas el estado del cliente HTTP de MinIO: conexiones del pool,
+ * peticiones asíncronas en curso y encoladas, y el límite de peticiones en curso si está activo.
+ */
+public class OkHttpClientMetrics implements MeterBinder {
+
+    private final OkHttpClient client;
+
+    /**
+     * Crea las métricas de un cliente HTTP.
+     *
+     * @param client el cliente HTTP de MinIO.
+     */
+    public OkHttpClientMetrics(OkHttpClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        ConnectionPool pool = client.connectionPool();
+        Gauge.builder("minio.http.pool.connections", pool, p -> p.idleConnectionCount())
+                .tag("state", "idle")
+                .description("Conexiones abiertas con MinIO sin usar")
+                .register(registry);
+        Gauge.builder("minio.http.pool.connections", pool, p -> p.connectionCount() - p.idleConnectionCount())
+                .tag("state", "active")
+                .description("Conexiones abiertas con MinIO en uso")
+                .register(registry);
+
+        Dispatcher dispatcher = client.dispatcher();
+        Gauge.builder("minio.http.dispatcher.calls", dispatcher, Dispatcher::runningCallsCount)
+                .tag("state", "running")
+                .description("Peticiones asíncronas a MinIO en curso")
+                .register(registry);
+        Gauge.builder("minio.http.dispatcher.calls", dispatcher, Dispatcher::queuedCallsCount)
+                .tag("state", "queued")
+                .description("Peticiones asíncronas a MinIO esperando en el despachador")
+                .register(registry);
+
+        client.interceptors().stream()
+                .filter(ConcurrencyLimitInterceptor.class::isInstance)
+                .map(ConcurrencyLimitInterceptor.class::cast)
+                .findFirst()
+                .ifPresent(limit -> {
+                    Gauge.builder("minio.http.limit.requests", limit, ConcurrencyLimitInterceptor::inFlight)
+                            .tag("state", "in-flight")
+                            .description("Peticiones a MinIO que ocupan un lugar del límite")
+                            .register(registry);
+                    Gauge.builder("minio.http.limit.requests", limit, ConcurrencyLimitInterceptor::waiting)
+                            .tag("state", "waiting")
+                            .description("Peticiones a MinIO esperando un lugar del límite")
+                            .register(registry);
+                });
+    }
+}
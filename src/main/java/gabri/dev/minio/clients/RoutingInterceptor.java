@@ -0,0 +1,169 @@
+package gabri.dev.minio.clients;
+
+import io.minio.Signer;
+import io.minio.http.HttpUtils;
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Interceptor de OkHttp que dirige cada petición del SDK de MinIO al servidor dueño de su bucket.
+ * El SDK arma y firma la petición contra {@code minio.url}; el interceptor cambia el host y la vuelve
+ * a firmar con las credenciales del servidor elegido, por lo que los clientes síncrono y asíncrono
+ * no necesitan saber del reparto. Requiere URLs de estilo path, que el SDK usa fuera de AWS.
+ * <p>
+ * Si no se puede conectar con un servidor se lo marca como no disponible. Las lecturas de servidores
+ * replicados se reintentan en el siguiente del anillo; el resto de las peticiones falla con
+ * {@link EndpointUnavailableException}, sin intentar la conexión mientras el dueño siga no disponible.
+ * El listado de buckets se pide a todos los servidores y se unen los resultados.
+ */
+public class RoutingInterceptor implements Interceptor {
+
+    private static final Pattern CREDENTIAL_REGION = Pattern.compile("Credential=[^/]+/[^/]+/([^/]+)/");
+    private static final Pattern BUCKET = Pattern.compile("<Bucket>.*?<Name>(.*?)</Name>.*?</Bucket>", Pattern.DOTALL);
+    private static final Pattern BUCKETS = Pattern.compile("<Buckets\\s*/>|<Buckets>.*</Buckets>", Pattern.DOTALL);
+
+    private final MinioEndpointRouter router;
+
+    /**
+     * Crea el interceptor.
+     *
+     * @param router el router con los servidores y su disponibilidad.
+     */
+    public RoutingInterceptor(MinioEndpointRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        List<String> segments = request.url().pathSegments();
+        String bucket = segments.isEmpty() ? "" : segments.get(0);
+        if (bucket.isEmpty()) {
+            return listBuckets(chain, request);
+        }
+        boolean read = "GET".equals(request.method()) || "HEAD".equals(request.method());
+        List<MinioEndpoint> candidates = router.route(bucket, read);
+        if (candidates.size() == 1 && !candidates.get(0).isHealthy()) {
+            throw unavailable(bucket, request, null);
+        }
+        IOException failure = null;
+        for (MinioEndpoint endpoint : candidates) {
+            try {
+                return chain.proceed(resign(request, endpoint));
+            } catch (ConnectException | NoRouteToHostException | UnknownHostException e) {
+                //la petición no llegó a enviarse, solo las lecturas replicadas se reintentan en otro servidor
+                router.markDown(endpoint);
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        throw unavailable(bucket, request, failure);
+    }
+
+    private EndpointUnavailableException unavailable(String bucket, Request request, IOException cause) {
+        return new EndpointUnavailableException("El servidor de MinIO " + router.owner(bucket)
+                + " del bucket " + bucket + " no está disponible para " + request.method(), cause);
+    }
+
+    /**
+     * Pide el listado de buckets a cada servidor disponible y devuelve un único listado
+     * ordenado por nombre. Los servidores que no responden se omiten.
+     */
+    private Response listBuckets(Chain chain, Request request) throws IOException {
+        List<MinioEndpoint> endpoints = new ArrayList<>(router.endpoints().stream()
+                .filter(MinioEndpoint::isHealthy)
+                .toList());
+        if (endpoints.isEmpty()) {
+            endpoints.addAll(router.endpoints());
+        }
+        Map<String, String> buckets = new TreeMap<>();
+        Response first = null;
+        String firstBody = null;
+        IOException failure = null;
+        for (MinioEndpoint endpoint : endpoints) {
+            Response response;
+            try {
+                response = chain.proceed(resign(request, endpoint));
+            } catch (ConnectException | NoRouteToHostException | UnknownHostException e) {
+                router.markDown(endpoint);
+                failure = e;
+                continue;
+            }
+            if (!response.isSuccessful()) {
+                //errores como credenciales inválidas se devuelven tal cual al SDK
+                return response;
+            }
+            String body;
+            try (ResponseBody responseBody = response.body()) {
+                body = responseBody != null ? responseBody.string() : "";
+            }
+            Matcher matcher = BUCKET.matcher(body);
+            while (matcher.find()) {
+                buckets.putIfAbsent(matcher.group(1), matcher.group());
+            }
+            if (first == null) {
+                first = response;
+                firstBody = body;
+            }
+        }
+        if (first == null) {
+            throw failure != null ? failure : new IOException("No hay servidores de MinIO configurados");
+        }
+        String merged = BUCKETS.matcher(firstBody)
+                .replaceFirst(Matcher.quoteReplacement("<Buckets>" + String.join("", buckets.values()) + "</Buckets>"));
+        return first.newBuilder()
+                .removeHeader("Content-Length")
+                .body(ResponseBody.create(merged, MediaType.get("application/xml")))
+                .build();
+    }
+
+    /**
+     * Dirige la petición a un servidor y la vuelve a firmar con sus credenciales.
+     * La región y el hash del cuerpo son los que calculó el SDK.
+     */
+    private Request resign(Request request, MinioEndpoint endpoint) throws IOException {
+        HttpUrl target = endpoint.url();
+        HttpUrl url = request.url().newBuilder()
+                .scheme(target.scheme())
+                .host(target.host())
+                .port(target.port())
+                .build();
+        Request moved = request.newBuilder()
+                .url(url)
+                .header("Host", HttpUtils.getHostHeader(url))
+                .build();
+        String authorization = request.header("Authorization");
+        if (authorization == null) {
+            return moved;
+        }
+        Matcher region = CREDENTIAL_REGION.matcher(authorization);
+        if (!region.find()) {
+            throw new IOException("No se pudo obtener la región de la firma de la petición");
+        }
+        try {
+            return Signer.signV4S3(moved, region.group(1), endpoint.accessKey(), endpoint.secretKey(),
+                    request.header("x-amz-content-sha256"));
+        } catch (GeneralSecurityException e) {
+            throw new IOException("No se pudo firmar la petición para " + endpoint, e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package gabri.dev.minio.clients;
+
+/**
+ * Cubeta de fichas que se recarga a ritmo constante. Las fichas se reservan en orden de llegada:
+ * si no alcanzan, el saldo queda negativo y quien reservó espera a que se recargue su parte,
+ * por lo que los pedidos siguientes esperan detrás de los anteriores.
+ */
+public class TokenBucket {
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private double tokens;
+    private long lastRefill;
+
+    /**
+     * Crea la cubeta llena.
+     *
+     * @param tokensPerSecond fichas que se recargan por segundo.
+     * @param capacity        fichas máximas acumuladas, que definen la ráfaga admitida.
+     */
+    public TokenBucket(double tokensPerSecond, double capacity) {
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.capacity = capacity;
+        this.tokens = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * Reserva fichas si la espera para disponer de ellas no supera un máximo.
+     *
+     * @param amount       fichas a reservar.
+     * @param maxWaitNanos espera máxima admitida, en nanosegundos.
+     * @return la espera en nanosegundos hasta poder usar las fichas, o -1 si supera el máximo
+     * y no se reservó nada.
+     */
+    public synchronized long reserve(double amount, long maxWaitNanos) {
+        long wait = waitFor(amount);
+        if (wait > maxWaitNanos) {
+            return -1;
+        }
+        tokens -= amount;
+        return wait;
+    }
+
+    /**
+     * Devuelve fichas reservadas que no se usaron.
+     *
+     * @param amount fichas a devolver.
+     */
+    public synchronized void refund(double amount) {
+        tokens = Math.min(capacity, tokens + amount);
+    }
+
+    /**
+     * Calcula cuánto habría que esperar para disponer de una cantidad de fichas, sin reservarlas.
+     *
+     * @param amount fichas necesarias.
+     * @return la espera en nanosegundos.
+     */
+    public synchronized long waitFor(double amount) {
+        refill();
+        double missing = amount - tokens;
+        return missing <= 0 ? 0 : (long) Math.ceil(missing / tokensPerNano);
+    }
+
+    /**
+     * Obtiene las fichas disponibles, negativas si hay reservas esperando la recarga.
+     *
+     * @return las fichas disponibles.
+     */
+    public synchronized double available() {
+        refill();
+        return tokens;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
@@ -0,0 +1,321 @@
+package gabri.dev.minio.configs;
+
+import gabri.dev.minio.services.AdmissionControlService;
+import gabri.dev.minio.services.UploadSessionService;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Filtro que aplica el control de admisión a las peticiones a {@code /minio/**} antes de que
+ * lleguen a los controladores, según los buckets de la petición y el cliente que la hace.
+ * Con límites de ancho de banda, el cuerpo de la petición y el de la respuesta se leen y
+ * escriben al ritmo admitido. Las operaciones que siguen en segundo plano después de la
+ * respuesta las admite cada servicio con {@link AdmissionControlService#admitBackground}.
+ */
+@Component
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    /**
+     * Parámetros de las peticiones que indican un bucket.
+     */
+    private static final List<String> BUCKET_PARAMETERS = List.of("bucket", "sourceBucket", "targetBucket");
+
+    /**
+     * Rutas de las sesiones de subida, que indican el bucket con el identificador de la sesión.
+     */
+    private static final Pattern UPLOAD_SESSION = Pattern.compile("/minio/file/upload-session/([^/]+)(?:/.*)?");
+
+    /**
+     * Atributo con el que Tomcat ofrece enviar archivos con sendfile, que no pasaría por el límite de ancho de banda.
+     */
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    @Autowired
+    private AdmissionProperties properties;
+
+    @Autowired
+    private AdmissionControlService admissionControlService;
+
+    @Autowired
+    private UploadSessionService uploadSessionService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !request.getRequestURI().startsWith(request.getContextPath() + "/minio/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdmissionControlService.Admission admission;
+        try {
+            admission = admissionControlService.admit(buckets(request), client(request));
+        } catch (ResponseStatusException e) {
+            e.getHeaders().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+            response.sendError(e.getStatusCode().value(), e.getReason());
+            return;
+        }
+        try {
+            if (admission.limitsBandwidth()) {
+                chain.doFilter(new ThrottledRequest(request, admission), new ThrottledResponse(response, admission));
+            } else {
+                chain.doFilter(request, response);
+            }
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseListener(admission));
+            } else {
+                admission.release();
+            }
+        }
+    }
+
+    /**
+     * Obtiene los buckets de la query de la petición, o el de la sesión de subida de la ruta.
+     * No se usa {@code getParameter} porque obligaría a leer el cuerpo de las peticiones multipart
+     * antes de admitirlas.
+     */
+    private List<String> buckets(HttpServletRequest request) {
+        List<String> buckets = new ArrayList<>();
+        Matcher session = UPLOAD_SESSION.matcher(request.getRequestURI().substring(request.getContextPath().length()));
+        if (session.matches()) {
+            uploadSessionService.findBucket(UriUtils.decode(session.group(1), StandardCharsets.UTF_8))
+                    .ifPresent(buckets::add);
+        }
+        String query = request.getQueryString();
+        if (!StringUtils.hasText(query)) {
+            return buckets;
+        }
+        MultiValueMap<String, String> parameters = UriComponentsBuilder.newInstance().query(query).build().getQueryParams();
+        for (String name : BUCKET_PARAMETERS) {
+            List<String> values = parameters.get(name);
+            if (values != null) {
+                values.stream()
+                        .filter(Objects::nonNull)
+                        .map(value -> UriUtils.decode(value.replace('+', ' '), StandardCharsets.UTF_8))
+                        .filter(StringUtils::hasText)
+                        .forEach(buckets::add);
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Identifica al cliente por su dirección remota, o por el header configurado si se confía
+     * en él o la petición llega de un proxy de confianza.
+     */
+    private String client(HttpServletRequest request) {
+        String remote = request.getRemoteAddr();
+        if (properties.isTrustClientHeader() || properties.getTrustedProxies().contains(remote)) {
+            String client = request.getHeader(properties.getClientHeader());
+            if (StringUtils.hasText(client)) {
+                return client;
+            }
+        }
+        return remote;
+    }
+
+    /**
+     * Libera el lugar de una petición asíncrona cuando termina.
+     */
+    private record ReleaseListener(AdmissionControlService.Admission admission) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            admission.release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            admission.release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            admission.release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    /**
+     * Petición cuyo cuerpo se lee al ritmo admitido.
+     */
+    private static final class ThrottledRequest extends HttpServletRequestWrapper {
+        private final AdmissionControlService.Admission admission;
+        private ServletInputStream input;
+
+        ThrottledRequest(HttpServletRequest request, AdmissionControlService.Admission admission) {
+            super(request);
+            this.admission = admission;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (input == null) {
+                input = new ThrottledInputStream(super.getInputStream(), admission);
+            }
+            return input;
+        }
+
+        @Override
+        public Object getAttribute(String name) {
+            return SENDFILE_SUPPORT.equals(name) ? null : super.getAttribute(name);
+        }
+    }
+
+    /**
+     * Respuesta cuyo cuerpo se escribe al ritmo admitido.
+     */
+    private static final class ThrottledResponse extends HttpServletResponseWrapper {
+        private final AdmissionControlService.Admission admission;
+        private ServletOutputStream output;
+        private PrintWriter writer;
+
+        ThrottledResponse(HttpServletResponse response, AdmissionControlService.Admission admission) {
+            super(response);
+            this.admission = admission;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (output == null) {
+                output = new ThrottledOutputStream(super.getOutputStream(), admission);
+            }
+            return output;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.ISO_8859_1.name();
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), encoding));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            super.flushBuffer();
+        }
+    }
+
+    private static final class ThrottledInputStream extends ServletInputStream {
+        private final ServletInputStream delegate;
+        private final AdmissionControlService.Admission admission;
+
+        ThrottledInputStream(ServletInputStream delegate, AdmissionControlService.Admission admission) {
+            this.delegate = delegate;
+            this.admission = admission;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = delegate.read();
+            if (read >= 0) {
+                admission.consume(1);
+            }
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = delegate.read(b, off, len);
+            if (read > 0) {
+                admission.consume(read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            delegate.setReadListener(listener);
+        }
+    }
+
+    private static final class ThrottledOutputStream extends ServletOutputStream {
+        private final ServletOutputStream delegate;
+        private final AdmissionControlService.Admission admission;
+
+        ThrottledOutputStream(ServletOutputStream delegate, AdmissionControlService.Admission admission) {
+            this.delegate = delegate;
+            this.admission = admission;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            admission.consume(1);
+            delegate.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            admission.consume(len);
+            delegate.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            delegate.setWriteListener(listener);
+        }
+    }
+}
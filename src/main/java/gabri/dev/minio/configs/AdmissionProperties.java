@@ -0,0 +1,130 @@
+package gabri.dev.minio.configs;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Configuración del control de admisión de las peticiones a {@code /minio/**}, mapeada desde
+ * las propiedades {@code minio.admission.*}. Los límites se aplican por bucket y por cliente.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "minio.admission")
+public class AdmissionProperties {
+
+    /**
+     * Indica si se aplica el control de admisión.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Header que identifica al cliente, solo si se confía en él. Si no, el cliente es la dirección remota.
+     */
+    private String clientHeader = "X-Client-Id";
+
+    /**
+     * Indica si se confía en el header del cliente de cualquier origen. Solo debe habilitarse si
+     * todas las peticiones pasan por un proxy que fija el header, ya que un cliente que envía
+     * otro valor en cada petición obtiene límites nuevos.
+     */
+    private boolean trustClientHeader = false;
+
+    /**
+     * Direcciones de los proxies de los que se acepta el header del cliente aunque no se confíe en él.
+     */
+    private List<String> trustedProxies = new ArrayList<>();
+
+    /**
+     * Espera máxima de una petición por un lugar o por fichas antes de rechazarla con 429.
+     */
+    private Duration maxWait = Duration.ofSeconds(2);
+
+    /**
+     * Tiempo sin peticiones tras el cual se descartan los limitadores de un bucket o cliente.
+     */
+    private Duration idleExpiry = Duration.ofMinutes(10);
+
+    /**
+     * Límites de cada bucket.
+     */
+    private Limits bucket = new Limits(0, 0d, DataSize.ofBytes(0));
+
+    /**
+     * Límites de cada cliente.
+     */
+    private Limits client = new Limits(0, 0d, DataSize.ofBytes(0));
+
+    /**
+     * Límites particulares de algunos buckets, indexados por nombre. Los valores nulos toman los de {@code bucket}.
+     */
+    private Map<String, Limits> buckets = new HashMap<>();
+
+    /**
+     * Límites particulares de algunos clientes, indexados por identificador. Los valores nulos toman los de {@code client}.
+     */
+    private Map<String, Limits> clients = new HashMap<>();
+
+    /**
+     * Límites de un bucket o cliente. Un valor 0 indica sin límite.
+     */
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Limits {
+
+        /**
+         * Cantidad máxima de peticiones en curso.
+         */
+        private Integer maxConcurrent;
+
+        /**
+         * Peticiones por segundo admitidas, con ráfagas de hasta un segundo de peticiones.
+         */
+        private Double requestsPerSecond;
+
+        /**
+         * Bytes por segundo que se leen del cuerpo de las peticiones y se escriben en las respuestas.
+         */
+        private DataSize bandwidth;
+    }
+
+    /**
+     * Obtiene los límites de un bucket.
+     *
+     * @param bucket nombre del bucket.
+     * @return los límites del bucket, completados con los valores por defecto.
+     */
+    public Limits bucketLimits(String bucket) {
+        return merge(buckets.get(bucket), this.bucket);
+    }
+
+    /**
+     * Obtiene los límites de un cliente.
+     *
+     * @param client identificador del cliente.
+     * @return los límites del cliente, completados con los valores por defecto.
+     */
+    public Limits clientLimits(String client) {
+        return merge(clients.get(client), this.client);
+    }
+
+    private static Limits merge(Limits limits, Limits defaults) {
+        if (limits == null) {
+            return defaults;
+        }
+        return new Limits(
+                limits.getMaxConcurrent() != null ? limits.getMaxConcurrent() : defaults.getMaxConcurrent(),
+                limits.getRequestsPerSecond() != null ? limits.getRequestsPerSecond() : defaults.getRequestsPerSecond(),
+                limits.getBandwidth() != null ? limits.getBandwidth() : defaults.getBandwidth());
+    }
+}
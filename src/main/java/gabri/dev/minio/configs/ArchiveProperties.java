@@ -0,0 +1,37 @@
+package gabri.dev.minio.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Configuración de las descargas de varios archivos en un zip, mapeada desde las
+ * propiedades {@code minio.download.archive.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "minio.download.archive")
+public class ArchiveProperties {
+
+    /**
+     * Cantidad de archivos siguientes que se empiezan a leer de MinIO mientras se escribe el actual.
+     */
+    private int prefetch = 4;
+
+    /**
+     * Bytes de cada archivo siguiente que se leen por adelantado. Los archivos más chicos quedan
+     * completos en memoria; de los más grandes se lee el resto al escribirlos.
+     */
+    private DataSize prefetchBufferSize = DataSize.ofMegabytes(4);
+
+    /**
+     * Hilos compartidos por todas las descargas para leer los archivos por adelantado.
+     */
+    private int threads = 16;
+
+    /**
+     * Nivel de compresión del zip, de 0 (sin comprimir) a 9. El nivel 1 es el más rápido.
+     */
+    private int compressionLevel = 1;
+}
@@ -0,0 +1,64 @@
+package gabri.dev.minio.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuración de las subidas asíncronas, mapeada desde las propiedades {@code minio.async-upload.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "minio.async-upload")
+public class AsyncUploadProperties {
+
+    /**
+     * Directorio donde se guardan los archivos recibidos hasta subirlos a MinIO. Los que quedan
+     * pendientes al detener la aplicación se vuelven a encolar al iniciarla. Por defecto es el
+     * directorio temporal, que no es durable: en producción debe estar en un disco persistente.
+     */
+    private String directory = System.getProperty("java.io.tmpdir") + "/minio-spool";
+
+    /**
+     * Cantidad de archivos que se suben a MinIO a la vez.
+     */
+    private int workers = 4;
+
+    /**
+     * Cantidad máxima de subidas aceptadas y no terminadas. Al llegar al límite se responde 429.
+     */
+    private int queueCapacity = 1000;
+
+    /**
+     * Espacio máximo que ocupan en disco las subidas pendientes. Al llegar al límite se responde 503.
+     */
+    private DataSize maxSpoolSize = DataSize.ofGigabytes(10);
+
+    /**
+     * Cantidad máxima de intentos de cada subida.
+     */
+    private int maxAttempts = 8;
+
+    /**
+     * Espera antes del primer reintento, que se duplica en cada reintento siguiente.
+     */
+    private Duration initialBackoff = Duration.ofSeconds(1);
+
+    /**
+     * Espera máxima entre reintentos.
+     */
+    private Duration maxBackoff = Duration.ofMinutes(5);
+
+    /**
+     * Valor del header {@code Retry-After} de las subidas rechazadas.
+     */
+    private Duration retryAfter = Duration.ofSeconds(5);
+
+    /**
+     * Tiempo que se conserva el estado de una subida terminada para consultarlo.
+     */
+    private Duration jobRetention = Duration.ofHours(1);
+}
@@ -0,0 +1,113 @@
+package gabri.dev.minio.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuración de las cachés de descarga, mapeada desde las propiedades {@code minio.cache.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "minio.cache")
+public class CacheProperties {
+
+    /**
+     * Caché en memoria para objetos chicos.
+     */
+    private Memory memory = new Memory();
+
+    /**
+     * Caché en disco local para objetos medianos y grandes.
+     */
+    private Disk disk = new Disk();
+
+    /**
+     * Registro de los buckets conocidos.
+     */
+    private Buckets buckets = new Buckets();
+
+    /**
+     * Configuración de la caché en memoria.
+     */
+    @Data
+    public static class Memory {
+
+        /**
+         * Habilita la caché en memoria.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Tamaño máximo de un objeto para guardarse en memoria.
+         */
+        private DataSize maxObjectSize = DataSize.ofKilobytes(100);
+
+        /**
+         * Presupuesto total de bytes de la caché.
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(64);
+    }
+
+    /**
+     * Configuración de la caché en disco.
+     */
+    @Data
+    public static class Disk {
+
+        /**
+         * Habilita la caché en disco.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Directorio propio donde se guardan los objetos cacheados. Al iniciar la aplicación se borran
+         * los archivos de la caché; si el directorio tiene otros archivos, la aplicación no inicia.
+         */
+        private String directory = System.getProperty("java.io.tmpdir") + "/minio-cache";
+
+        /**
+         * Tamaño máximo de un objeto para guardarse en disco.
+         */
+        private DataSize maxObjectSize = DataSize.ofMegabytes(512);
+
+        /**
+         * Capacidad total en bytes del directorio de caché.
+         */
+        private DataSize maxSize = DataSize.ofGigabytes(10);
+
+        /**
+         * Pedidos de la misma versión de un objeto a partir de los cuales se guarda en disco.
+         * Hasta entonces el objeto se sirve directamente de MinIO.
+         */
+        private int minHits = 2;
+
+        /**
+         * Descargas a disco en paralelo.
+         */
+        private int fillConcurrency = 2;
+
+        /**
+         * Tiempo máximo que un GET del objeto completo espera la descarga a disco en curso del objeto
+         * antes de leerlo de MinIO. Los rangos y los HEAD nunca esperan. Cero no espera, y cada pedido
+         * lee el objeto de MinIO mientras se descarga.
+         */
+        private Duration fillWait = Duration.ofSeconds(30);
+    }
+
+    /**
+     * Configuración del registro de buckets.
+     */
+    @Data
+    public static class Buckets {
+
+        /**
+         * Tiempo durante el cual se confía en que un bucket conocido sigue existiendo,
+         * y en que el listado de buckets sigue vigente. Cero deshabilita el registro.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+}
@@ -0,0 +1,91 @@
+package gabri.dev.minio.configs;
+
+import lombok.Data;
+import okhttp3.Headers;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.InvalidMimeTypeException;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Configuración de la compresión transparente de los objetos, mapeada desde las propiedades {@code minio.compression.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "minio.compression")
+public class CompressionProperties {
+
+    /**
+     * Clave de los metadatos de usuario donde se guarda la codificación de un objeto comprimido.
+     */
+    public static final String ENCODING_METADATA = "content-encoding";
+
+    /**
+     * Header con el que MinIO devuelve la codificación guardada en los metadatos de usuario.
+     */
+    public static final String ENCODING_HEADER = "x-amz-meta-" + ENCODING_METADATA;
+
+    /**
+     * Codificación gzip, la única con la que se comprimen los objetos.
+     */
+    public static final String GZIP = "gzip";
+
+    /**
+     * Buckets cuyos objetos se guardan comprimidos.
+     */
+    private Set<String> buckets = new HashSet<>();
+
+    /**
+     * Tipos de contenido que se comprimen. Admite comodines como {@code text/*} o {@code application/*+json}.
+     */
+    private List<String> contentTypes = List.of("text/*", "application/json", "application/*+json",
+            "application/x-ndjson", "application/xml", "application/*+xml", "application/javascript",
+            "application/x-yaml");
+
+    /**
+     * Tamaño mínimo de un objeto de tamaño conocido para comprimirlo.
+     */
+    private DataSize minSize = DataSize.ofKilobytes(1);
+
+    /**
+     * Nivel de compresión de gzip, de 1 (más rápido) a 9 (más chico).
+     */
+    private int level = 6;
+
+    /**
+     * Indica si un objeto se guarda comprimido.
+     *
+     * @param bucket      nombre del bucket del objeto.
+     * @param contentType tipo de contenido del objeto, puede ser {@code null}.
+     * @param size        tamaño en bytes del objeto, o -1 si es desconocido.
+     * @return {@code true} si el bucket comprime y el tipo de contenido es comprimible.
+     */
+    public boolean compresses(String bucket, String contentType, long size) {
+        if (!buckets.contains(bucket) || contentType == null || (size >= 0 && size < minSize.toBytes())) {
+            return false;
+        }
+        MimeType type;
+        try {
+            type = MimeTypeUtils.parseMimeType(contentType);
+        } catch (InvalidMimeTypeException e) {
+            return false;
+        }
+        return contentTypes.stream().anyMatch(pattern -> MimeTypeUtils.parseMimeType(pattern).includes(type));
+    }
+
+    /**
+     * Obtiene la codificación con la que se guardó un objeto.
+     *
+     * @param headers los headers de la respuesta de MinIO al leer o consultar el objeto.
+     * @return la codificación, o {@code null} si el objeto no está comprimido.
+     */
+    public static String encodingOf(Headers headers) {
+        return headers.get(ENCODING_HEADER);
+    }
+}
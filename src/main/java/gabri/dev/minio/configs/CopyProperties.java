@@ -0,0 +1,36 @@
+package gabri.dev.minio.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configuración de las copias y movimientos de prefijos, mapeada desde las propiedades {@code minio.copy.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "minio.copy")
+public class CopyProperties {
+
+    /**
+     * Cantidad de archivos que se copian en paralelo, entre todos los trabajos.
+     */
+    private int concurrency = 16;
+
+    /**
+     * Cantidad de trabajos que se ejecutan a la vez. Al superarla los nuevos trabajos se rechazan con 429.
+     */
+    private int maxJobs = 4;
+
+    /**
+     * Tiempo que se conserva el estado de un trabajo terminado para consultarlo.
+     */
+    private Duration jobRetention = Duration.ofHours(1);
+
+    /**
+     * Cantidad máxima de errores que se informan por trabajo.
+     */
+    private int maxReportedErrors = 100;
+}
@@ -18,7 +18,7 @@ public class CorsConfig {
                         .allowCredentials(true)
                         .allowedMethods("GET", "POST", "PUT", "DELETE")
                         .allowedHeaders("*")
-                        .exposedHeaders("token");
+                        .exposedHeaders("token", "X-Next-Start-After", "Retry-After");
             }
         };
     }
@@ -0,0 +1,97 @@
+package gabri.dev.minio.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+/**
+ * Configuración de las subidas deduplicadas por contenido, mapeada desde las propiedades {@code minio.dedup.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "minio.dedup")
+public class DedupProperties {
+
+    /**
+     * Prefijo bajo el que se guarda el contenido de cada archivo, nombrado por su hash SHA-256.
+     */
+    private String prefix = ".cas/sha256/";
+
+    /**
+     * Prefijo bajo el que se guarda un objeto vacío por cada nombre lógico, con el hash de su contenido
+     * en los metadatos. Permite reconstruir la tabla de referencias al iniciar.
+     */
+    private String referencePrefix = ".cas/refs/";
+
+    /**
+     * Espera entre intentos de reconstruir las referencias si MinIO no está disponible al iniciar.
+     */
+    private Duration rebuildRetryInterval = Duration.ofSeconds(30);
+
+    /**
+     * Directorio donde se guardan temporalmente las subidas mientras se calcula su hash.
+     */
+    private String spoolDirectory = System.getProperty("java.io.tmpdir") + "/minio-dedup";
+
+    /**
+     * Tamaño máximo de una subida de tamaño conocido que se guarda en memoria en lugar de en disco.
+     */
+    private DataSize memoryThreshold = DataSize.ofMegabytes(1);
+
+    /**
+     * Indica si un archivo es contenido deduplicado o una referencia a él, que solo administra
+     * el almacén de contenido.
+     *
+     * @param objectName nombre del archivo.
+     * @return {@code true} si el archivo está bajo el prefijo del contenido o de las referencias.
+     */
+    public boolean isReserved(String objectName) {
+        return objectName.startsWith(prefix) || objectName.startsWith(referencePrefix);
+    }
+
+    /**
+     * Indica si los archivos de un prefijo incluyen contenido deduplicado, que solo debe eliminarse
+     * al liberar su última referencia.
+     *
+     * @param objectPrefix prefijo o nombre de archivo.
+     * @return {@code true} si el prefijo abarca el contenido deduplicado o sus referencias, o está dentro de ellos.
+     */
+    public boolean overlapsReserved(String objectPrefix) {
+        return prefix.startsWith(objectPrefix) || objectPrefix.startsWith(prefix)
+                || referencePrefix.startsWith(objectPrefix) || objectPrefix.startsWith(referencePrefix);
+    }
+
+    /**
+     * Rechaza la escritura o eliminación directa de contenido deduplicado.
+     *
+     * @param objectName nombre del archivo.
+     * @throws ResponseStatusException con 400 si el archivo es contenido deduplicado.
+     */
+    public void checkNotReserved(String objectName) {
+        if (isReserved(objectName)) {
+            throw reserved();
+        }
+    }
+
+    /**
+     * Rechaza las operaciones sobre un prefijo que abarca contenido deduplicado.
+     *
+     * @param objectPrefix prefijo de los archivos.
+     * @throws ResponseStatusException con 400 si el prefijo abarca contenido deduplicado.
+     */
+    public void checkNotReservedPrefix(String objectPrefix) {
+        if (overlapsReserved(objectPrefix)) {
+            throw reserved();
+        }
+    }
+
+    private ResponseStatusException reserved() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Los archivos bajo " + prefix + " y "
+                + referencePrefix + " son contenido deduplicado y se eliminan al borrar su última referencia en /minio/dedup/delete");
+    }
+}
@@ -0,0 +1,127 @@
+package gabri.dev.minio.configs;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Grupos de hilos usados para las operaciones de E/S bloqueante contra MinIO. Cada grupo tiene
+ * un tamaño fijo, por lo que se ejecutan a la vez como mucho tantas tareas como hilos configurados.
+ * Con {@code spring.threads.virtual.enabled=true} las peticiones HTTP y las respuestas asíncronas
+ * corren en hilos virtuales, y las llamadas a MinIO las acota {@code minio.client.max-concurrent-requests};
+ * los grupos de este archivo siguen siendo fijos, porque su tamaño es el límite de cada operación.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Ejecutor de la aplicación que usa Spring MVC para las respuestas asíncronas, como
+     * {@code StreamingResponseBody}. Spring Boot solo lo crea si no hay otros ejecutores
+     * declarados, por lo que se declara acá con la misma configuración que tendría: con hilos
+     * virtuales habilitados, un hilo virtual por tarea acotado por
+     * {@code spring.task.execution.simple.concurrency-limit}; si no, un grupo de hilos de plataforma.
+     *
+     * @param threadPoolBuilder el constructor de grupos de hilos configurado por {@code spring.task.execution.*}.
+     * @param simpleBuilder     el constructor del ejecutor de hilos virtuales configurado por Spring Boot.
+     * @param environment       el entorno, para saber si están habilitados los hilos virtuales.
+     * @return el ejecutor de la aplicación.
+     */
+    @Bean(name = {"applicationTaskExecutor", "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder threadPoolBuilder,
+                                                     SimpleAsyncTaskExecutorBuilder simpleBuilder,
+                                                     Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return simpleBuilder.build();
+        }
+        return threadPoolBuilder.build();
+    }
+
+    /**
+     * Hilos que suben los archivos de las subidas masivas.
+     *
+     * @param properties la configuración de las subidas.
+     * @return el ejecutor de las subidas masivas.
+     */
+    @Bean("bulkUploadExecutor")
+    public AsyncTaskExecutor bulkUploadExecutor(UploadProperties properties) {
+        return executor("bulk-upload-", properties.getBulk().getConcurrency());
+    }
+
+    /**
+     * Hilos que leen por adelantado los archivos de las descargas en zip.
+     *
+     * @param properties la configuración de las descargas en zip.
+     * @return el ejecutor de las lecturas anticipadas.
+     */
+    @Bean("archivePrefetchExecutor")
+    public AsyncTaskExecutor archivePrefetchExecutor(ArchiveProperties properties) {
+        return executor("archive-prefetch-", properties.getThreads());
+    }
+
+    /**
+     * Hilos que copian los archivos de las copias y movimientos de prefijos.
+     *
+     * @param properties la configuración de las copias.
+     * @return el ejecutor de las copias.
+     */
+    @Bean("copyExecutor")
+    public AsyncTaskExecutor copyExecutor(CopyProperties properties) {
+        return executor("copy-", properties.getConcurrency());
+    }
+
+    /**
+     * Hilos que recorren el listado de origen de cada copia o movimiento de prefijo, uno por trabajo
+     * mientras dura. Se separan de los de la aplicación para no ocupar los de las respuestas asíncronas.
+     *
+     * @param properties la configuración de las copias.
+     * @return el ejecutor de los trabajos de copia.
+     */
+    @Bean("copyJobExecutor")
+    public AsyncTaskExecutor copyJobExecutor(CopyProperties properties) {
+        //el servicio rechaza los trabajos que superan maxJobs, por lo que no quedan trabajos en cola
+        return executor("copy-job-", properties.getMaxJobs());
+    }
+
+    /**
+     * Hilos que suben a MinIO los archivos de las subidas asíncronas.
+     *
+     * @param properties la configuración de las subidas asíncronas.
+     * @return el ejecutor de las subidas asíncronas.
+     */
+    @Bean("asyncUploadExecutor")
+    public AsyncTaskExecutor asyncUploadExecutor(AsyncUploadProperties properties) {
+        return executor("async-upload-", properties.getWorkers());
+    }
+
+    /**
+     * Hilos que descargan a la caché en disco los objetos pedidos repetidamente.
+     *
+     * @param properties la configuración de las cachés.
+     * @return el ejecutor de las descargas a disco.
+     */
+    @Bean("diskCacheExecutor")
+    public AsyncTaskExecutor diskCacheExecutor(CacheProperties properties) {
+        return executor("disk-cache-", properties.getDisk().getFillConcurrency());
+    }
+
+    /**
+     * Crea un ejecutor de {@code threads} hilos de plataforma. Las tareas que llegan con todos los
+     * hilos ocupados esperan en cola, sin bloquear a quien las encola.
+     *
+     * @param threadNamePrefix prefijo del nombre de los hilos.
+     * @param threads          cantidad de tareas que se ejecutan a la vez.
+     * @return el ejecutor.
+     */
+    private AsyncTaskExecutor executor(String threadNamePrefix, int threads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(Math.max(1, threads));
+        executor.setMaxPoolSize(Math.max(1, threads));
+        return executor;
+    }
+}
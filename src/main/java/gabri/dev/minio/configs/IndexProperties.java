@@ -0,0 +1,59 @@
+package gabri.dev.minio.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Configuración del índice de metadatos de objetos, mapeada desde las propiedades {@code minio.index.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "minio.index")
+public class IndexProperties {
+
+    /**
+     * Habilita el índice. Deshabilitado, los listados y búsquedas se resuelven contra MinIO.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Buckets que se indexan. El resto no se reconcilia ni se registra en el índice, y sus listados
+     * y búsquedas se resuelven contra MinIO.
+     */
+    private Set<String> buckets = new HashSet<>();
+
+    /**
+     * Espera entre el fin de una reconciliación y el inicio de la siguiente.
+     */
+    private Duration reconcileInterval = Duration.ofMinutes(10);
+
+    /**
+     * Espera antes de la primera reconciliación luego de iniciar la aplicación.
+     */
+    private Duration reconcileInitialDelay = Duration.ofSeconds(10);
+
+    /**
+     * Cantidad de resultados de una búsqueda que no indica {@code maxKeys}.
+     */
+    private int defaultPageSize = 1000;
+
+    /**
+     * Cantidad máxima de resultados de una búsqueda, aunque {@code maxKeys} pida más.
+     */
+    private int maxPageSize = 10000;
+
+    /**
+     * Indica si un bucket se indexa.
+     *
+     * @param bucket nombre del bucket.
+     * @return {@code true} si el índice está habilitado y el bucket está entre los indexados.
+     */
+    public boolean indexes(String bucket) {
+        return enabled && buckets.contains(bucket);
+    }
+}
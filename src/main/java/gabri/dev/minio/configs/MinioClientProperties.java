@@ -0,0 +1,104 @@
+package gabri.dev.minio.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuración del cliente HTTP usado para hablar con MinIO, mapeada desde las propiedades {@code minio.client.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "minio.client")
+public class MinioClientProperties {
+
+    /**
+     * Cantidad máxima de peticiones a MinIO en curso, contando las descargas hasta que se cierra
+     * su flujo. Cero no limita.
+     */
+    private int maxConcurrentRequests = 0;
+
+    /**
+     * Tiempo máximo de espera por un lugar cuando se alcanzó el límite de peticiones en curso.
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Tiempo máximo para establecer una conexión con MinIO.
+     */
+    private Duration connectTimeout = Duration.ofMinutes(5);
+
+    /**
+     * Tiempo máximo sin recibir datos de una conexión.
+     */
+    private Duration readTimeout = Duration.ofMinutes(5);
+
+    /**
+     * Tiempo máximo sin poder enviar datos por una conexión.
+     */
+    private Duration writeTimeout = Duration.ofMinutes(5);
+
+    /**
+     * Si se ofrece HTTP/2 al servidor. Solo se usa con endpoints https que lo negocien por ALPN;
+     * en otro caso la conexión sigue en HTTP/1.1.
+     */
+    private boolean http2 = false;
+
+    /**
+     * Tamaño del buffer de envío de los sockets, o {@code null} para usar el del sistema operativo.
+     */
+    private DataSize sendBufferSize;
+
+    /**
+     * Tamaño del buffer de recepción de los sockets, o {@code null} para usar el del sistema operativo.
+     */
+    private DataSize receiveBufferSize;
+
+    /**
+     * Configuración del pool de conexiones.
+     */
+    private Pool pool = new Pool();
+
+    /**
+     * Configuración del despachador de las peticiones asíncronas.
+     */
+    private Dispatcher dispatcher = new Dispatcher();
+
+    /**
+     * Configuración del pool de conexiones reutilizables con MinIO.
+     */
+    @Data
+    public static class Pool {
+
+        /**
+         * Cantidad máxima de conexiones ociosas que se mantienen abiertas.
+         */
+        private int maxIdleConnections = 32;
+
+        /**
+         * Tiempo que una conexión ociosa se mantiene abierta antes de cerrarla.
+         */
+        private Duration keepAlive = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Límites del despachador de OkHttp. Solo aplican a las peticiones del cliente asíncrono;
+     * las que superan el límite esperan en la cola del despachador.
+     */
+    @Data
+    public static class Dispatcher {
+
+        /**
+         * Cantidad máxima de peticiones asíncronas en curso.
+         */
+        private int maxRequests = 128;
+
+        /**
+         * Cantidad máxima de peticiones asíncronas en curso contra un mismo host.
+         */
+        private int maxRequestsPerHost = 64;
+    }
+}
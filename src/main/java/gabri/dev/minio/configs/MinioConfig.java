@@ -1,10 +1,32 @@
 package gabri.dev.minio.configs;
 
+import gabri.dev.minio.clients.BufferSizeSocketFactory;
+import gabri.dev.minio.clients.ConcurrencyLimitInterceptor;
+import gabri.dev.minio.clients.MinioEndpoint;
+import gabri.dev.minio.clients.MinioEndpointRouter;
+import gabri.dev.minio.clients.MultipartMinioClient;
+import gabri.dev.minio.clients.OkHttpClientMetrics;
+import gabri.dev.minio.clients.RoutingInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpMetricsEventListener;
+import io.minio.MinioAsyncClient;
 import io.minio.MinioClient;
+import io.minio.http.HttpUtils;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
 @Configuration
 public class MinioConfig {
 
@@ -14,12 +36,128 @@ public class MinioConfig {
     private String accessKey;
     @Value("${minio.secretKey}")
     private String secretKey;
+    /**
+     * Región de los buckets. Si se configura, el SDK no consulta la ubicación de cada bucket
+     * antes de la primera operación.
+     */
+    @Value("${minio.region:}")
+    private String region;
+
+    /**
+     * Reparto de los buckets entre los servidores de {@code minio.routing.endpoints}.
+     * Sin servidores configurados queda deshabilitado y se usa solo {@code minio.url}.
+     * @param properties la configuración del reparto.
+     * @return el router con el anillo de servidores.
+     */
+    @Bean
+    public MinioEndpointRouter minioEndpointRouter(RoutingProperties properties) {
+        List<MinioEndpoint> endpoints = properties.getEndpoints().stream()
+                .map(e -> new MinioEndpoint(HttpUrl.get(e.getUrl()),
+                        e.getAccessKey() != null ? e.getAccessKey() : accessKey,
+                        e.getSecretKey() != null ? e.getSecretKey() : secretKey,
+                        e.getWeight()))
+                .toList();
+        return new MinioEndpointRouter(endpoints, properties.getVirtualNodes(), properties.getHealthCheckPath(),
+                properties.getHealthCheckInterval(), properties.getHealthCheckTimeout(), properties.isReplicated());
+    }
 
+    /**
+     * Cliente HTTP compartido por los clientes síncrono y asíncrono de MinIO,
+     * para que compartan las conexiones y el límite de peticiones en curso.
+     * Parte de la configuración del SDK (certificados del sistema y HTTP/1.1) y le aplica
+     * los timeouts, el pool, el despachador y los buffers de {@code minio.client.*}.
+     * Si hay varios servidores, cada petición se dirige al dueño de su bucket antes de pasar
+     * por el límite de peticiones en curso. Cada petición se mide en {@code minio.http.client.requests},
+     * que separa el tiempo de red y de MinIO del tiempo propio de la aplicación.
+     * @param properties la configuración del cliente HTTP.
+     * @param router     el reparto de buckets entre servidores.
+     * @param registry   el registro de Micrometer.
+     * @return el cliente HTTP.
+     */
     @Bean
-    public MinioClient getMinioClient() {
+    public OkHttpClient minioHttpClient(MinioClientProperties properties, MinioEndpointRouter router,
+                                        MeterRegistry registry) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(properties.getDispatcher().getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(properties.getDispatcher().getMaxRequestsPerHost());
+        MinioClientProperties.Pool pool = properties.getPool();
+
+        OkHttpClient.Builder builder = HttpUtils.newDefaultHttpClient(
+                        properties.getConnectTimeout().toMillis(),
+                        properties.getWriteTimeout().toMillis(),
+                        properties.getReadTimeout().toMillis())
+                .newBuilder()
+                .connectionPool(new ConnectionPool(pool.getMaxIdleConnections(),
+                        pool.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .eventListener(OkHttpMetricsEventListener.builder(registry, "minio.http.client.requests")
+                        .uriMapper(MinioConfig::uriPattern)
+                        .build());
+        if (properties.isHttp2()) {
+            builder.protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1));
+        }
+        if (properties.getSendBufferSize() != null || properties.getReceiveBufferSize() != null) {
+            builder.socketFactory(new BufferSizeSocketFactory(
+                    toBytes(properties.getSendBufferSize()), toBytes(properties.getReceiveBufferSize())));
+        }
+        if (router.isEnabled()) {
+            builder.addInterceptor(new RoutingInterceptor(router));
+        }
+        if (properties.getMaxConcurrentRequests() > 0) {
+            builder.addInterceptor(new ConcurrencyLimitInterceptor(
+                    properties.getMaxConcurrentRequests(), properties.getAcquireTimeout()));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Métricas del pool de conexiones y del despachador del cliente HTTP de MinIO.
+     * @param minioHttpClient el cliente HTTP compartido.
+     * @return las métricas, que Spring Boot registra en el registro de Micrometer.
+     */
+    @Bean
+    public OkHttpClientMetrics minioHttpClientMetrics(OkHttpClient minioHttpClient) {
+        return new OkHttpClientMetrics(minioHttpClient);
+    }
+
+    @Bean
+    public MinioClient getMinioClient(OkHttpClient minioHttpClient) {
         return MinioClient.builder()
                 .endpoint(url)
                 .credentials(accessKey, secretKey)
+                .region(region.isEmpty() ? null : region)
+                .httpClient(minioHttpClient)
                 .build();
     }
+
+    /**
+     * Cliente asíncrono usado para las subidas multipart en paralelo.
+     * @param minioHttpClient el cliente HTTP compartido.
+     * @return el cliente con las primitivas multipart expuestas.
+     */
+    @Bean
+    public MultipartMinioClient getMultipartMinioClient(OkHttpClient minioHttpClient) {
+        return new MultipartMinioClient(MinioAsyncClient.builder()
+                .endpoint(url)
+                .credentials(accessKey, secretKey)
+                .region(region.isEmpty() ? null : region)
+                .httpClient(minioHttpClient)
+                .build());
+    }
+
+    private Integer toBytes(DataSize size) {
+        return size != null ? Math.toIntExact(size.toBytes()) : null;
+    }
+
+    /**
+     * Patrón de la ruta de una petición a MinIO, sin nombres de buckets ni de objetos
+     * para no multiplicar las series de las métricas.
+     */
+    private static String uriPattern(Request request) {
+        List<String> segments = request.url().pathSegments();
+        if (segments.isEmpty() || segments.get(0).isEmpty()) {
+            return "/";
+        }
+        return segments.size() == 1 || segments.get(1).isEmpty() ? "/{bucket}" : "/{bucket}/{object}";
+    }
 }
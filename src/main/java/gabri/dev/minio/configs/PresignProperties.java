@@ -0,0 +1,57 @@
+package gabri.dev.minio.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuración de las URLs prefirmadas, mapeada desde las propiedades {@code minio.presign.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "minio.presign")
+public class PresignProperties {
+
+    /**
+     * Vigencia máxima que admite S3 para una firma.
+     */
+    public static final Duration MAX_EXPIRY = Duration.ofDays(7);
+
+    /**
+     * Vigencia de las URLs cuando el cliente no indica una.
+     */
+    private Duration defaultExpiry = Duration.ofMinutes(15);
+
+    /**
+     * Vigencia máxima que puede pedir un cliente, acotada a {@link #MAX_EXPIRY}.
+     */
+    private Duration maxExpiry = Duration.ofHours(12);
+
+    /**
+     * Margen antes del vencimiento en el que una URL cacheada deja de entregarse
+     * y se firma una nueva.
+     */
+    private Duration renewBefore = Duration.ofMinutes(1);
+
+    /**
+     * Cantidad máxima de URLs cacheadas.
+     */
+    private long cacheMaxEntries = 10000;
+
+    /**
+     * Tamaño máximo de archivo que permite subir una política POST.
+     */
+    private DataSize maxPostSize = DataSize.ofGigabytes(5);
+
+    /**
+     * Obtiene la vigencia máxima que puede pedir un cliente.
+     *
+     * @return la vigencia máxima configurada, sin superar la que admite S3.
+     */
+    public Duration effectiveMaxExpiry() {
+        return maxExpiry.compareTo(MAX_EXPIRY) > 0 ? MAX_EXPIRY : maxExpiry;
+    }
+}
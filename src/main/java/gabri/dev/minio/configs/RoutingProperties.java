@@ -0,0 +1,83 @@
+package gabri.dev.minio.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Configuración del reparto de buckets entre varios servidores o clusters de MinIO,
+ * mapeada desde las propiedades {@code minio.routing.*}. Sin endpoints se usa solo {@code minio.url}.
+ * <p>
+ * Cada bucket vive solo en su servidor dueño. Si el dueño no responde, las peticiones del bucket
+ * fallan con 503 en lugar de ir a otro servidor, donde el bucket no existe o quedaría con datos
+ * distintos. Solo con {@link #replicated} las lecturas se atienden en otro servidor.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "minio.routing")
+public class RoutingProperties {
+
+    /**
+     * Servidores de MinIO entre los que se reparten los buckets.
+     */
+    private List<Endpoint> endpoints = new ArrayList<>();
+
+    /**
+     * Cantidad de puntos en el anillo por cada unidad de peso de un servidor. Más puntos reparten
+     * los buckets de forma más pareja.
+     */
+    private int virtualNodes = 160;
+
+    /**
+     * Ruta consultada para saber si un servidor está disponible.
+     */
+    private String healthCheckPath = "/minio/health/live";
+
+    /**
+     * Espera entre el fin de una verificación de los servidores y el inicio de la siguiente.
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(10);
+
+    /**
+     * Tiempo máximo de espera de cada verificación de disponibilidad.
+     */
+    private Duration healthCheckTimeout = Duration.ofSeconds(2);
+
+    /**
+     * Indica que los servidores replican sus buckets entre sí, por ejemplo con la replicación
+     * activa-activa de MinIO. En ese caso las lecturas (GET y HEAD) de un bucket cuyo dueño no
+     * responde se reintentan en el siguiente servidor del anillo; las escrituras nunca.
+     */
+    private boolean replicated = false;
+
+    /**
+     * Servidor de MinIO. Las credenciales nulas toman las de {@code minio.accessKey} y {@code minio.secretKey}.
+     */
+    @Data
+    public static class Endpoint {
+
+        /**
+         * URL del servidor, por ejemplo {@code http://minio-a:9000}.
+         */
+        private String url;
+
+        /**
+         * Clave de acceso del servidor.
+         */
+        private String accessKey;
+
+        /**
+         * Clave secreta del servidor.
+         */
+        private String secretKey;
+
+        /**
+         * Peso relativo del servidor: uno con peso 2 recibe el doble de buckets que uno con peso 1.
+         */
+        private int weight = 1;
+    }
+}
@@ -0,0 +1,32 @@
+package gabri.dev.minio.configs;
+
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Ajustes del conector de Tomcat que no tienen una propiedad de Spring Boot.
+ */
+@Configuration
+public class TomcatConfig {
+
+    /**
+     * Cantidad de parámetros de la query que se admiten además de los archivos de una subida masiva.
+     */
+    private static final int EXTRA_PARAMETERS = 100;
+
+    /**
+     * Eleva la cantidad de parámetros que acepta Tomcat, que también limita la cantidad de partes
+     * de una petición multipart, para admitir {@code minio.upload.bulk.max-files} archivos en
+     * una subida masiva. Nunca la baja del valor por defecto de Tomcat.
+     *
+     * @param properties la configuración de las subidas.
+     * @return el personalizador del servidor.
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> maxPartsCustomizer(UploadProperties properties) {
+        return factory -> factory.addConnectorCustomizers(connector -> connector.setMaxParameterCount(
+                Math.max(connector.getMaxParameterCount(), properties.getBulk().getMaxFiles() + EXTRA_PARAMETERS)));
+    }
+}
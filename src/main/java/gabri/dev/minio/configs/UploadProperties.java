@@ -0,0 +1,144 @@
+package gabri.dev.minio.configs;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuración de las subidas multipart, mapeada desde las propiedades {@code minio.upload.*}.
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "minio.upload")
+public class UploadProperties {
+
+    /**
+     * Tamaño mínimo de parte que acepta S3/MinIO.
+     */
+    public static final long MIN_PART_SIZE = DataSize.ofMegabytes(5).toBytes();
+
+    /**
+     * Tamaño máximo de parte que acepta S3/MinIO.
+     */
+    public static final long MAX_PART_SIZE = DataSize.ofGigabytes(5).toBytes();
+
+    /**
+     * Cantidad máxima de partes de una subida multipart.
+     */
+    public static final int MAX_PARTS = 10000;
+
+    /**
+     * Tamaño de parte por defecto.
+     */
+    private DataSize partSize = DataSize.ofMegabytes(16);
+
+    /**
+     * Cantidad de partes que se suben en paralelo por defecto.
+     */
+    private int concurrency = 4;
+
+    /**
+     * Memoria máxima para los buffers de parte de todas las subidas multipart en curso. Las subidas
+     * esperan a que se libere memoria antes de leer otra parte.
+     */
+    private DataSize maxBufferMemory = DataSize.ofMegabytes(512);
+
+    /**
+     * Tamaño máximo de cada parte recibida en una sesión de subida.
+     */
+    private DataSize sessionMaxPartSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Tiempo sin recibir partes tras el cual una sesión activa se cancela, descartando en MinIO
+     * las partes recibidas. Las subidas multipart de MinIO iniciadas hace más de este tiempo que no
+     * pertenecen a una sesión activa, como las que quedan al perder las sesiones en un reinicio,
+     * también se descartan.
+     */
+    private Duration sessionTtl = Duration.ofHours(24);
+
+    /**
+     * Intervalo entre las búsquedas de sesiones vencidas.
+     */
+    private Duration sessionCleanupInterval = Duration.ofHours(1);
+
+    /**
+     * Configuración particular de cada bucket, indexada por nombre de bucket.
+     */
+    private Map<String, BucketUpload> buckets = new HashMap<>();
+
+    /**
+     * Configuración de las subidas masivas.
+     */
+    private Bulk bulk = new Bulk();
+
+    /**
+     * Configuración de las subidas masivas de varios archivos o de un archivo comprimido.
+     */
+    @Data
+    public static class Bulk {
+
+        /**
+         * Cantidad de archivos que se suben en paralelo.
+         */
+        private int concurrency = 8;
+
+        /**
+         * Tamaño máximo de una entrada del archivo comprimido que se lee a memoria para subirla
+         * en paralelo. Las entradas mayores se suben de a una mientras se leen, sin otras en curso.
+         */
+        private DataSize maxBufferedEntrySize = DataSize.ofMegabytes(8);
+
+        /**
+         * Cantidad máxima de archivos en una petición a {@code /upload/bulk}. Tomcat cuenta cada
+         * archivo como un parámetro, por lo que define su {@code maxParameterCount} con este valor.
+         * El tamaño total de la petición lo acota {@code spring.servlet.multipart.max-request-size}.
+         */
+        private int maxFiles = 50000;
+    }
+
+    /**
+     * Configuración de subida de un bucket. Los valores nulos toman el valor por defecto.
+     */
+    @Data
+    public static class BucketUpload {
+
+        /**
+         * Tamaño de parte del bucket.
+         */
+        private DataSize partSize;
+
+        /**
+         * Cantidad de partes en paralelo del bucket.
+         */
+        private Integer concurrency;
+    }
+
+    /**
+     * Obtiene el tamaño de parte configurado para un bucket.
+     *
+     * @param bucket nombre del bucket.
+     * @return el tamaño de parte en bytes.
+     */
+    public long partSizeFor(String bucket) {
+        BucketUpload config = buckets.get(bucket);
+        DataSize size = config != null && config.getPartSize() != null ? config.getPartSize() : partSize;
+        return Math.min(MAX_PART_SIZE, Math.max(MIN_PART_SIZE, size.toBytes()));
+    }
+
+    /**
+     * Obtiene la cantidad de partes en paralelo configurada para un bucket.
+     *
+     * @param bucket nombre del bucket.
+     * @return la cantidad de partes que se suben a la vez.
+     */
+    public int concurrencyFor(String bucket) {
+        BucketUpload config = buckets.get(bucket);
+        int value = config != null && config.getConcurrency() != null ? config.getConcurrency() : concurrency;
+        return Math.max(1, value);
+    }
+}
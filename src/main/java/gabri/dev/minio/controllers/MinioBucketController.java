@@ -1,17 +1,25 @@
 package gabri.dev.minio.controllers;
 
+import gabri.dev.minio.dtos.common.BulkDeleteResultDto;
+import gabri.dev.minio.dtos.common.DeleteErrorDto;
+import gabri.dev.minio.services.ContentStoreService;
 import gabri.dev.minio.services.MinioBucketService;
+import gabri.dev.minio.services.MinioFilesService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
 
 /**
  * Controlador para manejar las operaciones relacionadas con los buckets de MinIO.
@@ -29,11 +37,22 @@ public class MinioBucketController {
     @Autowired
     MinioBucketService service;
 
+    /**
+     * Servicio encargado de las operaciones sobre los archivos, usado para vaciar un bucket.
+     */
+    @Autowired
+    MinioFilesService fileService;
+
+    /**
+     * Servicio de las subidas deduplicadas, cuyas referencias se descartan al vaciar un bucket.
+     */
+    @Autowired
+    ContentStoreService contentStoreService;
+
     /**
      * Endpoint para obtener la lista de los buckets disponibles en MinIO.
      *
      * @return Una respuesta con el código HTTP 200 (OK) que contiene una lista de nombres de los buckets.
-     * @throws Exception Si ocurre un error al listar los buckets.
      */
     @Operation(
             summary = "Listar buckets",
@@ -50,8 +69,8 @@ public class MinioBucketController {
             )
     })
     @GetMapping("/list")
-    public ResponseEntity<List<String>> listBuckets() throws Exception {
-        return ResponseEntity.ok(service.listBuckets());
+    public CompletableFuture<ResponseEntity<List<String>>> listBuckets() {
+        return service.listBucketsAsync().thenApply(ResponseEntity::ok);
     }
 
     /**
@@ -84,8 +103,55 @@ public class MinioBucketController {
             )
     })
     @GetMapping("/delete")
-    public ResponseEntity deleteBucket(@RequestParam String bucket) throws Exception {
-        service.deleteBucket(bucket);
-        return ResponseEntity.ok().build();
+    public CompletableFuture<ResponseEntity<Void>> deleteBucket(@RequestParam String bucket) throws Exception {
+        return service.deleteBucketAsync(bucket).thenApply(v -> ResponseEntity.ok().build());
+    }
+
+    /**
+     * Endpoint para vaciar y eliminar un bucket de MinIO. Es irreversible, por lo que solo se
+     * expone por POST, que los navegadores, rastreadores y reintentos no envían por su cuenta.
+     *
+     * @param bucket El nombre del bucket que se desea vaciar y eliminar.
+     * @return Una respuesta con el código HTTP 200 (OK) y la cantidad de archivos eliminados si el bucket
+     * fue eliminado correctamente; si algún archivo no se pudo eliminar se responde 409 (CONFLICT)
+     * con los errores y el bucket se conserva.
+     * @throws Exception Si ocurre un error al vaciar o eliminar el bucket.
+     */
+    @Operation(
+            summary = "Vaciar y eliminar bucket",
+            description = "Elimina todos los archivos de un bucket y luego el bucket."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Bucket vaciado y eliminado correctamente."
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "El bucket no fue encontrado."
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "No se pudieron eliminar algunos archivos del bucket."
+            ),
+            @ApiResponse(
+                    responseCode = "500",
+                    description = "Error interno al intentar eliminar el bucket."
+            )
+    })
+    @PostMapping("/delete/purge")
+    public CompletableFuture<ResponseEntity<BulkDeleteResultDto>> purgeBucket(@RequestParam String bucket)
+            throws Exception {
+        //el vaciado recorre el listado de MinIO, que el SDK solo ofrece de forma bloqueante
+        BulkDeleteResultDto result = fileService.deleteAll(bucket);
+        //las referencias se descartan una vez eliminado su contenido; si el vaciado falla a mitad de
+        //camino se conservan, para poder liberar más adelante el contenido que quede
+        contentStoreService.forgetBucket(bucket, result.getErrors().stream()
+                .map(DeleteErrorDto::getObjectName)
+                .collect(Collectors.toSet()));
+        if (!result.getErrors().isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.CONFLICT).body(result));
+        }
+        return service.deleteBucketAsync(bucket).thenApply(v -> ResponseEntity.ok(result));
     }
 }
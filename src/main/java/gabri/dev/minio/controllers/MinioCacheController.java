@@ -0,0 +1,75 @@
+package gabri.dev.minio.controllers;
+
+import gabri.dev.minio.dtos.cache.CacheStatsDto;
+import gabri.dev.minio.services.DiskCacheService;
+import gabri.dev.minio.services.ObjectCacheService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controlador para consultar el estado de las cachés de descarga.
+ *
+ * @author Gabriel Scipioni
+ */
+@RestController
+@RequestMapping("/minio/cache")
+public class MinioCacheController {
+
+    /**
+     * Caché en memoria de los objetos chicos.
+     */
+    @Autowired
+    ObjectCacheService objectCacheService;
+
+    /**
+     * Caché en disco de los objetos medianos y grandes.
+     */
+    @Autowired
+    DiskCacheService diskCacheService;
+
+    /**
+     * Endpoint para obtener las estadísticas de la caché en memoria.
+     *
+     * @return las estadísticas de aciertos, fallos y desalojos.
+     */
+    @Operation(
+            summary = "Estadísticas de la caché en memoria",
+            description = "Devuelve aciertos, fallos, desalojos y ocupación de la caché de objetos chicos."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Estadísticas obtenidas correctamente."
+            )
+    })
+    @GetMapping("/memory/stats")
+    public ResponseEntity<CacheStatsDto> memoryStats() {
+        return ResponseEntity.ok(objectCacheService.stats());
+    }
+
+    /**
+     * Endpoint para obtener las estadísticas de la caché en disco.
+     *
+     * @return las estadísticas de aciertos, fallos y desalojos.
+     */
+    @Operation(
+            summary = "Estadísticas de la caché en disco",
+            description = "Devuelve aciertos, fallos, desalojos y ocupación de la caché de objetos medianos y grandes."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Estadísticas obtenidas correctamente."
+            )
+    })
+    @GetMapping("/disk/stats")
+    public ResponseEntity<CacheStatsDto> diskStats() {
+        return ResponseEntity.ok(diskCacheService.stats());
+    }
+}
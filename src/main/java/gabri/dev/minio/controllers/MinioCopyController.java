@@ -0,0 +1,201 @@
+package gabri.dev.minio.controllers;
+
+import gabri.dev.minio.dtos.copy.CopyJobDto;
+import gabri.dev.minio.dtos.index.ObjectMetadataDto;
+import gabri.dev.minio.services.MinioBucketService;
+import gabri.dev.minio.services.MinioFilesService;
+import gabri.dev.minio.services.PrefixCopyService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controlador para copiar, mover y renombrar archivos del lado del servidor, sin descargarlos
+ * ni volver a subirlos a través de la aplicación.
+ *
+ * @author Gabriel Scipioni
+ */
+@RestController
+@RequestMapping("/minio/copy")
+public class MinioCopyController {
+
+    /**
+     * Servicio encargado de las operaciones sobre los buckets de MinIO.
+     */
+    @Autowired
+    MinioBucketService bucketService;
+
+    /**
+     * Servicio encargado de las operaciones sobre los archivos de MinIO.
+     */
+    @Autowired
+    MinioFilesService fileService;
+
+    /**
+     * Servicio encargado de las copias de prefijos.
+     */
+    @Autowired
+    PrefixCopyService prefixCopyService;
+
+    /**
+     * Endpoint para copiar un archivo.
+     *
+     * @param sourceBucket el bucket del archivo a copiar.
+     * @param sourceObject el nombre del archivo a copiar.
+     * @param targetBucket el bucket destino, se crea si no existe.
+     * @param targetObject el nombre del archivo destino.
+     * @return los metadatos del archivo copiado.
+     * @throws Exception si ocurre un error al copiar el archivo.
+     */
+    @Operation(
+            summary = "Copiar archivo",
+            description = "Copia un archivo del lado del servidor. Los archivos de más de 5GB se copian por partes."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Archivo copiado correctamente."),
+            @ApiResponse(responseCode = "400", description = "El origen y el destino son el mismo archivo.")
+    })
+    @PostMapping("/object")
+    public ResponseEntity<ObjectMetadataDto> copyObject(
+            @RequestParam String sourceBucket,
+            @RequestParam String sourceObject,
+            @RequestParam String targetBucket,
+            @RequestParam String targetObject
+    ) throws Exception {
+        bucketService.createBucket(targetBucket);
+        return ResponseEntity.ok(fileService.copyObject(sourceBucket, sourceObject, targetBucket, targetObject));
+    }
+
+    /**
+     * Endpoint para mover o renombrar un archivo.
+     *
+     * @param sourceBucket el bucket del archivo a mover.
+     * @param sourceObject el nombre del archivo a mover.
+     * @param targetBucket el bucket destino, se crea si no existe.
+     * @param targetObject el nombre del archivo destino.
+     * @return los metadatos del archivo en su nueva ubicación.
+     * @throws Exception si ocurre un error al mover el archivo.
+     */
+    @Operation(
+            summary = "Mover archivo",
+            description = "Copia un archivo del lado del servidor y elimina el original."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Archivo movido correctamente."),
+            @ApiResponse(responseCode = "400", description = "El origen y el destino son el mismo archivo.")
+    })
+    @PostMapping("/object/move")
+    public ResponseEntity<ObjectMetadataDto> moveObject(
+            @RequestParam String sourceBucket,
+            @RequestParam String sourceObject,
+            @RequestParam String targetBucket,
+            @RequestParam String targetObject
+    ) throws Exception {
+        bucketService.createBucket(targetBucket);
+        return ResponseEntity.ok(fileService.moveObject(sourceBucket, sourceObject, targetBucket, targetObject));
+    }
+
+    /**
+     * Endpoint para copiar o mover todos los archivos de un prefijo en segundo plano.
+     *
+     * @param sourceBucket el bucket de origen.
+     * @param sourcePrefix el prefijo de los archivos de origen, vacío para todo el bucket.
+     * @param targetBucket el bucket destino, se crea si no existe.
+     * @param targetPrefix el prefijo que reemplaza al de origen.
+     * @param move         si es {@code true} se elimina cada archivo de origen una vez copiado.
+     * @return el trabajo iniciado con el código HTTP 202 (ACCEPTED).
+     * @throws Exception si ocurre un error al crear el bucket destino.
+     */
+    @Operation(
+            summary = "Copiar o mover prefijo",
+            description = "Inicia un trabajo que copia del lado del servidor, en paralelo, todos los archivos de un "
+                    + "prefijo. El progreso se consulta en /minio/copy/jobs/{id}."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Trabajo iniciado."),
+            @ApiResponse(responseCode = "400", description = "Los prefijos se superponen en el mismo bucket."),
+            @ApiResponse(responseCode = "429", description = "Se alcanzó la cantidad máxima de trabajos en curso.")
+    })
+    @PostMapping("/prefix")
+    public ResponseEntity<CopyJobDto> copyPrefix(
+            @RequestParam String sourceBucket,
+            @RequestParam(defaultValue = "") String sourcePrefix,
+            @RequestParam String targetBucket,
+            @RequestParam(defaultValue = "") String targetPrefix,
+            @RequestParam(defaultValue = "false") boolean move
+    ) throws Exception {
+        bucketService.createBucket(targetBucket);
+        return ResponseEntity.accepted()
+                .body(prefixCopyService.start(sourceBucket, sourcePrefix, targetBucket, targetPrefix, move));
+    }
+
+    /**
+     * Endpoint para renombrar un prefijo dentro de un bucket, moviendo todos sus archivos.
+     *
+     * @param bucket       el bucket de los archivos.
+     * @param sourcePrefix el prefijo actual.
+     * @param targetPrefix el prefijo nuevo.
+     * @return el trabajo iniciado con el código HTTP 202 (ACCEPTED).
+     */
+    @Operation(
+            summary = "Renombrar prefijo",
+            description = "Inicia un trabajo que mueve todos los archivos de un prefijo a otro del mismo bucket."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Trabajo iniciado."),
+            @ApiResponse(responseCode = "400", description = "Los prefijos se superponen."),
+            @ApiResponse(responseCode = "429", description = "Se alcanzó la cantidad máxima de trabajos en curso.")
+    })
+    @PostMapping("/prefix/rename")
+    public ResponseEntity<CopyJobDto> renamePrefix(
+            @RequestParam String bucket,
+            @RequestParam String sourcePrefix,
+            @RequestParam String targetPrefix
+    ) {
+        return ResponseEntity.accepted()
+                .body(prefixCopyService.start(bucket, sourcePrefix, bucket, targetPrefix, true));
+    }
+
+    /**
+     * Endpoint para consultar el progreso de un trabajo de copia.
+     *
+     * @param id el identificador del trabajo.
+     * @return el estado y progreso del trabajo.
+     */
+    @Operation(
+            summary = "Progreso de un trabajo",
+            description = "Devuelve los archivos encontrados, copiados, eliminados y fallidos de un trabajo de copia."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estado obtenido correctamente."),
+            @ApiResponse(responseCode = "404", description = "El trabajo no existe o ya se descartó.")
+    })
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<CopyJobDto> job(@PathVariable String id) {
+        return ResponseEntity.ok(prefixCopyService.get(id));
+    }
+
+    /**
+     * Endpoint para listar los trabajos de copia.
+     *
+     * @return los trabajos en curso y los terminados recientemente.
+     */
+    @Operation(
+            summary = "Listar trabajos",
+            description = "Lista los trabajos de copia en curso y los terminados recientemente."
+    )
+    @GetMapping("/jobs")
+    public ResponseEntity<List<CopyJobDto>> jobs() {
+        return ResponseEntity.ok(prefixCopyService.list());
+    }
+}
@@ -0,0 +1,218 @@
+package gabri.dev.minio.controllers;
+
+import gabri.dev.minio.dtos.dedup.ContentReferenceDto;
+import gabri.dev.minio.services.ContentStoreService;
+import gabri.dev.minio.services.MinioBucketService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Controlador de los archivos deduplicados por contenido: los archivos con el mismo contenido
+ * dentro de un bucket comparten una única copia en MinIO.
+ *
+ * @author Gabriel Scipioni
+ */
+@RestController
+@RequestMapping("/minio/dedup")
+public class MinioDedupController {
+
+    /**
+     * Servicio encargado de las operaciones sobre los buckets de MinIO.
+     */
+    @Autowired
+    MinioBucketService bucketService;
+
+    /**
+     * Servicio encargado de los archivos deduplicados.
+     */
+    @Autowired
+    ContentStoreService contentStoreService;
+
+    /**
+     * Valor del header Cache-Control de las descargas.
+     */
+    @Value("${minio.download.cache-control}")
+    String cacheControl;
+
+    /**
+     * Sube un archivo deduplicado desde un formulario multipart.
+     *
+     * @param uploadfile el archivo a subir.
+     * @param bucket     nombre del bucket donde se almacenará el archivo.
+     * @param objectName nombre del archivo, por defecto el nombre original.
+     * @return la referencia del archivo, indicando si el contenido ya existía.
+     * @throws Exception si ocurre un error al subir el archivo.
+     */
+    @Operation(
+            summary = "Subir un archivo deduplicado",
+            description = "Calcula el SHA-256 del archivo al recibirlo y solo lo escribe en MinIO si ese contenido "
+                    + "no existe todavía en el bucket.",
+            requestBody = @RequestBody(
+                    required = true,
+                    content = @Content(
+                            mediaType = "multipart/form-data",
+                            schema = @Schema(type = "string", format = "binary")
+                    )
+            )
+    )
+    @PostMapping("/upload")
+    public ResponseEntity<ContentReferenceDto> upload(
+            @RequestPart("uploadfile") MultipartFile uploadfile,
+            @RequestParam String bucket,
+            @RequestParam(required = false) String objectName
+    ) throws Exception {
+        bucketService.createBucket(bucket);
+        try (InputStream stream = uploadfile.getInputStream()) {
+            return ResponseEntity.ok(contentStoreService.upload(stream, bucket,
+                    objectName != null ? objectName : uploadfile.getOriginalFilename(),
+                    uploadfile.getSize(), uploadfile.getContentType()));
+        }
+    }
+
+    /**
+     * Sube un archivo deduplicado con el cuerpo crudo de la petición.
+     *
+     * @param bucket     nombre del bucket donde se almacenará el archivo.
+     * @param objectName nombre completo del archivo.
+     * @param request    la petición HTTP cuyo cuerpo es el contenido del archivo.
+     * @return la referencia del archivo, indicando si el contenido ya existía.
+     * @throws Exception si ocurre un error al subir el archivo.
+     */
+    @Operation(
+            summary = "Subir un archivo deduplicado en streaming",
+            description = "Igual que /upload, pero leyendo el cuerpo de la petición sin pasar por el multipart de Spring.",
+            requestBody = @RequestBody(
+                    required = true,
+                    content = @Content(
+                            mediaType = "application/octet-stream",
+                            schema = @Schema(type = "string", format = "binary")
+                    )
+            )
+    )
+    @PutMapping("/upload/stream")
+    public ResponseEntity<ContentReferenceDto> uploadStream(
+            @RequestParam String bucket,
+            @RequestParam String objectName,
+            HttpServletRequest request
+    ) throws Exception {
+        bucketService.createBucket(bucket);
+        return ResponseEntity.ok(contentStoreService.upload(request.getInputStream(), bucket, objectName,
+                request.getContentLengthLong(), request.getContentType()));
+    }
+
+    /**
+     * Descarga un archivo deduplicado. El ETag es el hash del contenido, que no cambia
+     * mientras el nombre apunte al mismo contenido.
+     *
+     * @param bucket     nombre del bucket del archivo.
+     * @param objectName nombre del archivo a descargar.
+     * @param request    la petición HTTP, para evaluar los headers condicionales.
+     * @param response   la respuesta HTTP donde se escribe el archivo.
+     * @throws Exception si ocurre un error al descargar el archivo.
+     */
+    @Operation(
+            summary = "Descargar un archivo deduplicado",
+            description = "Descarga el contenido al que apunta el nombre del archivo."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Archivo descargado correctamente."),
+            @ApiResponse(responseCode = "304", description = "El cliente ya tiene este contenido."),
+            @ApiResponse(responseCode = "404", description = "El archivo no existe."),
+            @ApiResponse(responseCode = "503", description = "Las referencias se están reconstruyendo al iniciar.")
+    })
+    @GetMapping("/download")
+    public void download(
+            @RequestParam String bucket,
+            @RequestParam String objectName,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws Exception {
+        ContentReferenceDto reference = contentStoreService.get(bucket, objectName);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (new ServletWebRequest(request, response).checkNotModified("\"" + reference.getSha256() + "\"")) {
+            return;
+        }
+        response.setContentType(reference.getContentType() != null
+                ? reference.getContentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setContentLengthLong(reference.getSize());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(objectName.substring(objectName.lastIndexOf("/") + 1), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        try (InputStream stream = contentStoreService.download(reference)) {
+            stream.transferTo(response.getOutputStream());
+        }
+    }
+
+    /**
+     * Lista los archivos deduplicados de un bucket.
+     *
+     * @param bucket nombre del bucket.
+     * @param prefix prefijo de los nombres, vacío para todo el bucket.
+     * @return los archivos con su hash y tamaño, ordenados por nombre.
+     */
+    @Operation(
+            summary = "Listar archivos deduplicados",
+            description = "Lista los nombres de archivo del bucket y el contenido al que apunta cada uno."
+    )
+    @GetMapping("/list")
+    public ResponseEntity<List<ContentReferenceDto>> list(
+            @RequestParam String bucket,
+            @RequestParam(defaultValue = "") String prefix
+    ) {
+        return ResponseEntity.ok(contentStoreService.list(bucket, prefix));
+    }
+
+    /**
+     * Elimina un archivo deduplicado. El contenido solo se elimina de MinIO cuando
+     * ningún otro archivo lo referencia.
+     *
+     * @param bucket     nombre del bucket.
+     * @param objectName nombre del archivo a eliminar.
+     * @return una respuesta con el código HTTP 204 (NO CONTENT).
+     * @throws Exception si ocurre un error al eliminar el contenido.
+     */
+    @Operation(
+            summary = "Eliminar un archivo deduplicado",
+            description = "Elimina el nombre del archivo y, si era la última referencia, su contenido."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Archivo eliminado."),
+            @ApiResponse(responseCode = "404", description = "El archivo no existe."),
+            @ApiResponse(responseCode = "503", description = "Las referencias se están reconstruyendo al iniciar.")
+    })
+    @DeleteMapping("/delete")
+    public ResponseEntity<Void> delete(
+            @RequestParam String bucket,
+            @RequestParam String objectName
+    ) throws Exception {
+        contentStoreService.delete(bucket, objectName);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,29 +1,87 @@
 package gabri.dev.minio.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import gabri.dev.minio.clients.MinioFutures;
+import gabri.dev.minio.configs.CompressionProperties;
+import gabri.dev.minio.dtos.common.BulkDeleteResultDto;
 import gabri.dev.minio.dtos.common.FileInfo;
+import gabri.dev.minio.dtos.common.FilePage;
+import gabri.dev.minio.dtos.index.ObjectMetadataDto;
+import gabri.dev.minio.dtos.index.ObjectSearchCriteria;
+import gabri.dev.minio.dtos.index.ObjectSearchPage;
+import gabri.dev.minio.dtos.upload.AsyncUploadDto;
+import gabri.dev.minio.dtos.upload.BulkUploadResultDto;
+import gabri.dev.minio.services.ArchiveDownloadService;
+import gabri.dev.minio.services.AsyncUploadService;
+import gabri.dev.minio.services.BulkUploadService;
+import gabri.dev.minio.services.DiskCacheService;
+import gabri.dev.minio.services.MetadataIndexService;
 import gabri.dev.minio.services.MinioBucketService;
 import gabri.dev.minio.services.MinioFilesService;
+import gabri.dev.minio.services.ObjectCacheService;
+import io.minio.StatObjectResponse;
 import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.apache.tomcat.util.http.fileupload.IOUtils;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
 
 import java.io.InputStream;
-import java.net.URLEncoder;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
 
 
 @RestController
 @RequestMapping("/minio/file")
 public class MinioFileController {
 
+    /**
+     * Header con el valor de {@code startAfter} para pedir la siguiente página del listado.
+     */
+    private static final String NEXT_START_AFTER = "X-Next-Start-After";
+    private static final int LIST_FLUSH_EVERY = 100;
+    private static final String LIST_SOURCE_MINIO = "minio";
+    private static final String LIST_SOURCE_INDEX = "index";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
     /**
      * Servicio encargado de las operaciones sobre los buckets de MinIO.
      */
@@ -34,10 +92,49 @@ public class MinioFileController {
      */
     @Autowired
     MinioFilesService fileService;
+    /**
+     * Caché en memoria de los objetos chicos.
+     */
+    @Autowired
+    ObjectCacheService objectCacheService;
+    /**
+     * Caché en disco de los objetos medianos y grandes.
+     */
+    @Autowired
+    DiskCacheService diskCacheService;
+    /**
+     * Servicio encargado de las descargas en zip.
+     */
+    @Autowired
+    ArchiveDownloadService archiveDownloadService;
+    /**
+     * Servicio encargado de las subidas masivas.
+     */
+    @Autowired
+    BulkUploadService bulkUploadService;
+    /**
+     * Servicio encargado de las subidas asíncronas.
+     */
+    @Autowired
+    AsyncUploadService asyncUploadService;
+    /**
+     * Índice de metadatos de los objetos.
+     */
+    @Autowired
+    MetadataIndexService metadataIndexService;
+    @Autowired
+    ObjectMapper objectMapper;
+    /**
+     * Valor del header Cache-Control de las descargas.
+     */
+    @Value("${minio.download.cache-control}")
+    String cacheControl;
 
     @Operation(
             summary = "Subir un archivo",
-            description = "Permite subir archivos como imágenes, audios, etc.",
+            description = "Permite subir archivos como imágenes, audios, etc. Con async=true el archivo se guarda "
+                    + "en el servidor, se responde 202 con el identificador de la subida y se sube a MinIO en "
+                    + "segundo plano; su estado se consulta en /minio/file/upload/async/{id}.",
             requestBody = @RequestBody(
                     required = true,
                     content = @Content(
@@ -46,64 +143,766 @@ public class MinioFileController {
                     )
             )
     )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Archivo subido."),
+            @ApiResponse(responseCode = "202", description = "Archivo recibido, se sube en segundo plano."),
+            @ApiResponse(responseCode = "429", description = "La cola de subidas asíncronas está llena."),
+            @ApiResponse(responseCode = "503", description = "No hay espacio para guardar la subida asíncrona.")
+    })
     @PostMapping("/uploadfile")
-    public ResponseEntity<String> uploadFile(
+    public ResponseEntity<?> uploadFile(
             @RequestPart("uploadfile") MultipartFile uploadfile,
             @RequestParam String bucket,
-            @RequestParam(required = false) String objectName
+            @RequestParam(required = false) String objectName,
+            @RequestParam(defaultValue = "false") boolean async
     ) throws Exception {
+        if (async) {
+            String name = objectName != null
+                    ? objectName + "/" + uploadfile.getOriginalFilename()
+                    : uploadfile.getOriginalFilename();
+            return ResponseEntity.accepted().body(asyncUploadService.submit(uploadfile, bucket, name));
+        }
         bucketService.createBucket(bucket);
         if (objectName != null) {
             fileService.uploadFile(
                     uploadfile.getInputStream(),
                     bucket,
-                    objectName + "/" + uploadfile.getOriginalFilename()
+                    objectName + "/" + uploadfile.getOriginalFilename(),
+                    uploadfile.getSize(),
+                    uploadfile.getContentType()
             );
         } else {
             fileService.uploadFile(
                     uploadfile.getInputStream(),
                     bucket,
-                    uploadfile.getOriginalFilename()
+                    uploadfile.getOriginalFilename(),
+                    uploadfile.getSize(),
+                    uploadfile.getContentType()
             );
         }
         return ResponseEntity.ok("Archivo subido exitosamente");
     }
 
+    /**
+     * Sube un archivo enviando el cuerpo crudo de la petición directamente a MinIO.
+     * A diferencia de {@code /uploadfile}, el cuerpo no pasa por el multipart de Spring,
+     * por lo que no se almacena en memoria ni en disco y no aplica el límite de
+     * {@code spring.servlet.multipart.max-file-size}.
+     *
+     * @param bucket     nombre del bucket donde se almacenará el archivo.
+     * @param objectName nombre completo del archivo dentro del bucket.
+     * @param request    la petición HTTP cuyo cuerpo es el contenido del archivo.
+     * @return una respuesta con el código HTTP 200 (OK) si el archivo fue subido.
+     * @throws Exception si ocurre un error al subir el archivo.
+     */
+    @Operation(
+            summary = "Subir un archivo en streaming",
+            description = "Envía el cuerpo de la petición directamente a MinIO sin almacenarlo en el servidor.",
+            requestBody = @RequestBody(
+                    required = true,
+                    content = @Content(
+                            mediaType = "application/octet-stream",
+                            schema = @Schema(type = "string", format = "binary")
+                    )
+            )
+    )
+    @PutMapping("/upload/stream")
+    public ResponseEntity<String> uploadStream(
+            @RequestParam String bucket,
+            @RequestParam String objectName,
+            HttpServletRequest request
+    ) throws Exception {
+        bucketService.createBucket(bucket);
+        fileService.uploadFile(
+                request.getInputStream(),
+                bucket,
+                objectName,
+                request.getContentLengthLong(),
+                request.getContentType()
+        );
+        return ResponseEntity.ok("Archivo subido exitosamente");
+    }
+
+    /**
+     * Consulta el estado de una subida asíncrona.
+     *
+     * @param id identificador devuelto al aceptar la subida.
+     * @return el estado de la subida, sus intentos y el último error.
+     */
+    @Operation(
+            summary = "Estado de una subida asíncrona",
+            description = "Devuelve si la subida está en cola, subiéndose, esperando para reintentar, terminada o fallida."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Estado obtenido correctamente."),
+            @ApiResponse(responseCode = "404", description = "La subida no existe o ya se descartó.")
+    })
+    @GetMapping("/upload/async/{id}")
+    public ResponseEntity<AsyncUploadDto> asyncUpload(@PathVariable String id) {
+        return ResponseEntity.ok(asyncUploadService.get(id));
+    }
+
+    /**
+     * Lista las subidas asíncronas pendientes y las terminadas recientemente.
+     *
+     * @return el estado de cada subida.
+     */
+    @Operation(
+            summary = "Listar subidas asíncronas",
+            description = "Lista las subidas asíncronas pendientes y las terminadas recientemente."
+    )
+    @GetMapping("/upload/async")
+    public ResponseEntity<List<AsyncUploadDto>> asyncUploads() {
+        return ResponseEntity.ok(asyncUploadService.list());
+    }
+
 
+    /**
+     * Sube varios archivos en una sola petición. Los archivos se suben a MinIO en paralelo
+     * y se guardan con la misma convención de nombres que {@code /uploadfile}.
+     *
+     * @param files      los archivos a subir.
+     * @param bucket     nombre del bucket donde se almacenarán los archivos.
+     * @param objectName carpeta donde se guardan los archivos.
+     * @return el resultado de cada archivo.
+     * @throws Exception si ocurre un error al crear el bucket.
+     */
+    @Operation(
+            summary = "Subir varios archivos",
+            description = "Sube todas las partes 'files' de la petición en paralelo y devuelve el resultado de cada una."
+    )
+    @PostMapping(value = "/upload/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BulkUploadResultDto> uploadFiles(
+            @RequestPart("files") List<MultipartFile> files,
+            @RequestParam String bucket,
+            @RequestParam(required = false) String objectName
+    ) throws Exception {
+        bucketService.createBucket(bucket);
+        return ResponseEntity.ok(bulkUploadService.uploadFiles(bucket, objectName, files));
+    }
+
+    /**
+     * Sube el contenido de un archivo zip enviado como cuerpo crudo de la petición. Las entradas
+     * se extraen y se suben a medida que llegan, sin guardar el zip en el servidor.
+     *
+     * @param bucket     nombre del bucket donde se almacenarán las entradas.
+     * @param objectName carpeta donde se guardan las entradas, que conservan su ruta dentro del zip.
+     * @param request    la petición HTTP cuyo cuerpo es el archivo zip.
+     * @return el resultado de cada entrada.
+     * @throws Exception si ocurre un error al crear el bucket o al leer el zip.
+     */
+    @Operation(
+            summary = "Subir un archivo zip",
+            description = "Extrae las entradas del zip a medida que se reciben y las sube a MinIO en paralelo.",
+            requestBody = @RequestBody(
+                    required = true,
+                    content = @Content(
+                            mediaType = "application/zip",
+                            schema = @Schema(type = "string", format = "binary")
+                    )
+            )
+    )
+    @PutMapping("/upload/archive")
+    public ResponseEntity<BulkUploadResultDto> uploadArchive(
+            @RequestParam String bucket,
+            @RequestParam(required = false) String objectName,
+            HttpServletRequest request
+    ) throws Exception {
+        bucketService.createBucket(bucket);
+        return ResponseEntity.ok(bulkUploadService.uploadArchive(request.getInputStream(), bucket, objectName));
+    }
+
+
+    /**
+     * Lista los archivos de un bucket. Sin {@code maxKeys} devuelve el listado completo;
+     * con {@code maxKeys} devuelve una página y, si hay más, el header {@code X-Next-Start-After}
+     * con el valor de {@code startAfter} para pedir la siguiente. El listado se lee de MinIO;
+     * con {@code source=index} se resuelve desde el índice de metadatos, más rápido en buckets
+     * grandes pero sin las escrituras hechas fuera de la aplicación hasta la próxima reconciliación,
+     * y siempre por páginas de {@code minio.index.default-page-size} como máximo si no se indica {@code maxKeys}.
+     *
+     * @param bucket     nombre del bucket a listar.
+     * @param prefix     prefijo que deben tener los nombres.
+     * @param delimiter  delimitador para agrupar en carpetas, sin él se lista recursivamente.
+     * @param startAfter nombre a partir del cual se lista (exclusivo).
+     * @param maxKeys    cantidad máxima de archivos a devolver.
+     * @param source     {@code minio} para listar desde MinIO o {@code index} para listar desde el índice.
+     * @return los archivos del bucket.
+     * @throws Exception si ocurre un error al listar el bucket.
+     */
     @GetMapping("/list")
     public ResponseEntity<List<FileInfo>> listFiles(
-            @RequestParam String bucket
+            @RequestParam String bucket,
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) String delimiter,
+            @RequestParam(required = false) String startAfter,
+            @RequestParam(required = false) Integer maxKeys,
+            @RequestParam(defaultValue = LIST_SOURCE_MINIO) String source
     )throws Exception{
-        return ResponseEntity.ok(fileService.listFiles(bucket));
+        if (!LIST_SOURCE_MINIO.equals(source) && !LIST_SOURCE_INDEX.equals(source)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "source debe ser " + LIST_SOURCE_MINIO + " o " + LIST_SOURCE_INDEX);
+        }
+        boolean index = LIST_SOURCE_INDEX.equals(source);
+        if (index && delimiter != null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El índice solo admite listados recursivos");
+        }
+        if (!index && maxKeys == null && prefix == null && delimiter == null && startAfter == null) {
+            return ResponseEntity.ok(fileService.listFiles(bucket));
+        }
+        if (maxKeys != null && maxKeys < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "maxKeys debe ser mayor a 0");
+        }
+        FilePage page = index
+                ? fileService.listIndexedFiles(bucket, prefix, startAfter, maxKeys)
+                : fileService.listFiles(bucket, prefix, delimiter, startAfter,
+                        maxKeys != null ? maxKeys : Integer.MAX_VALUE);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.getNextStartAfter() != null) {
+            builder.header(NEXT_START_AFTER, page.getNextStartAfter());
+        }
+        return builder.body(page.getFiles());
+    }
+
+    /**
+     * Lista los archivos de un bucket escribiendo cada uno en la respuesta a medida que MinIO
+     * los devuelve, por lo que la memoria usada no depende del tamaño del bucket.
+     *
+     * @param bucket     nombre del bucket a listar.
+     * @param prefix     prefijo que deben tener los nombres.
+     * @param delimiter  delimitador para agrupar en carpetas, sin él se lista recursivamente.
+     * @param startAfter nombre a partir del cual se lista (exclusivo).
+     * @param format     {@code ndjson} para un archivo JSON por línea, o {@code json} para un arreglo JSON.
+     * @return el listado en streaming.
+     */
+    @Operation(
+            summary = "Listar archivos en streaming",
+            description = "Escribe cada archivo apenas MinIO lo devuelve, como NDJSON o como arreglo JSON."
+    )
+    @GetMapping("/list/stream")
+    public ResponseEntity<StreamingResponseBody> streamFiles(
+            @RequestParam String bucket,
+            @RequestParam(required = false) String prefix,
+            @RequestParam(required = false) String delimiter,
+            @RequestParam(required = false) String startAfter,
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        boolean array = "json".equalsIgnoreCase(format);
+        StreamingResponseBody body = output -> {
+            //sin vaciar tras cada valor, para que los archivos se envíen en lotes de LIST_FLUSH_EVERY
+            ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            if (!array) {
+                writer = writer.withRootValueSeparator("\n");
+            }
+            try (Stream<FileInfo> files = fileService.streamFiles(bucket, prefix, delimiter, startAfter);
+                 SequenceWriter sequence = array ? writer.writeValuesAsArray(output) : writer.writeValues(output)) {
+                int written = 0;
+                for (Iterator<FileInfo> it = files.iterator(); it.hasNext(); ) {
+                    sequence.write(it.next());
+                    //el primer archivo se envía de inmediato, luego se envía por lotes
+                    if (++written % LIST_FLUSH_EVERY == 1) {
+                        sequence.flush();
+                    }
+                }
+                if (!array) {
+                    sequence.flush();
+                    output.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(array ? MediaType.APPLICATION_JSON : MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * Busca archivos de un bucket por prefijo, rango de tamaño y rango de fecha de modificación.
+     * Si el bucket ya está indexado la búsqueda se resuelve desde el índice de metadatos,
+     * si no se recorre el listado de MinIO.
+     *
+     * @param bucket   nombre del bucket.
+     * @param criteria filtros de la búsqueda.
+     * @return los archivos encontrados, ordenados por nombre, y el header {@code X-Next-Start-After}
+     * si hay más resultados.
+     */
+    @Operation(
+            summary = "Buscar archivos",
+            description = "Filtra por prefijo, tamaño y fecha de modificación. Las fechas van en formato ISO, "
+                    + "por ejemplo 2024-01-31T00:00:00."
+    )
+    @GetMapping("/search")
+    public ResponseEntity<List<ObjectMetadataDto>> search(
+            @RequestParam String bucket,
+            @ParameterObject ObjectSearchCriteria criteria
+    ) {
+        if (criteria.getMaxKeys() != null && criteria.getMaxKeys() < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "maxKeys debe ser mayor a 0");
+        }
+        ObjectSearchPage page = metadataIndexService.search(bucket, criteria);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (page.getNextStartAfter() != null) {
+            builder.header(NEXT_START_AFTER, page.getNextStartAfter());
+        }
+        return builder.body(page.getObjects());
+    }
+
+    /**
+     * Descarga en un zip todos los archivos de un bucket cuyo nombre empieza con un prefijo.
+     * El zip se arma mientras se envía, por lo que no se guarda en memoria ni en disco.
+     *
+     * @param bucket   nombre del bucket.
+     * @param prefix   prefijo de los archivos, por ejemplo una carpeta.
+     * @param response la respuesta HTTP donde se escribe el zip.
+     * @throws Exception si ocurre un error al leer los archivos.
+     */
+    @Operation(
+            summary = "Descargar una carpeta en zip",
+            description = "Arma un zip con los archivos del prefijo mientras se descarga. Las entradas "
+                    + "conservan la ruta relativa a la carpeta del prefijo."
+    )
+    @GetMapping("/download/zip")
+    public void downloadPrefixZip(
+            @RequestParam String bucket,
+            @RequestParam(defaultValue = "") String prefix,
+            HttpServletResponse response
+    ) throws Exception {
+        String folder = prefix.endsWith("/") ? prefix.substring(0, prefix.length() - 1) : prefix;
+        String name = folder.isEmpty() ? bucket : folder.substring(folder.lastIndexOf('/') + 1);
+        startZip(response, name);
+        archiveDownloadService.writePrefix(bucket, prefix, response.getOutputStream());
+    }
+
+    /**
+     * Descarga en un zip una lista de archivos de un bucket.
+     *
+     * @param bucket      nombre del bucket.
+     * @param objectNames nombres de los archivos a incluir.
+     * @param response    la respuesta HTTP donde se escribe el zip.
+     * @throws Exception si ocurre un error al leer los archivos.
+     */
+    @Operation(
+            summary = "Descargar varios archivos en zip",
+            description = "Arma un zip con los archivos indicados en el cuerpo mientras se descarga."
+    )
+    @PostMapping("/download/zip")
+    public void downloadObjectsZip(
+            @RequestParam String bucket,
+            @org.springframework.web.bind.annotation.RequestBody List<String> objectNames,
+            HttpServletResponse response
+    ) throws Exception {
+        startZip(response, bucket);
+        archiveDownloadService.writeObjects(bucket, objectNames, response.getOutputStream());
     }
 
+    /**
+     * Descarga un archivo. Soporta el header {@code Range} con uno o varios rangos:
+     * un rango responde 206 con {@code Content-Range}, varios rangos responden
+     * {@code multipart/byteranges}, y solo se leen de MinIO los bytes pedidos.
+     *
+     * @param bucket      nombre del bucket del archivo.
+     * @param objectName  nombre del archivo a descargar.
+     * @param rangeHeader header {@code Range} de la petición, opcional.
+     * @param request     la petición HTTP, para evaluar los headers condicionales.
+     * @param response    la respuesta HTTP donde se escribe el archivo.
+     * @throws Exception si ocurre un error al descargar el archivo.
+     */
     @GetMapping("/download")
     public void downloadFile(
             @RequestParam String bucket,
             @RequestParam String objectName,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+            HttpServletRequest request,
             HttpServletResponse response
     )throws Exception{
-        InputStream stream = fileService.download(bucket,objectName);
+        StatObjectResponse stat = fileService.stat(bucket, objectName);
+        long size = stat.size();
+        long lastModified = stat.lastModified().toInstant().toEpochMilli();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        String encoding = CompressionProperties.encodingOf(stat.headers());
+        if (encoding != null) {
+            downloadCompressed(bucket, objectName, stat, encoding, request, response);
+            return;
+        }
+        //agrega ETag y Last-Modified, y responde 304 sin abrir el objeto si el cliente ya tiene esta versión
+        if (new ServletWebRequest(request, response).checkNotModified(stat.etag(), lastModified)) {
+            return;
+        }
+
+        String contentType = stat.contentType() != null
+                ? stat.contentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(objectName.substring(objectName.lastIndexOf("/") + 1), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        List<HttpRange> ranges = matchesIfRange(request, stat.etag(), lastModified)
+                ? parseRanges(rangeHeader) : List.of();
+        //solo un GET del objeto completo puede esperar la descarga a la caché en disco
+        ByteRangeSource source = source(bucket, objectName, stat, ranges.isEmpty() && !isHead(request));
+        if (ranges.isEmpty()) {
+            response.setContentType(contentType);
+            response.setContentLengthLong(size);
+            writeBody(source, 0, size, request, response);
+            return;
+        }
+
+        long[][] bounds = new long[ranges.size()][];
+        for (int i = 0; i < bounds.length; i++) {
+            long start = ranges.get(i).getRangeStart(size);
+            long end = ranges.get(i).getRangeEnd(size);
+            if (start >= size || start > end) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            bounds[i] = new long[]{start, end};
+        }
+
+        response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+        if (bounds.length == 1) {
+            long start = bounds[0][0];
+            long end = bounds[0][1];
+            response.setContentType(contentType);
+            response.setContentLengthLong(end - start + 1);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, contentRange(start, end, size));
+            writeBody(source, start, end - start + 1, request, response);
+            return;
+        }
+        writeByteRanges(source, contentType, size, bounds, response);
+    }
+
+    /**
+     * Descarga un archivo guardado comprimido. Si el cliente acepta la codificación se envían los bytes
+     * guardados tal cual con {@code Content-Encoding}; si no, se descomprimen mientras se envían.
+     * No se atienden rangos, porque los desplazamientos del contenido original no se corresponden
+     * con los del objeto guardado.
+     */
+    private void downloadCompressed(String bucket, String objectName, StatObjectResponse stat, String encoding,
+                                    HttpServletRequest request, HttpServletResponse response) throws Exception {
+        boolean passthrough = acceptsEncoding(request.getHeader(HttpHeaders.ACCEPT_ENCODING), encoding);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        //el contenido descomprimido es equivalente pero no idéntico byte a byte al guardado, su etag es débil
+        String etag = passthrough ? stat.etag() : "W/\"" + stat.etag() + "\"";
+        if (new ServletWebRequest(request, response)
+                .checkNotModified(etag, stat.lastModified().toInstant().toEpochMilli())) {
+            return;
+        }
+        response.setContentType(stat.contentType() != null
+                ? stat.contentType() : MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(objectName.substring(objectName.lastIndexOf("/") + 1), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "none");
+        if (passthrough) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, encoding);
+            response.setContentLengthLong(stat.size());
+            writeBody(source(bucket, objectName, stat, !isHead(request)), 0, stat.size(), request, response);
+            return;
+        }
+        try (InputStream stream = fileService.downloadDecoded(bucket, objectName)) {
+            IOUtils.copy(stream, response.getOutputStream());
+        }
+    }
+
+    /**
+     * Indica si el header {@code Accept-Encoding} acepta una codificación, ya sea por nombre
+     * o con el comodín {@code *}, y sin calidad 0.
+     */
+    private static boolean acceptsEncoding(String acceptEncoding, String encoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.trim().split(";");
+            String coding = params[0].trim();
+            boolean accepted = true;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        accepted = Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        accepted = false;
+                    }
+                }
+            }
+            if (coding.equalsIgnoreCase(encoding)) {
+                return accepted;
+            }
+            if (coding.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    /**
+     * Origen de los bytes de una descarga, que permite escribir solo un rango del objeto.
+     */
+    @FunctionalInterface
+    private interface ByteRangeSource {
+        void writeTo(long offset, long length, OutputStream output) throws Exception;
+
+        /**
+         * Archivo local con el contenido, si el origen es la caché en disco.
+         */
+        default Path file() {
+            return null;
+        }
+    }
+
+    /**
+     * Origen de bytes respaldado por un archivo de la caché en disco.
+     * Se copia con {@link FileChannel#transferTo}, sin pasar por buffers intermedios propios.
+     */
+    private record DiskFileSource(Path file) implements ByteRangeSource {
+        @Override
+        public void writeTo(long offset, long length, OutputStream output) throws Exception {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(output);
+                long position = offset;
+                long end = offset + length;
+                while (position < end) {
+                    position += channel.transferTo(position, end - position, target);
+                }
+            }
+        }
+    }
+
+    /**
+     * Indica si la petición es un {@code HEAD}, que se atiende con el mismo método que el {@code GET}.
+     */
+    private static boolean isHead(HttpServletRequest request) {
+        return HttpMethod.HEAD.matches(request.getMethod());
+    }
+
+    /**
+     * Elige de dónde leer el objeto: los objetos chicos se sirven desde la caché en memoria,
+     * los medianos y grandes desde la caché en disco si ya están guardados, ambas revalidadas
+     * con el etag actual, y el resto se lee de MinIO pidiendo solo el rango necesario. Solo si
+     * {@code full} se espera a que termine de guardarse en disco un objeto que se está descargando.
+     */
+    private ByteRangeSource source(String bucket, String objectName, StatObjectResponse stat, boolean full)
+            throws Exception {
+        long size = stat.size();
+        if (objectCacheService.isCacheable(size)) {
+            byte[] data = objectCacheService.get(bucket, objectName, stat.etag());
+            if (data.length == size) {
+                return (offset, length, output) -> output.write(data, (int) offset, (int) length);
+            }
+        } else if (diskCacheService.isCacheable(size)) {
+            Path file = diskCacheService.find(bucket, objectName, stat.etag(), full);
+            if (file != null && Files.size(file) == size) {
+                return new DiskFileSource(file);
+            }
+        }
+        return (offset, length, output) -> {
+            try (InputStream stream = offset == 0 && length == size
+                    ? fileService.download(bucket, objectName)
+                    : fileService.download(bucket, objectName, offset, length)) {
+                IOUtils.copy(stream, output);
+            }
+        };
+    }
+
+    /**
+     * Escribe el cuerpo de una respuesta de un único rango. Si el origen es un archivo local y el
+     * conector de Tomcat soporta sendfile, el envío lo hace el sistema operativo sin copiar
+     * los bytes a la JVM.
+     */
+    private void writeBody(ByteRangeSource source, long offset, long length,
+                           HttpServletRequest request, HttpServletResponse response) throws Exception {
+        if (source.file() != null && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, source.file().toString());
+            request.setAttribute(SENDFILE_START, offset);
+            request.setAttribute(SENDFILE_END, offset + length);
+            return;
+        }
+        source.writeTo(offset, length, response.getOutputStream());
+    }
+
+    /**
+     * Escribe una respuesta {@code multipart/byteranges} leyendo solo cada rango pedido.
+     */
+    private void writeByteRanges(ByteRangeSource source, String contentType, long size,
+                                 long[][] bounds, HttpServletResponse response) throws Exception {
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        byte[][] partHeaders = new byte[bounds.length][];
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        long contentLength = closing.length;
+        for (int i = 0; i < bounds.length; i++) {
+            partHeaders[i] = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + contentRange(bounds[i][0], bounds[i][1], size) + "\r\n"
+                    + "\r\n").getBytes(StandardCharsets.US_ASCII);
+            contentLength += partHeaders[i].length + bounds[i][1] - bounds[i][0] + 1;
+        }
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+
         ServletOutputStream output = response.getOutputStream();
-        response.setHeader(
-                "Disposición de contenido",
-                "adjunto; Nombre del archivo=" + URLEncoder.encode(
-                        objectName.substring(
-                        objectName.lastIndexOf("/") + 1),
-                        "UTF-8"
-                ));
-        response.setContentType("application/octet-stream");
-        response.setCharacterEncoding("UTF-8");
-        IOUtils.copy(stream, output);
+        for (int i = 0; i < bounds.length; i++) {
+            output.write(partHeaders[i]);
+            source.writeTo(bounds[i][0], bounds[i][1] - bounds[i][0] + 1, output);
+        }
+        output.write(closing);
+    }
+
+    /**
+     * Interpreta el header {@code Range}. Un header con sintaxis inválida se ignora, como indica la RFC 9110.
+     */
+    private List<HttpRange> parseRanges(String rangeHeader) {
+        if (rangeHeader == null || rangeHeader.isBlank()) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    /**
+     * Evalúa el header {@code If-Range}: si no coincide con la versión actual se ignora el {@code Range}
+     * y se envía el archivo completo.
+     */
+    private boolean matchesIfRange(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals("\"" + etag + "\"");
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Prepara los headers de una descarga en zip. El tamaño no se conoce de antemano,
+     * por lo que la respuesta se envía sin {@code Content-Length}.
+     */
+    private void startZip(HttpServletResponse response, String name) {
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(name + ".zip", StandardCharsets.UTF_8)
+                .build()
+                .toString());
+    }
+
+    private String contentRange(long start, long end, long size) {
+        return "bytes " + start + "-" + end + "/" + size;
+    }
+
+    /**
+     * Obtiene los metadatos de un archivo sin descargar su contenido.
+     * La consulta a MinIO no ocupa el hilo de la petición mientras se espera la respuesta.
+     *
+     * @param bucket     nombre del bucket.
+     * @param objectName nombre del archivo.
+     * @return los metadatos del archivo, o 404 (NOT FOUND) si no existe.
+     */
+    @Operation(
+            summary = "Metadatos de un archivo",
+            description = "Devuelve tamaño, etag, fecha de modificación y tipo de contenido del archivo."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Metadatos obtenidos correctamente."),
+            @ApiResponse(responseCode = "404", description = "El archivo no existe.")
+    })
+    @GetMapping("/stat")
+    public CompletableFuture<ResponseEntity<ObjectMetadataDto>> stat(
+            @RequestParam String bucket,
+            @RequestParam String objectName
+    ) {
+        return fileService.statAsync(bucket, objectName)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(error -> {
+                    if (MinioFutures.isErrorCode(error, "NoSuchKey")) {
+                        return ResponseEntity.notFound().build();
+                    }
+                    throw new CompletionException(MinioFutures.unwrap(error));
+                });
+    }
+
+    /**
+     * Obtiene los metadatos de varios archivos con consultas en paralelo a MinIO.
+     *
+     * @param bucket      nombre del bucket.
+     * @param objectNames nombres de los archivos.
+     * @return los metadatos en el orden pedido; los archivos que no existen se omiten.
+     */
+    @Operation(
+            summary = "Metadatos de varios archivos",
+            description = "Consulta en paralelo los metadatos de los archivos indicados en el cuerpo. "
+                    + "Los archivos que no existen se omiten de la respuesta."
+    )
+    @PostMapping("/stat/batch")
+    public CompletableFuture<ResponseEntity<List<ObjectMetadataDto>>> statFiles(
+            @RequestParam String bucket,
+            @org.springframework.web.bind.annotation.RequestBody List<String> objectNames
+    ) {
+        return fileService.statAllAsync(bucket, objectNames).thenApply(ResponseEntity::ok);
     }
 
     @GetMapping("/delete")
-    public ResponseEntity deleteFile(
+    public CompletableFuture<ResponseEntity<Void>> deleteFile(
             @RequestParam String bucket,
             @RequestParam String objectName
-    ) throws Exception{
-        fileService.deleteObject(bucket, objectName);
-        return ResponseEntity.ok().build();
+    ) {
+        return fileService.deleteObjectAsync(bucket, objectName)
+                .thenApply(v -> ResponseEntity.ok().build());
+    }
+
+    /**
+     * Elimina una lista de archivos de un bucket con peticiones de eliminación múltiple a MinIO,
+     * de a 1000 archivos por petición.
+     *
+     * @param bucket      nombre del bucket.
+     * @param objectNames nombres de los archivos a eliminar.
+     * @return la cantidad de archivos eliminados y los errores de los que no se pudieron eliminar.
+     * @throws Exception si ocurre un error al comunicarse con MinIO.
+     */
+    @Operation(
+            summary = "Eliminar varios archivos",
+            description = "Elimina los archivos indicados en el cuerpo y devuelve los errores de cada uno."
+    )
+    @PostMapping("/delete/batch")
+    public ResponseEntity<BulkDeleteResultDto> deleteFiles(
+            @RequestParam String bucket,
+            @org.springframework.web.bind.annotation.RequestBody List<String> objectNames
+    ) throws Exception {
+        return ResponseEntity.ok(fileService.deleteObjects(bucket, objectNames));
+    }
+
+    /**
+     * Elimina todos los archivos de un bucket cuyo nombre empieza con un prefijo.
+     *
+     * @param bucket nombre del bucket.
+     * @param prefix prefijo de los archivos a eliminar, por ejemplo una carpeta.
+     * @return la cantidad de archivos eliminados y los errores de los que no se pudieron eliminar.
+     * @throws Exception si ocurre un error al comunicarse con MinIO.
+     */
+    @Operation(
+            summary = "Eliminar archivos por prefijo",
+            description = "Elimina todos los archivos cuyo nombre empieza con el prefijo. "
+                    + "Para vaciar el bucket completo usar POST /minio/bucket/delete/purge."
+    )
+    @PostMapping("/delete/prefix")
+    public ResponseEntity<BulkDeleteResultDto> deletePrefix(
+            @RequestParam String bucket,
+            @RequestParam String prefix
+    ) throws Exception {
+        if (prefix.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El prefijo no puede estar vacío");
+        }
+        return ResponseEntity.ok(fileService.deletePrefix(bucket, prefix));
     }
 
 }
@@ -0,0 +1,50 @@
+package gabri.dev.minio.controllers;
+
+import gabri.dev.minio.services.MetadataIndexService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controlador para administrar el índice de metadatos de los objetos.
+ *
+ * @author Gabriel Scipioni
+ */
+@RestController
+@RequestMapping("/minio/index")
+public class MinioIndexController {
+
+    /**
+     * Servicio del índice de metadatos.
+     */
+    @Autowired
+    MetadataIndexService metadataIndexService;
+
+    /**
+     * Endpoint para reconciliar el índice de un bucket sin esperar a la reconciliación periódica.
+     *
+     * @param bucket nombre del bucket a reconciliar.
+     * @return la cantidad de objetos indexados.
+     * @throws Exception si ocurre un error al listar el bucket en MinIO.
+     */
+    @Operation(
+            summary = "Reconciliar el índice de un bucket",
+            description = "Recorre el bucket en MinIO y actualiza el índice. Desde ese momento las búsquedas "
+                    + "del bucket, y los listados con source=index, se resuelven desde el índice."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Bucket reconciliado correctamente."),
+            @ApiResponse(responseCode = "400", description = "El bucket no está entre los indexados."),
+            @ApiResponse(responseCode = "500", description = "Error al listar el bucket en MinIO.")
+    })
+    @PostMapping("/reconcile")
+    public ResponseEntity<Long> reconcile(@RequestParam String bucket) throws Exception {
+        return ResponseEntity.ok(metadataIndexService.reconcile(bucket));
+    }
+}
@@ -0,0 +1,146 @@
+package gabri.dev.minio.controllers;
+
+import gabri.dev.minio.dtos.presign.PresignedPostDto;
+import gabri.dev.minio.dtos.presign.PresignedUrlDto;
+import gabri.dev.minio.services.MinioBucketService;
+import gabri.dev.minio.services.PresignedUrlService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+
+/**
+ * Controlador para obtener URLs prefirmadas. Con ellas los clientes transfieren los archivos
+ * directamente con MinIO y la aplicación solo autoriza la operación.
+ *
+ * @author Gabriel Scipioni
+ */
+@RestController
+@RequestMapping("/minio/presign")
+public class MinioPresignController {
+
+    /**
+     * Servicio encargado de las operaciones sobre los buckets de MinIO.
+     */
+    @Autowired
+    MinioBucketService bucketService;
+
+    /**
+     * Servicio encargado de firmar las URLs.
+     */
+    @Autowired
+    PresignedUrlService presignedUrlService;
+
+    /**
+     * Endpoint para obtener una URL prefirmada de descarga.
+     *
+     * @param bucket     el bucket del objeto.
+     * @param objectName el nombre del objeto.
+     * @param expiry     la vigencia de la URL, por ejemplo {@code 15m}, opcional.
+     * @return la URL y su vencimiento.
+     * @throws Exception si ocurre un error al firmar la URL.
+     */
+    @Operation(
+            summary = "URL prefirmada de descarga",
+            description = "Devuelve una URL para descargar el objeto directamente de MinIO con un GET. "
+                    + "Solo verifica que el objeto exista en los buckets con compresión, donde la URL de un "
+                    + "objeto guardado comprimido hace que MinIO responda con Content-Encoding: gzip."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "URL firmada correctamente."),
+            @ApiResponse(responseCode = "400", description = "La vigencia pedida no es válida."),
+            @ApiResponse(responseCode = "404", description = "El objeto no existe, en un bucket con compresión.")
+    })
+    @GetMapping("/download")
+    public ResponseEntity<PresignedUrlDto> download(
+            @RequestParam String bucket,
+            @RequestParam String objectName,
+            @RequestParam(required = false) String expiry
+    ) throws Exception {
+        return ResponseEntity.ok(presignedUrlService.presignGet(bucket, objectName, parseExpiry(expiry)));
+    }
+
+    /**
+     * Endpoint para obtener una URL prefirmada de subida.
+     *
+     * @param bucket     el bucket destino, se crea si no existe.
+     * @param objectName el nombre del objeto destino.
+     * @param expiry     la vigencia de la URL, por ejemplo {@code 15m}, opcional.
+     * @return la URL y su vencimiento.
+     * @throws Exception si ocurre un error al firmar la URL.
+     */
+    @Operation(
+            summary = "URL prefirmada de subida",
+            description = "Devuelve una URL para subir el objeto directamente a MinIO con un único PUT, "
+                    + "de hasta 5GB."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "URL firmada correctamente."),
+            @ApiResponse(responseCode = "400", description = "La vigencia pedida no es válida.")
+    })
+    @GetMapping("/upload")
+    public ResponseEntity<PresignedUrlDto> upload(
+            @RequestParam String bucket,
+            @RequestParam String objectName,
+            @RequestParam(required = false) String expiry
+    ) throws Exception {
+        bucketService.createBucket(bucket);
+        return ResponseEntity.ok(presignedUrlService.presignPut(bucket, objectName, parseExpiry(expiry)));
+    }
+
+    /**
+     * Endpoint para obtener una política POST prefirmada, para subir desde un formulario HTML.
+     *
+     * @param bucket      el bucket destino, se crea si no existe.
+     * @param objectName  el nombre del objeto destino, o un prefijo terminado en {@code /}.
+     * @param contentType el tipo de contenido exigido, por ejemplo {@code image/png} o {@code image/*}, opcional.
+     * @param maxSize     el tamaño máximo en bytes del archivo, opcional.
+     * @param expiry      la vigencia de la política, por ejemplo {@code 15m}, opcional.
+     * @return la URL y los campos del formulario.
+     * @throws Exception si ocurre un error al firmar la política.
+     */
+    @Operation(
+            summary = "Política POST prefirmada",
+            description = "Devuelve la URL y los campos de un formulario multipart/form-data para subir un archivo "
+                    + "directamente a MinIO. El archivo se envía en el campo file, después de los demás campos."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Política firmada correctamente."),
+            @ApiResponse(responseCode = "400", description = "La vigencia o el tamaño pedidos no son válidos.")
+    })
+    @GetMapping("/policy")
+    public ResponseEntity<PresignedPostDto> policy(
+            @RequestParam String bucket,
+            @RequestParam String objectName,
+            @RequestParam(required = false) String contentType,
+            @RequestParam(required = false) Long maxSize,
+            @RequestParam(required = false) String expiry
+    ) throws Exception {
+        bucketService.createBucket(bucket);
+        return ResponseEntity.ok(presignedUrlService.presignPost(bucket, objectName, contentType, maxSize, parseExpiry(expiry)));
+    }
+
+    /**
+     * Interpreta la vigencia pedida, en formato simple ({@code 15m}, {@code 2h}) o ISO-8601 ({@code PT15M}).
+     */
+    private Duration parseExpiry(String expiry) {
+        if (expiry == null || expiry.isBlank()) {
+            return null;
+        }
+        try {
+            return DurationStyle.detectAndParse(expiry.trim());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Vigencia inválida: " + expiry);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package gabri.dev.minio.controllers;
+
+import gabri.dev.minio.dtos.upload.UploadPartDto;
+import gabri.dev.minio.dtos.upload.UploadSessionDto;
+import gabri.dev.minio.services.MinioBucketService;
+import gabri.dev.minio.services.UploadSessionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.parameters.RequestBody;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controlador para las sesiones de subida por partes.
+ * Permite subir un archivo en partes independientes, reintentar solo las que fallaron
+ * y enviarlas en paralelo, para luego unirlas en un único objeto de MinIO.
+ *
+ * @author Gabriel Scipioni
+ */
+@RestController
+@RequestMapping("/minio/file/upload-session")
+public class MinioUploadSessionController {
+
+    /**
+     * Servicio encargado de las operaciones sobre los buckets de MinIO.
+     */
+    @Autowired
+    MinioBucketService bucketService;
+
+    /**
+     * Servicio encargado de las sesiones de subida.
+     */
+    @Autowired
+    UploadSessionService sessionService;
+
+    /**
+     * Endpoint para iniciar una sesión de subida.
+     *
+     * @param bucket      el bucket destino, se crea si no existe.
+     * @param objectName  el nombre del objeto destino.
+     * @param contentType el tipo de contenido del objeto.
+     * @return la sesión creada con el código HTTP 201 (CREATED).
+     * @throws Exception si ocurre un error al iniciar la subida en MinIO.
+     */
+    @Operation(
+            summary = "Iniciar sesión de subida",
+            description = "Crea una subida multipart en MinIO y devuelve el identificador de la sesión."
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Sesión creada correctamente."),
+            @ApiResponse(responseCode = "500", description = "Error interno al iniciar la sesión.")
+    })
+    @PostMapping
+    public ResponseEntity<UploadSessionDto> initiate(
+            @RequestParam String bucket,
+            @RequestParam String objectName,
+            @RequestParam(required = false) String contentType
+    ) throws Exception {
+        bucketService.createBucket(bucket);
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(sessionService.initiate(bucket, objectName, contentType));
+    }
+
+    /**
+     * Endpoint para subir una parte de la sesión. El cuerpo de la petición es el contenido de la parte.
+     *
+     * @param id         el identificador de la sesión.
+     * @param partNumber el número de parte, de 1 a 10000.
+     * @param request    la petición HTTP cuyo cuerpo es el contenido de la parte.
+     * @return la parte recibida.
+     * @throws Exception si ocurre un error al subir la parte.
+     */
+    @Operation(
+            summary = "Subir una parte",
+            description = "Sube o reemplaza una parte de la sesión. Todas las partes salvo la última "
+                    + "deben tener al menos 5MB.",
+            requestBody = @RequestBody(
+                    required = true,
+                    content = @Content(
+                            mediaType = "application/octet-stream",
+                            schema = @Schema(type = "string", format = "binary")
+                    )
+            )
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Parte recibida correctamente."),
+            @ApiResponse(responseCode = "404", description = "La sesión no existe."),
+            @ApiResponse(responseCode = "409", description = "La sesión ya fue completada o cancelada."),
+            @ApiResponse(responseCode = "411", description = "Falta el Content-Length de la parte."),
+            @ApiResponse(responseCode = "413", description = "La parte supera el tamaño máximo.")
+    })
+    @PutMapping("/{id}/parts/{partNumber}")
+    public ResponseEntity<UploadPartDto> uploadPart(
+            @PathVariable String id,
+            @PathVariable int partNumber,
+            HttpServletRequest request
+    ) throws Exception {
+        return ResponseEntity.ok(sessionService.uploadPart(
+                id, partNumber, request.getInputStream(), request.getContentLengthLong()));
+    }
+
+    /**
+     * Endpoint para listar las partes recibidas de una sesión.
+     *
+     * @param id el identificador de la sesión.
+     * @return las partes recibidas ordenadas por número.
+     */
+    @Operation(
+            summary = "Listar partes",
+            description = "Lista las partes recibidas, para saber cuáles hay que reenviar."
+    )
+    @GetMapping("/{id}/parts")
+    public ResponseEntity<List<UploadPartDto>> listParts(@PathVariable String id) {
+        return ResponseEntity.ok(sessionService.listParts(id));
+    }
+
+    /**
+     * Endpoint para completar una sesión uniendo sus partes en el objeto final.
+     *
+     * @param id el identificador de la sesión.
+     * @return la sesión completada.
+     * @throws Exception si ocurre un error al completar la subida en MinIO.
+     */
+    @Operation(
+            summary = "Completar sesión",
+            description = "Une las partes recibidas en el objeto final."
+    )
+    @PostMapping("/{id}/complete")
+    public ResponseEntity<UploadSessionDto> complete(@PathVariable String id) throws Exception {
+        return ResponseEntity.ok(sessionService.complete(id));
+    }
+
+    /**
+     * Endpoint para cancelar una sesión descartando sus partes.
+     *
+     * @param id el identificador de la sesión.
+     * @return una respuesta con el código HTTP 200 (OK) si la sesión fue cancelada.
+     * @throws Exception si ocurre un error al abortar la subida en MinIO.
+     */
+    @Operation(
+            summary = "Cancelar sesión",
+            description = "Aborta la subida multipart y descarta las partes recibidas."
+    )
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> abort(@PathVariable String id) throws Exception {
+        sessionService.abort(id);
+        return ResponseEntity.ok().build();
+    }
+}
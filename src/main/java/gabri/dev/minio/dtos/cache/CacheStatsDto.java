@@ -0,0 +1,56 @@
+package gabri.dev.minio.dtos.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Estadísticas de una caché de objetos.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CacheStatsDto {
+
+    /**
+     * Cantidad de lecturas servidas desde la caché.
+     */
+    private long hitCount;
+
+    /**
+     * Cantidad de lecturas que tuvieron que ir a MinIO.
+     */
+    private long missCount;
+
+    /**
+     * Proporción de lecturas servidas desde la caché.
+     */
+    private double hitRate;
+
+    /**
+     * Cantidad de objetos desalojados.
+     */
+    private long evictionCount;
+
+    /**
+     * Bytes desalojados.
+     */
+    private long evictedBytes;
+
+    /**
+     * Cantidad de objetos en la caché.
+     */
+    private long entries;
+
+    /**
+     * Bytes ocupados por la caché.
+     */
+    private long sizeBytes;
+
+    /**
+     * Capacidad máxima en bytes de la caché.
+     */
+    private long capacityBytes;
+}
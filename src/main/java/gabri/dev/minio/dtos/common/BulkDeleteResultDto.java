@@ -0,0 +1,27 @@
+package gabri.dev.minio.dtos.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Resultado de una eliminación masiva de objetos.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkDeleteResultDto {
+
+    /**
+     * Cantidad de objetos eliminados.
+     */
+    private long deleted;
+
+    /**
+     * Objetos que no se pudieron eliminar.
+     */
+    private List<DeleteErrorDto> errors = new ArrayList<>();
+}
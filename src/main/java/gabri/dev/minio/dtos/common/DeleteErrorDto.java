@@ -0,0 +1,29 @@
+package gabri.dev.minio.dtos.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Error al eliminar un objeto dentro de una eliminación masiva.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeleteErrorDto {
+
+    /**
+     * Nombre del objeto que no se pudo eliminar.
+     */
+    private String objectName;
+
+    /**
+     * Código de error devuelto por MinIO.
+     */
+    private String code;
+
+    /**
+     * Mensaje de error devuelto por MinIO.
+     */
+    private String message;
+}
@@ -0,0 +1,26 @@
+package gabri.dev.minio.dtos.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de un listado de archivos.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class FilePage {
+
+    /**
+     * Archivos de la página.
+     */
+    private List<FileInfo> files;
+
+    /**
+     * Nombre a usar como {@code startAfter} para pedir la página siguiente, o {@code null} si no hay más.
+     */
+    private String nextStartAfter;
+}
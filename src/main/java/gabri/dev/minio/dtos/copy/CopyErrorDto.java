@@ -0,0 +1,29 @@
+package gabri.dev.minio.dtos.copy;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Error al copiar o eliminar un archivo dentro de un trabajo de copia.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class CopyErrorDto {
+
+    /**
+     * Nombre del archivo de origen.
+     */
+    private String objectName;
+
+    /**
+     * Código de error devuelto por MinIO, o el tipo de la excepción.
+     */
+    private String code;
+
+    /**
+     * Mensaje de error.
+     */
+    private String message;
+}
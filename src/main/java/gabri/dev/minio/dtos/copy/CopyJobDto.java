@@ -0,0 +1,94 @@
+package gabri.dev.minio.dtos.copy;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Estado y progreso de un trabajo de copia o movimiento de un prefijo.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class CopyJobDto {
+
+    /**
+     * Identificador del trabajo.
+     */
+    private String id;
+
+    /**
+     * Indica si los archivos se mueven, eliminándolos del origen, o solo se copian.
+     */
+    private boolean move;
+
+    /**
+     * Bucket de origen.
+     */
+    private String sourceBucket;
+
+    /**
+     * Prefijo de los archivos de origen.
+     */
+    private String sourcePrefix;
+
+    /**
+     * Bucket destino.
+     */
+    private String targetBucket;
+
+    /**
+     * Prefijo que reemplaza al de origen en los archivos destino.
+     */
+    private String targetPrefix;
+
+    /**
+     * Estado del trabajo.
+     */
+    private CopyJobStatus status;
+
+    /**
+     * Cantidad de archivos encontrados hasta el momento bajo el prefijo de origen.
+     */
+    private long found;
+
+    /**
+     * Cantidad de archivos copiados.
+     */
+    private long copied;
+
+    /**
+     * Cantidad de archivos de origen eliminados, en los movimientos.
+     */
+    private long deleted;
+
+    /**
+     * Cantidad de archivos que no se pudieron copiar o eliminar.
+     */
+    private long failed;
+
+    /**
+     * Bytes copiados.
+     */
+    private long bytesCopied;
+
+    /**
+     * Fecha de inicio del trabajo.
+     */
+    private LocalDateTime startedAt;
+
+    /**
+     * Fecha de fin del trabajo, vacía mientras está en curso.
+     */
+    private LocalDateTime finishedAt;
+
+    /**
+     * Primeros errores del trabajo.
+     */
+    private List<CopyErrorDto> errors;
+}
@@ -0,0 +1,10 @@
+package gabri.dev.minio.dtos.copy;
+
+/**
+ * Estado de un trabajo de copia o movimiento de un prefijo.
+ */
+public enum CopyJobStatus {
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
@@ -0,0 +1,51 @@
+package gabri.dev.minio.dtos.dedup;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Archivo deduplicado y el contenido que lo respalda.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ContentReferenceDto {
+
+    /**
+     * Bucket del archivo.
+     */
+    private String bucket;
+
+    /**
+     * Nombre lógico del archivo.
+     */
+    private String objectKey;
+
+    /**
+     * Hash SHA-256 del contenido, en hexadecimal.
+     */
+    private String sha256;
+
+    /**
+     * Tamaño en bytes del contenido.
+     */
+    private Long size;
+
+    /**
+     * Tipo de contenido del archivo, si se conoce.
+     */
+    private String contentType;
+
+    /**
+     * Fecha en que se subió el archivo con este nombre.
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * Indica si en la subida el contenido ya existía y no se volvió a escribir en MinIO.
+     */
+    private boolean deduplicated;
+}
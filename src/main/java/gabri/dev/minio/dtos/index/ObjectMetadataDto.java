@@ -0,0 +1,46 @@
+package gabri.dev.minio.dtos.index;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Metadatos de un objeto devueltos por la búsqueda.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ObjectMetadataDto {
+
+    /**
+     * Bucket del objeto.
+     */
+    private String bucket;
+
+    /**
+     * Nombre del objeto dentro del bucket.
+     */
+    private String objectKey;
+
+    /**
+     * Tamaño en bytes del objeto.
+     */
+    private Long size;
+
+    /**
+     * Etag del objeto.
+     */
+    private String etag;
+
+    /**
+     * Fecha de la última modificación del objeto.
+     */
+    private LocalDateTime lastModified;
+
+    /**
+     * Tipo de contenido del objeto, si se conoce.
+     */
+    private String contentType;
+}
@@ -0,0 +1,54 @@
+package gabri.dev.minio.dtos.index;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros de la búsqueda de objetos. Los filtros nulos no se aplican.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ObjectSearchCriteria {
+
+    /**
+     * Prefijo que deben tener los nombres.
+     */
+    private String prefix;
+
+    /**
+     * Nombre a partir del cual se busca (exclusivo), para pedir la página siguiente.
+     */
+    private String startAfter;
+
+    /**
+     * Tamaño mínimo en bytes.
+     */
+    private Long minSize;
+
+    /**
+     * Tamaño máximo en bytes.
+     */
+    private Long maxSize;
+
+    /**
+     * Fecha de modificación mínima.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime modifiedFrom;
+
+    /**
+     * Fecha de modificación máxima.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime modifiedTo;
+
+    /**
+     * Cantidad máxima de resultados.
+     */
+    private Integer maxKeys = 1000;
+}
@@ -0,0 +1,26 @@
+package gabri.dev.minio.dtos.index;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de resultados de la búsqueda de objetos.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ObjectSearchPage {
+
+    /**
+     * Objetos de la página.
+     */
+    private List<ObjectMetadataDto> objects;
+
+    /**
+     * Valor de {@code startAfter} para pedir la página siguiente, o {@code null} si es la última.
+     */
+    private String nextStartAfter;
+}
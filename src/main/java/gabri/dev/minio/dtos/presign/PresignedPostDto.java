@@ -0,0 +1,40 @@
+package gabri.dev.minio.dtos.presign;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Política POST prefirmada para que un navegador suba un archivo directamente a MinIO
+ * con un formulario {@code multipart/form-data}.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PresignedPostDto {
+
+    /**
+     * URL a la que se envía el formulario.
+     */
+    private String url;
+
+    /**
+     * Bucket destino.
+     */
+    private String bucket;
+
+    /**
+     * Campos que deben enviarse en el formulario, antes del campo {@code file}.
+     */
+    private Map<String, String> formData;
+
+    /**
+     * Momento en que vence la política.
+     */
+    private Instant expiresAt;
+}
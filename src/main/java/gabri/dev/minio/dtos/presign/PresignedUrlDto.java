@@ -0,0 +1,43 @@
+package gabri.dev.minio.dtos.presign;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * URL prefirmada para leer o escribir un objeto directamente en MinIO.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PresignedUrlDto {
+
+    /**
+     * Método HTTP con el que se debe usar la URL.
+     */
+    private String method;
+
+    /**
+     * Bucket del objeto.
+     */
+    private String bucket;
+
+    /**
+     * Nombre del objeto.
+     */
+    private String objectName;
+
+    /**
+     * URL prefirmada.
+     */
+    private String url;
+
+    /**
+     * Momento en que vence la firma.
+     */
+    private Instant expiresAt;
+}
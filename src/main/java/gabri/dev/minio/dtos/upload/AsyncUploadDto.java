@@ -0,0 +1,68 @@
+package gabri.dev.minio.dtos.upload;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado de una subida asíncrona.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class AsyncUploadDto {
+
+    /**
+     * Identificador de la subida.
+     */
+    private String id;
+
+    /**
+     * Bucket destino.
+     */
+    private String bucket;
+
+    /**
+     * Nombre del archivo destino.
+     */
+    private String objectName;
+
+    /**
+     * Tamaño en bytes del archivo.
+     */
+    private long size;
+
+    /**
+     * Estado de la subida.
+     */
+    private AsyncUploadStatus status;
+
+    /**
+     * Cantidad de intentos realizados.
+     */
+    private int attempts;
+
+    /**
+     * Error del último intento fallido, si lo hubo.
+     */
+    private String lastError;
+
+    /**
+     * Fecha en que se aceptó la subida.
+     */
+    private LocalDateTime createdAt;
+
+    /**
+     * Fecha del próximo intento, si la subida está esperando para reintentar.
+     */
+    private LocalDateTime nextAttemptAt;
+
+    /**
+     * Fecha en que terminó la subida.
+     */
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,12 @@
+package gabri.dev.minio.dtos.upload;
+
+/**
+ * Estado de una subida asíncrona.
+ */
+public enum AsyncUploadStatus {
+    QUEUED,
+    UPLOADING,
+    RETRYING,
+    COMPLETED,
+    FAILED
+}
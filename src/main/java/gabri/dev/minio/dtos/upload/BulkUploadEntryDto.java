@@ -0,0 +1,34 @@
+package gabri.dev.minio.dtos.upload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de la subida de un archivo dentro de una subida masiva.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkUploadEntryDto {
+
+    /**
+     * Nombre del objeto en el bucket.
+     */
+    private String objectName;
+
+    /**
+     * Tamaño en bytes del archivo, si se llegó a leer.
+     */
+    private Long size;
+
+    /**
+     * Indica si el archivo se subió correctamente.
+     */
+    private boolean uploaded;
+
+    /**
+     * Mensaje de error si el archivo no se pudo subir.
+     */
+    private String error;
+}
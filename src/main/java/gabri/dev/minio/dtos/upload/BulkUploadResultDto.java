@@ -0,0 +1,31 @@
+package gabri.dev.minio.dtos.upload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Resultado de una subida masiva, con una entrada por archivo en el orden en que se recibieron.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class BulkUploadResultDto {
+
+    /**
+     * Cantidad de archivos subidos.
+     */
+    private long uploaded;
+
+    /**
+     * Cantidad de archivos que no se pudieron subir.
+     */
+    private long failed;
+
+    /**
+     * Resultado de cada archivo.
+     */
+    private List<BulkUploadEntryDto> entries;
+}
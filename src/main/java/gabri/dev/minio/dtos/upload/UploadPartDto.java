@@ -0,0 +1,36 @@
+package gabri.dev.minio.dtos.upload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Datos de una parte recibida en una sesión de subida.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadPartDto {
+
+    /**
+     * Número de parte.
+     */
+    private Integer partNumber;
+
+    /**
+     * Etag de la parte.
+     */
+    private String etag;
+
+    /**
+     * Tamaño de la parte en bytes.
+     */
+    private Long size;
+
+    /**
+     * Fecha en que se recibió la parte.
+     */
+    private LocalDateTime uploadedAt;
+}
@@ -0,0 +1,46 @@
+package gabri.dev.minio.dtos.upload;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Datos de una sesión de subida por partes.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionDto {
+
+    /**
+     * Identificador de la sesión.
+     */
+    private String id;
+
+    /**
+     * Bucket destino.
+     */
+    private String bucket;
+
+    /**
+     * Nombre del objeto destino.
+     */
+    private String objectName;
+
+    /**
+     * Estado de la sesión.
+     */
+    private String status;
+
+    /**
+     * Etag del objeto final, una vez completada la sesión.
+     */
+    private String etag;
+
+    /**
+     * Fecha de creación de la sesión.
+     */
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,69 @@
+package gabri.dev.minio.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Referencia de un nombre lógico de archivo al contenido deduplicado que lo respalda.
+ */
+@Entity
+@Table(
+        name = "content_reference",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"bucket", "objectKey"}),
+        indexes = @Index(name = "idx_content_reference_sha256", columnList = "bucket, sha256")
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ContentReferenceEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Bucket del archivo y de su contenido.
+     */
+    @Column(nullable = false)
+    private String bucket;
+
+    /**
+     * Nombre lógico del archivo.
+     */
+    @Column(nullable = false, length = 1024)
+    private String objectKey;
+
+    /**
+     * Hash SHA-256 del contenido, en hexadecimal.
+     */
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    /**
+     * Tamaño en bytes del contenido.
+     */
+    @Column(nullable = false)
+    private Long size;
+
+    /**
+     * Tipo de contenido con el que se subió el archivo, si se conoce.
+     */
+    private String contentType;
+
+    /**
+     * Fecha en que se subió el archivo con este nombre.
+     */
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+}
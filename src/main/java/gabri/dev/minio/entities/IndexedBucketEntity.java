@@ -0,0 +1,39 @@
+package gabri.dev.minio.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Bucket cuyo contenido ya fue cargado en el índice por una reconciliación completa.
+ */
+@Entity
+@Table(name = "indexed_buckets")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class IndexedBucketEntity {
+
+    /**
+     * Nombre del bucket.
+     */
+    @Id
+    private String bucket;
+
+    /**
+     * Fecha de la última reconciliación completa.
+     */
+    @Column(nullable = false)
+    private LocalDateTime reconciledAt;
+
+    /**
+     * Cantidad de objetos vistos en la última reconciliación.
+     */
+    private Long objectCount;
+}
@@ -0,0 +1,76 @@
+package gabri.dev.minio.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Metadatos de un objeto de MinIO guardados en el índice local.
+ */
+@Entity
+@Table(
+        name = "object_metadata",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"bucket", "objectKey"}),
+        indexes = {
+                @Index(name = "idx_object_metadata_size", columnList = "bucket, size"),
+                @Index(name = "idx_object_metadata_last_modified", columnList = "bucket, lastModified")
+        }
+)
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ObjectMetadataEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Bucket del objeto.
+     */
+    @Column(nullable = false)
+    private String bucket;
+
+    /**
+     * Nombre del objeto dentro del bucket.
+     */
+    @Column(nullable = false, length = 1024)
+    private String objectKey;
+
+    /**
+     * Tamaño en bytes del objeto.
+     */
+    @Column(nullable = false)
+    private Long size;
+
+    /**
+     * Etag del objeto.
+     */
+    private String etag;
+
+    /**
+     * Fecha de la última modificación del objeto.
+     */
+    private LocalDateTime lastModified;
+
+    /**
+     * Tipo de contenido del objeto, si se conoce.
+     */
+    private String contentType;
+
+    /**
+     * Fecha en que se escribió la entrada, usada para descartar las que no vio la última reconciliación.
+     */
+    @Column(nullable = false)
+    private LocalDateTime indexedAt;
+}
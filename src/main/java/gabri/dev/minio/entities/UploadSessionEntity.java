@@ -0,0 +1,76 @@
+package gabri.dev.minio.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Sesión de subida por partes, asociada a una subida multipart de MinIO.
+ */
+@Entity
+@Table(name = "upload_sessions")
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionEntity {
+
+    /**
+     * Identificador de la sesión que usa el cliente.
+     */
+    @Id
+    private String id;
+
+    /**
+     * Bucket destino.
+     */
+    @Column(nullable = false)
+    private String bucket;
+
+    /**
+     * Nombre del objeto destino.
+     */
+    @Column(nullable = false, length = 1024)
+    private String objectName;
+
+    /**
+     * Identificador de la subida multipart en MinIO.
+     */
+    @Column(nullable = false, length = 512)
+    private String uploadId;
+
+    /**
+     * Tipo de contenido del objeto final.
+     */
+    private String contentType;
+
+    /**
+     * Estado de la sesión.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private UploadSessionStatus status;
+
+    /**
+     * Etag del objeto final, una vez completada la sesión.
+     */
+    private String etag;
+
+    /**
+     * Fecha de creación de la sesión.
+     */
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Fecha de la última modificación de la sesión.
+     */
+    private LocalDateTime updatedAt;
+}
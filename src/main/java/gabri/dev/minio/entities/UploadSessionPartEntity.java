@@ -0,0 +1,60 @@
+package gabri.dev.minio.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Parte recibida de una sesión de subida.
+ */
+@Entity
+@Table(name = "upload_session_parts",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"session_id", "part_number"}))
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UploadSessionPartEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Sesión a la que pertenece la parte.
+     */
+    @Column(name = "session_id", nullable = false)
+    private String sessionId;
+
+    /**
+     * Número de parte, de 1 a 10000.
+     */
+    @Column(name = "part_number", nullable = false)
+    private Integer partNumber;
+
+    /**
+     * Etag de la parte devuelto por MinIO.
+     */
+    @Column(nullable = false)
+    private String etag;
+
+    /**
+     * Tamaño de la parte en bytes.
+     */
+    @Column(nullable = false)
+    private Long size;
+
+    /**
+     * Fecha en que se recibió la parte.
+     */
+    @Column(nullable = false)
+    private LocalDateTime uploadedAt;
+}
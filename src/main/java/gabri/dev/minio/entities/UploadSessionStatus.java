@@ -0,0 +1,19 @@
+package gabri.dev.minio.entities;
+
+/**
+ * Estados posibles de una sesión de subida por partes.
+ */
+public enum UploadSessionStatus {
+    /**
+     * La sesión acepta partes.
+     */
+    ACTIVE,
+    /**
+     * Las partes se unieron en el objeto final.
+     */
+    COMPLETED,
+    /**
+     * La sesión se canceló y sus partes se descartaron.
+     */
+    ABORTED
+}
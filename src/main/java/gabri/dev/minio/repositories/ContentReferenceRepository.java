@@ -0,0 +1,82 @@
+package gabri.dev.minio.repositories;
+
+import gabri.dev.minio.entities.ContentReferenceEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio de las referencias de los archivos deduplicados a su contenido.
+ */
+@Repository
+public interface ContentReferenceRepository extends JpaRepository<ContentReferenceEntity, Long> {
+
+    /**
+     * Busca la referencia de un archivo.
+     *
+     * @param bucket    nombre del bucket.
+     * @param objectKey nombre lógico del archivo.
+     * @return la referencia si el archivo existe.
+     */
+    Optional<ContentReferenceEntity> findByBucketAndObjectKey(String bucket, String objectKey);
+
+    /**
+     * Lista las referencias de un bucket cuyo nombre empieza con un prefijo, ordenadas por nombre.
+     *
+     * @param bucket nombre del bucket.
+     * @param prefix prefijo de los nombres, vacío para todo el bucket.
+     * @return las referencias encontradas.
+     */
+    List<ContentReferenceEntity> findByBucketAndObjectKeyStartingWithOrderByObjectKeyAsc(String bucket, String prefix);
+
+    /**
+     * Cuenta las referencias a un contenido.
+     *
+     * @param bucket nombre del bucket.
+     * @param sha256 hash del contenido.
+     * @return la cantidad de archivos que usan el contenido.
+     */
+    long countByBucketAndSha256(String bucket, String sha256);
+
+    /**
+     * Elimina la referencia de un archivo.
+     *
+     * @param bucket    nombre del bucket.
+     * @param objectKey nombre lógico del archivo.
+     * @return la cantidad de referencias eliminadas.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from ContentReferenceEntity r where r.bucket = :bucket and r.objectKey = :objectKey")
+    int deleteEntry(@Param("bucket") String bucket, @Param("objectKey") String objectKey);
+
+    /**
+     * Elimina las referencias de un bucket.
+     *
+     * @param bucket nombre del bucket.
+     * @return la cantidad de referencias eliminadas.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from ContentReferenceEntity r where r.bucket = :bucket")
+    int deleteBucket(@Param("bucket") String bucket);
+
+    /**
+     * Elimina las referencias de un bucket salvo las de ciertos contenidos.
+     *
+     * @param bucket  nombre del bucket.
+     * @param sha256s hashes de los contenidos cuyas referencias se conservan.
+     * @return la cantidad de referencias eliminadas.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from ContentReferenceEntity r where r.bucket = :bucket and r.sha256 not in :sha256s")
+    int deleteBucketExcept(@Param("bucket") String bucket, @Param("sha256s") Collection<String> sha256s);
+}
@@ -0,0 +1,12 @@
+package gabri.dev.minio.repositories;
+
+import gabri.dev.minio.entities.IndexedBucketEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repositorio de los buckets cargados en el índice de metadatos.
+ */
+@Repository
+public interface IndexedBucketRepository extends JpaRepository<IndexedBucketEntity, String> {
+}
@@ -0,0 +1,114 @@
+package gabri.dev.minio.repositories;
+
+import gabri.dev.minio.entities.ObjectMetadataEntity;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio del índice de metadatos de objetos.
+ */
+@Repository
+public interface ObjectMetadataRepository extends JpaRepository<ObjectMetadataEntity, Long> {
+
+    /**
+     * Busca la entrada de un objeto.
+     *
+     * @param bucket    nombre del bucket.
+     * @param objectKey nombre del objeto.
+     * @return la entrada si el objeto está indexado.
+     */
+    Optional<ObjectMetadataEntity> findByBucketAndObjectKey(String bucket, String objectKey);
+
+    /**
+     * Busca las entradas de un conjunto de objetos de un bucket.
+     *
+     * @param bucket     nombre del bucket.
+     * @param objectKeys nombres de los objetos.
+     * @return las entradas de los objetos indexados.
+     */
+    List<ObjectMetadataEntity> findByBucketAndObjectKeyIn(String bucket, Collection<String> objectKeys);
+
+    /**
+     * Busca objetos de un bucket ordenados por nombre. Los filtros nulos no se aplican.
+     *
+     * @param bucket       nombre del bucket.
+     * @param prefix       patrón LIKE del prefijo, con los comodines escapados y terminado en {@code %}.
+     * @param startAfter   nombre a partir del cual se busca (exclusivo).
+     * @param minSize      tamaño mínimo en bytes.
+     * @param maxSize      tamaño máximo en bytes.
+     * @param modifiedFrom fecha de modificación mínima.
+     * @param modifiedTo   fecha de modificación máxima.
+     * @param pageable     cantidad máxima de resultados.
+     * @return las entradas que cumplen los filtros.
+     */
+    @Query("select o from ObjectMetadataEntity o where o.bucket = :bucket"
+            + " and (:prefix is null or o.objectKey like :prefix escape '\\')"
+            + " and (:startAfter is null or o.objectKey > :startAfter)"
+            + " and (:minSize is null or o.size >= :minSize)"
+            + " and (:maxSize is null or o.size <= :maxSize)"
+            + " and (:modifiedFrom is null or o.lastModified >= :modifiedFrom)"
+            + " and (:modifiedTo is null or o.lastModified <= :modifiedTo)"
+            + " order by o.objectKey asc")
+    List<ObjectMetadataEntity> search(@Param("bucket") String bucket,
+                                      @Param("prefix") String prefix,
+                                      @Param("startAfter") String startAfter,
+                                      @Param("minSize") Long minSize,
+                                      @Param("maxSize") Long maxSize,
+                                      @Param("modifiedFrom") LocalDateTime modifiedFrom,
+                                      @Param("modifiedTo") LocalDateTime modifiedTo,
+                                      Pageable pageable);
+
+    /**
+     * Elimina la entrada de un objeto.
+     *
+     * @param bucket    nombre del bucket.
+     * @param objectKey nombre del objeto.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from ObjectMetadataEntity o where o.bucket = :bucket and o.objectKey = :objectKey")
+    void deleteEntry(@Param("bucket") String bucket, @Param("objectKey") String objectKey);
+
+    /**
+     * Elimina las entradas de varios objetos de un bucket.
+     *
+     * @param bucket     nombre del bucket.
+     * @param objectKeys nombres de los objetos.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from ObjectMetadataEntity o where o.bucket = :bucket and o.objectKey in :objectKeys")
+    void deleteEntries(@Param("bucket") String bucket, @Param("objectKeys") Collection<String> objectKeys);
+
+    /**
+     * Elimina las entradas de un bucket escritas antes de cierta fecha.
+     *
+     * @param bucket nombre del bucket.
+     * @param before fecha límite, las entradas escritas después se conservan.
+     * @return la cantidad de entradas eliminadas.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from ObjectMetadataEntity o where o.bucket = :bucket and o.indexedAt < :before")
+    int deleteIndexedBefore(@Param("bucket") String bucket, @Param("before") LocalDateTime before);
+
+    /**
+     * Elimina todas las entradas de un bucket.
+     *
+     * @param bucket nombre del bucket.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from ObjectMetadataEntity o where o.bucket = :bucket")
+    void deleteBucket(@Param("bucket") String bucket);
+}
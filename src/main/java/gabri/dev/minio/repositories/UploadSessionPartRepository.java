@@ -0,0 +1,47 @@
+package gabri.dev.minio.repositories;
+
+import gabri.dev.minio.entities.UploadSessionPartEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repositorio de las partes recibidas de las sesiones de subida.
+ */
+@Repository
+public interface UploadSessionPartRepository extends JpaRepository<UploadSessionPartEntity, Long> {
+
+    /**
+     * Obtiene las partes de una sesión ordenadas por número de parte.
+     *
+     * @param sessionId identificador de la sesión.
+     * @return las partes recibidas.
+     */
+    List<UploadSessionPartEntity> findBySessionIdOrderByPartNumberAsc(String sessionId);
+
+    /**
+     * Busca una parte puntual de una sesión.
+     *
+     * @param sessionId  identificador de la sesión.
+     * @param partNumber número de parte.
+     * @return la parte si ya fue recibida.
+     */
+    Optional<UploadSessionPartEntity> findBySessionIdAndPartNumber(String sessionId, Integer partNumber);
+
+    /**
+     * Elimina todas las partes de una sesión.
+     *
+     * @param sessionId identificador de la sesión.
+     * @return la cantidad de partes eliminadas.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from UploadSessionPartEntity p where p.sessionId = :sessionId")
+    int deleteBySessionId(@Param("sessionId") String sessionId);
+}
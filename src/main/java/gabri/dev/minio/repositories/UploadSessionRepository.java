@@ -0,0 +1,40 @@
+package gabri.dev.minio.repositories;
+
+import gabri.dev.minio.entities.UploadSessionEntity;
+import gabri.dev.minio.entities.UploadSessionStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repositorio de sesiones de subida.
+ */
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSessionEntity, String> {
+
+    /**
+     * Obtiene las sesiones en un estado que no recibieron partes desde cierto momento.
+     *
+     * @param status estado de las sesiones.
+     * @param before momento desde el que no hubo actividad.
+     * @return las sesiones sin actividad.
+     */
+    @Query("select s from UploadSessionEntity s where s.status = :status and s.updatedAt < :before"
+            + " and not exists (select p from UploadSessionPartEntity p"
+            + " where p.sessionId = s.id and p.uploadedAt >= :before)")
+    List<UploadSessionEntity> findIdle(@Param("status") UploadSessionStatus status,
+                                       @Param("before") LocalDateTime before);
+
+    /**
+     * Indica si una subida multipart de MinIO pertenece a una sesión en cierto estado.
+     *
+     * @param uploadId identificador de la subida multipart en MinIO.
+     * @param status   estado de la sesión.
+     * @return {@code true} si hay una sesión con esa subida y ese estado.
+     */
+    boolean existsByUploadIdAndStatus(String uploadId, UploadSessionStatus status);
+}
@@ -0,0 +1,111 @@
+package gabri.dev.minio.services;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.Collection;
+
+/**
+ * Servicio de control de admisión: acota las peticiones en curso, el ritmo de peticiones y el
+ * ancho de banda de cada bucket y de cada cliente, para que un trabajo masivo sobre un bucket
+ * no deje sin hilos ni conexiones a MinIO al resto.
+ */
+public interface AdmissionControlService {
+
+    /**
+     * Cliente con el que se admiten las operaciones que la aplicación hace fuera de la petición que las
+     * originó: las subidas asíncronas, las copias de prefijos y las subidas en paralelo de las subidas
+     * masivas. Sus límites se configuran en {@code minio.admission.clients.background.*}.
+     */
+    String BACKGROUND_CLIENT = "background";
+
+    /**
+     * Lugar obtenido por una petición admitida, que debe liberarse al terminar la petición.
+     */
+    interface Admission {
+
+        /**
+         * Indica si hay límites de ancho de banda que aplicar a los cuerpos de la petición y la respuesta.
+         *
+         * @return {@code true} si hay que informar los bytes transferidos con {@link #consume(long)}.
+         */
+        boolean limitsBandwidth();
+
+        /**
+         * Descuenta bytes transferidos del ancho de banda, esperando si se superó el límite.
+         *
+         * @param bytes cantidad de bytes leídos o escritos.
+         * @throws InterruptedIOException si se interrumpe la espera.
+         */
+        void consume(long bytes) throws InterruptedIOException;
+
+        /**
+         * Envuelve un flujo para que se lea al ritmo admitido.
+         *
+         * @param stream el flujo a leer.
+         * @return el flujo limitado, o el mismo si no hay límites de ancho de banda.
+         */
+        default InputStream throttle(InputStream stream) {
+            if (!limitsBandwidth()) {
+                return stream;
+            }
+            return new FilterInputStream(stream) {
+                @Override
+                public int read() throws IOException {
+                    int read = super.read();
+                    if (read >= 0) {
+                        consume(1);
+                    }
+                    return read;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) throws IOException {
+                    int read = super.read(b, off, len);
+                    if (read > 0) {
+                        consume(read);
+                    }
+                    return read;
+                }
+            };
+        }
+
+        /**
+         * Libera los lugares ocupados por la petición. Solo tiene efecto la primera vez.
+         */
+        void release();
+    }
+
+    /**
+     * Admite una petición sobre un conjunto de buckets, esperando en orden de llegada hasta
+     * {@code maxWait} por un lugar y por las fichas de ritmo de peticiones.
+     *
+     * @param buckets buckets sobre los que opera la petición, puede ser vacío.
+     * @param client  identificador del cliente.
+     * @return el lugar obtenido.
+     * @throws org.springframework.web.server.ResponseStatusException con 429 y {@code Retry-After}
+     *                                                                si la espera superaría {@code maxWait}.
+     */
+    Admission admit(Collection<String> buckets, String client);
+
+    /**
+     * Admite una operación en segundo plano sobre un conjunto de buckets como {@link #BACKGROUND_CLIENT}.
+     * A diferencia de {@link #admit}, no se rechaza por superar {@code maxWait}: espera en orden de
+     * llegada hasta que haya lugar y fichas. Sin control de admisión no espera.
+     *
+     * @param buckets buckets sobre los que opera la operación.
+     * @return el lugar obtenido.
+     * @throws org.springframework.web.server.ResponseStatusException si se interrumpe la espera.
+     */
+    Admission admitBackground(Collection<String> buckets);
+
+    /**
+     * Intenta admitir sin esperar una operación en segundo plano sobre un conjunto de buckets como
+     * {@link #BACKGROUND_CLIENT}, por ejemplo una subida en paralelo además de la de la petición.
+     *
+     * @param buckets buckets sobre los que opera la operación.
+     * @return el lugar obtenido, o {@code null} si en este momento no hay lugar o fichas.
+     */
+    Admission tryAdmitBackground(Collection<String> buckets);
+}
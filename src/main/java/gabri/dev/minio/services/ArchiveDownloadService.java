@@ -0,0 +1,33 @@
+package gabri.dev.minio.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Servicio que arma un zip con varios archivos de un bucket mientras se envía al cliente.
+ */
+public interface ArchiveDownloadService {
+
+    /**
+     * Escribe un zip con todos los archivos de un bucket cuyo nombre empieza con un prefijo.
+     * Las entradas del zip conservan la ruta relativa a la carpeta del prefijo.
+     *
+     * @param bucket nombre del bucket.
+     * @param prefix prefijo de los archivos a incluir.
+     * @param output flujo donde se escribe el zip.
+     * @throws IOException si ocurre un error al leer de MinIO o al escribir el zip.
+     */
+    void writePrefix(String bucket, String prefix, OutputStream output) throws IOException;
+
+    /**
+     * Escribe un zip con una lista de archivos de un bucket. Las entradas del zip tienen
+     * el nombre completo de cada archivo.
+     *
+     * @param bucket      nombre del bucket.
+     * @param objectNames nombres de los archivos a incluir.
+     * @param output      flujo donde se escribe el zip.
+     * @throws IOException si ocurre un error al leer de MinIO o al escribir el zip.
+     */
+    void writeObjects(String bucket, List<String> objectNames, OutputStream output) throws IOException;
+}
@@ -0,0 +1,41 @@
+package gabri.dev.minio.services;
+
+import gabri.dev.minio.dtos.upload.AsyncUploadDto;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+/**
+ * Servicio de subidas asíncronas: el archivo se guarda en disco, se confirma su recepción
+ * y se sube a MinIO en segundo plano, reintentando si MinIO falla.
+ */
+public interface AsyncUploadService {
+
+    /**
+     * Guarda un archivo en el directorio de subidas pendientes y lo encola para subirlo.
+     *
+     * @param file       el archivo recibido.
+     * @param bucket     nombre del bucket destino.
+     * @param objectName nombre del archivo destino.
+     * @return el estado inicial de la subida.
+     * @throws org.springframework.web.server.ResponseStatusException con 429 si la cola está llena,
+     *                                                                o con 503 si no hay espacio para guardar el archivo.
+     */
+    AsyncUploadDto submit(MultipartFile file, String bucket, String objectName);
+
+    /**
+     * Obtiene el estado de una subida.
+     *
+     * @param id identificador de la subida.
+     * @return el estado de la subida.
+     * @throws org.springframework.web.server.ResponseStatusException con 404 si la subida no existe.
+     */
+    AsyncUploadDto get(String id);
+
+    /**
+     * Lista las subidas pendientes y las terminadas recientemente.
+     *
+     * @return el estado de cada subida, de la más reciente a la más antigua.
+     */
+    List<AsyncUploadDto> list();
+}
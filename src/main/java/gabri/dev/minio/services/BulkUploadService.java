@@ -0,0 +1,35 @@
+package gabri.dev.minio.services;
+
+import gabri.dev.minio.dtos.upload.BulkUploadResultDto;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+/**
+ * Servicio que sube muchos archivos en una sola petición, subiéndolos a MinIO en paralelo.
+ */
+public interface BulkUploadService {
+
+    /**
+     * Sube varios archivos recibidos en una petición multipart.
+     *
+     * @param bucket nombre del bucket destino.
+     * @param prefix carpeta donde se guardan los archivos, puede ser {@code null}.
+     * @param files  archivos a subir.
+     * @return el resultado de cada archivo.
+     */
+    BulkUploadResultDto uploadFiles(String bucket, String prefix, List<MultipartFile> files);
+
+    /**
+     * Sube las entradas de un archivo zip a medida que se leen, sin descomprimirlo en disco.
+     *
+     * @param stream flujo del archivo zip.
+     * @param bucket nombre del bucket destino.
+     * @param prefix carpeta donde se guardan las entradas, puede ser {@code null}.
+     * @return el resultado de cada entrada.
+     * @throws IOException si el archivo zip no se puede leer.
+     */
+    BulkUploadResultDto uploadArchive(InputStream stream, String bucket, String prefix) throws IOException;
+}
@@ -0,0 +1,119 @@
+package gabri.dev.minio.services;
+
+import gabri.dev.minio.dtos.dedup.ContentReferenceDto;
+import io.minio.errors.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Servicio de archivos deduplicados por contenido: cada contenido distinto se guarda una sola vez
+ * en MinIO, nombrado por su hash SHA-256, y los nombres lógicos de los archivos lo referencian
+ * desde una tabla local. Cada nombre tiene además un objeto vacío en MinIO con el hash de su contenido,
+ * desde el que se reconstruye la tabla al iniciar; mientras tanto los pedidos se rechazan con 503.
+ */
+public interface ContentStoreService {
+
+    /**
+     * Sube un archivo calculando el hash de su contenido mientras se recibe. Si el contenido ya
+     * existe en el bucket solo se registra la referencia, sin escribir en MinIO.
+     *
+     * @param stream      flujo de entrada del archivo.
+     * @param bucket      nombre del bucket.
+     * @param objectName  nombre lógico del archivo, si ya existe se reemplaza.
+     * @param size        tamaño en bytes del archivo, o -1 si es desconocido.
+     * @param contentType tipo de contenido del archivo, puede ser {@code null}.
+     * @return la referencia del archivo, indicando si el contenido ya existía.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    ContentReferenceDto upload(InputStream stream, String bucket, String objectName, long size, String contentType)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Obtiene la referencia de un archivo.
+     *
+     * @param bucket     nombre del bucket.
+     * @param objectName nombre lógico del archivo.
+     * @return la referencia del archivo.
+     * @throws org.springframework.web.server.ResponseStatusException con 404 si el archivo no existe.
+     */
+    ContentReferenceDto get(String bucket, String objectName);
+
+    /**
+     * Lista los archivos de un bucket cuyo nombre empieza con un prefijo.
+     *
+     * @param bucket nombre del bucket.
+     * @param prefix prefijo de los nombres, vacío para todo el bucket.
+     * @return las referencias de los archivos, ordenadas por nombre.
+     */
+    List<ContentReferenceDto> list(String bucket, String prefix);
+
+    /**
+     * Abre el contenido de un archivo.
+     *
+     * @param reference la referencia del archivo.
+     * @return un flujo de entrada con el contenido.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    InputStream download(ContentReferenceDto reference)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Elimina un archivo. El contenido se elimina de MinIO cuando ya no lo referencia ningún archivo.
+     *
+     * @param bucket     nombre del bucket.
+     * @param objectName nombre lógico del archivo.
+     * @return {@code true} si se eliminó también el contenido.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    boolean delete(String bucket, String objectName)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Descarta las referencias de un bucket que se vació para eliminarlo. Si algunos archivos no se
+     * pudieron eliminar, se conservan las referencias a los contenidos que siguen en MinIO y se
+     * vuelven a escribir sus objetos de referencia, para poder liberarlos más adelante.
+     *
+     * @param bucket nombre del bucket.
+     * @param kept   nombres de los archivos que el vaciado no pudo eliminar.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    void forgetBucket(String bucket, Set<String> kept)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+}
@@ -0,0 +1,50 @@
+package gabri.dev.minio.services;
+
+import gabri.dev.minio.dtos.cache.CacheStatsDto;
+
+import java.nio.file.Path;
+
+/**
+ * Caché de lectura en disco local para objetos medianos y grandes.
+ * Los objetos se guardan en un directorio con capacidad acotada y desalojo LRU,
+ * para servirlos sin volver a leerlos de MinIO. Solo se guardan los objetos pedidos repetidamente.
+ */
+public interface DiskCacheService {
+
+    /**
+     * Indica si un objeto de cierto tamaño se guarda en esta caché.
+     *
+     * @param size tamaño en bytes del objeto.
+     * @return {@code true} si el objeto es cacheable en disco.
+     */
+    boolean isCacheable(long size);
+
+    /**
+     * Busca el archivo local con el contenido de un objeto. Si no está en disco, o la versión
+     * guardada no coincide con el etag, devuelve {@code null} para que se lea de MinIO, y cuando
+     * la misma versión se pidió {@code minHits} veces la descarga a disco una sola vez. Solo los
+     * pedidos que indican {@code wait} esperan esa descarga, hasta {@code fillWait}, y se sirven del archivo.
+     *
+     * @param bucket     nombre del bucket del objeto.
+     * @param objectName nombre del objeto.
+     * @param etag       etag actual del objeto.
+     * @param wait       si se puede esperar la descarga a disco, solo para los pedidos del objeto completo.
+     * @return la ruta del archivo local con el contenido del objeto, o {@code null} si no está cacheado.
+     */
+    Path find(String bucket, String objectName, String etag, boolean wait);
+
+    /**
+     * Quita un objeto de la caché, por ejemplo al sobrescribirlo o eliminarlo.
+     *
+     * @param bucket     nombre del bucket del objeto.
+     * @param objectName nombre del objeto.
+     */
+    void evict(String bucket, String objectName);
+
+    /**
+     * Obtiene las estadísticas de uso de la caché.
+     *
+     * @return las estadísticas de aciertos, fallos y desalojos.
+     */
+    CacheStatsDto stats();
+}
@@ -0,0 +1,89 @@
+package gabri.dev.minio.services;
+
+import gabri.dev.minio.dtos.index.ObjectSearchCriteria;
+import gabri.dev.minio.dtos.index.ObjectSearchPage;
+import io.minio.errors.*;
+
+import java.io.IOException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+
+/**
+ * Servicio del índice local de metadatos de objetos, que permite listar y buscar
+ * sin recorrer el bucket en MinIO.
+ */
+public interface MetadataIndexService {
+
+    /**
+     * Indica si el índice está habilitado y el bucket ya fue cargado por una reconciliación,
+     * es decir, si sus consultas pueden resolverse desde el índice.
+     *
+     * @param bucket nombre del bucket.
+     * @return {@code true} si el índice del bucket está completo.
+     */
+    boolean isReady(String bucket);
+
+    /**
+     * Registra en el índice un objeto recién escrito.
+     *
+     * @param bucket      nombre del bucket.
+     * @param objectKey   nombre del objeto.
+     * @param size        tamaño en bytes del objeto.
+     * @param etag        etag del objeto.
+     * @param contentType tipo de contenido del objeto, puede ser {@code null}.
+     */
+    void record(String bucket, String objectKey, long size, String etag, String contentType);
+
+    /**
+     * Quita un objeto del índice.
+     *
+     * @param bucket    nombre del bucket.
+     * @param objectKey nombre del objeto.
+     */
+    void remove(String bucket, String objectKey);
+
+    /**
+     * Quita varios objetos de un bucket del índice.
+     *
+     * @param bucket     nombre del bucket.
+     * @param objectKeys nombres de los objetos.
+     */
+    void removeAll(String bucket, Collection<String> objectKeys);
+
+    /**
+     * Quita del índice todos los objetos de un bucket.
+     *
+     * @param bucket nombre del bucket.
+     */
+    void removeBucket(String bucket);
+
+    /**
+     * Busca objetos de un bucket. Si el índice del bucket está completo la búsqueda se resuelve
+     * con una consulta SQL; si no, se recorre el listado de MinIO aplicando los filtros.
+     *
+     * @param bucket   nombre del bucket.
+     * @param criteria filtros de la búsqueda.
+     * @return la página de resultados ordenada por nombre.
+     */
+    ObjectSearchPage search(String bucket, ObjectSearchCriteria criteria);
+
+    /**
+     * Recorre un bucket en MinIO y actualiza el índice con su contenido, descartando
+     * las entradas de objetos que ya no existen.
+     *
+     * @param bucket nombre del bucket.
+     * @return la cantidad de objetos vistos.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    long reconcile(String bucket)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+}
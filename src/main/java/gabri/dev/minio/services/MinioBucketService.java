@@ -6,6 +6,7 @@ import java.io.IOException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Servicio que define las operaciones relacionadas con la gestión de buckets en el servidor MinIO.
@@ -32,6 +33,14 @@ public interface MinioBucketService {
             NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException,
             XmlParserException, InternalException;
 
+    /**
+     * Crea un bucket si no existe, sin bloquear el hilo que llama.
+     *
+     * @param bucket el nombre del bucket a crear.
+     * @return la operación en curso, que falla con la excepción de MinIO si no se pudo crear.
+     */
+    CompletableFuture<Void> createBucketAsync(String bucket);
+
     /**
      * Obtiene una lista con los nombres de todos los buckets existentes en el servidor MinIO.
      *
@@ -52,6 +61,13 @@ public interface MinioBucketService {
             NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException,
             XmlParserException, InternalException;
 
+    /**
+     * Obtiene los nombres de los buckets sin bloquear el hilo que llama.
+     *
+     * @return la operación en curso con los nombres de los buckets.
+     */
+    CompletableFuture<List<String>> listBucketsAsync();
+
     /**
      * Elimina un bucket existente en el servidor MinIO con el nombre especificado.
      *
@@ -72,4 +88,12 @@ public interface MinioBucketService {
             NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException,
             XmlParserException, InternalException;
 
+    /**
+     * Elimina un bucket sin bloquear el hilo que llama.
+     *
+     * @param bucket el nombre del bucket a eliminar.
+     * @return la operación en curso, que falla con la excepción de MinIO si no se pudo eliminar.
+     */
+    CompletableFuture<Void> deleteBucketAsync(String bucket);
+
 }
@@ -1,5 +1,9 @@
 package gabri.dev.minio.services;
 
+import gabri.dev.minio.dtos.common.BulkDeleteResultDto;
+import gabri.dev.minio.dtos.common.FilePage;
+import gabri.dev.minio.dtos.index.ObjectMetadataDto;
+import io.minio.StatObjectResponse;
 import io.minio.errors.*;
 import org.apache.tomcat.jni.FileInfo;
 
@@ -8,6 +12,9 @@ import java.io.InputStream;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 /**
  * Servicio para la gestión de archivos en MinIO.
@@ -33,6 +40,29 @@ public interface MinioFilesService {
     void uploadFile(InputStream stream, String bucket, String objectName)
             throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
 
+    /**
+     * Sube un archivo a un bucket específico en MinIO enviando el flujo directamente,
+     * sin almacenarlo previamente en memoria o en disco. No se aceptan nombres bajo el prefijo
+     * del contenido deduplicado.
+     *
+     * @param stream      flujo de entrada del archivo a subir.
+     * @param bucket      nombre del bucket donde se almacenará el archivo.
+     * @param objectName  nombre del archivo dentro del bucket.
+     * @param size        tamaño en bytes del archivo, o -1 si es desconocido.
+     * @param contentType tipo de contenido del archivo, puede ser {@code null}.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    void uploadFile(InputStream stream, String bucket, String objectName, long size, String contentType)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
     /**
      * Lista los archivos dentro de un bucket específico.
      *
@@ -41,6 +71,43 @@ public interface MinioFilesService {
      */
     List<gabri.dev.minio.dtos.common.FileInfo> listFiles(String bucket);
 
+    /**
+     * Lista una página de los archivos de un bucket, leyendo de MinIO solo lo necesario para completarla.
+     *
+     * @param bucket     nombre del bucket a listar.
+     * @param prefix     prefijo que deben tener los nombres, puede ser {@code null}.
+     * @param delimiter  delimitador para agrupar los nombres en carpetas, o {@code null} para listar recursivamente.
+     * @param startAfter nombre a partir del cual se lista (exclusivo), puede ser {@code null}.
+     * @param maxKeys    cantidad máxima de archivos de la página.
+     * @return la página con los archivos y el nombre desde donde continuar.
+     */
+    FilePage listFiles(String bucket, String prefix, String delimiter, String startAfter, int maxKeys);
+
+    /**
+     * Lista recursivamente una página de los archivos de un bucket desde el índice de metadatos, si el
+     * bucket ya está indexado. El índice no incluye lo que se escribió sin pasar por esta aplicación,
+     * como las subidas prefirmadas, hasta la próxima reconciliación.
+     *
+     * @param bucket     nombre del bucket a listar.
+     * @param prefix     prefijo que deben tener los nombres, puede ser {@code null}.
+     * @param startAfter nombre a partir del cual se lista (exclusivo), puede ser {@code null}.
+     * @param maxKeys    cantidad máxima de archivos de la página, o {@code null} para listar todos.
+     * @return la página con los archivos y el nombre desde donde continuar.
+     */
+    FilePage listIndexedFiles(String bucket, String prefix, String startAfter, Integer maxKeys);
+
+    /**
+     * Lista los archivos de un bucket como un flujo perezoso: cada archivo se obtiene de MinIO
+     * a medida que se consume, sin acumular el listado en memoria.
+     *
+     * @param bucket     nombre del bucket a listar.
+     * @param prefix     prefijo que deben tener los nombres, puede ser {@code null}.
+     * @param delimiter  delimitador para agrupar los nombres en carpetas, o {@code null} para listar recursivamente.
+     * @param startAfter nombre a partir del cual se lista (exclusivo), puede ser {@code null}.
+     * @return el flujo de archivos.
+     */
+    Stream<gabri.dev.minio.dtos.common.FileInfo> streamFiles(String bucket, String prefix, String delimiter, String startAfter);
+
     /**
      * Descarga un archivo desde un bucket específico.
      *
@@ -61,7 +128,134 @@ public interface MinioFilesService {
             throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
 
     /**
-     * Elimina un archivo de un bucket específico en MinIO.
+     * Descarga un rango de bytes de un archivo desde un bucket específico.
+     *
+     * @param bucket     nombre del bucket de donde se descargará el archivo.
+     * @param objectName nombre del archivo a descargar.
+     * @param offset     posición del primer byte a descargar.
+     * @param length     cantidad de bytes a descargar.
+     * @return un flujo de entrada con el rango solicitado.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    InputStream download(String bucket, String objectName, long offset, long length)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Descarga el contenido original de un archivo, descomprimiéndolo mientras se lee si se guardó
+     * comprimido.
+     *
+     * @param bucket     nombre del bucket de donde se descargará el archivo.
+     * @param objectName nombre del archivo a descargar.
+     * @return un flujo de entrada con el contenido sin comprimir.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    InputStream downloadDecoded(String bucket, String objectName)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Obtiene los metadatos de un archivo (tamaño, etag, fecha de modificación, tipo de contenido)
+     * sin descargar su contenido.
+     *
+     * @param bucket     nombre del bucket del archivo.
+     * @param objectName nombre del archivo.
+     * @return los metadatos del archivo.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    StatObjectResponse stat(String bucket, String objectName)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Obtiene los metadatos de un archivo sin bloquear el hilo que llama.
+     *
+     * @param bucket     nombre del bucket del archivo.
+     * @param objectName nombre del archivo.
+     * @return la operación en curso con los metadatos, que falla con {@code NoSuchKey} si el archivo no existe.
+     */
+    CompletableFuture<ObjectMetadataDto> statAsync(String bucket, String objectName);
+
+    /**
+     * Obtiene los metadatos de varios archivos con consultas en paralelo a MinIO,
+     * sin ocupar un hilo por consulta.
+     *
+     * @param bucket      nombre del bucket.
+     * @param objectNames nombres de los archivos.
+     * @return la operación en curso con los metadatos en el orden pedido, sin los archivos que no existen.
+     */
+    CompletableFuture<List<ObjectMetadataDto>> statAllAsync(String bucket, List<String> objectNames);
+
+    /**
+     * Copia un archivo del lado del servidor, sin que los datos pasen por la aplicación.
+     * Los archivos de hasta 5GB se copian con una única copia; los mayores, por partes.
+     * Si los buckets están en servidores distintos del reparto, el archivo se descarga y se vuelve a subir.
+     * El destino no puede ser contenido deduplicado.
+     *
+     * @param sourceBucket bucket del archivo a copiar.
+     * @param sourceObject nombre del archivo a copiar.
+     * @param targetBucket bucket destino.
+     * @param targetObject nombre del archivo destino, que se reemplaza si existe.
+     * @return los metadatos del archivo copiado.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    ObjectMetadataDto copyObject(String sourceBucket, String sourceObject, String targetBucket, String targetObject)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Mueve un archivo: lo copia del lado del servidor y elimina el original.
+     * Ni el origen ni el destino pueden ser contenido deduplicado.
+     *
+     * @param sourceBucket bucket del archivo a mover.
+     * @param sourceObject nombre del archivo a mover.
+     * @param targetBucket bucket destino.
+     * @param targetObject nombre del archivo destino, que se reemplaza si existe.
+     * @return los metadatos del archivo en su nueva ubicación.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    ObjectMetadataDto moveObject(String sourceBucket, String sourceObject, String targetBucket, String targetObject)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Elimina un archivo de un bucket específico en MinIO. El contenido deduplicado no se puede
+     * eliminar directamente, se elimina al liberar su última referencia.
      *
      * @param bucket     nombre del bucket de donde se eliminará el archivo.
      * @param objectName nombre del archivo a eliminar.
@@ -77,4 +271,116 @@ public interface MinioFilesService {
      */
     void deleteObject(String bucket, String objectName)
             throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Elimina un archivo sin bloquear el hilo que llama. El contenido deduplicado no se puede
+     * eliminar directamente.
+     *
+     * @param bucket     nombre del bucket del archivo.
+     * @param objectName nombre del archivo a eliminar.
+     * @return la operación en curso, que termina cuando el archivo fue eliminado.
+     */
+    CompletableFuture<Void> deleteObjectAsync(String bucket, String objectName);
+
+    /**
+     * Elimina una lista de archivos de un bucket usando la eliminación múltiple de MinIO,
+     * de a 1000 archivos por petición. El contenido deduplicado no se elimina y se informa como error.
+     *
+     * @param bucket      nombre del bucket.
+     * @param objectNames nombres de los archivos a eliminar.
+     * @return la cantidad de archivos eliminados y los errores de cada archivo que no se pudo eliminar.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    BulkDeleteResultDto deleteObjects(String bucket, List<String> objectNames)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Elimina todos los archivos de un bucket cuyo nombre empieza con un prefijo. Los nombres se
+     * leen del listado de MinIO a medida que se eliminan, sin acumularlos en memoria. No se aceptan
+     * prefijos que abarquen el contenido deduplicado; para vaciar el bucket usar {@link #deleteAll(String)}.
+     *
+     * @param bucket nombre del bucket.
+     * @param prefix prefijo de los archivos a eliminar.
+     * @return la cantidad de archivos eliminados y los errores de cada archivo que no se pudo eliminar.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    BulkDeleteResultDto deletePrefix(String bucket, String prefix)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Vacía un bucket, incluido el contenido deduplicado. Solo debe usarse para eliminar el bucket,
+     * junto con las referencias a su contenido.
+     *
+     * @param bucket nombre del bucket.
+     * @return la cantidad de archivos eliminados y los errores de cada archivo que no se pudo eliminar.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    BulkDeleteResultDto deleteAll(String bucket)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Sube contenido deduplicado. A diferencia de {@link #uploadFile(InputStream, String, String, long, String)}
+     * acepta nombres bajo el prefijo del contenido, por lo que solo debe usarlo el almacén de contenido.
+     *
+     * @param stream       flujo de entrada del contenido.
+     * @param bucket       nombre del bucket.
+     * @param objectName   nombre del contenido.
+     * @param size         tamaño en bytes del contenido, o -1 si es desconocido.
+     * @param contentType  tipo de contenido, puede ser {@code null}.
+     * @param userMetadata metadatos de usuario del objeto.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    void uploadContent(InputStream stream, String bucket, String objectName, long size, String contentType,
+                       Map<String, String> userMetadata)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Elimina contenido deduplicado que ya no tiene referencias. Solo debe usarlo el almacén de contenido.
+     *
+     * @param bucket     nombre del bucket.
+     * @param objectName nombre del contenido.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    void deleteContent(String bucket, String objectName)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
 }
@@ -0,0 +1,41 @@
+package gabri.dev.minio.services;
+
+import io.minio.ObjectWriteResponse;
+import io.minio.errors.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+
+/**
+ * Servicio que sube archivos grandes a MinIO dividiéndolos en partes que se envían en paralelo.
+ */
+public interface MultipartUploadService {
+
+    /**
+     * Sube un archivo dividiéndolo en partes que se envían en paralelo.
+     * Si ocurre un error en cualquier parte, la subida multipart se aborta y no queda ningún objeto parcial.
+     *
+     * @param stream       flujo de entrada del archivo a subir.
+     * @param bucket       nombre del bucket donde se almacenará el archivo.
+     * @param objectName   nombre del archivo dentro del bucket.
+     * @param size         tamaño en bytes del archivo, o -1 si es desconocido.
+     * @param contentType  tipo de contenido del archivo, puede ser {@code null}.
+     * @param userMetadata metadatos de usuario del objeto, sin el prefijo {@code x-amz-meta-}.
+     * @return la respuesta de MinIO con el etag del objeto creado.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    ObjectWriteResponse upload(InputStream stream, String bucket, String objectName, long size, String contentType,
+                               Map<String, String> userMetadata)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+}
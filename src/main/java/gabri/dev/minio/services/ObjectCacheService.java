@@ -0,0 +1,59 @@
+package gabri.dev.minio.services;
+
+import gabri.dev.minio.dtos.cache.CacheStatsDto;
+import io.minio.errors.*;
+
+import java.io.IOException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Caché en memoria de objetos chicos (miniaturas, configuraciones, íconos),
+ * que evita el viaje a MinIO en cada lectura.
+ */
+public interface ObjectCacheService {
+
+    /**
+     * Indica si un objeto de cierto tamaño se guarda en esta caché.
+     *
+     * @param size tamaño en bytes del objeto.
+     * @return {@code true} si el objeto es cacheable.
+     */
+    boolean isCacheable(long size);
+
+    /**
+     * Obtiene el contenido de un objeto desde la caché, o desde MinIO si no está
+     * o si la versión cacheada no coincide con el etag actual.
+     *
+     * @param bucket     nombre del bucket del objeto.
+     * @param objectName nombre del objeto.
+     * @param etag       etag actual del objeto, usado para revalidar la entrada cacheada.
+     * @return el contenido del objeto.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    byte[] get(String bucket, String objectName, String etag)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Quita un objeto de la caché, por ejemplo al sobrescribirlo o eliminarlo.
+     *
+     * @param bucket     nombre del bucket del objeto.
+     * @param objectName nombre del objeto.
+     */
+    void evict(String bucket, String objectName);
+
+    /**
+     * Obtiene las estadísticas de uso de la caché.
+     *
+     * @return las estadísticas de aciertos, fallos y desalojos.
+     */
+    CacheStatsDto stats();
+}
@@ -0,0 +1,40 @@
+package gabri.dev.minio.services;
+
+import gabri.dev.minio.dtos.copy.CopyJobDto;
+
+import java.util.List;
+
+/**
+ * Servicio que copia o mueve todos los archivos de un prefijo en segundo plano, con copias
+ * del lado del servidor en paralelo.
+ */
+public interface PrefixCopyService {
+
+    /**
+     * Inicia un trabajo que copia o mueve los archivos de un prefijo. El nombre de cada archivo
+     * destino es el de origen con {@code sourcePrefix} reemplazado por {@code targetPrefix}.
+     *
+     * @param sourceBucket bucket de origen.
+     * @param sourcePrefix prefijo de los archivos de origen, vacío para todo el bucket.
+     * @param targetBucket bucket destino.
+     * @param targetPrefix prefijo de los archivos destino, puede ser vacío.
+     * @param move         {@code true} para eliminar cada archivo de origen una vez copiado.
+     * @return el estado inicial del trabajo.
+     */
+    CopyJobDto start(String sourceBucket, String sourcePrefix, String targetBucket, String targetPrefix, boolean move);
+
+    /**
+     * Obtiene el estado y progreso de un trabajo.
+     *
+     * @param id identificador del trabajo.
+     * @return el estado del trabajo.
+     */
+    CopyJobDto get(String id);
+
+    /**
+     * Lista los trabajos en curso y los terminados recientemente.
+     *
+     * @return el estado de cada trabajo, del más reciente al más antiguo.
+     */
+    List<CopyJobDto> list();
+}
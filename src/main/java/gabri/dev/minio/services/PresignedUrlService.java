@@ -0,0 +1,84 @@
+package gabri.dev.minio.services;
+
+import gabri.dev.minio.dtos.presign.PresignedPostDto;
+import gabri.dev.minio.dtos.presign.PresignedUrlDto;
+import io.minio.errors.*;
+
+import java.io.IOException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+
+/**
+ * Servicio que firma URLs para que los clientes lean y escriban objetos directamente en MinIO,
+ * sin que los bytes pasen por la aplicación.
+ */
+public interface PresignedUrlService {
+
+    /**
+     * Obtiene una URL prefirmada para descargar un objeto. Las URLs se cachean por objeto y vigencia,
+     * y se reutilizan hasta poco antes de vencer. La URL de un objeto guardado comprimido hace que
+     * MinIO responda con su {@code Content-Encoding}.
+     *
+     * @param bucket     nombre del bucket del objeto.
+     * @param objectName nombre del objeto.
+     * @param expiry     vigencia de la URL, o {@code null} para usar la configurada por defecto.
+     * @return la URL prefirmada para un {@code GET}.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    PresignedUrlDto presignGet(String bucket, String objectName, Duration expiry)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Obtiene una URL prefirmada para subir un objeto con un único {@code PUT}.
+     * Las URLs se cachean igual que las de descarga.
+     *
+     * @param bucket     nombre del bucket destino.
+     * @param objectName nombre del objeto destino.
+     * @param expiry     vigencia de la URL, o {@code null} para usar la configurada por defecto.
+     * @return la URL prefirmada para un {@code PUT}.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    PresignedUrlDto presignPut(String bucket, String objectName, Duration expiry)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Obtiene una política POST prefirmada para subir un archivo desde un formulario HTML.
+     * Un nombre terminado en {@code /} permite cualquier objeto bajo ese prefijo, y un tipo de
+     * contenido terminado en {@code *} cualquier tipo que empiece igual, por ejemplo {@code image/*}.
+     *
+     * @param bucket      nombre del bucket destino.
+     * @param objectName  nombre del objeto destino, o prefijo terminado en {@code /}.
+     * @param contentType tipo de contenido exigido, puede ser {@code null}.
+     * @param maxSize     tamaño máximo en bytes del archivo, o {@code null} para usar el máximo configurado.
+     * @param expiry      vigencia de la política, o {@code null} para usar la configurada por defecto.
+     * @return la URL y los campos del formulario.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    PresignedPostDto presignPost(String bucket, String objectName, String contentType, Long maxSize, Duration expiry)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+}
@@ -0,0 +1,92 @@
+package gabri.dev.minio.services;
+
+import io.minio.errors.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Servicio que mide las operaciones contra MinIO: duración por operación, bucket y resultado,
+ * bytes transferidos, transferencias en curso y tiempo hasta el primer byte de las descargas.
+ */
+public interface StorageMetrics {
+
+    /**
+     * Mide la duración de una operación bloqueante de MinIO.
+     *
+     * @param operation nombre de la operación, por ejemplo {@code upload}.
+     * @param bucket    bucket de la operación, o {@code null} si no aplica.
+     * @param call      la operación a medir.
+     * @param <T>       el tipo de la respuesta.
+     * @return la respuesta de la operación.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    <T> T record(String operation, String bucket, MinioCall<T> call)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Mide la duración de una operación de MinIO que no lanza excepciones verificadas,
+     * como los listados, que el SDK resuelve al recorrerlos.
+     *
+     * @param operation nombre de la operación, por ejemplo {@code list}.
+     * @param bucket    bucket de la operación, o {@code null} si no aplica.
+     * @param call      la operación a medir.
+     * @param <T>       el tipo de la respuesta.
+     * @return la respuesta de la operación.
+     */
+    <T> T measure(String operation, String bucket, Supplier<T> call);
+
+    /**
+     * Mide la duración de una operación asíncrona de MinIO, hasta que termina.
+     *
+     * @param operation nombre de la operación.
+     * @param bucket    bucket de la operación, o {@code null} si no aplica.
+     * @param call      inicia la operación a medir.
+     * @param <T>       el tipo de la respuesta.
+     * @return la operación en curso.
+     */
+    <T> CompletableFuture<T> recordAsync(String operation, String bucket, Supplier<CompletableFuture<T>> call);
+
+    /**
+     * Envuelve el contenido de una descarga para contar los bytes leídos, la descarga en curso
+     * hasta que se cierra el flujo y el tiempo hasta el primer byte.
+     *
+     * @param bucket      bucket del objeto.
+     * @param startNanos  instante en que se pidió el objeto, según {@link System#nanoTime()}.
+     * @param stream      el contenido recibido de MinIO.
+     * @return el flujo medido.
+     */
+    InputStream download(String bucket, long startNanos, InputStream stream);
+
+    /**
+     * Envuelve el contenido de una subida para contar los bytes enviados y la subida en curso
+     * hasta que se cierra el flujo o se lee por completo.
+     *
+     * @param bucket bucket destino.
+     * @param stream el contenido a subir.
+     * @return el flujo medido.
+     */
+    InputStream upload(String bucket, InputStream stream);
+
+    /**
+     * Operación bloqueante de MinIO.
+     *
+     * @param <T> el tipo de la respuesta.
+     */
+    @FunctionalInterface
+    interface MinioCall<T> {
+        T call() throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+    }
+}
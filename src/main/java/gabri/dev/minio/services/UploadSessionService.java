@@ -0,0 +1,110 @@
+package gabri.dev.minio.services;
+
+import gabri.dev.minio.dtos.upload.UploadPartDto;
+import gabri.dev.minio.dtos.upload.UploadSessionDto;
+import io.minio.errors.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Servicio de sesiones de subida por partes, reanudables, sobre las subidas multipart de MinIO.
+ */
+public interface UploadSessionService {
+
+    /**
+     * Inicia una sesión de subida creando la subida multipart en MinIO.
+     *
+     * @param bucket      nombre del bucket destino.
+     * @param objectName  nombre del objeto destino.
+     * @param contentType tipo de contenido del objeto, puede ser {@code null}.
+     * @return la sesión creada.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    UploadSessionDto initiate(String bucket, String objectName, String contentType)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Sube una parte de la sesión. Si la parte ya existía se reemplaza, lo que permite reintentarla.
+     *
+     * @param sessionId  identificador de la sesión.
+     * @param partNumber número de parte, de 1 a 10000.
+     * @param stream     contenido de la parte.
+     * @param size       tamaño en bytes de la parte.
+     * @return la parte recibida.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    UploadPartDto uploadPart(String sessionId, int partNumber, InputStream stream, long size)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Lista las partes recibidas de una sesión.
+     *
+     * @param sessionId identificador de la sesión.
+     * @return las partes ordenadas por número de parte.
+     */
+    List<UploadPartDto> listParts(String sessionId);
+
+    /**
+     * Obtiene el bucket de una sesión, para aplicar sus límites a peticiones que no lo indican.
+     *
+     * @param sessionId identificador de la sesión.
+     * @return el bucket de la sesión, o vacío si no existe.
+     */
+    Optional<String> findBucket(String sessionId);
+
+    /**
+     * Completa la sesión uniendo las partes recibidas en el objeto final.
+     *
+     * @param sessionId identificador de la sesión.
+     * @return la sesión completada.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    UploadSessionDto complete(String sessionId)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+
+    /**
+     * Cancela la sesión y descarta en MinIO las partes recibidas.
+     *
+     * @param sessionId identificador de la sesión.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    void abort(String sessionId)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException;
+}
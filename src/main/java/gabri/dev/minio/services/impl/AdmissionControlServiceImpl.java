@@ -0,0 +1,442 @@
+package gabri.dev.minio.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import gabri.dev.minio.clients.TokenBucket;
+import gabri.dev.minio.configs.AdmissionProperties;
+import gabri.dev.minio.services.AdmissionControlService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Meter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.ToDoubleFunction;
+
+@Service("admissionControlService")
+public class AdmissionControlServiceImpl implements AdmissionControlService {
+
+    private static final String BUCKET = "bucket";
+    private static final String CLIENT = "client";
+    private static final String ACTIVE = "minio.admission.active";
+    private static final String WAITING = "minio.admission.waiting";
+    private static final String TOKENS = "minio.admission.tokens";
+    private static final String REJECTED = "minio.admission.rejected";
+
+    /**
+     * Cantidad máxima de buckets o clientes con limitadores a la vez. Los menos usados se descartan
+     * primero, salvo los que tienen peticiones en curso.
+     */
+    private static final int MAX_TRACKED_LIMITERS = 10_000;
+
+    /**
+     * Limitadores de un bucket o cliente. Los que no tienen límite configurado quedan nulos.
+     */
+    private static final class Limiter {
+        final String scope;
+        final String key;
+        final int maxConcurrent;
+        final Semaphore concurrency;
+        final TokenBucket requests;
+        final TokenBucket bandwidth;
+        final List<Meter> meters = new ArrayList<>();
+
+        /**
+         * Peticiones admitidas o esperando que usan el limitador. Mientras haya alguna, el limitador
+         * no se descarta de la caché, para no crear otro con los lugares ocupados libres.
+         */
+        final AtomicInteger holders = new AtomicInteger();
+
+        Limiter(String scope, String key, AdmissionProperties.Limits limits) {
+            this.scope = scope;
+            this.key = key;
+            this.maxConcurrent = limits.getMaxConcurrent() != null ? limits.getMaxConcurrent() : 0;
+            //semáforo justo: los lugares se entregan en orden de llegada
+            this.concurrency = maxConcurrent > 0 ? new Semaphore(maxConcurrent, true) : null;
+            double rate = limits.getRequestsPerSecond() != null ? limits.getRequestsPerSecond() : 0;
+            this.requests = rate > 0 ? new TokenBucket(rate, Math.max(1, rate)) : null;
+            long bytes = limits.getBandwidth() != null ? limits.getBandwidth().toBytes() : 0;
+            this.bandwidth = bytes > 0 ? new TokenBucket(bytes, bytes) : null;
+        }
+
+        static boolean unlimited(AdmissionProperties.Limits limits) {
+            return isZero(limits.getMaxConcurrent())
+                    && (limits.getRequestsPerSecond() == null || limits.getRequestsPerSecond() <= 0)
+                    && (limits.getBandwidth() == null || limits.getBandwidth().toBytes() <= 0);
+        }
+
+        private static boolean isZero(Integer value) {
+            return value == null || value <= 0;
+        }
+
+        int active() {
+            return concurrency != null ? maxConcurrent - concurrency.availablePermits() : 0;
+        }
+
+        int waiting() {
+            return concurrency != null ? concurrency.getQueueLength() : 0;
+        }
+    }
+
+    private final AdmissionProperties properties;
+    private final MeterRegistry registry;
+    private final boolean bucketTag;
+    private final Cache<String, Limiter> bucketLimiters;
+    private final Cache<String, Limiter> clientLimiters;
+
+    /**
+     * Crea el servicio con los limitadores de buckets y clientes, que se crean al recibir
+     * la primera petición de cada uno con límites, y se descartan tras {@code idleExpiry}
+     * sin peticiones o al superar la cantidad máxima, nunca mientras tengan peticiones en curso.
+     *
+     * @param properties la configuración del control de admisión.
+     * @param registry   el registro de Micrometer donde se publica el estado de los limitadores.
+     * @param bucketTag  si las métricas de cada bucket se publican por separado.
+     */
+    @Autowired
+    public AdmissionControlServiceImpl(AdmissionProperties properties, MeterRegistry registry,
+                                       @Value("${minio.metrics.bucket-tag:true}") boolean bucketTag) {
+        this.properties = properties;
+        this.registry = registry;
+        this.bucketTag = bucketTag;
+        this.bucketLimiters = limiters()
+                //se quitan las métricas dentro del desalojo, antes de que otra petición vuelva a crear el limitador
+                .evictionListener((String key, Limiter limiter, RemovalCause cause) -> unregister(limiter))
+                .build();
+        this.clientLimiters = limiters().build();
+        for (String scope : List.of(BUCKET, CLIENT)) {
+            Cache<String, Limiter> limiters = BUCKET.equals(scope) ? bucketLimiters : clientLimiters;
+            Gauge.builder(ACTIVE, limiters, cache -> sum(cache, Limiter::active))
+                    .description("Peticiones en curso admitidas por los límites de concurrencia")
+                    .tag("scope", scope)
+                    .tag(BUCKET, "*")
+                    .register(registry);
+            Gauge.builder(WAITING, limiters, cache -> sum(cache, Limiter::waiting))
+                    .description("Peticiones esperando un lugar en los límites de concurrencia")
+                    .tag("scope", scope)
+                    .tag(BUCKET, "*")
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Admite una petición: primero reserva las fichas de ritmo de peticiones del cliente y de cada
+     * bucket, y después ocupa un lugar en cada límite de concurrencia, todo dentro de {@code maxWait}.
+     * Si algún límite no se puede cumplir a tiempo se devuelve lo ya tomado y se rechaza la petición.
+     *
+     * @param buckets buckets sobre los que opera la petición, puede ser vacío.
+     * @param client  identificador del cliente.
+     * @return el lugar obtenido.
+     */
+    @Override
+    public Admission admit(Collection<String> buckets, String client) {
+        return admit(buckets, client, properties.getMaxWait().toNanos(), true);
+    }
+
+    /**
+     * Admite una operación en segundo plano sin límite de espera.
+     *
+     * @param buckets buckets sobre los que opera la operación.
+     * @return el lugar obtenido.
+     */
+    @Override
+    public Admission admitBackground(Collection<String> buckets) {
+        if (!properties.isEnabled()) {
+            return NoLimits.INSTANCE;
+        }
+        return admit(buckets, BACKGROUND_CLIENT, Long.MAX_VALUE, true);
+    }
+
+    /**
+     * Intenta admitir una operación en segundo plano sin esperar. Que no haya lugar no es un
+     * rechazo, la operación se hace dentro del lugar de la petición, por lo que no se cuenta.
+     *
+     * @param buckets buckets sobre los que opera la operación.
+     * @return el lugar obtenido, o {@code null} si no hay lugar o fichas.
+     */
+    @Override
+    public Admission tryAdmitBackground(Collection<String> buckets) {
+        if (!properties.isEnabled()) {
+            return NoLimits.INSTANCE;
+        }
+        try {
+            return admit(buckets, BACKGROUND_CLIENT, 0, false);
+        } catch (ResponseStatusException e) {
+            return null;
+        }
+    }
+
+    private Admission admit(Collection<String> buckets, String client, long maxWait, boolean countRejections) {
+        //la diferencia con nanoTime es correcta aunque la suma desborde con una espera sin límite
+        long deadline = System.nanoTime() + maxWait;
+        List<Limiter> limiters = new ArrayList<>();
+        //los buckets y clientes sin límites no crean limitadores
+        AdmissionProperties.Limits clientLimits = properties.clientLimits(client);
+        if (!Limiter.unlimited(clientLimits)) {
+            limiters.add(hold(clientLimiters, CLIENT, client, clientLimits));
+        }
+        //siempre en el mismo orden, para que dos peticiones no esperen cada una el lugar de la otra
+        for (String bucket : new TreeSet<>(buckets)) {
+            AdmissionProperties.Limits bucketLimits = properties.bucketLimits(bucket);
+            if (!Limiter.unlimited(bucketLimits)) {
+                limiters.add(hold(bucketLimiters, BUCKET, bucket, bucketLimits));
+            }
+        }
+        if (limiters.isEmpty()) {
+            return NoLimits.INSTANCE;
+        }
+        try {
+            return acquire(limiters, maxWait, deadline, countRejections);
+        } catch (RuntimeException e) {
+            limiters.forEach(this::unhold);
+            throw e;
+        }
+    }
+
+    private Admission acquire(List<Limiter> limiters, long maxWait, long deadline, boolean countRejections) {
+        long wait = 0;
+        List<Limiter> reserved = new ArrayList<>();
+        for (Limiter limiter : limiters) {
+            if (limiter.requests == null) {
+                continue;
+            }
+            long reservation = limiter.requests.reserve(1, maxWait);
+            if (reservation < 0) {
+                reserved.forEach(l -> l.requests.refund(1));
+                throw rejected(limiter, "rate", limiter.requests.waitFor(1), countRejections);
+            }
+            reserved.add(limiter);
+            wait = Math.max(wait, reservation);
+        }
+        if (wait > 0) {
+            sleep(wait);
+        }
+
+        List<Limiter> acquired = new ArrayList<>();
+        for (Limiter limiter : limiters) {
+            if (limiter.concurrency == null) {
+                continue;
+            }
+            boolean admitted;
+            try {
+                admitted = limiter.concurrency.tryAcquire(Math.max(0, deadline - System.nanoTime()),
+                        TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                admitted = false;
+            }
+            if (!admitted) {
+                acquired.forEach(l -> l.concurrency.release());
+                throw rejected(limiter, "concurrency", 0, countRejections);
+            }
+            acquired.add(limiter);
+        }
+        return new LimitedAdmission(limiters, acquired);
+    }
+
+    /**
+     * Configuración común de las cachés de limitadores: los que tienen peticiones en curso pesan 0
+     * y no vencen, por lo que ni el tamaño máximo ni {@code idleExpiry} los descartan.
+     */
+    private Caffeine<String, Limiter> limiters() {
+        long idle = properties.getIdleExpiry().toNanos();
+        return Caffeine.newBuilder()
+                .maximumWeight(MAX_TRACKED_LIMITERS)
+                .weigher((String key, Limiter limiter) -> limiter.holders.get() > 0 ? 0 : 1)
+                .expireAfter(new Expiry<String, Limiter>() {
+                    @Override
+                    public long expireAfterCreate(String key, Limiter limiter, long currentTime) {
+                        return limiter.holders.get() > 0 ? Long.MAX_VALUE : idle;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Limiter limiter, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, limiter, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Limiter limiter, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                });
+    }
+
+    /**
+     * Obtiene el limitador de un bucket o cliente, creándolo si no existe, y lo marca en uso.
+     * Se hace dentro de {@code compute} para que la caché recalcule su peso y vencimiento.
+     */
+    private Limiter hold(Cache<String, Limiter> limiters, String scope, String key, AdmissionProperties.Limits limits) {
+        return limiters.asMap().compute(key, (k, limiter) -> {
+            Limiter held = limiter != null ? limiter : register(new Limiter(scope, k, limits));
+            held.holders.incrementAndGet();
+            return held;
+        });
+    }
+
+    /**
+     * Quita la marca de uso de un limitador, para que vuelva a poder descartarse.
+     */
+    private void unhold(Limiter limiter) {
+        Cache<String, Limiter> limiters = BUCKET.equals(limiter.scope) ? bucketLimiters : clientLimiters;
+        limiters.asMap().compute(limiter.key, (k, current) -> {
+            limiter.holders.decrementAndGet();
+            return current;
+        });
+    }
+
+    /**
+     * Lugar de una petición sin límites que aplicar.
+     */
+    private enum NoLimits implements Admission {
+        INSTANCE;
+
+        @Override
+        public boolean limitsBandwidth() {
+            return false;
+        }
+
+        @Override
+        public void consume(long bytes) {
+        }
+
+        @Override
+        public void release() {
+        }
+    }
+
+    /**
+     * Lugar de una petición con los límites de concurrencia que ocupa y los de ancho de banda que aplica.
+     */
+    private final class LimitedAdmission implements Admission {
+        private final List<Limiter> held;
+        private final List<Limiter> acquired;
+        private final List<Limiter> bandwidth;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        LimitedAdmission(List<Limiter> held, List<Limiter> acquired) {
+            this.held = held;
+            this.acquired = acquired;
+            this.bandwidth = held.stream().filter(l -> l.bandwidth != null).toList();
+        }
+
+        @Override
+        public boolean limitsBandwidth() {
+            return !bandwidth.isEmpty();
+        }
+
+        @Override
+        public void consume(long bytes) throws InterruptedIOException {
+            long wait = 0;
+            for (Limiter limiter : bandwidth) {
+                wait = Math.max(wait, limiter.bandwidth.reserve(bytes, Long.MAX_VALUE));
+            }
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Se interrumpió la espera de ancho de banda");
+                }
+            }
+        }
+
+        @Override
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                acquired.forEach(limiter -> limiter.concurrency.release());
+                held.forEach(AdmissionControlServiceImpl.this::unhold);
+            }
+        }
+    }
+
+    private void sleep(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        long remaining = nanos;
+        while (remaining > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.currentThread().isInterrupted()) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Se interrumpió la espera");
+            }
+            remaining = deadline - System.nanoTime();
+        }
+    }
+
+    /**
+     * Rechazo con 429 y {@code Retry-After}: el tiempo hasta que haya fichas, o un segundo si
+     * el límite superado es el de concurrencia.
+     */
+    private ResponseStatusException rejected(Limiter limiter, String reason, long waitNanos, boolean count) {
+        if (count) {
+            Counter.builder(REJECTED)
+                    .description("Peticiones rechazadas por el control de admisión")
+                    .tag("scope", limiter.scope)
+                    .tag("reason", reason)
+                    .tag(BUCKET, BUCKET.equals(limiter.scope) ? bucketTag(limiter.key) : "*")
+                    .register(registry)
+                    .increment();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999))));
+        String message = BUCKET.equals(limiter.scope)
+                ? "Se superó el límite de " + ("rate".equals(reason) ? "peticiones" : "concurrencia") + " del bucket " + limiter.key
+                : "Se superó el límite de " + ("rate".equals(reason) ? "peticiones" : "concurrencia") + " del cliente";
+        return new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, message) {
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    /**
+     * Publica el estado de los limitadores de un bucket, si las métricas se etiquetan por bucket.
+     * Los de clientes solo se publican sumados, para no crear una serie por cliente.
+     */
+    private Limiter register(Limiter limiter) {
+        if (!bucketTag || !BUCKET.equals(limiter.scope)) {
+            return limiter;
+        }
+        if (limiter.concurrency != null) {
+            limiter.meters.add(Gauge.builder(ACTIVE, limiter, Limiter::active)
+                    .tag("scope", BUCKET).tag(BUCKET, limiter.key).register(registry));
+            limiter.meters.add(Gauge.builder(WAITING, limiter, Limiter::waiting)
+                    .tag("scope", BUCKET).tag(BUCKET, limiter.key).register(registry));
+        }
+        if (limiter.requests != null) {
+            limiter.meters.add(Gauge.builder(TOKENS, limiter, l -> l.requests.available())
+                    .description("Fichas de ritmo de peticiones disponibles, negativas si hay peticiones esperando")
+                    .tag("scope", BUCKET).tag(BUCKET, limiter.key).register(registry));
+        }
+        return limiter;
+    }
+
+    private void unregister(Limiter limiter) {
+        if (limiter != null) {
+            limiter.meters.forEach(registry::remove);
+        }
+    }
+
+    private String bucketTag(String bucket) {
+        return bucketTag ? bucket : "*";
+    }
+
+    private static double sum(Cache<String, Limiter> limiters, ToDoubleFunction<Limiter> value) {
+        return limiters.asMap().values().stream().mapToDouble(value).sum();
+    }
+}
@@ -0,0 +1,200 @@
+package gabri.dev.minio.services.impl;
+
+import gabri.dev.minio.clients.MinioFutures;
+import gabri.dev.minio.configs.ArchiveProperties;
+import gabri.dev.minio.dtos.common.FileInfo;
+import gabri.dev.minio.services.ArchiveDownloadService;
+import gabri.dev.minio.services.MinioFilesService;
+import io.minio.errors.ErrorResponseException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+@Slf4j
+@Service("archiveDownloadService")
+public class ArchiveDownloadServiceImpl implements ArchiveDownloadService {
+
+    /**
+     * Código de error de S3 cuando el objeto no existe.
+     */
+    private static final String NO_SUCH_KEY = "NoSuchKey";
+
+    /**
+     * Archivo leído por adelantado: los primeros bytes y, si no entró completo, el flujo abierto con el resto.
+     */
+    private record Prefetched(String objectName, byte[] head, InputStream rest) {
+
+        void close() {
+            if (rest != null) {
+                try {
+                    rest.close();
+                } catch (IOException e) {
+                    log.debug("No se pudo cerrar la lectura de {}", objectName, e);
+                }
+            }
+        }
+    }
+
+    private final MinioFilesService fileService;
+    private final ArchiveProperties properties;
+
+    /**
+     * Hilos compartidos que leen por adelantado los archivos siguientes de cada zip.
+     */
+    private final Executor prefetchers;
+
+    /**
+     * Crea el servicio.
+     *
+     * @param fileService el servicio usado para listar y leer los archivos.
+     * @param properties  la configuración de las descargas en zip.
+     * @param prefetchers los hilos que leen los archivos por adelantado.
+     */
+    @Autowired
+    public ArchiveDownloadServiceImpl(MinioFilesService fileService, ArchiveProperties properties,
+                                      @Qualifier("archivePrefetchExecutor") Executor prefetchers) {
+        this.fileService = fileService;
+        this.properties = properties;
+        this.prefetchers = prefetchers;
+    }
+
+    /**
+     * Escribe un zip con todos los archivos de un bucket cuyo nombre empieza con un prefijo.
+     * Los nombres se leen del listado de MinIO a medida que se escriben.
+     *
+     * @param bucket nombre del bucket.
+     * @param prefix prefijo de los archivos a incluir.
+     * @param output flujo donde se escribe el zip.
+     * @throws IOException si ocurre un error al leer de MinIO o al escribir el zip.
+     */
+    @Override
+    public void writePrefix(String bucket, String prefix, OutputStream output) throws IOException {
+        //las entradas quedan relativas a la carpeta del prefijo
+        int base = prefix.lastIndexOf('/') + 1;
+        try (Stream<String> names = fileService.streamFiles(bucket, prefix.isEmpty() ? null : prefix, null, null)
+                .filter(f -> !Boolean.TRUE.equals(f.getDirectory()))
+                .map(FileInfo::getFilename)) {
+            write(bucket, names.iterator(), name -> name.substring(base), output);
+        }
+    }
+
+    /**
+     * Escribe un zip con una lista de archivos de un bucket.
+     *
+     * @param bucket      nombre del bucket.
+     * @param objectNames nombres de los archivos a incluir.
+     * @param output      flujo donde se escribe el zip.
+     * @throws IOException si ocurre un error al leer de MinIO o al escribir el zip.
+     */
+    @Override
+    public void writeObjects(String bucket, List<String> objectNames, OutputStream output) throws IOException {
+        //un nombre repetido generaría una entrada duplicada, que el formato zip no admite
+        write(bucket, new LinkedHashSet<>(objectNames).iterator(), Function.identity(), output);
+    }
+
+    /**
+     * Escribe los archivos en el zip en orden, manteniendo siempre {@code prefetch} archivos
+     * siguientes leyéndose en paralelo. La memoria queda acotada por {@code prefetch * prefetchBufferSize}.
+     */
+    private void write(String bucket, Iterator<String> objectNames, Function<String, String> entryName,
+                       OutputStream output) throws IOException {
+        int window = Math.max(1, properties.getPrefetch());
+        Deque<CompletableFuture<Prefetched>> pending = new ArrayDeque<>();
+        ZipOutputStream zip = new ZipOutputStream(output);
+        zip.setLevel(properties.getCompressionLevel());
+        try {
+            while (pending.size() < window && objectNames.hasNext()) {
+                pending.add(prefetch(bucket, objectNames.next()));
+            }
+            while (!pending.isEmpty()) {
+                CompletableFuture<Prefetched> current = pending.poll();
+                if (objectNames.hasNext()) {
+                    pending.add(prefetch(bucket, objectNames.next()));
+                }
+                Prefetched file = await(current);
+                if (file == null) {
+                    continue;
+                }
+                try {
+                    zip.putNextEntry(new ZipEntry(entryName.apply(file.objectName())));
+                    zip.write(file.head());
+                    if (file.rest() != null) {
+                        file.rest().transferTo(zip);
+                    }
+                    zip.closeEntry();
+                } finally {
+                    file.close();
+                }
+            }
+            zip.finish();
+            zip.flush();
+        } finally {
+            //si la escritura se cortó, se cierran las lecturas que quedaron abiertas
+            pending.forEach(p -> p.thenAccept(Prefetched::close));
+        }
+    }
+
+    private CompletableFuture<Prefetched> prefetch(String bucket, String objectName) {
+        int bufferSize = (int) Math.min(properties.getPrefetchBufferSize().toBytes(), Integer.MAX_VALUE - 1);
+        return CompletableFuture.supplyAsync(() -> {
+            InputStream stream = null;
+            try {
+                stream = fileService.downloadDecoded(bucket, objectName);
+                byte[] head = stream.readNBytes(bufferSize);
+                if (head.length < bufferSize) {
+                    stream.close();
+                    return new Prefetched(objectName, head, null);
+                }
+                return new Prefetched(objectName, head, stream);
+            } catch (ErrorResponseException e) {
+                if (NO_SUCH_KEY.equals(e.errorResponse().code())) {
+                    //el archivo se borró después de listarlo, se omite del zip
+                    log.warn("Se omite {} del zip porque ya no existe en {}", objectName, bucket);
+                    return null;
+                }
+                closeQuietly(stream);
+                throw new CompletionException(e);
+            } catch (Exception e) {
+                closeQuietly(stream);
+                throw new CompletionException(e);
+            }
+        }, prefetchers);
+    }
+
+    private Prefetched await(CompletableFuture<Prefetched> future) throws IOException {
+        try {
+            return MinioFutures.await(future);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void closeQuietly(InputStream stream) {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                log.debug("No se pudo cerrar la lectura", e);
+            }
+        }
+    }
+}
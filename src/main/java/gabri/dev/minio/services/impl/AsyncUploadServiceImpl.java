@@ -0,0 +1,451 @@
+package gabri.dev.minio.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import gabri.dev.minio.configs.AsyncUploadProperties;
+import gabri.dev.minio.configs.DedupProperties;
+import gabri.dev.minio.dtos.upload.AsyncUploadDto;
+import gabri.dev.minio.dtos.upload.AsyncUploadStatus;
+import gabri.dev.minio.services.AdmissionControlService;
+import gabri.dev.minio.services.AsyncUploadService;
+import gabri.dev.minio.services.MinioBucketService;
+import gabri.dev.minio.services.MinioFilesService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.minio.errors.ErrorResponseException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service("asyncUploadService")
+public class AsyncUploadServiceImpl implements AsyncUploadService {
+
+    private static final String DATA_SUFFIX = ".data";
+    private static final String SIDECAR_SUFFIX = ".json";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Datos de una subida guardados junto al archivo, para retomarla al reiniciar la aplicación.
+     */
+    record SpooledUpload(String id, String bucket, String objectName, long size, String contentType,
+                         LocalDateTime createdAt) {
+    }
+
+    /**
+     * Estado de una subida, actualizado por los hilos que la suben.
+     */
+    private static final class UploadJob {
+        final SpooledUpload upload;
+        final AtomicInteger attempts = new AtomicInteger();
+        volatile AsyncUploadStatus status = AsyncUploadStatus.QUEUED;
+        volatile String lastError;
+        volatile LocalDateTime nextAttemptAt;
+        volatile LocalDateTime finishedAt;
+
+        UploadJob(SpooledUpload upload) {
+            this.upload = upload;
+        }
+
+        AsyncUploadDto toDto() {
+            return AsyncUploadDto.builder()
+                    .id(upload.id())
+                    .bucket(upload.bucket())
+                    .objectName(upload.objectName())
+                    .size(upload.size())
+                    .status(status)
+                    .attempts(attempts.get())
+                    .lastError(lastError)
+                    .createdAt(upload.createdAt())
+                    .nextAttemptAt(nextAttemptAt)
+                    .finishedAt(finishedAt)
+                    .build();
+        }
+    }
+
+    private final MinioFilesService fileService;
+    private final MinioBucketService bucketService;
+    private final AsyncUploadProperties properties;
+    private final DedupProperties dedupProperties;
+    private final AdmissionControlService admissionControlService;
+    private final ObjectMapper objectMapper;
+    private final Executor workers;
+    private final TaskScheduler scheduler;
+    private final MeterRegistry registry;
+    private final Map<String, UploadJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Subidas aceptadas y no terminadas, que son las que ocupan lugar en la cola.
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Bytes guardados en disco de las subidas no terminadas.
+     */
+    private final AtomicLong spooledBytes = new AtomicLong();
+
+    private Path directory;
+    private Instant startedAt;
+    private volatile boolean stopping;
+
+    /**
+     * Crea el servicio.
+     *
+     * @param fileService     el servicio que sube cada archivo a MinIO.
+     * @param bucketService   el servicio que crea el bucket destino si no existe.
+     * @param properties      la configuración de las subidas asíncronas.
+     * @param dedupProperties la configuración del contenido deduplicado, que no se acepta como destino.
+     * @param admissionControlService el control de admisión que acota las subidas sobre cada bucket.
+     * @param objectMapper    el mapeador con el que se escriben los datos de cada subida en disco.
+     * @param workers         los hilos que suben los archivos.
+     * @param scheduler       el planificador de los reintentos.
+     * @param registry        el registro de Micrometer donde se publican el tamaño de la cola y del directorio.
+     */
+    @Autowired
+    public AsyncUploadServiceImpl(MinioFilesService fileService, MinioBucketService bucketService,
+                                  AsyncUploadProperties properties, DedupProperties dedupProperties,
+                                  AdmissionControlService admissionControlService, ObjectMapper objectMapper,
+                                  @Qualifier("asyncUploadExecutor") Executor workers, TaskScheduler scheduler,
+                                  MeterRegistry registry) {
+        this.fileService = fileService;
+        this.bucketService = bucketService;
+        this.properties = properties;
+        this.dedupProperties = dedupProperties;
+        this.admissionControlService = admissionControlService;
+        this.objectMapper = objectMapper;
+        this.workers = workers;
+        this.scheduler = scheduler;
+        this.registry = registry;
+    }
+
+    /**
+     * Crea el directorio de subidas pendientes y registra las métricas de la cola.
+     *
+     * @throws IOException si no se puede crear el directorio.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        directory = Paths.get(properties.getDirectory()).toAbsolutePath();
+        Files.createDirectories(directory);
+        if (directory.startsWith(Paths.get(System.getProperty("java.io.tmpdir")).toAbsolutePath())) {
+            log.warn("Las subidas asíncronas se guardan en {}, dentro del directorio temporal, que puede vaciarse al"
+                    + " reiniciar el equipo: configurar minio.async-upload.directory en un disco persistente", directory);
+        }
+        startedAt = Instant.now();
+        Gauge.builder("minio.async.upload.pending", pending, AtomicInteger::get)
+                .description("Subidas asíncronas aceptadas y no terminadas")
+                .register(registry);
+        Gauge.builder("minio.async.upload.spooled", spooledBytes, AtomicLong::get)
+                .description("Bytes en disco de las subidas asíncronas no terminadas")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Evita que las subidas cortadas por el cierre se den por fallidas: sus archivos quedan
+     * en disco y se retoman al iniciar.
+     */
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+
+    /**
+     * Guarda un archivo en el directorio de subidas pendientes y lo encola para subirlo.
+     * Primero se escribe el archivo y después sus datos, ambos sincronizados con el disco antes
+     * de responder, por lo que al reiniciar, aun tras una caída, solo se retoman las subidas
+     * que se terminaron de guardar.
+     *
+     * @param file       el archivo recibido.
+     * @param bucket     nombre del bucket destino.
+     * @param objectName nombre del archivo destino.
+     * @return el estado inicial de la subida.
+     */
+    @Override
+    public AsyncUploadDto submit(MultipartFile file, String bucket, String objectName) {
+        //se rechaza al recibirla, en segundo plano la subida fallaría sin que el cliente se entere
+        dedupProperties.checkNotReserved(objectName);
+        purgeFinished();
+        if (pending.incrementAndGet() > properties.getQueueCapacity()) {
+            pending.decrementAndGet();
+            throw rejected(HttpStatus.TOO_MANY_REQUESTS, "La cola de subidas está llena");
+        }
+        long size = file.getSize();
+        if (spooledBytes.addAndGet(size) > properties.getMaxSpoolSize().toBytes()) {
+            release(size);
+            throw rejected(HttpStatus.SERVICE_UNAVAILABLE, "No hay espacio para más subidas pendientes");
+        }
+
+        SpooledUpload upload = new SpooledUpload(UUID.randomUUID().toString(), bucket, objectName, size,
+                file.getContentType(), LocalDateTime.now());
+        try {
+            file.transferTo(dataFile(upload.id()));
+            force(dataFile(upload.id()));
+            Path temp = directory.resolve(upload.id() + SIDECAR_SUFFIX + TEMP_SUFFIX);
+            Files.write(temp, objectMapper.writeValueAsBytes(upload));
+            force(temp);
+            Files.move(temp, sidecarFile(upload.id()), StandardCopyOption.ATOMIC_MOVE);
+            forceDirectory();
+        } catch (IOException e) {
+            log.error("No se pudo guardar la subida {} en {}", upload.id(), directory, e);
+            deleteFiles(upload.id());
+            release(size);
+            throw rejected(HttpStatus.SERVICE_UNAVAILABLE, "No se pudo guardar el archivo");
+        }
+        UploadJob job = new UploadJob(upload);
+        jobs.put(upload.id(), job);
+        workers.execute(() -> attempt(job));
+        return job.toDto();
+    }
+
+    /**
+     * Sincroniza el contenido de un archivo con el disco.
+     */
+    private static void force(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Sincroniza el directorio, para que el renombrado del archivo de datos persista. No todos los
+     * sistemas permiten abrir un directorio, en ese caso se confía en el sistema de archivos.
+     */
+    private void forceDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("No se pudo sincronizar el directorio {}", directory, e);
+        }
+    }
+
+    /**
+     * Obtiene el estado de una subida.
+     *
+     * @param id identificador de la subida.
+     * @return el estado de la subida.
+     */
+    @Override
+    public AsyncUploadDto get(String id) {
+        UploadJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No existe la subida " + id);
+        }
+        return job.toDto();
+    }
+
+    /**
+     * Lista las subidas pendientes y las terminadas recientemente.
+     *
+     * @return el estado de cada subida, de la más reciente a la más antigua.
+     */
+    @Override
+    public List<AsyncUploadDto> list() {
+        purgeFinished();
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((UploadJob job) -> job.upload.createdAt()).reversed())
+                .map(UploadJob::toDto)
+                .toList();
+    }
+
+    /**
+     * Sube el archivo a MinIO, dentro de los límites de admisión del bucket. Si falla por un error
+     * transitorio se reintenta más tarde, con una espera que se duplica en cada intento.
+     */
+    private void attempt(UploadJob job) {
+        SpooledUpload upload = job.upload;
+        AdmissionControlService.Admission admission = null;
+        try (InputStream stream = Files.newInputStream(dataFile(upload.id()))) {
+            //la petición que recibió el archivo ya terminó y liberó su lugar
+            admission = admissionControlService.admitBackground(List.of(upload.bucket()));
+            job.status = AsyncUploadStatus.UPLOADING;
+            job.nextAttemptAt = null;
+            job.attempts.incrementAndGet();
+            bucketService.createBucket(upload.bucket());
+            fileService.uploadFile(admission.throttle(stream), upload.bucket(), upload.objectName(),
+                    upload.size(), upload.contentType());
+            finish(job, AsyncUploadStatus.COMPLETED);
+        } catch (Exception e) {
+            if (stopping) {
+                return;
+            }
+            job.lastError = e instanceof ErrorResponseException response
+                    ? response.errorResponse().code() + ": " + e.getMessage()
+                    : e.getClass().getSimpleName() + ": " + e.getMessage();
+            if (!retryable(e) || job.attempts.get() >= properties.getMaxAttempts()) {
+                log.error("Falló la subida {} de {}/{} tras {} intentos", upload.id(), upload.bucket(),
+                        upload.objectName(), job.attempts.get(), e);
+                finish(job, AsyncUploadStatus.FAILED);
+                return;
+            }
+            Duration delay = backoff(job.attempts.get());
+            log.warn("Falló el intento {} de la subida {}, se reintenta en {}: {}", job.attempts.get(),
+                    upload.id(), delay, job.lastError);
+            Instant next = Instant.now().plus(delay);
+            job.status = AsyncUploadStatus.RETRYING;
+            job.nextAttemptAt = LocalDateTime.ofInstant(next, ZoneId.systemDefault());
+            scheduler.schedule(() -> workers.execute(() -> attempt(job)), next);
+        } finally {
+            if (admission != null) {
+                admission.release();
+            }
+        }
+    }
+
+    /**
+     * Espera antes del siguiente intento: exponencial hasta {@code maxBackoff}, con la mitad
+     * aleatoria para que las subidas que fallaron juntas no reintenten todas a la vez.
+     */
+    private Duration backoff(int attempts) {
+        long max = properties.getMaxBackoff().toMillis();
+        long delay = Math.min(max, properties.getInitialBackoff().toMillis() << Math.min(attempts - 1, 30));
+        if (delay <= 0) {
+            delay = max;
+        }
+        return Duration.ofMillis(delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1));
+    }
+
+    /**
+     * Solo se reintentan los errores que pueden desaparecer solos: fallas de conexión y
+     * errores 5xx de MinIO. Los errores 4xx, como permisos o nombres inválidos, se repetirían.
+     */
+    private boolean retryable(Exception e) {
+        if (e instanceof ResponseStatusException) {
+            return false;
+        }
+        if (e instanceof ErrorResponseException response) {
+            return response.response() == null || response.response().code() >= 500;
+        }
+        return !(e instanceof IllegalArgumentException);
+    }
+
+    private void finish(UploadJob job, AsyncUploadStatus status) {
+        job.status = status;
+        job.nextAttemptAt = null;
+        job.finishedAt = LocalDateTime.now();
+        deleteFiles(job.upload.id());
+        release(job.upload.size());
+    }
+
+    /**
+     * Vuelve a encolar las subidas guardadas por una ejecución anterior y elimina los archivos
+     * de las que no se terminaron de guardar. Se hace con la aplicación ya iniciada, para que
+     * las subidas no compitan con la creación de los beans.
+     *
+     * @throws IOException si no se puede recorrer el directorio.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() throws IOException {
+        try (DirectoryStream<Path> sidecars = Files.newDirectoryStream(directory, "*" + SIDECAR_SUFFIX)) {
+            for (Path sidecar : sidecars) {
+                SpooledUpload upload;
+                try {
+                    upload = objectMapper.readValue(sidecar.toFile(), SpooledUpload.class);
+                } catch (IOException e) {
+                    log.warn("Se descarta la subida pendiente {}, no se pudieron leer sus datos", sidecar, e);
+                    Files.deleteIfExists(sidecar);
+                    continue;
+                }
+                if (!Files.exists(dataFile(upload.id()))) {
+                    Files.deleteIfExists(sidecar);
+                    continue;
+                }
+                pending.incrementAndGet();
+                spooledBytes.addAndGet(upload.size());
+                UploadJob job = new UploadJob(upload);
+                jobs.put(upload.id(), job);
+                workers.execute(() -> attempt(job));
+            }
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (!Files.getLastModifiedTime(file).toInstant().isBefore(startedAt)) {
+                    //es de una subida recibida en esta ejecución, que puede estar guardándose
+                    continue;
+                }
+                boolean orphan = name.endsWith(DATA_SUFFIX)
+                        && !jobs.containsKey(name.substring(0, name.length() - DATA_SUFFIX.length()));
+                if (orphan || name.endsWith(TEMP_SUFFIX)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        if (!jobs.isEmpty()) {
+            log.info("Se retoman {} subidas pendientes de {}", jobs.size(), directory);
+        }
+    }
+
+    private void deleteFiles(String id) {
+        try {
+            Files.deleteIfExists(sidecarFile(id));
+            Files.deleteIfExists(dataFile(id));
+        } catch (IOException e) {
+            log.warn("No se pudieron eliminar los archivos de la subida {}", id, e);
+        }
+    }
+
+    private void release(long size) {
+        spooledBytes.addAndGet(-size);
+        pending.decrementAndGet();
+    }
+
+    private Path dataFile(String id) {
+        return directory.resolve(id + DATA_SUFFIX);
+    }
+
+    private Path sidecarFile(String id) {
+        return directory.resolve(id + SIDECAR_SUFFIX);
+    }
+
+    /**
+     * Rechazo con el header {@code Retry-After}, para que el cliente espere antes de reintentar.
+     */
+    private ResponseStatusException rejected(HttpStatus status, String reason) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, properties.getRetryAfter().toSeconds())));
+        return new ResponseStatusException(status, reason) {
+            @Override
+            public HttpHeaders getHeaders() {
+                return headers;
+            }
+        };
+    }
+
+    private void purgeFinished() {
+        LocalDateTime limit = LocalDateTime.now().minus(properties.getJobRetention());
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(limit));
+    }
+}
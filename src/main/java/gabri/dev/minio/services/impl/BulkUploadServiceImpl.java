@@ -0,0 +1,247 @@
+package gabri.dev.minio.services.impl;
+
+import com.google.common.io.CountingInputStream;
+import gabri.dev.minio.configs.UploadProperties;
+import gabri.dev.minio.dtos.upload.BulkUploadEntryDto;
+import gabri.dev.minio.dtos.upload.BulkUploadResultDto;
+import gabri.dev.minio.services.AdmissionControlService;
+import gabri.dev.minio.services.BulkUploadService;
+import gabri.dev.minio.services.MinioFilesService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+@Slf4j
+@Service("bulkUploadService")
+public class BulkUploadServiceImpl implements BulkUploadService {
+
+    private final MinioFilesService fileService;
+    private final UploadProperties.Bulk properties;
+    private final AdmissionControlService admissionControlService;
+
+    /**
+     * Hilos compartidos por todas las subidas masivas.
+     */
+    private final Executor workers;
+
+    /**
+     * Crea el servicio.
+     *
+     * @param fileService el servicio que sube cada archivo a MinIO.
+     * @param properties  la configuración de las subidas.
+     * @param admissionControlService el control de admisión que acota las subidas en paralelo sobre el bucket.
+     * @param workers     los hilos que suben los archivos.
+     */
+    @Autowired
+    public BulkUploadServiceImpl(MinioFilesService fileService, UploadProperties properties,
+                                 AdmissionControlService admissionControlService,
+                                 @Qualifier("bulkUploadExecutor") Executor workers) {
+        this.fileService = fileService;
+        this.properties = properties.getBulk();
+        this.admissionControlService = admissionControlService;
+        this.workers = workers;
+    }
+
+    /**
+     * Sube varios archivos recibidos en una petición multipart. Spring ya guardó cada parte
+     * en memoria o en disco, por lo que todas se pueden leer en paralelo.
+     *
+     * @param bucket nombre del bucket destino.
+     * @param prefix carpeta donde se guardan los archivos, puede ser {@code null}.
+     * @param files  archivos a subir.
+     * @return el resultado de cada archivo.
+     */
+    @Override
+    public BulkUploadResultDto uploadFiles(String bucket, String prefix, List<MultipartFile> files) {
+        Semaphore inFlight = new Semaphore(Math.max(1, properties.getConcurrency()));
+        List<BulkUploadEntryDto> entries = new ArrayList<>();
+        List<CompletableFuture<Void>> uploads = new ArrayList<>();
+        try {
+            for (MultipartFile file : files) {
+                if (!StringUtils.hasText(file.getOriginalFilename())) {
+                    entries.add(new BulkUploadEntryDto(null, file.getSize(), false,
+                            "La parte no tiene nombre de archivo"));
+                    continue;
+                }
+                BulkUploadEntryDto entry = new BulkUploadEntryDto(
+                        objectName(prefix, file.getOriginalFilename()), file.getSize(), false, null);
+                entries.add(entry);
+                acquire(inFlight);
+                uploads.add(submit(entry, bucket, inFlight, () -> fileService.uploadFile(file.getInputStream(), bucket,
+                        entry.getObjectName(), file.getSize(), file.getContentType())));
+            }
+        } catch (InterruptedIOException e) {
+            uploads.forEach(u -> u.cancel(true));
+            Thread.currentThread().interrupt();
+        }
+        return result(entries, uploads);
+    }
+
+    /**
+     * Sube las entradas de un archivo zip a medida que se leen. Las entradas chicas se leen a
+     * memoria y se suben en paralelo mientras se sigue leyendo el archivo; las grandes se suben
+     * en el momento, leyendo directamente del zip, una vez terminadas las chicas en curso. La memoria
+     * usada queda acotada por {@code concurrency * maxBufferedEntrySize} mientras se suben entradas
+     * chicas, y por {@code maxBufferedEntrySize} más los buffers de parte de una subida multipart
+     * ({@code minio.upload.concurrency * part-size}) mientras se sube una grande.
+     *
+     * @param stream flujo del archivo zip.
+     * @param bucket nombre del bucket destino.
+     * @param prefix carpeta donde se guardan las entradas, puede ser {@code null}.
+     * @return el resultado de cada entrada.
+     * @throws IOException si el archivo zip no se puede leer.
+     */
+    @Override
+    public BulkUploadResultDto uploadArchive(InputStream stream, String bucket, String prefix) throws IOException {
+        int maxBuffered = (int) Math.min(properties.getMaxBufferedEntrySize().toBytes(), Integer.MAX_VALUE - 1);
+        Semaphore inFlight = new Semaphore(Math.max(1, properties.getConcurrency()));
+        List<BulkUploadEntryDto> entries = new ArrayList<>();
+        List<CompletableFuture<Void>> uploads = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(stream)) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zip.getNextEntry()) != null) {
+                if (zipEntry.isDirectory()) {
+                    continue;
+                }
+                String objectName = objectName(prefix, zipEntry.getName());
+                String contentType = MediaTypeFactory.getMediaType(objectName)
+                        .map(MediaType::toString)
+                        .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+                BulkUploadEntryDto entry = new BulkUploadEntryDto(objectName, null, false, null);
+                entries.add(entry);
+
+                //se lee un byte más del límite para saber si la entrada entra en memoria
+                byte[] head = zip.readNBytes(maxBuffered + 1);
+                if (head.length <= maxBuffered) {
+                    entry.setSize((long) head.length);
+                    acquire(inFlight);
+                    uploads.add(submit(entry, bucket, inFlight, () -> fileService.uploadFile(
+                            new ByteArrayInputStream(head), bucket, objectName, head.length, contentType)));
+                } else {
+                    InputStream body = new SequenceInputStream(
+                            new ByteArrayInputStream(head), StreamUtils.nonClosing(zip));
+                    //la subida multipart suma sus propios buffers de parte, así que no se superpone
+                    //con las entradas chicas en memoria
+                    int permits = Math.max(1, properties.getConcurrency());
+                    acquire(inFlight, permits);
+                    try {
+                        uploadInline(entry, body, bucket, contentType);
+                    } finally {
+                        inFlight.release(permits);
+                    }
+                }
+            }
+        } catch (InterruptedIOException e) {
+            uploads.forEach(u -> u.cancel(true));
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            //el zip está dañado: se esperan las subidas en curso antes de informar el error
+            CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new)).exceptionally(t -> null).join();
+            throw e;
+        }
+        return result(entries, uploads);
+    }
+
+    private void uploadInline(BulkUploadEntryDto entry, InputStream body, String bucket, String contentType) {
+        CountingInputStream counting = new CountingInputStream(body);
+        try {
+            fileService.uploadFile(counting, bucket, entry.getObjectName(), -1, contentType);
+            entry.setSize(counting.getCount());
+            entry.setUploaded(true);
+        } catch (Exception e) {
+            log.warn("No se pudo subir {} a {}", entry.getObjectName(), bucket, e);
+            entry.setError(e.getMessage());
+        }
+    }
+
+    /**
+     * Sube una entrada en los hilos de subida si el control de admisión da un lugar más en el bucket.
+     * Si no, la sube en el hilo de la petición, dentro del lugar que la petición ya ocupa.
+     */
+    private CompletableFuture<Void> submit(BulkUploadEntryDto entry, String bucket, Semaphore inFlight, Upload upload) {
+        AdmissionControlService.Admission admission = admissionControlService.tryAdmitBackground(List.of(bucket));
+        if (admission == null) {
+            run(entry, upload);
+            inFlight.release();
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return CompletableFuture.runAsync(() -> {
+                try {
+                    run(entry, upload);
+                } finally {
+                    admission.release();
+                    inFlight.release();
+                }
+            }, workers);
+        } catch (RuntimeException e) {
+            admission.release();
+            inFlight.release();
+            throw e;
+        }
+    }
+
+    private void run(BulkUploadEntryDto entry, Upload upload) {
+        try {
+            upload.run();
+            entry.setUploaded(true);
+        } catch (Exception e) {
+            log.warn("No se pudo subir {}", entry.getObjectName(), e);
+            entry.setError(e.getMessage());
+        }
+    }
+
+    private BulkUploadResultDto result(List<BulkUploadEntryDto> entries, List<CompletableFuture<Void>> uploads) {
+        CompletableFuture.allOf(uploads.toArray(CompletableFuture[]::new)).exceptionally(t -> null).join();
+        long uploaded = entries.stream().filter(BulkUploadEntryDto::isUploaded).count();
+        return new BulkUploadResultDto(uploaded, entries.size() - uploaded, entries);
+    }
+
+    /**
+     * Arma el nombre del objeto con la misma convención que {@code /uploadfile}: {@code prefijo/nombre}.
+     */
+    private String objectName(String prefix, String name) {
+        String clean = name.startsWith("/") ? name.substring(1) : name;
+        return prefix != null ? prefix + "/" + clean : clean;
+    }
+
+    private void acquire(Semaphore semaphore) throws InterruptedIOException {
+        acquire(semaphore, 1);
+    }
+
+    private void acquire(Semaphore semaphore, int permits) throws InterruptedIOException {
+        try {
+            semaphore.acquire(permits);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Subida masiva interrumpida");
+        }
+    }
+
+    /**
+     * Subida de un archivo que puede lanzar las excepciones del SDK de MinIO.
+     */
+    @FunctionalInterface
+    private interface Upload {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,531 @@
+package gabri.dev.minio.services.impl;
+
+import com.google.common.util.concurrent.Striped;
+import gabri.dev.minio.configs.CompressionProperties;
+import gabri.dev.minio.configs.DedupProperties;
+import gabri.dev.minio.dtos.dedup.ContentReferenceDto;
+import gabri.dev.minio.entities.ContentReferenceEntity;
+import gabri.dev.minio.repositories.ContentReferenceRepository;
+import gabri.dev.minio.services.ContentStoreService;
+import gabri.dev.minio.services.MinioFilesService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.Result;
+import io.minio.StatObjectResponse;
+import io.minio.errors.*;
+import io.minio.messages.Bucket;
+import io.minio.messages.Item;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service("contentStoreService")
+public class ContentStoreServiceImpl implements ContentStoreService {
+
+    private static final String NO_SUCH_KEY = "NoSuchKey";
+
+    /**
+     * Metadatos de usuario de cada referencia en MinIO: el hash y el tamaño de su contenido.
+     */
+    private static final String SHA256_METADATA = "sha256";
+    private static final String SIZE_METADATA = "size";
+    private static final String USER_METADATA_PREFIX = "X-Amz-Meta-";
+
+    /**
+     * Cantidad de candados entre los que se reparten los contenidos. Las altas y bajas de referencias
+     * de un mismo contenido se serializan, para no eliminarlo mientras otra subida lo está reutilizando.
+     */
+    private static final int LOCK_STRIPES = 256;
+
+    @Autowired
+    MinioClient minio;
+    @Autowired
+    MinioFilesService fileService;
+    @Autowired
+    ContentReferenceRepository referenceRepository;
+    @Autowired
+    DedupProperties dedupProperties;
+    @Autowired
+    MeterRegistry registry;
+
+    private final Striped<Lock> locks = Striped.lock(LOCK_STRIPES);
+    /**
+     * Candados por nombre lógico. Se toman siempre antes que los de contenido, nunca al revés.
+     */
+    private final Striped<Lock> nameLocks = Striped.lock(LOCK_STRIPES);
+    private Path spoolDirectory;
+    private Counter storedUploads;
+    private Counter deduplicatedUploads;
+    private Counter savedBytes;
+
+    /**
+     * Indica si la tabla de referencias ya se reconstruyó desde MinIO. Hasta entonces no se atienden
+     * pedidos: con referencias faltantes se podría eliminar contenido que otro nombre todavía usa.
+     */
+    private volatile boolean ready;
+
+    /**
+     * Crea el directorio de subidas temporales y registra las métricas de deduplicación.
+     *
+     * @throws IOException si no se puede crear el directorio.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        spoolDirectory = Paths.get(dedupProperties.getSpoolDirectory()).toAbsolutePath();
+        Files.createDirectories(spoolDirectory);
+        storedUploads = uploads("stored");
+        deduplicatedUploads = uploads("deduplicated");
+        savedBytes = Counter.builder("minio.dedup.saved")
+                .description("Bytes que no se escribieron en MinIO porque el contenido ya existía")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Sube un archivo calculando el hash de su contenido mientras se recibe. El contenido se guarda
+     * en memoria o en disco solo hasta conocer el hash: si ya existe en el bucket la subida termina
+     * sin escribir en MinIO, si no se sube desde la copia local.
+     *
+     * @param stream      flujo de entrada del archivo.
+     * @param bucket      nombre del bucket.
+     * @param objectName  nombre lógico del archivo, si ya existe se reemplaza.
+     * @param size        tamaño en bytes del archivo, o -1 si es desconocido.
+     * @param contentType tipo de contenido del archivo, puede ser {@code null}.
+     * @return la referencia del archivo, indicando si el contenido ya existía.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public ContentReferenceDto upload(InputStream stream, String bucket, String objectName, long size, String contentType)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        checkReady();
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        DigestInputStream hashing = new DigestInputStream(stream, digest);
+        byte[] data = null;
+        Path spool = null;
+        try {
+            if (size >= 0 && size <= dedupProperties.getMemoryThreshold().toBytes()) {
+                data = hashing.readAllBytes();
+            } else {
+                spool = Files.createTempFile(spoolDirectory, "upload-", ".tmp");
+                Files.copy(hashing, spool, StandardCopyOption.REPLACE_EXISTING);
+            }
+            long length = data != null ? data.length : Files.size(spool);
+            String sha256 = HexFormat.of().formatHex(digest.digest());
+
+            //la subida se hace sin los locks, para no frenar a otros contenidos de la misma franja; subir
+            //el mismo contenido dos veces a la vez escribe los mismos bytes en el mismo nombre
+            boolean deduplicated = exists(bucket, sha256, length);
+            if (!deduplicated) {
+                store(data, spool, bucket, sha256, length, contentType);
+            }
+            String replaced;
+            ContentReferenceEntity reference;
+            //las subidas de un mismo nombre se serializan, para que la fila y la referencia en MinIO
+            //queden apuntando al mismo contenido y solo se libere el que dejó de estar referenciado
+            Lock nameLock = nameLocks.get(bucket + "/" + objectName);
+            nameLock.lock();
+            try {
+                String previousSha256;
+                Long previousSize;
+                String previousContentType;
+                Lock lock = locks.get(bucket + "/" + sha256);
+                lock.lock();
+                try {
+                    //entretanto pudo eliminarse al liberar la última referencia; con el lock ya no puede
+                    if (!exists(bucket, sha256, length)) {
+                        store(data, spool, bucket, sha256, length, contentType);
+                    }
+                    reference = referenceRepository.findByBucketAndObjectKey(bucket, objectName)
+                            .orElseGet(ContentReferenceEntity::new);
+                    previousSha256 = reference.getSha256();
+                    previousSize = reference.getSize();
+                    previousContentType = reference.getContentType();
+                    replaced = previousSha256 != null && !previousSha256.equals(sha256) ? previousSha256 : null;
+                    reference.setBucket(bucket);
+                    reference.setObjectKey(objectName);
+                    reference.setSha256(sha256);
+                    reference.setSize(length);
+                    reference.setContentType(contentType);
+                    reference.setCreatedAt(LocalDateTime.now());
+                    reference = referenceRepository.save(reference);
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    storeReference(bucket, objectName, sha256, length, contentType);
+                } catch (Exception e) {
+                    //sin la referencia en MinIO la fila no sobrevive a un reinicio: se vuelve a la anterior
+                    if (previousSha256 == null) {
+                        referenceRepository.deleteEntry(bucket, objectName);
+                    } else {
+                        reference.setSha256(previousSha256);
+                        reference.setSize(previousSize);
+                        reference.setContentType(previousContentType);
+                        referenceRepository.save(reference);
+                    }
+                    if (!sha256.equals(previousSha256)) {
+                        release(bucket, sha256);
+                    }
+                    throw e;
+                }
+                //el nombre apuntaba a otro contenido, que puede haber quedado sin referencias
+                if (replaced != null) {
+                    release(bucket, replaced);
+                }
+            } finally {
+                nameLock.unlock();
+            }
+
+            if (deduplicated) {
+                deduplicatedUploads.increment();
+                savedBytes.increment(length);
+            } else {
+                storedUploads.increment();
+            }
+            return toDto(reference, deduplicated);
+        } finally {
+            if (spool != null) {
+                Files.deleteIfExists(spool);
+            }
+        }
+    }
+
+    /**
+     * Obtiene la referencia de un archivo.
+     *
+     * @param bucket     nombre del bucket.
+     * @param objectName nombre lógico del archivo.
+     * @return la referencia del archivo.
+     */
+    @Override
+    public ContentReferenceDto get(String bucket, String objectName) {
+        checkReady();
+        return referenceRepository.findByBucketAndObjectKey(bucket, objectName)
+                .map(reference -> toDto(reference, false))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "El archivo no existe"));
+    }
+
+    /**
+     * Lista los archivos de un bucket cuyo nombre empieza con un prefijo.
+     *
+     * @param bucket nombre del bucket.
+     * @param prefix prefijo de los nombres, vacío para todo el bucket.
+     * @return las referencias de los archivos, ordenadas por nombre.
+     */
+    @Override
+    public List<ContentReferenceDto> list(String bucket, String prefix) {
+        checkReady();
+        return referenceRepository.findByBucketAndObjectKeyStartingWithOrderByObjectKeyAsc(bucket, prefix).stream()
+                .map(reference -> toDto(reference, false))
+                .toList();
+    }
+
+    /**
+     * Abre el contenido de un archivo.
+     *
+     * @param reference la referencia del archivo.
+     * @return un flujo de entrada con el contenido.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public InputStream download(ContentReferenceDto reference)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        return fileService.downloadDecoded(reference.getBucket(), contentKey(reference.getSha256()));
+    }
+
+    /**
+     * Elimina un archivo. El contenido se elimina de MinIO cuando ya no lo referencia ningún archivo.
+     *
+     * @param bucket     nombre del bucket.
+     * @param objectName nombre lógico del archivo.
+     * @return {@code true} si se eliminó también el contenido.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public boolean delete(String bucket, String objectName)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        Lock nameLock = nameLocks.get(bucket + "/" + objectName);
+        nameLock.lock();
+        try {
+            ContentReferenceDto reference = get(bucket, objectName);
+            if (referenceRepository.deleteEntry(bucket, objectName) == 0) {
+                //otra petición lo eliminó entretanto y ya liberó el contenido
+                return false;
+            }
+            fileService.deleteContent(bucket, referenceKey(objectName));
+            return release(bucket, reference.getSha256());
+        } finally {
+            nameLock.unlock();
+        }
+    }
+
+    /**
+     * Descarta las referencias de un bucket que se vació para eliminarlo. Si algunos archivos no se
+     * pudieron eliminar, se conservan las referencias a los contenidos que siguen en MinIO y se
+     * vuelven a escribir sus objetos de referencia, para poder liberarlos más adelante.
+     *
+     * @param bucket nombre del bucket.
+     * @param kept   nombres de los archivos que el vaciado no pudo eliminar.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public void forgetBucket(String bucket, Set<String> kept)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        Set<String> keptContents = kept.stream()
+                .filter(name -> name.startsWith(dedupProperties.getPrefix()))
+                .map(name -> name.substring(dedupProperties.getPrefix().length()))
+                .collect(Collectors.toSet());
+        int removed = keptContents.isEmpty()
+                ? referenceRepository.deleteBucket(bucket)
+                : referenceRepository.deleteBucketExcept(bucket, keptContents);
+        log.debug("Referencias de {} descartadas: {}", bucket, removed);
+        if (keptContents.isEmpty()) {
+            return;
+        }
+        for (ContentReferenceEntity reference
+                : referenceRepository.findByBucketAndObjectKeyStartingWithOrderByObjectKeyAsc(bucket, "")) {
+            if (!kept.contains(referenceKey(reference.getObjectKey()))) {
+                storeReference(bucket, reference.getObjectKey(), reference.getSha256(), reference.getSize(),
+                        reference.getContentType());
+            }
+        }
+    }
+
+    /**
+     * Elimina de MinIO un contenido si ya no lo referencia ningún archivo.
+     */
+    private boolean release(String bucket, String sha256)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        Lock lock = locks.get(bucket + "/" + sha256);
+        lock.lock();
+        try {
+            if (referenceRepository.countByBucketAndSha256(bucket, sha256) > 0) {
+                return false;
+            }
+            fileService.deleteContent(bucket, contentKey(sha256));
+            log.debug("Contenido {} eliminado de {}, sin referencias", sha256, bucket);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Indica si el contenido ya está en MinIO. Se consulta primero la tabla de referencias; si no hay
+     * referencias se revisa MinIO, donde puede quedar contenido subido antes de perder la tabla.
+     */
+    private boolean exists(String bucket, String sha256, long size)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        if (referenceRepository.countByBucketAndSha256(bucket, sha256) > 0) {
+            return true;
+        }
+        try {
+            StatObjectResponse stat = fileService.stat(bucket, contentKey(sha256));
+            //si se guardó comprimido el tamaño en MinIO no es el del contenido
+            return CompressionProperties.encodingOf(stat.headers()) != null || stat.size() == size;
+        } catch (ErrorResponseException e) {
+            if (NO_SUCH_KEY.equals(e.errorResponse().code())) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    private void store(byte[] data, Path spool, String bucket, String sha256, long length, String contentType)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        try (InputStream content = data != null ? new ByteArrayInputStream(data) : Files.newInputStream(spool)) {
+            fileService.uploadContent(content, bucket, contentKey(sha256), length, contentType, Map.of());
+        }
+    }
+
+    private void storeReference(String bucket, String objectName, String sha256, long length, String contentType)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        fileService.uploadContent(InputStream.nullInputStream(), bucket, referenceKey(objectName), 0, contentType,
+                Map.of(SHA256_METADATA, sha256, SIZE_METADATA, String.valueOf(length)));
+    }
+
+    /**
+     * Reconstruye la tabla de referencias desde los objetos de referencia de cada bucket, para no perder
+     * los nombres lógicos al reiniciar con una base en memoria. Se ejecuta al iniciar y se reintenta
+     * hasta completarse si MinIO no está disponible.
+     */
+    @Scheduled(fixedDelayString = "${minio.dedup.rebuild-retry-interval:30s}")
+    public void rebuild() {
+        if (ready) {
+            return;
+        }
+        try {
+            long restored = 0;
+            for (Bucket bucket : minio.listBuckets()) {
+                restored += rebuild(bucket.name());
+            }
+            ready = true;
+            log.info("Referencias de contenido deduplicado reconstruidas desde MinIO: {}", restored);
+        } catch (Exception e) {
+            log.warn("No se pudieron reconstruir las referencias de contenido deduplicado, se reintenta en {}",
+                    dedupProperties.getRebuildRetryInterval(), e);
+        }
+    }
+
+    /**
+     * Agrega las referencias de un bucket que faltan en la tabla. Se omiten las que apuntan a contenido
+     * que ya no está, por ejemplo si se eliminó la referencia en MinIO sin llegar a eliminar la fila.
+     */
+    private long rebuild(String bucket) throws Exception {
+        Set<String> contents = new HashSet<>();
+        for (Result<Item> result : list(bucket, dedupProperties.getPrefix(), false)) {
+            contents.add(result.get().objectName().substring(dedupProperties.getPrefix().length()));
+        }
+        if (contents.isEmpty()) {
+            return 0;
+        }
+        long restored = 0;
+        for (Result<Item> result : list(bucket, dedupProperties.getReferencePrefix(), true)) {
+            Item item = result.get();
+            String objectName = item.objectName().substring(dedupProperties.getReferencePrefix().length());
+            Map<String, String> metadata = item.userMetadata();
+            String contentType = metadata(metadata, "content-type");
+            if (metadata(metadata, SHA256_METADATA) == null || metadata(metadata, SIZE_METADATA) == null) {
+                //el servidor no incluye los metadatos en el listado, se consultan por separado
+                StatObjectResponse stat = fileService.stat(bucket, item.objectName());
+                metadata = stat.userMetadata();
+                contentType = stat.contentType();
+            }
+            String sha256 = metadata(metadata, SHA256_METADATA);
+            String size = metadata(metadata, SIZE_METADATA);
+            if (sha256 == null || size == null || !contents.contains(sha256)
+                    || referenceRepository.findByBucketAndObjectKey(bucket, objectName).isPresent()) {
+                continue;
+            }
+            ContentReferenceEntity reference = new ContentReferenceEntity();
+            reference.setBucket(bucket);
+            reference.setObjectKey(objectName);
+            reference.setSha256(sha256);
+            reference.setSize(Long.parseLong(size));
+            reference.setContentType(contentType);
+            reference.setCreatedAt(item.lastModified() != null
+                    ? item.lastModified().withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime()
+                    : LocalDateTime.now());
+            try {
+                referenceRepository.save(reference);
+                restored++;
+            } catch (DataIntegrityViolationException e) {
+                //una subida del mismo nombre la insertó entretanto, y es más reciente
+            }
+        }
+        return restored;
+    }
+
+    private Iterable<Result<Item>> list(String bucket, String prefix, boolean userMetadata) {
+        return minio.listObjects(ListObjectsArgs.builder()
+                .bucket(bucket)
+                .prefix(prefix)
+                .recursive(true)
+                .includeUserMetadata(userMetadata)
+                .build());
+    }
+
+    /**
+     * Busca un metadato de usuario, que el listado devuelve con el prefijo {@code X-Amz-Meta-}
+     * y la consulta de metadatos sin él.
+     */
+    private String metadata(Map<String, String> metadata, String name) {
+        if (metadata == null) {
+            return null;
+        }
+        return metadata.entrySet().stream()
+                .filter(e -> e.getKey().equalsIgnoreCase(name)
+                        || e.getKey().equalsIgnoreCase(USER_METADATA_PREFIX + name))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private void checkReady() {
+        if (!ready) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Las referencias de contenido deduplicado se están reconstruyendo desde MinIO");
+        }
+    }
+
+    private String contentKey(String sha256) {
+        return dedupProperties.getPrefix() + sha256;
+    }
+
+    private String referenceKey(String objectName) {
+        return dedupProperties.getReferencePrefix() + objectName;
+    }
+
+    private Counter uploads(String outcome) {
+        return Counter.builder("minio.dedup.uploads")
+                .description("Subidas deduplicadas, según si el contenido se escribió o ya existía")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private ContentReferenceDto toDto(ContentReferenceEntity reference, boolean deduplicated) {
+        return new ContentReferenceDto(reference.getBucket(), reference.getObjectKey(), reference.getSha256(),
+                reference.getSize(), reference.getContentType(), reference.getCreatedAt(), deduplicated);
+    }
+}
@@ -0,0 +1,367 @@
+package gabri.dev.minio.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import gabri.dev.minio.configs.CacheProperties;
+import gabri.dev.minio.dtos.cache.CacheStatsDto;
+import gabri.dev.minio.services.DiskCacheService;
+import gabri.dev.minio.services.StorageMetrics;
+import io.minio.GetObjectArgs;
+import io.minio.MinioClient;
+import io.minio.errors.*;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service("diskCacheService")
+public class DiskCacheServiceImpl implements DiskCacheService {
+
+    /**
+     * Tiempo que se espera antes de borrar un archivo desalojado, para no cortar
+     * las respuestas que todavía lo están enviando.
+     */
+    private static final long DELETE_GRACE_SECONDS = 60;
+
+    /**
+     * Cantidad máxima de versiones de objetos cuyos pedidos se cuentan antes de cachearlas.
+     */
+    private static final int MAX_TRACKED_MISSES = 10_000;
+
+    /**
+     * Archivo que marca un directorio como propio de la caché. Solo se limpian los directorios que lo tienen.
+     */
+    private static final String MARKER = ".minio-disk-cache";
+
+    /**
+     * Nombres de los archivos que crea la caché: los objetos descargados y sus temporales.
+     */
+    private static final Pattern CACHE_FILE = Pattern.compile("[0-9a-f]{32}-[0-9a-f]{32}|\\.tmp-[0-9a-f-]{36}");
+
+    /**
+     * Archivo cacheado de un objeto junto con el etag de la versión descargada.
+     */
+    private record CachedFile(String etag, Path path, long size) {
+    }
+
+    @Autowired
+    MinioClient minio;
+    @Autowired
+    CacheProperties cacheProperties;
+    @Autowired
+    StorageMetrics storageMetrics;
+    @Autowired
+    @Qualifier("diskCacheExecutor")
+    AsyncTaskExecutor fillExecutor;
+
+    /**
+     * Índice de archivos cacheados en orden de acceso, el primero es el menos usado recientemente.
+     */
+    private final LinkedHashMap<String, CachedFile> index = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Descargas en curso por objeto y versión, para unificar los fallos concurrentes.
+     */
+    private final Map<String, CompletableFuture<Path>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * Pedidos de cada versión de objeto que todavía no está en disco, para cachear solo las que se repiten.
+     */
+    private final Cache<String, AtomicInteger> misses = Caffeine.newBuilder()
+            .maximumSize(MAX_TRACKED_MISSES)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+
+    /**
+     * Acota las descargas a disco en curso, para descartar las que llegan con todos los hilos ocupados
+     * en lugar de encolarlas.
+     */
+    private Semaphore fillSlots;
+
+    private final Executor delayedDelete = CompletableFuture.delayedExecutor(DELETE_GRACE_SECONDS, TimeUnit.SECONDS);
+
+    private Path directory;
+    private long usedBytes;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long evictedBytes;
+
+    /**
+     * Prepara el directorio de caché. El índice vive en memoria, por lo que los archivos
+     * de una ejecución anterior se descartan. Solo se borran los archivos creados por la caché,
+     * y solo en un directorio vacío o marcado como propio: si tiene otros archivos no se usa.
+     *
+     * @throws IOException si no se puede crear o limpiar el directorio.
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        CacheProperties.Disk properties = cacheProperties.getDisk();
+        fillSlots = new Semaphore(Math.max(1, properties.getFillConcurrency()));
+        if (!properties.isEnabled()) {
+            return;
+        }
+        directory = Paths.get(properties.getDirectory()).toAbsolutePath();
+        Files.createDirectories(directory);
+        List<Path> entries;
+        try (Stream<Path> list = Files.list(directory)) {
+            entries = list.toList();
+        }
+        Path marker = directory.resolve(MARKER);
+        List<Path> cacheFiles = entries.stream()
+                .filter(entry -> Files.isRegularFile(entry, LinkOption.NOFOLLOW_LINKS))
+                .filter(entry -> CACHE_FILE.matcher(entry.getFileName().toString()).matches())
+                .toList();
+        //sin marca, solo se adopta el directorio si todo lo que contiene es de la caché
+        if (!Files.exists(marker) && cacheFiles.size() != entries.size()) {
+            throw new IllegalStateException("El directorio " + directory + " de minio.cache.disk.directory"
+                    + " tiene archivos que no son de la caché, configurar un directorio propio");
+        }
+        for (Path file : cacheFiles) {
+            Files.deleteIfExists(file);
+        }
+        if (!Files.exists(marker)) {
+            Files.createFile(marker);
+        }
+    }
+
+    /**
+     * Indica si un objeto de cierto tamaño se guarda en esta caché.
+     *
+     * @param size tamaño en bytes del objeto.
+     * @return {@code true} si el objeto es cacheable en disco.
+     */
+    @Override
+    public boolean isCacheable(long size) {
+        CacheProperties.Disk properties = cacheProperties.getDisk();
+        return properties.isEnabled()
+                && size <= properties.getMaxObjectSize().toBytes()
+                && size <= properties.getMaxSize().toBytes();
+    }
+
+    /**
+     * Busca el archivo local con el contenido de un objeto. Si no está en disco, o la versión
+     * guardada no coincide con el etag, devuelve {@code null} para que se lea de MinIO, hasta que
+     * la misma versión se pidió {@code minHits} veces. A partir de entonces se descarga a disco una
+     * sola vez. Solo los pedidos que indican {@code wait} esperan esa descarga, hasta {@code fillWait},
+     * y se sirven del archivo; los demás, y los que no la ven terminar a tiempo, se leen de MinIO.
+     * Si la descarga falla el conteo de pedidos vuelve a empezar, para no reintentarla en cada pedido.
+     *
+     * @param bucket     nombre del bucket del objeto.
+     * @param objectName nombre del objeto.
+     * @param etag       etag actual del objeto.
+     * @param wait       si se puede esperar la descarga a disco, solo para los pedidos del objeto completo.
+     * @return la ruta del archivo local con el contenido del objeto, o {@code null} si no está cacheado.
+     */
+    @Override
+    public Path find(String bucket, String objectName, String etag, boolean wait) {
+        String key = key(bucket, objectName);
+        synchronized (index) {
+            CachedFile cached = index.get(key);
+            if (cached != null && cached.etag().equals(etag)) {
+                hitCount++;
+                return cached.path();
+            }
+            missCount++;
+        }
+        String version = key + "@" + etag;
+        int requests = misses.get(version, v -> new AtomicInteger()).incrementAndGet();
+        if (requests < cacheProperties.getDisk().getMinHits()) {
+            return null;
+        }
+        CompletableFuture<Path> download = new CompletableFuture<>();
+        CompletableFuture<Path> inFlight = loading.putIfAbsent(version, download);
+        if (inFlight != null) {
+            //otra petición ya está descargando esta versión, se espera esa descarga en lugar de leerla otra vez
+            return wait ? await(inFlight) : null;
+        }
+        if (!fillSlots.tryAcquire()) {
+            //hay tantas descargas a disco en curso como fillConcurrency, se reintenta en el próximo pedido
+            loading.remove(version, download);
+            return null;
+        }
+        try {
+            fillExecutor.execute(() -> {
+                try {
+                    download.complete(load(bucket, objectName, key, etag));
+                    misses.invalidate(version);
+                } catch (Exception e) {
+                    log.warn("No se pudo cachear en disco el objeto {}", key, e);
+                    misses.invalidate(version);
+                    download.completeExceptionally(e);
+                } finally {
+                    loading.remove(version, download);
+                    fillSlots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            loading.remove(version, download);
+            fillSlots.release();
+            return null;
+        }
+        return wait ? await(download) : null;
+    }
+
+    /**
+     * Quita un objeto de la caché, por ejemplo al sobrescribirlo o eliminarlo.
+     *
+     * @param bucket     nombre del bucket del objeto.
+     * @param objectName nombre del objeto.
+     */
+    @Override
+    public void evict(String bucket, String objectName) {
+        synchronized (index) {
+            CachedFile removed = index.remove(key(bucket, objectName));
+            if (removed != null) {
+                discard(removed);
+            }
+        }
+    }
+
+    /**
+     * Obtiene las estadísticas de uso de la caché.
+     *
+     * @return las estadísticas de aciertos, fallos y desalojos.
+     */
+    @Override
+    public CacheStatsDto stats() {
+        synchronized (index) {
+            long requests = hitCount + missCount;
+            return CacheStatsDto.builder()
+                    .hitCount(hitCount)
+                    .missCount(missCount)
+                    .hitRate(requests == 0 ? 1.0 : (double) hitCount / requests)
+                    .evictionCount(evictionCount)
+                    .evictedBytes(evictedBytes)
+                    .entries(index.size())
+                    .sizeBytes(usedBytes)
+                    .capacityBytes(cacheProperties.getDisk().getMaxSize().toBytes())
+                    .build();
+        }
+    }
+
+    /**
+     * Espera una descarga a disco en curso hasta {@code fillWait}.
+     *
+     * @return la ruta del archivo descargado, o {@code null} si no terminó a tiempo o falló.
+     */
+    private Path await(CompletableFuture<Path> download) {
+        Duration wait = cacheProperties.getDisk().getFillWait();
+        if (wait.isZero() || wait.isNegative()) {
+            return null;
+        }
+        try {
+            return download.get(wait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            //el error de la descarga ya se registró, el pedido se sirve desde MinIO
+            return null;
+        }
+    }
+
+    private Path load(String bucket, String objectName, String key, String etag)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        Path temp = directory.resolve(".tmp-" + UUID.randomUUID());
+        Path target = directory.resolve(DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8))
+                + "-" + DigestUtils.md5DigestAsHex(etag.getBytes(StandardCharsets.UTF_8)));
+        long start = System.nanoTime();
+        try (InputStream stream = storageMetrics.download(bucket, start, storageMetrics.record("download", bucket,
+                () -> minio.getObject(GetObjectArgs.builder().bucket(bucket).object(objectName).build())))) {
+            Files.copy(stream, temp);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        CachedFile file = new CachedFile(etag, target, Files.size(target));
+        synchronized (index) {
+            CachedFile previous = index.put(key, file);
+            if (previous != null && !previous.path().equals(target)) {
+                discard(previous);
+            } else if (previous != null) {
+                usedBytes -= previous.size();
+            }
+            usedBytes += file.size();
+            evictToCapacity(key);
+        }
+        return target;
+    }
+
+    /**
+     * Desaloja los archivos menos usados recientemente hasta volver a la capacidad configurada.
+     * Debe llamarse con el lock del índice tomado.
+     */
+    private void evictToCapacity(String keep) {
+        long capacity = cacheProperties.getDisk().getMaxSize().toBytes();
+        Iterator<Map.Entry<String, CachedFile>> it = index.entrySet().iterator();
+        while (usedBytes > capacity && it.hasNext()) {
+            Map.Entry<String, CachedFile> eldest = it.next();
+            if (eldest.getKey().equals(keep)) {
+                continue;
+            }
+            it.remove();
+            evictionCount++;
+            evictedBytes += eldest.getValue().size();
+            discard(eldest.getValue());
+        }
+    }
+
+    /**
+     * Descuenta un archivo de la capacidad usada y lo borra luego de un margen.
+     * Debe llamarse con el lock del índice tomado.
+     */
+    private void discard(CachedFile file) {
+        usedBytes -= file.size();
+        delayedDelete.execute(() -> {
+            synchronized (index) {
+                //si se volvió a descargar la misma versión el archivo está en uso otra vez
+                if (index.values().stream().anyMatch(f -> f.path().equals(file.path()))) {
+                    return;
+                }
+            }
+            try {
+                Files.deleteIfExists(file.path());
+            } catch (IOException e) {
+                log.warn("No se pudo borrar el archivo de caché {}", file.path(), e);
+            }
+        });
+    }
+
+    private String key(String bucket, String objectName) {
+        return bucket + "/" + objectName;
+    }
+}
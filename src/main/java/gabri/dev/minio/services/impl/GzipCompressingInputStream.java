@@ -0,0 +1,106 @@
+package gabri.dev.minio.services.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Flujo que entrega comprimido en gzip el contenido de otro flujo. La compresión se hace
+ * a medida que se lee, sin hilos auxiliares ni buffers del tamaño del archivo.
+ */
+class GzipCompressingInputStream extends InputStream {
+
+    /**
+     * Encabezado gzip: deflate, sin nombre ni fecha, sistema operativo desconocido.
+     */
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final byte[] input = new byte[BUFFER_SIZE];
+    private byte[] pending = HEADER;
+    private int pendingOffset;
+    private boolean trailerWritten;
+
+    /**
+     * Crea el flujo comprimido.
+     *
+     * @param in    el flujo con el contenido original.
+     * @param level el nivel de compresión, de 1 a 9.
+     */
+    GzipCompressingInputStream(InputStream in, int level) {
+        this.in = in;
+        this.deflater = new Deflater(level, true);
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (true) {
+            if (pending != null) {
+                int n = Math.min(len, pending.length - pendingOffset);
+                System.arraycopy(pending, pendingOffset, b, off, n);
+                pendingOffset += n;
+                if (pendingOffset == pending.length) {
+                    pending = null;
+                }
+                return n;
+            }
+            if (trailerWritten) {
+                return -1;
+            }
+            if (!deflater.finished()) {
+                int n = deflater.deflate(b, off, len);
+                if (n > 0) {
+                    return n;
+                }
+                if (deflater.needsInput()) {
+                    int read = in.read(input);
+                    if (read < 0) {
+                        deflater.finish();
+                    } else if (read > 0) {
+                        crc.update(input, 0, read);
+                        deflater.setInput(input, 0, read);
+                    }
+                }
+                continue;
+            }
+            trailerWritten = true;
+            pending = trailer();
+            pendingOffset = 0;
+            //libera la memoria nativa sin esperar al cierre, que queda a cargo de quien abrió el flujo original
+            deflater.end();
+        }
+    }
+
+    /**
+     * Pie gzip: CRC32 y tamaño original módulo 2^32, ambos en little endian.
+     */
+    private byte[] trailer() {
+        long value = crc.getValue();
+        long size = deflater.getBytesRead();
+        byte[] trailer = new byte[8];
+        for (int i = 0; i < 4; i++) {
+            trailer[i] = (byte) (value >>> (8 * i));
+            trailer[4 + i] = (byte) (size >>> (8 * i));
+        }
+        return trailer;
+    }
+
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        in.close();
+    }
+}
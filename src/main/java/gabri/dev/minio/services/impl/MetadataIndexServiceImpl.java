@@ -0,0 +1,382 @@
+package gabri.dev.minio.services.impl;
+
+import gabri.dev.minio.configs.IndexProperties;
+import gabri.dev.minio.dtos.index.ObjectMetadataDto;
+import gabri.dev.minio.dtos.index.ObjectSearchCriteria;
+import gabri.dev.minio.dtos.index.ObjectSearchPage;
+import gabri.dev.minio.entities.IndexedBucketEntity;
+import gabri.dev.minio.entities.ObjectMetadataEntity;
+import gabri.dev.minio.repositories.IndexedBucketRepository;
+import gabri.dev.minio.repositories.ObjectMetadataRepository;
+import gabri.dev.minio.services.MetadataIndexService;
+import io.minio.ListObjectsArgs;
+import io.minio.MinioClient;
+import io.minio.Result;
+import io.minio.errors.*;
+import io.minio.messages.Item;
+import lombok.extern.slf4j.Slf4j;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service("metadataIndexService")
+public class MetadataIndexServiceImpl implements MetadataIndexService {
+
+    /**
+     * Cantidad de objetos que se escriben en el índice por transacción durante la reconciliación.
+     */
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    @Autowired
+    MinioClient minio;
+    @Autowired
+    ObjectMetadataRepository metadataRepository;
+    @Autowired
+    IndexedBucketRepository bucketRepository;
+    @Autowired
+    IndexProperties indexProperties;
+    @Autowired
+    ModelMapper modelMapper;
+
+    /**
+     * Objetos borrados mientras se reconcilia su bucket, por bucket. La reconciliación puede haberlos
+     * listado antes del borrado, así que no debe volver a insertarlos.
+     */
+    private final Map<String, Set<String>> removedDuringReconcile = new ConcurrentHashMap<>();
+
+    /**
+     * Indica si el bucket se indexa y ya fue cargado por una reconciliación.
+     *
+     * @param bucket nombre del bucket.
+     * @return {@code true} si el índice del bucket está completo.
+     */
+    @Override
+    public boolean isReady(String bucket) {
+        return indexProperties.indexes(bucket) && bucketRepository.existsById(bucket);
+    }
+
+    /**
+     * Registra en el índice un objeto recién escrito. La fecha de modificación es la de la subida,
+     * la próxima reconciliación la reemplaza por la que informa MinIO.
+     *
+     * @param bucket      nombre del bucket.
+     * @param objectKey   nombre del objeto.
+     * @param size        tamaño en bytes del objeto.
+     * @param etag        etag del objeto.
+     * @param contentType tipo de contenido del objeto, puede ser {@code null}.
+     */
+    @Override
+    public void record(String bucket, String objectKey, long size, String etag, String contentType) {
+        if (!indexProperties.indexes(bucket)) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            save(bucket, objectKey, size, etag, now, contentType, now);
+        } catch (DataIntegrityViolationException e) {
+            //otra subida del mismo objeto insertó la entrada en paralelo, se actualiza la existente
+            save(bucket, objectKey, size, etag, now, contentType, now);
+        }
+    }
+
+    /**
+     * Quita un objeto del índice.
+     *
+     * @param bucket    nombre del bucket.
+     * @param objectKey nombre del objeto.
+     */
+    @Override
+    public void remove(String bucket, String objectKey) {
+        if (indexProperties.isEnabled()) {
+            markRemoved(bucket, List.of(objectKey));
+            metadataRepository.deleteEntry(bucket, objectKey);
+        }
+    }
+
+    /**
+     * Quita varios objetos de un bucket del índice con una única consulta.
+     *
+     * @param bucket     nombre del bucket.
+     * @param objectKeys nombres de los objetos.
+     */
+    @Override
+    public void removeAll(String bucket, Collection<String> objectKeys) {
+        if (indexProperties.isEnabled() && !objectKeys.isEmpty()) {
+            markRemoved(bucket, objectKeys);
+            metadataRepository.deleteEntries(bucket, objectKeys);
+        }
+    }
+
+    /**
+     * Quita del índice todos los objetos de un bucket.
+     *
+     * @param bucket nombre del bucket.
+     */
+    @Override
+    public void removeBucket(String bucket) {
+        if (indexProperties.isEnabled()) {
+            bucketRepository.deleteById(bucket);
+            metadataRepository.deleteBucket(bucket);
+        }
+    }
+
+    /**
+     * Busca objetos de un bucket, desde el índice si está completo o recorriendo MinIO si no.
+     * Sin {@code maxKeys} se devuelven {@code defaultPageSize} resultados, y nunca más de {@code maxPageSize}.
+     *
+     * @param bucket   nombre del bucket.
+     * @param criteria filtros de la búsqueda.
+     * @return la página de resultados ordenada por nombre.
+     */
+    @Override
+    public ObjectSearchPage search(String bucket, ObjectSearchCriteria criteria) {
+        int maxKeys = Math.min(criteria.getMaxKeys() != null ? criteria.getMaxKeys() : indexProperties.getDefaultPageSize(),
+                indexProperties.getMaxPageSize());
+        //se pide un elemento extra para saber si hay otra página
+        int limit = maxKeys + 1;
+        List<ObjectMetadataDto> found = isReady(bucket)
+                ? searchIndex(bucket, criteria, limit)
+                : searchMinio(bucket, criteria, limit);
+
+        if (found.size() <= maxKeys) {
+            return new ObjectSearchPage(found, null);
+        }
+        List<ObjectMetadataDto> page = found.subList(0, maxKeys);
+        return new ObjectSearchPage(new ArrayList<>(page), page.get(page.size() - 1).getObjectKey());
+    }
+
+    /**
+     * Recorre un bucket en MinIO y actualiza el índice con su contenido. Las entradas que la
+     * reconciliación no vio, y que no fueron escritas por una subida durante el recorrido,
+     * corresponden a objetos borrados y se descartan. Los objetos borrados durante el recorrido
+     * no se vuelven a insertar aunque el listado los haya incluido.
+     *
+     * @param bucket nombre del bucket.
+     * @return la cantidad de objetos vistos.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public long reconcile(String bucket)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        if (!indexProperties.indexes(bucket)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "El bucket " + bucket + " no está entre los indexados (minio.index.buckets)");
+        }
+        //se registra antes de tomar la fecha para no perder borrados hechos justo al comenzar
+        Set<String> removedKeys = removedDuringReconcile.computeIfAbsent(bucket, b -> ConcurrentHashMap.newKeySet());
+        LocalDateTime scanStart = LocalDateTime.now();
+        long count = 0;
+        int removed;
+        try {
+            List<Item> batch = new ArrayList<>(RECONCILE_BATCH_SIZE);
+            Iterable<Result<Item>> results = minio.listObjects(ListObjectsArgs.builder()
+                    .bucket(bucket)
+                    .recursive(true)
+                    .includeUserMetadata(true)
+                    .build());
+            for (Result<Item> result : results) {
+                Item item = result.get();
+                if (item.isDir()) {
+                    continue;
+                }
+                batch.add(item);
+                count++;
+                if (batch.size() == RECONCILE_BATCH_SIZE) {
+                    saveBatch(bucket, batch, scanStart, removedKeys);
+                    batch.clear();
+                }
+            }
+            saveBatch(bucket, batch, scanStart, removedKeys);
+            removed = metadataRepository.deleteIndexedBefore(bucket, scanStart);
+        } finally {
+            removedDuringReconcile.remove(bucket, removedKeys);
+        }
+        bucketRepository.save(new IndexedBucketEntity(bucket, LocalDateTime.now(), count));
+        log.info("Índice del bucket {} reconciliado: {} objetos, {} entradas descartadas", bucket, count, removed);
+        return count;
+    }
+
+    /**
+     * Reconcilia periódicamente los buckets indexados. Un error en un bucket no detiene el resto.
+     * El recorrido ocupa un hilo del planificador mientras dura, por lo que el planificador tiene
+     * más de un hilo ({@code spring.task.scheduling.pool.size}) para no demorar las demás tareas.
+     */
+    @Scheduled(
+            fixedDelayString = "${minio.index.reconcile-interval:10m}",
+            initialDelayString = "${minio.index.reconcile-initial-delay:10s}"
+    )
+    public void reconcileAll() {
+        if (!indexProperties.isEnabled()) {
+            return;
+        }
+        for (String bucket : indexProperties.getBuckets()) {
+            try {
+                reconcile(bucket);
+            } catch (Exception e) {
+                log.warn("No se pudo reconciliar el índice del bucket {}", bucket, e);
+            }
+        }
+    }
+
+    private List<ObjectMetadataDto> searchIndex(String bucket, ObjectSearchCriteria criteria, int limit) {
+        String prefix = criteria.getPrefix() != null ? escapeLike(criteria.getPrefix()) + "%" : null;
+        return metadataRepository.search(bucket, prefix, criteria.getStartAfter(),
+                        criteria.getMinSize(), criteria.getMaxSize(),
+                        criteria.getModifiedFrom(), criteria.getModifiedTo(),
+                        PageRequest.of(0, limit))
+                .stream()
+                .map(e -> modelMapper.map(e, ObjectMetadataDto.class))
+                .toList();
+    }
+
+    private List<ObjectMetadataDto> searchMinio(String bucket, ObjectSearchCriteria criteria, int limit) {
+        ListObjectsArgs.Builder args = ListObjectsArgs.builder().bucket(bucket).recursive(true);
+        if (criteria.getPrefix() != null) {
+            args.prefix(criteria.getPrefix());
+        }
+        if (criteria.getStartAfter() != null) {
+            args.startAfter(criteria.getStartAfter());
+        }
+        List<ObjectMetadataDto> found = new ArrayList<>();
+        for (Result<Item> result : minio.listObjects(args.build())) {
+            Item item;
+            try {
+                item = result.get();
+            } catch (Exception e) {
+                throw new IllegalStateException("Error al listar el bucket " + bucket, e);
+            }
+            LocalDateTime lastModified = toLocalDateTime(item.lastModified());
+            if (item.isDir()
+                    || criteria.getMinSize() != null && item.size() < criteria.getMinSize()
+                    || criteria.getMaxSize() != null && item.size() > criteria.getMaxSize()
+                    || criteria.getModifiedFrom() != null
+                    && (lastModified == null || lastModified.isBefore(criteria.getModifiedFrom()))
+                    || criteria.getModifiedTo() != null
+                    && (lastModified == null || lastModified.isAfter(criteria.getModifiedTo()))) {
+                continue;
+            }
+            found.add(new ObjectMetadataDto(bucket, item.objectName(), item.size(),
+                    normalizeEtag(item.etag()), lastModified, null));
+            if (found.size() == limit) {
+                break;
+            }
+        }
+        return found;
+    }
+
+    private void saveBatch(String bucket, List<Item> items, LocalDateTime scanStart, Set<String> removedKeys) {
+        if (items.isEmpty()) {
+            return;
+        }
+        Map<String, ObjectMetadataEntity> existing = metadataRepository
+                .findByBucketAndObjectKeyIn(bucket, items.stream().map(Item::objectName).toList())
+                .stream()
+                .collect(Collectors.toMap(ObjectMetadataEntity::getObjectKey, Function.identity()));
+        LocalDateTime now = LocalDateTime.now();
+        List<ObjectMetadataEntity> changed = new ArrayList<>();
+        for (Item item : items) {
+            if (removedKeys.contains(item.objectName())) {
+                //se borró después de que el listado lo incluyera
+                continue;
+            }
+            ObjectMetadataEntity entity = existing.get(item.objectName());
+            if (entity != null && !entity.getIndexedAt().isBefore(scanStart)) {
+                //la entrada la escribió una subida posterior al listado, es más reciente
+                continue;
+            }
+            if (entity == null) {
+                entity = new ObjectMetadataEntity();
+                entity.setBucket(bucket);
+                entity.setObjectKey(item.objectName());
+            }
+            String contentType = contentType(item);
+            if (contentType != null) {
+                entity.setContentType(contentType);
+            }
+            entity.setSize(item.size());
+            entity.setEtag(normalizeEtag(item.etag()));
+            entity.setLastModified(toLocalDateTime(item.lastModified()));
+            entity.setIndexedAt(now);
+            changed.add(entity);
+        }
+        metadataRepository.saveAll(changed);
+    }
+
+    private void markRemoved(String bucket, Collection<String> objectKeys) {
+        Set<String> removedKeys = removedDuringReconcile.get(bucket);
+        if (removedKeys != null) {
+            removedKeys.addAll(objectKeys);
+        }
+    }
+
+    private void save(String bucket, String objectKey, long size, String etag, LocalDateTime lastModified,
+                      String contentType, LocalDateTime indexedAt) {
+        ObjectMetadataEntity entity = metadataRepository.findByBucketAndObjectKey(bucket, objectKey)
+                .orElseGet(ObjectMetadataEntity::new);
+        entity.setBucket(bucket);
+        entity.setObjectKey(objectKey);
+        entity.setSize(size);
+        entity.setEtag(normalizeEtag(etag));
+        entity.setLastModified(lastModified);
+        entity.setContentType(contentType);
+        entity.setIndexedAt(indexedAt);
+        metadataRepository.save(entity);
+    }
+
+    /**
+     * Obtiene el tipo de contenido de los metadatos del listado, que MinIO incluye
+     * cuando se piden los metadatos de usuario.
+     */
+    private String contentType(Item item) {
+        Map<String, String> metadata = item.userMetadata();
+        if (metadata == null) {
+            return null;
+        }
+        return metadata.entrySet().stream()
+                .filter(e -> e.getKey().equalsIgnoreCase("content-type"))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElse(null);
+    }
+
+    private String normalizeEtag(String etag) {
+        return etag != null ? etag.replace("\"", "") : null;
+    }
+
+    private LocalDateTime toLocalDateTime(ZonedDateTime date) {
+        return date != null ? date.withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime() : null;
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -1,12 +1,17 @@
 package gabri.dev.minio.services.impl;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import gabri.dev.minio.clients.MinioFutures;
+import gabri.dev.minio.configs.CacheProperties;
+import gabri.dev.minio.services.MetadataIndexService;
 import gabri.dev.minio.services.MinioBucketService;
+import gabri.dev.minio.services.StorageMetrics;
 import io.minio.BucketExistsArgs;
 import io.minio.MakeBucketArgs;
-import io.minio.MinioClient;
+import io.minio.MinioAsyncClient;
 import io.minio.RemoveBucketArgs;
 import io.minio.errors.*;
-import io.minio.messages.Bucket;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -15,15 +20,62 @@ import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Service("minioBucketService")
 public class MinioBucketServiceImpl implements MinioBucketService {
 
+    /**
+     * Código de error de S3 cuando el bucket ya existe y pertenece a la misma cuenta.
+     */
+    private static final String BUCKET_ALREADY_OWNED = "BucketAlreadyOwnedByYou";
+
+    /**
+     * Clave única de la caché del listado de buckets.
+     */
+    private static final String BUCKET_LIST_KEY = "buckets";
+
+    private final MinioAsyncClient minio;
+    private final MetadataIndexService metadataIndexService;
+    private final StorageMetrics storageMetrics;
+
+    /**
+     * Buckets que se sabe que existen, para no consultar a MinIO en cada subida.
+     */
+    private final AsyncCache<String, Boolean> knownBuckets;
+
+    /**
+     * Último listado de buckets obtenido de MinIO.
+     */
+    private final AsyncCache<String, List<String>> bucketList;
+
+    /**
+     * Crea el servicio con el registro de buckets conocidos.
+     *
+     * @param minio                el cliente asíncrono de MinIO.
+     * @param metadataIndexService el índice de metadatos, que se limpia al eliminar un bucket.
+     * @param properties           la configuración de las cachés.
+     * @param storageMetrics       las métricas de las operaciones contra MinIO.
+     */
     @Autowired
-    MinioClient minio;
+    public MinioBucketServiceImpl(MinioAsyncClient minio, MetadataIndexService metadataIndexService,
+                                  CacheProperties properties, StorageMetrics storageMetrics) {
+        this.minio = minio;
+        this.metadataIndexService = metadataIndexService;
+        this.storageMetrics = storageMetrics;
+        this.knownBuckets = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getBuckets().getTtl())
+                .buildAsync();
+        this.bucketList = Caffeine.newBuilder()
+                .expireAfterWrite(properties.getBuckets().getTtl())
+                .buildAsync();
+    }
 
     /**
-     * Crea un bucket en el servidor MinIO con el nombre especificado.
+     * Crea un bucket en el servidor MinIO con el nombre especificado, si no existe.
+     * Los buckets que ya se sabe que existen no se consultan a MinIO, y las creaciones
+     * concurrentes de un mismo bucket esperan una única verificación.
      *
      * @param bucket el nombre del bucket a crear.
      *
@@ -42,14 +94,25 @@ public class MinioBucketServiceImpl implements MinioBucketService {
             throws ServerException, InsufficientDataException, ErrorResponseException, IOException,
             NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException,
             XmlParserException, InternalException{
-        boolean found = minio.bucketExists(BucketExistsArgs.builder().bucket(bucket).build());
-        if (!found) {
-            minio.makeBucket(MakeBucketArgs.builder().bucket(bucket).build());
-        }
+        MinioFutures.await(createBucketAsync(bucket));
+    }
+
+    /**
+     * Crea un bucket si no existe, sin bloquear el hilo que llama.
+     * Comparte el registro de buckets conocidos con {@link #createBucket(String)}.
+     *
+     * @param bucket el nombre del bucket a crear.
+     * @return la operación en curso, que termina cuando el bucket existe.
+     */
+    @Override
+    public CompletableFuture<Void> createBucketAsync(String bucket) {
+        //si la verificación falla, Caffeine descarta la entrada y el próximo intento vuelve a consultar
+        return knownBuckets.get(bucket, (b, executor) -> ensureExists(b)).thenApply(found -> null);
     }
 
     /**
      * Obtiene una lista con los nombres de todos los buckets existentes en el servidor MinIO.
+     * El listado se reutiliza durante el TTL del registro de buckets.
      *
      * @return una lista de nombres de buckets disponibles en el servidor.
      *
@@ -68,12 +131,18 @@ public class MinioBucketServiceImpl implements MinioBucketService {
             throws ServerException, InsufficientDataException, ErrorResponseException, IOException,
             NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException,
             XmlParserException, InternalException{
-        List<Bucket> buckets = minio.listBuckets();
-        List<String> names = new ArrayList<>();
-        buckets.forEach(b->{
-            names.add(b.name());
-        });
-        return names;
+        return MinioFutures.await(listBucketsAsync());
+    }
+
+    /**
+     * Obtiene los nombres de los buckets sin bloquear el hilo que llama.
+     *
+     * @return la operación en curso con los nombres de los buckets.
+     */
+    @Override
+    public CompletableFuture<List<String>> listBucketsAsync() {
+        return bucketList.get(BUCKET_LIST_KEY, (k, executor) -> loadBucketNames())
+                .thenApply(ArrayList::new);
     }
 
     /**
@@ -96,7 +165,56 @@ public class MinioBucketServiceImpl implements MinioBucketService {
             throws ServerException, InsufficientDataException, ErrorResponseException, IOException,
             NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException,
             XmlParserException, InternalException{
-        minio.removeBucket(RemoveBucketArgs.builder().bucket(bucket).build());
+        MinioFutures.await(deleteBucketAsync(bucket));
+    }
+
+    /**
+     * Elimina un bucket sin bloquear el hilo que llama.
+     *
+     * @param bucket el nombre del bucket a eliminar.
+     * @return la operación en curso, que termina cuando el bucket fue eliminado.
+     */
+    @Override
+    public CompletableFuture<Void> deleteBucketAsync(String bucket) {
+        return storageMetrics.recordAsync("removeBucket", bucket, () -> MinioFutures.call(
+                        () -> minio.removeBucket(RemoveBucketArgs.builder().bucket(bucket).build())))
+                .thenRun(() -> {
+                    knownBuckets.synchronous().invalidate(bucket);
+                    bucketList.synchronous().invalidateAll();
+                    metadataIndexService.removeBucket(bucket);
+                });
+    }
+
+    private CompletableFuture<Boolean> ensureExists(String bucket) {
+        return storageMetrics.recordAsync("bucketExists", bucket, () -> MinioFutures.call(
+                        () -> minio.bucketExists(BucketExistsArgs.builder().bucket(bucket).build())))
+                .thenCompose(found -> found
+                        ? CompletableFuture.completedFuture(Boolean.TRUE)
+                        : makeBucket(bucket));
+    }
+
+    private CompletableFuture<Boolean> makeBucket(String bucket) {
+        return storageMetrics.recordAsync("makeBucket", bucket, () -> MinioFutures.call(
+                        () -> minio.makeBucket(MakeBucketArgs.builder().bucket(bucket).build())))
+                .handle((v, error) -> {
+                    //otra instancia lo creó entre la verificación y la creación
+                    if (error != null && !MinioFutures.isErrorCode(error, BUCKET_ALREADY_OWNED)) {
+                        throw new CompletionException(MinioFutures.unwrap(error));
+                    }
+                    bucketList.synchronous().invalidateAll();
+                    return Boolean.TRUE;
+                });
+    }
+
+    private CompletableFuture<List<String>> loadBucketNames() {
+        return storageMetrics.recordAsync("listBuckets", null, () -> MinioFutures.call(minio::listBuckets)).thenApply(buckets -> {
+            List<String> names = new ArrayList<>();
+            buckets.forEach(b->{
+                names.add(b.name());
+                knownBuckets.synchronous().put(b.name(), Boolean.TRUE);
+            });
+            return List.copyOf(names);
+        });
     }
 
 }
@@ -1,28 +1,112 @@
 package gabri.dev.minio.services.impl;
 
+import com.google.common.io.CountingInputStream;
+import gabri.dev.minio.clients.MinioEndpointRouter;
+import gabri.dev.minio.clients.MinioFutures;
+import gabri.dev.minio.configs.CompressionProperties;
+import gabri.dev.minio.configs.DedupProperties;
+import gabri.dev.minio.configs.UploadProperties;
+import gabri.dev.minio.dtos.common.BulkDeleteResultDto;
+import gabri.dev.minio.dtos.common.DeleteErrorDto;
 import gabri.dev.minio.dtos.common.FileInfo;
+import gabri.dev.minio.dtos.common.FilePage;
+import gabri.dev.minio.dtos.index.ObjectMetadataDto;
+import gabri.dev.minio.dtos.index.ObjectSearchCriteria;
+import gabri.dev.minio.dtos.index.ObjectSearchPage;
+import gabri.dev.minio.services.DiskCacheService;
+import gabri.dev.minio.services.MetadataIndexService;
 import gabri.dev.minio.services.MinioBucketService;
 import gabri.dev.minio.services.MinioFilesService;
+import gabri.dev.minio.services.MultipartUploadService;
+import gabri.dev.minio.services.ObjectCacheService;
+import gabri.dev.minio.services.StorageMetrics;
 import io.minio.*;
 import io.minio.errors.*;
+import io.minio.messages.DeleteError;
+import io.minio.messages.DeleteObject;
 import io.minio.messages.Item;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Service("minioFilesService")
 public class MinioFilesServiceImpl implements MinioFilesService {
 
+    /**
+     * Cantidad máxima de objetos que devuelve MinIO en cada llamada de listado.
+     */
+    private static final int MAX_KEYS_PER_REQUEST = 1000;
+
+    /**
+     * Cantidad máxima de consultas de metadatos en curso de una misma consulta múltiple.
+     */
+    private static final int STAT_CONCURRENCY = 32;
+
+    private static final String NO_SUCH_KEY = "NoSuchKey";
+
+    /**
+     * Código de error del contenido deduplicado en las eliminaciones múltiples.
+     */
+    private static final String RESERVED_CONTENT = "ReservedContent";
+
+    /**
+     * Tamaño del buffer con el que se descomprimen los objetos guardados comprimidos.
+     */
+    private static final int DECODE_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Tamaño máximo de un archivo que se copia con una única copia del lado del servidor.
+     */
+    private static final long MAX_COPY_SIZE = UploadProperties.MAX_PART_SIZE;
+
     @Autowired
     MinioClient minio;
     @Autowired
+    MinioAsyncClient asyncMinio;
+    @Autowired
     MinioBucketService BucketService;
+    @Autowired
+    MultipartUploadService multipartUploadService;
+    @Autowired
+    UploadProperties uploadProperties;
+    @Autowired
+    ObjectCacheService objectCacheService;
+    @Autowired
+    DiskCacheService diskCacheService;
+    @Autowired
+    MetadataIndexService metadataIndexService;
+    @Autowired
+    StorageMetrics storageMetrics;
+    @Autowired
+    MinioEndpointRouter endpointRouter;
+    @Autowired
+    CompressionProperties compressionProperties;
+    @Autowired
+    DedupProperties dedupProperties;
 
     /**
      * Sube un archivo a un bucket específico en MinIO.
@@ -43,15 +127,93 @@ public class MinioFilesServiceImpl implements MinioFilesService {
     @Override
     public void uploadFile(InputStream stream, String bucket, String objectName)
             throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException{
-        minio.putObject(
-                PutObjectArgs.builder()
-                        .bucket(bucket)
-                        .object(objectName)
-                        //-1 para tamaño desconocido
-                        //10485760(10MB) tamaño del multipart
-                        .stream(stream, -1, 10485760)
-                        .build());
+        uploadFile(stream, bucket, objectName, -1, null);
+    }
+
+    /**
+     * Sube un archivo a un bucket específico en MinIO enviando el flujo directamente,
+     * sin almacenarlo previamente en memoria o en disco. No se aceptan nombres bajo el prefijo
+     * del contenido deduplicado.
+     *
+     * @param stream      flujo de entrada del archivo a subir.
+     * @param bucket      nombre del bucket donde se almacenará el archivo.
+     * @param objectName  nombre del archivo dentro del bucket.
+     * @param size        tamaño en bytes del archivo, o -1 si es desconocido.
+     * @param contentType tipo de contenido del archivo, puede ser {@code null}.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public void uploadFile(InputStream stream, String bucket, String objectName, long size, String contentType)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException{
+        dedupProperties.checkNotReserved(objectName);
+        store(stream, bucket, objectName, size, contentType, Map.of());
+    }
+
+    /**
+     * Sube contenido deduplicado, sin la protección del prefijo del contenido.
+     *
+     * @param stream       flujo de entrada del contenido.
+     * @param bucket       nombre del bucket.
+     * @param objectName   nombre del contenido.
+     * @param size         tamaño en bytes del contenido, o -1 si es desconocido.
+     * @param contentType  tipo de contenido, puede ser {@code null}.
+     * @param userMetadata metadatos de usuario del objeto.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public void uploadContent(InputStream stream, String bucket, String objectName, long size, String contentType,
+                              Map<String, String> userMetadata)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        store(stream, bucket, objectName, size, contentType, userMetadata);
+    }
 
+    private void store(InputStream stream, String bucket, String objectName, long size, String contentType,
+                       Map<String, String> metadata)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        objectCacheService.evict(bucket, objectName);
+        diskCacheService.evict(bucket, objectName);
+        //en los buckets con compresión el contenido se comprime mientras se envía, y el tamaño final no se conoce
+        boolean compress = compressionProperties.compresses(bucket, contentType, size);
+        long storedSize = compress ? -1 : size;
+        Map<String, String> userMetadata = new HashMap<>(metadata);
+        if (compress) {
+            userMetadata.put(CompressionProperties.ENCODING_METADATA, CompressionProperties.GZIP);
+        }
+        InputStream body = compress ? new GzipCompressingInputStream(stream, compressionProperties.getLevel()) : stream;
+        //se cuentan los bytes enviados para registrar el tamaño aunque no se conozca de antemano
+        CountingInputStream counting = new CountingInputStream(storageMetrics.upload(bucket, body));
+        ObjectWriteResponse response = storageMetrics.record("upload", bucket, () -> {
+            if (storedSize < 0 || storedSize >= uploadProperties.partSizeFor(bucket)) {
+                //tamaño desconocido o de varias partes: se suben las partes en paralelo
+                return multipartUploadService.upload(counting, bucket, objectName, storedSize, contentType, userMetadata);
+            }
+            PutObjectArgs.Builder args = PutObjectArgs.builder()
+                    .bucket(bucket)
+                    .object(objectName)
+                    .stream(counting, storedSize, -1)
+                    .userMetadata(userMetadata);
+            if (contentType != null) {
+                args.contentType(contentType);
+            }
+            return minio.putObject(args.build());
+        });
+        metadataIndexService.record(bucket, objectName, counting.getCount(), response.etag(), contentType);
     }
 
     /**
@@ -62,22 +224,136 @@ public class MinioFilesServiceImpl implements MinioFilesService {
      */
     @Override
     public List<FileInfo> listFiles(String bucket) {
-        Iterable<Result<Item>> results = minio.listObjects(
-                ListObjectsArgs.builder().bucket(bucket).recursive(true).build());
-
-        List<FileInfo> infos = new ArrayList<>();
-        results.forEach(r -> {
-            FileInfo info = new FileInfo();
-            try {
-                Item item = r.get();
-                info.setFilename(item.objectName());
-                info.setDirectory(item.isDir());
-                infos.add(info);
-            } catch (Exception e) {
-                e.printStackTrace();
+        return storageMetrics.measure("list", bucket, () -> {
+            Iterable<Result<Item>> results = minio.listObjects(
+                    ListObjectsArgs.builder().bucket(bucket).recursive(true).build());
+
+            List<FileInfo> infos = new ArrayList<>();
+            results.forEach(r -> {
+                try {
+                    infos.add(toFileInfo(r.get()));
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            });
+            return infos;
+        });
+    }
+
+    /**
+     * Lista una página de los archivos de un bucket, leyendo de MinIO solo lo necesario para completarla.
+     *
+     * @param bucket     nombre del bucket a listar.
+     * @param prefix     prefijo que deben tener los nombres, puede ser {@code null}.
+     * @param delimiter  delimitador para agrupar los nombres en carpetas, o {@code null} para listar recursivamente.
+     * @param startAfter nombre a partir del cual se lista (exclusivo), puede ser {@code null}.
+     * @param maxKeys    cantidad máxima de archivos de la página.
+     * @return la página con los archivos y el nombre desde donde continuar.
+     */
+    @Override
+    public FilePage listFiles(String bucket, String prefix, String delimiter, String startAfter, int maxKeys) {
+        return storageMetrics.measure("list", bucket, () -> {
+            //se pide un elemento extra para saber si hay otra página sin una segunda llamada a MinIO
+            Iterator<FileInfo> it = listObjects(bucket, prefix, delimiter, startAfter,
+                    Math.min(maxKeys, MAX_KEYS_PER_REQUEST - 1) + 1).iterator();
+            List<FileInfo> files = new ArrayList<>();
+            while (files.size() < maxKeys && it.hasNext()) {
+                files.add(it.next());
             }
+            String next = it.hasNext() && !files.isEmpty() ? files.get(files.size() - 1).getFilename() : null;
+            return new FilePage(files, next);
         });
-        return infos;
+    }
+
+    /**
+     * Lista recursivamente una página de los archivos de un bucket desde el índice de metadatos, si el
+     * bucket ya está indexado. El índice no incluye lo que se escribió sin pasar por esta aplicación,
+     * como las subidas prefirmadas, hasta la próxima reconciliación.
+     *
+     * @param bucket     nombre del bucket a listar.
+     * @param prefix     prefijo que deben tener los nombres, puede ser {@code null}.
+     * @param startAfter nombre a partir del cual se lista (exclusivo), puede ser {@code null}.
+     * @param maxKeys    cantidad máxima de archivos de la página, o {@code null} para listar todos.
+     * @return la página con los archivos y el nombre desde donde continuar.
+     */
+    @Override
+    public FilePage listIndexedFiles(String bucket, String prefix, String startAfter, Integer maxKeys) {
+        ObjectSearchCriteria criteria = new ObjectSearchCriteria();
+        criteria.setPrefix(prefix);
+        criteria.setStartAfter(startAfter);
+        criteria.setMaxKeys(maxKeys);
+        ObjectSearchPage page = metadataIndexService.search(bucket, criteria);
+        return new FilePage(toFileInfos(page), page.getNextStartAfter());
+    }
+
+    /**
+     * Lista los archivos de un bucket como un flujo perezoso: cada archivo se obtiene de MinIO
+     * a medida que se consume, sin acumular el listado en memoria.
+     *
+     * @param bucket     nombre del bucket a listar.
+     * @param prefix     prefijo que deben tener los nombres, puede ser {@code null}.
+     * @param delimiter  delimitador para agrupar los nombres en carpetas, o {@code null} para listar recursivamente.
+     * @param startAfter nombre a partir del cual se lista (exclusivo), puede ser {@code null}.
+     * @return el flujo de archivos.
+     */
+    @Override
+    public Stream<FileInfo> streamFiles(String bucket, String prefix, String delimiter, String startAfter) {
+        return StreamSupport.stream(
+                listObjects(bucket, prefix, delimiter, startAfter, MAX_KEYS_PER_REQUEST).spliterator(), false);
+    }
+
+    private Iterable<FileInfo> listObjects(String bucket, String prefix, String delimiter,
+                                           String startAfter, int pageSize) {
+        ListObjectsArgs.Builder args = ListObjectsArgs.builder()
+                .bucket(bucket)
+                .maxKeys(pageSize);
+        if (prefix != null) {
+            args.prefix(prefix);
+        }
+        if (startAfter != null) {
+            args.startAfter(startAfter);
+        }
+        if (delimiter != null) {
+            args.recursive(false).delimiter(delimiter);
+        } else {
+            args.recursive(true);
+        }
+        Iterable<Result<Item>> results = minio.listObjects(args.build());
+        return () -> new Iterator<>() {
+            private final Iterator<Result<Item>> it = results.iterator();
+
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public FileInfo next() {
+                try {
+                    return toFileInfo(it.next().get());
+                } catch (Exception e) {
+                    throw new IllegalStateException("Error al listar el bucket " + bucket, e);
+                }
+            }
+        };
+    }
+
+    private List<FileInfo> toFileInfos(ObjectSearchPage page) {
+        return page.getObjects().stream()
+                .map(o -> {
+                    FileInfo info = new FileInfo();
+                    info.setFilename(o.getObjectKey());
+                    info.setDirectory(false);
+                    return info;
+                })
+                .collect(Collectors.toList());
+    }
+
+    private FileInfo toFileInfo(Item item) {
+        FileInfo info = new FileInfo();
+        info.setFilename(item.objectName());
+        info.setDirectory(item.isDir());
+        return info;
     }
     /**
      * Descarga un archivo desde un bucket específico.
@@ -98,9 +374,252 @@ public class MinioFilesServiceImpl implements MinioFilesService {
     @Override
     public InputStream download(String bucket, String objectName)
             throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
-        InputStream stream = minio.getObject(
-                GetObjectArgs.builder().bucket(bucket).object(objectName).build());
-        return stream;
+        long start = System.nanoTime();
+        InputStream stream = storageMetrics.record("download", bucket, () -> minio.getObject(
+                GetObjectArgs.builder().bucket(bucket).object(objectName).build()));
+        return storageMetrics.download(bucket, start, stream);
+    }
+
+    /**
+     * Descarga un rango de bytes de un archivo desde un bucket específico.
+     *
+     * @param bucket     nombre del bucket de donde se descargará el archivo.
+     * @param objectName nombre del archivo a descargar.
+     * @param offset     posición del primer byte a descargar.
+     * @param length     cantidad de bytes a descargar.
+     * @return un flujo de entrada con el rango solicitado.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public InputStream download(String bucket, String objectName, long offset, long length)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        long start = System.nanoTime();
+        InputStream stream = storageMetrics.record("download", bucket, () -> minio.getObject(GetObjectArgs.builder()
+                .bucket(bucket)
+                .object(objectName)
+                .offset(offset)
+                .length(length)
+                .build()));
+        return storageMetrics.download(bucket, start, stream);
+    }
+
+    /**
+     * Descarga el contenido original de un archivo, descomprimiéndolo mientras se lee si se guardó
+     * comprimido. La codificación se toma de la misma respuesta de MinIO, sin consultas adicionales.
+     *
+     * @param bucket     nombre del bucket de donde se descargará el archivo.
+     * @param objectName nombre del archivo a descargar.
+     * @return un flujo de entrada con el contenido sin comprimir.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public InputStream downloadDecoded(String bucket, String objectName)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        long start = System.nanoTime();
+        GetObjectResponse response = storageMetrics.record("download", bucket, () -> minio.getObject(
+                GetObjectArgs.builder().bucket(bucket).object(objectName).build()));
+        InputStream stream = storageMetrics.download(bucket, start, response);
+        if (!CompressionProperties.GZIP.equals(CompressionProperties.encodingOf(response.headers()))) {
+            return stream;
+        }
+        try {
+            return new GZIPInputStream(stream, DECODE_BUFFER_SIZE);
+        } catch (IOException e) {
+            stream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene los metadatos de un archivo (tamaño, etag, fecha de modificación, tipo de contenido)
+     * sin descargar su contenido.
+     *
+     * @param bucket     nombre del bucket del archivo.
+     * @param objectName nombre del archivo.
+     * @return los metadatos del archivo.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public StatObjectResponse stat(String bucket, String objectName)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        return storageMetrics.record("stat", bucket, () -> minio.statObject(
+                StatObjectArgs.builder().bucket(bucket).object(objectName).build()));
+    }
+
+    /**
+     * Obtiene los metadatos de un archivo sin bloquear el hilo que llama.
+     *
+     * @param bucket     nombre del bucket del archivo.
+     * @param objectName nombre del archivo.
+     * @return la operación en curso con los metadatos, que falla con {@code NoSuchKey} si el archivo no existe.
+     */
+    @Override
+    public CompletableFuture<ObjectMetadataDto> statAsync(String bucket, String objectName) {
+        return storageMetrics.recordAsync("stat", bucket, () -> MinioFutures.call(() -> asyncMinio.statObject(
+                        StatObjectArgs.builder().bucket(bucket).object(objectName).build())))
+                .thenApply(stat -> toMetadata(bucket, stat));
+    }
+
+    /**
+     * Obtiene los metadatos de varios archivos con hasta {@value #STAT_CONCURRENCY} consultas en curso.
+     * Cada consulta que termina inicia la siguiente, por lo que no se ocupa un hilo por archivo.
+     *
+     * @param bucket      nombre del bucket.
+     * @param objectNames nombres de los archivos.
+     * @return la operación en curso con los metadatos en el orden pedido, sin los archivos que no existen.
+     */
+    @Override
+    public CompletableFuture<List<ObjectMetadataDto>> statAllAsync(String bucket, List<String> objectNames) {
+        List<String> names = List.copyOf(objectNames);
+        ObjectMetadataDto[] results = new ObjectMetadataDto[names.size()];
+        AtomicInteger next = new AtomicInteger();
+        CompletableFuture<?>[] lanes = new CompletableFuture<?>[Math.min(STAT_CONCURRENCY, names.size())];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = statNext(bucket, names, results, next);
+        }
+        return CompletableFuture.allOf(lanes)
+                .thenApply(v -> Arrays.stream(results).filter(Objects::nonNull).toList());
+    }
+
+    private ObjectMetadataDto toMetadata(String bucket, StatObjectResponse stat) {
+        return new ObjectMetadataDto(bucket, stat.object(), stat.size(), stat.etag(),
+                stat.lastModified() != null
+                        ? stat.lastModified().withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime()
+                        : null,
+                stat.contentType());
+    }
+
+    private CompletableFuture<Void> statNext(String bucket, List<String> names, ObjectMetadataDto[] results,
+                                             AtomicInteger next) {
+        int index = next.getAndIncrement();
+        if (index >= names.size()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return statAsync(bucket, names.get(index))
+                .handle((metadata, error) -> {
+                    if (error != null && !MinioFutures.isErrorCode(error, NO_SUCH_KEY)) {
+                        throw new CompletionException(MinioFutures.unwrap(error));
+                    }
+                    results[index] = metadata;
+                    return null;
+                })
+                .thenCompose(v -> statNext(bucket, names, results, next));
+    }
+
+    /**
+     * Copia un archivo del lado del servidor, sin que los datos pasen por la aplicación.
+     * Los archivos de hasta 5GB se copian con una única copia; los mayores, por partes.
+     * Si los buckets están en servidores distintos del reparto, el archivo se descarga y se vuelve a subir.
+     *
+     * @param sourceBucket bucket del archivo a copiar.
+     * @param sourceObject nombre del archivo a copiar.
+     * @param targetBucket bucket destino.
+     * @param targetObject nombre del archivo destino, que se reemplaza si existe.
+     * @return los metadatos del archivo copiado.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public ObjectMetadataDto copyObject(String sourceBucket, String sourceObject, String targetBucket, String targetObject)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        if (sourceBucket.equals(targetBucket) && sourceObject.equals(targetObject)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "El origen y el destino son el mismo archivo");
+        }
+        dedupProperties.checkNotReserved(targetObject);
+        StatObjectResponse source = stat(sourceBucket, sourceObject);
+        if (!endpointRouter.sameEndpoint(sourceBucket, targetBucket)) {
+            //los buckets están en servidores distintos, que no pueden copiar entre sí
+            //se sube el contenido original, que se vuelve a comprimir según la configuración del bucket destino
+            boolean compressed = CompressionProperties.encodingOf(source.headers()) != null;
+            try (InputStream stream = downloadDecoded(sourceBucket, sourceObject)) {
+                uploadFile(stream, targetBucket, targetObject, compressed ? -1 : source.size(), source.contentType());
+            }
+            return toMetadata(targetBucket, stat(targetBucket, targetObject));
+        }
+
+        objectCacheService.evict(targetBucket, targetObject);
+        diskCacheService.evict(targetBucket, targetObject);
+        //se exige el etag leído para no copiar una versión distinta si el archivo cambió entretanto;
+        //va entre comillas como cualquier If-Match, el SDK las quita al leerlo
+        String etag = "\"" + source.etag() + "\"";
+        ObjectWriteResponse response = storageMetrics.record("copy", targetBucket, () -> source.size() > MAX_COPY_SIZE
+                ? minio.composeObject(ComposeObjectArgs.builder()
+                        .bucket(targetBucket)
+                        .object(targetObject)
+                        .sources(List.of(ComposeSource.builder()
+                                .bucket(sourceBucket).object(sourceObject).matchETag(etag).build()))
+                        //a diferencia de la copia simple, la copia por partes no conserva los metadatos
+                        .headers(source.contentType() != null
+                                ? Map.of("Content-Type", source.contentType()) : Map.of())
+                        .userMetadata(source.userMetadata())
+                        .build())
+                : minio.copyObject(CopyObjectArgs.builder()
+                        .bucket(targetBucket)
+                        .object(targetObject)
+                        .source(CopySource.builder()
+                                .bucket(sourceBucket).object(sourceObject).matchETag(etag).build())
+                        .build()));
+        metadataIndexService.record(targetBucket, targetObject, source.size(), response.etag(), source.contentType());
+        return new ObjectMetadataDto(targetBucket, targetObject, source.size(), response.etag(),
+                LocalDateTime.now(), source.contentType());
+    }
+
+    /**
+     * Mueve un archivo: lo copia del lado del servidor y elimina el original.
+     *
+     * @param sourceBucket bucket del archivo a mover.
+     * @param sourceObject nombre del archivo a mover.
+     * @param targetBucket bucket destino.
+     * @param targetObject nombre del archivo destino, que se reemplaza si existe.
+     * @return los metadatos del archivo en su nueva ubicación.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public ObjectMetadataDto moveObject(String sourceBucket, String sourceObject, String targetBucket, String targetObject)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        dedupProperties.checkNotReserved(sourceObject);
+        ObjectMetadataDto moved = copyObject(sourceBucket, sourceObject, targetBucket, targetObject);
+        deleteObject(sourceBucket, sourceObject);
+        return moved;
     }
 
     /**
@@ -121,7 +640,188 @@ public class MinioFilesServiceImpl implements MinioFilesService {
     @Override
     public void deleteObject(String bucket, String objectName)
             throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
-        minio.removeObject(RemoveObjectArgs.builder().bucket(bucket).object(objectName).build());
+        MinioFutures.await(deleteObjectAsync(bucket, objectName));
+    }
+
+    /**
+     * Elimina un archivo sin bloquear el hilo que llama. Las cachés y el índice
+     * se actualizan cuando MinIO confirma la eliminación.
+     *
+     * @param bucket     nombre del bucket del archivo.
+     * @param objectName nombre del archivo a eliminar.
+     * @return la operación en curso, que termina cuando el archivo fue eliminado.
+     */
+    @Override
+    public CompletableFuture<Void> deleteObjectAsync(String bucket, String objectName) {
+        dedupProperties.checkNotReserved(objectName);
+        return remove(bucket, objectName);
     }
-}
 
+    /**
+     * Elimina contenido deduplicado que ya no tiene referencias, sin la protección de su prefijo.
+     *
+     * @param bucket     nombre del bucket.
+     * @param objectName nombre del contenido.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public void deleteContent(String bucket, String objectName)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        MinioFutures.await(remove(bucket, objectName));
+    }
+
+    private CompletableFuture<Void> remove(String bucket, String objectName) {
+        return storageMetrics.recordAsync("delete", bucket, () -> MinioFutures.call(() -> asyncMinio.removeObject(
+                        RemoveObjectArgs.builder().bucket(bucket).object(objectName).build())))
+                .thenRun(() -> {
+                    metadataIndexService.remove(bucket, objectName);
+                    objectCacheService.evict(bucket, objectName);
+                    diskCacheService.evict(bucket, objectName);
+                });
+    }
+
+    /**
+     * Elimina una lista de archivos de un bucket usando la eliminación múltiple de MinIO,
+     * de a 1000 archivos por petición. El contenido deduplicado no se elimina y se informa como error.
+     *
+     * @param bucket      nombre del bucket.
+     * @param objectNames nombres de los archivos a eliminar.
+     * @return la cantidad de archivos eliminados y los errores de cada archivo que no se pudo eliminar.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public BulkDeleteResultDto deleteObjects(String bucket, List<String> objectNames)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        //el contenido deduplicado se elimina al borrar su última referencia en /minio/dedup
+        Map<Boolean, List<String>> names = objectNames.stream()
+                .collect(Collectors.partitioningBy(dedupProperties::isReserved));
+        BulkDeleteResultDto result = removeAll(bucket, names.get(false).iterator());
+        names.get(true).forEach(name -> result.getErrors().add(new DeleteErrorDto(name, RESERVED_CONTENT,
+                "El contenido deduplicado se elimina desde /minio/dedup/delete")));
+        return result;
+    }
+
+    /**
+     * Elimina todos los archivos de un bucket cuyo nombre empieza con un prefijo. Los nombres se
+     * leen del listado de MinIO a medida que se eliminan, sin acumularlos en memoria. No se aceptan
+     * prefijos que abarquen el contenido deduplicado.
+     *
+     * @param bucket nombre del bucket.
+     * @param prefix prefijo de los archivos a eliminar.
+     * @return la cantidad de archivos eliminados y los errores de cada archivo que no se pudo eliminar.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public BulkDeleteResultDto deletePrefix(String bucket, String prefix)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        dedupProperties.checkNotReservedPrefix(prefix);
+        return removeListed(bucket, prefix);
+    }
+
+    /**
+     * Vacía un bucket, incluido el contenido deduplicado.
+     *
+     * @param bucket nombre del bucket.
+     * @return la cantidad de archivos eliminados y los errores de cada archivo que no se pudo eliminar.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public BulkDeleteResultDto deleteAll(String bucket)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        return removeListed(bucket, null);
+    }
+
+    private BulkDeleteResultDto removeListed(String bucket, String prefix)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        Iterator<FileInfo> files = listObjects(bucket, prefix, null, null, MAX_KEYS_PER_REQUEST).iterator();
+        return removeAll(bucket, new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return files.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return files.next().getFilename();
+            }
+        });
+    }
+
+    /**
+     * Elimina los archivos en lotes de hasta 1000, que es el máximo de una eliminación múltiple.
+     * Solo se lee el siguiente lote de nombres cuando terminó el anterior.
+     */
+    private BulkDeleteResultDto removeAll(String bucket, Iterator<String> objectNames)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        BulkDeleteResultDto result = new BulkDeleteResultDto();
+        List<String> batch = new ArrayList<>(MAX_KEYS_PER_REQUEST);
+        while (objectNames.hasNext()) {
+            batch.add(objectNames.next());
+            if (batch.size() == MAX_KEYS_PER_REQUEST || !objectNames.hasNext()) {
+                removeBatch(bucket, batch, result);
+                batch.clear();
+            }
+        }
+        return result;
+    }
+
+    private void removeBatch(String bucket, List<String> batch, BulkDeleteResultDto result)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        //la eliminación se envía al recorrer el resultado, por eso se mide el recorrido completo
+        Set<String> failed = storageMetrics.record("deleteObjects", bucket, () -> {
+            Iterable<Result<DeleteError>> errors = minio.removeObjects(RemoveObjectsArgs.builder()
+                    .bucket(bucket)
+                    .objects(batch.stream().map(DeleteObject::new).toList())
+                    .build());
+            //MinIO solo informa los objetos que no pudo eliminar
+            Set<String> names = new HashSet<>();
+            for (Result<DeleteError> r : errors) {
+                DeleteError error = r.get();
+                names.add(error.objectName());
+                result.getErrors().add(new DeleteErrorDto(error.objectName(), error.code(), error.message()));
+            }
+            return names;
+        });
+        List<String> deleted = failed.isEmpty()
+                ? batch
+                : batch.stream().filter(name -> !failed.contains(name)).toList();
+        for (String name : deleted) {
+            objectCacheService.evict(bucket, name);
+            diskCacheService.evict(bucket, name);
+        }
+        metadataIndexService.removeAll(bucket, deleted);
+        result.setDeleted(result.getDeleted() + deleted.size());
+    }
+}
@@ -0,0 +1,268 @@
+package gabri.dev.minio.services.impl;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import gabri.dev.minio.clients.MinioFutures;
+import gabri.dev.minio.clients.MultipartMinioClient;
+import gabri.dev.minio.configs.UploadProperties;
+import gabri.dev.minio.services.MultipartUploadService;
+import io.minio.MinioClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.PutObjectArgs;
+import io.minio.errors.*;
+import io.minio.messages.Part;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+@Slf4j
+@Service("multipartUploadService")
+public class MultipartUploadServiceImpl implements MultipartUploadService {
+
+    private static final long MEGABYTE = 1024 * 1024;
+
+    @Autowired
+    MinioClient minio;
+    @Autowired
+    MultipartMinioClient multipartClient;
+    @Autowired
+    UploadProperties properties;
+
+    /**
+     * Memoria para buffers de parte compartida por todas las subidas, en megabytes. Cada buffer toma
+     * sus permisos antes de llenarse y los devuelve al terminar de enviarse la parte.
+     */
+    private Semaphore bufferMemory;
+    private int bufferMemoryPermits;
+
+    /**
+     * Crea el presupuesto de memoria de los buffers de parte.
+     */
+    @PostConstruct
+    public void init() {
+        bufferMemoryPermits = (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+                properties.getMaxBufferMemory().toBytes() / MEGABYTE));
+        bufferMemory = new Semaphore(bufferMemoryPermits, true);
+    }
+
+    /**
+     * Sube un archivo dividiéndolo en partes que se envían en paralelo.
+     * Si ocurre un error en cualquier parte, la subida multipart se aborta y no queda ningún objeto parcial.
+     * Los buffers de parte de todas las subidas en curso se acotan a {@code minio.upload.max-buffer-memory}.
+     * Si se indica el tamaño y el flujo tiene otra cantidad de bytes, la subida falla.
+     *
+     * @param stream       flujo de entrada del archivo a subir.
+     * @param bucket       nombre del bucket donde se almacenará el archivo.
+     * @param objectName   nombre del archivo dentro del bucket.
+     * @param size         tamaño en bytes del archivo, o -1 si es desconocido.
+     * @param contentType  tipo de contenido del archivo, puede ser {@code null}.
+     * @param userMetadata metadatos de usuario del objeto, sin el prefijo {@code x-amz-meta-}.
+     * @return la respuesta de MinIO con el etag del objeto creado.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public ObjectWriteResponse upload(InputStream stream, String bucket, String objectName, long size, String contentType,
+                                      Map<String, String> userMetadata)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        int partSize = (int) partSize(bucket, size);
+        //cada permiso es un buffer de parte, que se toma antes de llenarlo: la memoria de la subida queda
+        //acotada a concurrency * partSize contando el buffer que se está leyendo, y la de todas las
+        //subidas a maxBufferMemory
+        Semaphore inFlight = new Semaphore(properties.concurrencyFor(bucket));
+        int memory = bufferPermits(partSize);
+        acquire(inFlight, memory);
+        byte[] first;
+        boolean multipart = false;
+        try {
+            first = stream.readNBytes(partSize);
+            checkSize(size, first.length, first.length < partSize);
+            if (first.length < partSize) {
+                //el archivo entra en una sola parte, no hace falta una subida multipart
+                return putSingle(first, bucket, objectName, contentType, userMetadata);
+            }
+            multipart = true;
+        } finally {
+            //el buffer de la primera parte se libera al enviarla, salvo que no llegue a enviarse
+            if (!multipart) {
+                release(inFlight, memory);
+            }
+        }
+
+        Multimap<String, String> headers = HashMultimap.create();
+        if (contentType != null) {
+            headers.put("Content-Type", contentType);
+        }
+        userMetadata.forEach((key, value) -> headers.put("x-amz-meta-" + key, value));
+        String uploadId;
+        try {
+            uploadId = MinioFutures.await(multipartClient.createMultipartUploadAsync(
+                    bucket, null, objectName, headers, null)).result().uploadId();
+        } catch (IOException | MinioException | InvalidKeyException | NoSuchAlgorithmException | RuntimeException e) {
+            release(inFlight, memory);
+            throw e;
+        }
+
+        List<CompletableFuture<Part>> parts = new ArrayList<>();
+        try {
+            byte[] buffer = first;
+            long read = buffer.length;
+            int partNumber = 1;
+            while (true) {
+                parts.add(uploadPart(bucket, objectName, uploadId, partNumber, buffer, inFlight, memory));
+                if (buffer.length < partSize) {
+                    break;
+                }
+                acquire(inFlight, memory);
+                try {
+                    failFast(parts);
+                    buffer = stream.readNBytes(partSize);
+                    read += buffer.length;
+                    checkSize(size, read, buffer.length < partSize);
+                } catch (IOException | MinioException | InvalidKeyException | NoSuchAlgorithmException | RuntimeException e) {
+                    release(inFlight, memory);
+                    throw e;
+                }
+                if (buffer.length == 0) {
+                    release(inFlight, memory);
+                    break;
+                }
+                partNumber++;
+            }
+            Part[] completed = new Part[parts.size()];
+            for (int i = 0; i < completed.length; i++) {
+                completed[i] = MinioFutures.await(parts.get(i));
+            }
+            return MinioFutures.await(multipartClient.completeMultipartUploadAsync(
+                    bucket, null, objectName, uploadId, completed, null, null));
+        } catch (IOException | MinioException | InvalidKeyException | NoSuchAlgorithmException | RuntimeException e) {
+            parts.forEach(p -> p.cancel(true));
+            abort(bucket, objectName, uploadId);
+            throw e;
+        }
+    }
+
+    private CompletableFuture<Part> uploadPart(String bucket, String objectName, String uploadId,
+                                               int partNumber, byte[] data, Semaphore inFlight, int memory)
+            throws InsufficientDataException, InternalException, InvalidKeyException, IOException, NoSuchAlgorithmException, XmlParserException {
+        CompletableFuture<Part> part;
+        try {
+            part = multipartClient.uploadPartAsync(bucket, null, objectName, data, data.length,
+                            uploadId, partNumber, null, null)
+                    .thenApply(response -> new Part(partNumber, response.etag()));
+        } catch (IOException | MinioException | InvalidKeyException | NoSuchAlgorithmException | RuntimeException e) {
+            release(inFlight, memory);
+            throw e;
+        }
+        part.whenComplete((result, error) -> release(inFlight, memory));
+        return part;
+    }
+
+    private ObjectWriteResponse putSingle(byte[] data, String bucket, String objectName, String contentType,
+                                          Map<String, String> userMetadata)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        PutObjectArgs.Builder args = PutObjectArgs.builder()
+                .bucket(bucket)
+                .object(objectName)
+                .stream(new ByteArrayInputStream(data), data.length, -1)
+                .userMetadata(userMetadata);
+        if (contentType != null) {
+            args.contentType(contentType);
+        }
+        return minio.putObject(args.build());
+    }
+
+    /**
+     * Calcula el tamaño de parte: el configurado para el bucket, o uno mayor si con
+     * ese tamaño el objeto superaría el máximo de partes permitido.
+     */
+    private long partSize(String bucket, long size) {
+        long partSize = properties.partSizeFor(bucket);
+        if (size > (long) partSize * UploadProperties.MAX_PARTS) {
+            long required = (size + UploadProperties.MAX_PARTS - 1) / UploadProperties.MAX_PARTS;
+            partSize = (required + MEGABYTE - 1) / MEGABYTE * MEGABYTE;
+        }
+        //los buffers de parte son arreglos de bytes, se limitan al tamaño máximo de un arreglo
+        return Math.min(partSize, Integer.MAX_VALUE - MEGABYTE);
+    }
+
+    private void failFast(List<CompletableFuture<Part>> parts)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        for (CompletableFuture<Part> part : parts) {
+            if (part.isCompletedExceptionally()) {
+                MinioFutures.await(part);
+            }
+        }
+    }
+
+    /**
+     * Permisos de memoria de un buffer de parte. Una parte mayor que todo el presupuesto toma el
+     * presupuesto completo, para no esperar permisos que nunca van a estar disponibles.
+     */
+    private int bufferPermits(int partSize) {
+        return (int) Math.min(bufferMemoryPermits, (partSize + MEGABYTE - 1) / MEGABYTE);
+    }
+
+    /**
+     * Verifica los bytes leídos contra el tamaño indicado: nunca pueden superarlo, y al terminar
+     * el flujo tienen que coincidir.
+     */
+    private void checkSize(long size, long read, boolean finished) {
+        if (size >= 0 && (read > size || finished && read != size)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "El archivo tiene " + (finished ? "" : "más de ") + read + " bytes, se indicaron " + size);
+        }
+    }
+
+    private void acquire(Semaphore inFlight, int memory) throws InterruptedIOException {
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Subida multipart interrumpida");
+        }
+        try {
+            bufferMemory.acquire(memory);
+        } catch (InterruptedException e) {
+            inFlight.release();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Subida multipart interrumpida");
+        }
+    }
+
+    private void release(Semaphore inFlight, int memory) {
+        bufferMemory.release(memory);
+        inFlight.release();
+    }
+
+    private void abort(String bucket, String objectName, String uploadId) {
+        try {
+            MinioFutures.await(multipartClient.abortMultipartUploadAsync(
+                    bucket, null, objectName, uploadId, null, null));
+        } catch (Exception e) {
+            log.warn("No se pudo abortar la subida multipart {} de {}/{}", uploadId, bucket, objectName, e);
+        }
+    }
+}
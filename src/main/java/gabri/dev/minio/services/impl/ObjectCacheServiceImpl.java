@@ -0,0 +1,158 @@
+package gabri.dev.minio.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import gabri.dev.minio.clients.MinioFutures;
+import gabri.dev.minio.configs.CacheProperties;
+import gabri.dev.minio.dtos.cache.CacheStatsDto;
+import gabri.dev.minio.services.ObjectCacheService;
+import gabri.dev.minio.services.StorageMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.minio.GetObjectArgs;
+import io.minio.GetObjectResponse;
+import io.minio.MinioClient;
+import io.minio.errors.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.CompletionException;
+
+@Service("objectCacheService")
+public class ObjectCacheServiceImpl implements ObjectCacheService {
+
+    /**
+     * Contenido cacheado de un objeto junto con el etag de la versión leída.
+     */
+    private record CachedObject(String etag, byte[] data) {
+    }
+
+    private final MinioClient minio;
+    private final StorageMetrics storageMetrics;
+    private final CacheProperties.Memory properties;
+    private final Cache<String, CachedObject> cache;
+
+    /**
+     * Crea la caché con el presupuesto de bytes configurado.
+     * Caffeine desaloja con W-TinyLFU, que favorece a los objetos más leídos.
+     *
+     * @param minio      el cliente de MinIO usado para leer los objetos que no están en caché.
+     * @param properties la configuración de las cachés.
+     * @param storageMetrics las métricas de las lecturas a MinIO.
+     * @param registry   el registro de Micrometer donde se publican aciertos, fallos y desalojos.
+     */
+    @Autowired
+    public ObjectCacheServiceImpl(MinioClient minio, CacheProperties properties,
+                                  StorageMetrics storageMetrics, MeterRegistry registry) {
+        this.minio = minio;
+        this.storageMetrics = storageMetrics;
+        this.properties = properties.getMemory();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(this.properties.getMaxSize().toBytes())
+                .weigher((String key, CachedObject value) -> key.length() + value.data().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "minio.objects");
+    }
+
+    /**
+     * Indica si un objeto de cierto tamaño se guarda en esta caché.
+     *
+     * @param size tamaño en bytes del objeto.
+     * @return {@code true} si el objeto es cacheable.
+     */
+    @Override
+    public boolean isCacheable(long size) {
+        return properties.isEnabled() && size <= properties.getMaxObjectSize().toBytes();
+    }
+
+    /**
+     * Obtiene el contenido de un objeto desde la caché, o desde MinIO si no está
+     * o si la versión cacheada no coincide con el etag actual.
+     *
+     * @param bucket     nombre del bucket del objeto.
+     * @param objectName nombre del objeto.
+     * @param etag       etag actual del objeto, usado para revalidar la entrada cacheada.
+     * @return el contenido del objeto.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public byte[] get(String bucket, String objectName, String etag)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        String key = key(bucket, objectName);
+        try {
+            //las lecturas concurrentes de una misma clave ausente esperan una única carga
+            CachedObject cached = cache.get(key, k -> load(bucket, objectName));
+            if (!cached.etag().equals(etag)) {
+                cache.asMap().remove(key, cached);
+                cached = cache.get(key, k -> load(bucket, objectName));
+            }
+            return cached.data();
+        } catch (CompletionException e) {
+            throw MinioFutures.rethrow(e);
+        }
+    }
+
+    /**
+     * Quita un objeto de la caché, por ejemplo al sobrescribirlo o eliminarlo.
+     *
+     * @param bucket     nombre del bucket del objeto.
+     * @param objectName nombre del objeto.
+     */
+    @Override
+    public void evict(String bucket, String objectName) {
+        cache.invalidate(key(bucket, objectName));
+    }
+
+    /**
+     * Obtiene las estadísticas de uso de la caché.
+     *
+     * @return las estadísticas de aciertos, fallos y desalojos.
+     */
+    @Override
+    public CacheStatsDto stats() {
+        CacheStats stats = cache.stats();
+        long size = cache.policy().eviction()
+                .map(e -> e.weightedSize().orElse(0L))
+                .orElse(0L);
+        return CacheStatsDto.builder()
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .evictionCount(stats.evictionCount())
+                .evictedBytes(stats.evictionWeight())
+                .entries(cache.estimatedSize())
+                .sizeBytes(size)
+                .capacityBytes(properties.getMaxSize().toBytes())
+                .build();
+    }
+
+    private CachedObject load(String bucket, String objectName) {
+        long start = System.nanoTime();
+        try (GetObjectResponse response = storageMetrics.record("download", bucket, () -> minio.getObject(
+                GetObjectArgs.builder().bucket(bucket).object(objectName).build()));
+             InputStream stream = storageMetrics.download(bucket, start, response)) {
+            String etag = response.headers().get("ETag");
+            return new CachedObject(etag != null ? etag.replace("\"", "") : "", stream.readAllBytes());
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    private String key(String bucket, String objectName) {
+        return bucket + "/" + objectName;
+    }
+}
@@ -0,0 +1,318 @@
+package gabri.dev.minio.services.impl;
+
+import gabri.dev.minio.configs.CopyProperties;
+import gabri.dev.minio.configs.DedupProperties;
+import gabri.dev.minio.dtos.common.BulkDeleteResultDto;
+import gabri.dev.minio.dtos.common.DeleteErrorDto;
+import gabri.dev.minio.dtos.common.FileInfo;
+import gabri.dev.minio.dtos.copy.CopyErrorDto;
+import gabri.dev.minio.dtos.copy.CopyJobDto;
+import gabri.dev.minio.dtos.copy.CopyJobStatus;
+import gabri.dev.minio.dtos.index.ObjectMetadataDto;
+import gabri.dev.minio.services.AdmissionControlService;
+import gabri.dev.minio.services.MinioFilesService;
+import gabri.dev.minio.services.PrefixCopyService;
+import io.minio.errors.ErrorResponseException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service("prefixCopyService")
+public class PrefixCopyServiceImpl implements PrefixCopyService {
+
+    /**
+     * Cantidad de archivos de origen que se eliminan juntos en los movimientos,
+     * el máximo de una eliminación múltiple.
+     */
+    private static final int DELETE_BATCH_SIZE = 1000;
+
+    /**
+     * Estado de un trabajo en curso, actualizado por los hilos que copian.
+     */
+    private static final class CopyJob {
+        final String id = UUID.randomUUID().toString();
+        final String sourceBucket;
+        final String sourcePrefix;
+        final String targetBucket;
+        final String targetPrefix;
+        final boolean move;
+        final LocalDateTime startedAt = LocalDateTime.now();
+        final AtomicLong found = new AtomicLong();
+        final AtomicLong copied = new AtomicLong();
+        final AtomicLong deleted = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final AtomicLong bytesCopied = new AtomicLong();
+        final List<CopyErrorDto> errors = new ArrayList<>();
+        volatile CopyJobStatus status = CopyJobStatus.RUNNING;
+        volatile LocalDateTime finishedAt;
+
+        CopyJob(String sourceBucket, String sourcePrefix, String targetBucket, String targetPrefix, boolean move) {
+            this.sourceBucket = sourceBucket;
+            this.sourcePrefix = sourcePrefix;
+            this.targetBucket = targetBucket;
+            this.targetPrefix = targetPrefix;
+            this.move = move;
+        }
+
+        CopyJobDto toDto() {
+            synchronized (errors) {
+                return CopyJobDto.builder()
+                        .id(id)
+                        .move(move)
+                        .sourceBucket(sourceBucket)
+                        .sourcePrefix(sourcePrefix)
+                        .targetBucket(targetBucket)
+                        .targetPrefix(targetPrefix)
+                        .status(status)
+                        .found(found.get())
+                        .copied(copied.get())
+                        .deleted(deleted.get())
+                        .failed(failed.get())
+                        .bytesCopied(bytesCopied.get())
+                        .startedAt(startedAt)
+                        .finishedAt(finishedAt)
+                        .errors(List.copyOf(errors))
+                        .build();
+            }
+        }
+    }
+
+    private final MinioFilesService fileService;
+    private final CopyProperties properties;
+    private final DedupProperties dedupProperties;
+    private final AdmissionControlService admissionControlService;
+    private final Map<String, CopyJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * Hilos compartidos por todos los trabajos, que acotan la cantidad total de copias en curso.
+     */
+    private final Executor workers;
+
+    /**
+     * Hilos que recorren el listado de origen de cada trabajo, uno por trabajo en curso.
+     */
+    private final Executor coordinators;
+
+    /**
+     * Crea el servicio.
+     *
+     * @param fileService     el servicio que copia y elimina cada archivo.
+     * @param properties      la configuración de las copias.
+     * @param dedupProperties la configuración del contenido deduplicado, que los trabajos no copian ni eliminan.
+     * @param admissionControlService el control de admisión que acota las copias y borrados sobre cada bucket.
+     * @param workers         los hilos que copian los archivos.
+     * @param coordinators    los hilos donde se recorre el listado de cada trabajo.
+     */
+    @Autowired
+    public PrefixCopyServiceImpl(MinioFilesService fileService, CopyProperties properties,
+                                 DedupProperties dedupProperties, AdmissionControlService admissionControlService,
+                                 @Qualifier("copyExecutor") Executor workers,
+                                 @Qualifier("copyJobExecutor") Executor coordinators) {
+        this.fileService = fileService;
+        this.properties = properties;
+        this.dedupProperties = dedupProperties;
+        this.admissionControlService = admissionControlService;
+        this.workers = workers;
+        this.coordinators = coordinators;
+    }
+
+    /**
+     * Inicia un trabajo que copia o mueve los archivos de un prefijo. El nombre de cada archivo
+     * destino es el de origen con {@code sourcePrefix} reemplazado por {@code targetPrefix}.
+     * No se permiten prefijos superpuestos en un mismo bucket, ya que el listado de origen
+     * volvería a encontrar los archivos copiados. El contenido deduplicado que abarque el prefijo
+     * de origen se omite, ya que solo lo administra el almacén de contenido.
+     *
+     * @param sourceBucket bucket de origen.
+     * @param sourcePrefix prefijo de los archivos de origen, vacío para todo el bucket.
+     * @param targetBucket bucket destino.
+     * @param targetPrefix prefijo de los archivos destino, puede ser vacío.
+     * @param move         {@code true} para eliminar cada archivo de origen una vez copiado.
+     * @return el estado inicial del trabajo.
+     */
+    @Override
+    public CopyJobDto start(String sourceBucket, String sourcePrefix, String targetBucket, String targetPrefix,
+                            boolean move) {
+        String from = sourcePrefix != null ? sourcePrefix : "";
+        String to = targetPrefix != null ? targetPrefix : "";
+        if (sourceBucket.equals(targetBucket) && (from.startsWith(to) || to.startsWith(from))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Los prefijos de origen y destino no pueden superponerse en el mismo bucket");
+        }
+        dedupProperties.checkNotReserved(from);
+        dedupProperties.checkNotReserved(to);
+        purgeFinished();
+        CopyJob job = new CopyJob(sourceBucket, from, targetBucket, to, move);
+        synchronized (jobs) {
+            long running = jobs.values().stream().filter(j -> j.status == CopyJobStatus.RUNNING).count();
+            if (running >= properties.getMaxJobs()) {
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                        "Hay " + running + " trabajos de copia en curso, reintentar cuando termine alguno");
+            }
+            jobs.put(job.id, job);
+        }
+        CompletableFuture.runAsync(() -> run(job), coordinators);
+        return job.toDto();
+    }
+
+    /**
+     * Obtiene el estado y progreso de un trabajo.
+     *
+     * @param id identificador del trabajo.
+     * @return el estado del trabajo.
+     */
+    @Override
+    public CopyJobDto get(String id) {
+        CopyJob job = jobs.get(id);
+        if (job == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No existe el trabajo de copia " + id);
+        }
+        return job.toDto();
+    }
+
+    /**
+     * Lista los trabajos en curso y los terminados recientemente.
+     *
+     * @return el estado de cada trabajo, del más reciente al más antiguo.
+     */
+    @Override
+    public List<CopyJobDto> list() {
+        purgeFinished();
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((CopyJob job) -> job.startedAt).reversed())
+                .map(CopyJob::toDto)
+                .toList();
+    }
+
+    /**
+     * Recorre el listado de origen y copia cada archivo en los hilos de copia, con hasta
+     * {@code concurrency} copias en curso por trabajo. En los movimientos, los archivos ya
+     * copiados se eliminan del origen en lotes, con una sola petición por lote. Cada copia y cada
+     * lote esperan su lugar en el control de admisión de los buckets, ya que la petición que
+     * inició el trabajo liberó el suyo.
+     */
+    private void run(CopyJob job) {
+        int concurrency = Math.max(1, properties.getConcurrency());
+        Semaphore inFlight = new Semaphore(concurrency);
+        Queue<String> toDelete = new ConcurrentLinkedQueue<>();
+        try (Stream<FileInfo> files = fileService.streamFiles(job.sourceBucket,
+                job.sourcePrefix.isEmpty() ? null : job.sourcePrefix, null, null)) {
+            Iterator<FileInfo> it = files.iterator();
+            while (it.hasNext()) {
+                String source = it.next().getFilename();
+                if (dedupProperties.isReserved(source)) {
+                    continue;
+                }
+                String target = job.targetPrefix + source.substring(job.sourcePrefix.length());
+                job.found.incrementAndGet();
+                inFlight.acquire();
+                CompletableFuture.runAsync(() -> copy(job, source, target, toDelete), workers)
+                        .whenComplete((v, e) -> inFlight.release());
+                if (toDelete.size() >= DELETE_BATCH_SIZE) {
+                    deleteSources(job, toDelete);
+                }
+            }
+            //se espera a que terminen las copias en curso
+            inFlight.acquire(concurrency);
+            deleteSources(job, toDelete);
+            job.status = CopyJobStatus.COMPLETED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(job, e);
+        } catch (Exception e) {
+            log.error("Falló el trabajo de copia {}", job.id, e);
+            inFlight.acquireUninterruptibly(concurrency);
+            fail(job, e);
+        } finally {
+            job.finishedAt = LocalDateTime.now();
+        }
+    }
+
+    private void copy(CopyJob job, String source, String target, Queue<String> toDelete) {
+        AdmissionControlService.Admission admission = null;
+        try {
+            admission = admissionControlService.admitBackground(List.of(job.sourceBucket, job.targetBucket));
+            ObjectMetadataDto copied = fileService.copyObject(job.sourceBucket, source, job.targetBucket, target);
+            job.copied.incrementAndGet();
+            job.bytesCopied.addAndGet(copied.getSize() != null ? copied.getSize() : 0);
+            if (job.move) {
+                toDelete.add(source);
+            }
+        } catch (Exception e) {
+            job.failed.incrementAndGet();
+            addError(job, new CopyErrorDto(source, code(e), e.getMessage()));
+        } finally {
+            if (admission != null) {
+                admission.release();
+            }
+        }
+    }
+
+    private void deleteSources(CopyJob job, Queue<String> toDelete) throws Exception {
+        List<String> batch = new ArrayList<>(DELETE_BATCH_SIZE);
+        String name;
+        while ((name = toDelete.poll()) != null) {
+            batch.add(name);
+            if (batch.size() == DELETE_BATCH_SIZE || toDelete.isEmpty()) {
+                BulkDeleteResultDto result;
+                AdmissionControlService.Admission admission = admissionControlService.admitBackground(
+                        List.of(job.sourceBucket));
+                try {
+                    result = fileService.deleteObjects(job.sourceBucket, batch);
+                } finally {
+                    admission.release();
+                }
+                job.deleted.addAndGet(result.getDeleted());
+                job.failed.addAndGet(result.getErrors().size());
+                for (DeleteErrorDto error : result.getErrors()) {
+                    addError(job, new CopyErrorDto(error.getObjectName(), error.getCode(), error.getMessage()));
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void fail(CopyJob job, Exception e) {
+        job.status = CopyJobStatus.FAILED;
+        addError(job, new CopyErrorDto(null, code(e), e.getMessage()));
+    }
+
+    private void addError(CopyJob job, CopyErrorDto error) {
+        synchronized (job.errors) {
+            if (job.errors.size() < properties.getMaxReportedErrors()) {
+                job.errors.add(error);
+            }
+        }
+    }
+
+    private String code(Exception e) {
+        return e instanceof ErrorResponseException response
+                ? response.errorResponse().code()
+                : e.getClass().getSimpleName();
+    }
+
+    private void purgeFinished() {
+        LocalDateTime limit = LocalDateTime.now().minus(properties.getJobRetention());
+        jobs.values().removeIf(job -> job.finishedAt != null && job.finishedAt.isBefore(limit));
+    }
+}
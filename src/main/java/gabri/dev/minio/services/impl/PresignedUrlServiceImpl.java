@@ -0,0 +1,345 @@
+package gabri.dev.minio.services.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import gabri.dev.minio.clients.MinioEndpoint;
+import gabri.dev.minio.clients.MinioEndpointRouter;
+import gabri.dev.minio.configs.CompressionProperties;
+import gabri.dev.minio.configs.DedupProperties;
+import gabri.dev.minio.configs.PresignProperties;
+import gabri.dev.minio.dtos.presign.PresignedPostDto;
+import gabri.dev.minio.dtos.presign.PresignedUrlDto;
+import gabri.dev.minio.services.PresignedUrlService;
+import gabri.dev.minio.services.StorageMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.minio.GetPresignedObjectUrlArgs;
+import io.minio.MinioClient;
+import io.minio.PostPolicy;
+import io.minio.StatObjectArgs;
+import io.minio.StatObjectResponse;
+import io.minio.errors.*;
+import io.minio.http.Method;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service("presignedUrlService")
+public class PresignedUrlServiceImpl implements PresignedUrlService {
+
+    private static final String NO_SUCH_KEY = "NoSuchKey";
+
+    /**
+     * Parámetro de consulta con el que S3 reemplaza el {@code Content-Encoding} de la respuesta.
+     */
+    private static final String RESPONSE_CONTENT_ENCODING = "response-content-encoding";
+
+    /**
+     * Objeto y vigencia de una URL cacheada. Incluye el servidor que la firmó, para que
+     * al cambiar el reparto de buckets no se entreguen URLs de otro servidor, y la codificación
+     * firmada, para no reutilizar la URL si el objeto se reemplaza por otro sin comprimir.
+     */
+    private record PresignKey(Method method, String endpoint, String bucket, String objectName, String encoding,
+                              long expirySeconds) {
+    }
+
+    /**
+     * Servidor que firma las URLs de un bucket y el cliente con sus credenciales.
+     */
+    private record Target(String id, HttpUrl url, MinioClient client) {
+    }
+
+    private final MinioEndpointRouter router;
+    private final OkHttpClient httpClient;
+    private final StorageMetrics storageMetrics;
+    private final PresignProperties properties;
+    private final DedupProperties dedupProperties;
+    private final CompressionProperties compressionProperties;
+    private final String region;
+    private final Target defaultTarget;
+    private final Map<String, MinioClient> endpointClients = new ConcurrentHashMap<>();
+    private final Cache<PresignKey, PresignedUrlDto> cache;
+
+    /**
+     * Crea el servicio con la caché de URLs firmadas. Cada entrada vence {@code renewBefore}
+     * antes que su firma, así nunca se entrega una URL a punto de vencer.
+     *
+     * @param minio           el cliente de MinIO de {@code minio.url}.
+     * @param minioHttpClient el cliente HTTP compartido, para los clientes de cada servidor del reparto.
+     * @param router          el reparto de buckets entre servidores.
+     * @param storageMetrics  las métricas de las operaciones de firma.
+     * @param properties      la configuración de las URLs prefirmadas.
+     * @param dedupProperties la configuración del contenido deduplicado, al que no se firman subidas.
+     * @param compressionProperties la configuración de compresión, para firmar la codificación de los objetos comprimidos.
+     * @param registry        el registro de Micrometer donde se publican aciertos y fallos de la caché.
+     * @param url             la URL de {@code minio.url}.
+     * @param region          la región de los buckets, vacía si no se configuró.
+     */
+    @Autowired
+    public PresignedUrlServiceImpl(MinioClient minio, OkHttpClient minioHttpClient, MinioEndpointRouter router,
+                                   StorageMetrics storageMetrics, PresignProperties properties,
+                                   DedupProperties dedupProperties, CompressionProperties compressionProperties,
+                                   MeterRegistry registry,
+                                   @Value("${minio.url}") String url, @Value("${minio.region:}") String region) {
+        this.router = router;
+        this.httpClient = minioHttpClient;
+        this.storageMetrics = storageMetrics;
+        this.properties = properties;
+        this.dedupProperties = dedupProperties;
+        this.compressionProperties = compressionProperties;
+        this.region = region.isEmpty() ? null : region;
+        this.defaultTarget = new Target("default", HttpUrl.get(url), minio);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getCacheMaxEntries())
+                .expireAfter(new Expiry<PresignKey, PresignedUrlDto>() {
+                    @Override
+                    public long expireAfterCreate(PresignKey key, PresignedUrlDto value, long currentTime) {
+                        return reuseFor(value).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(PresignKey key, PresignedUrlDto value,
+                                                  long currentTime, long currentDuration) {
+                        return reuseFor(value).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterRead(PresignKey key, PresignedUrlDto value,
+                                                long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "minio.presign");
+    }
+
+    /**
+     * Obtiene una URL prefirmada para descargar un objeto. Las URLs se cachean por objeto y vigencia,
+     * y se reutilizan hasta poco antes de vencer. En los buckets con compresión se consulta el objeto:
+     * si está guardado comprimido la URL firma {@code response-content-encoding}, para que MinIO
+     * responda con {@code Content-Encoding} y el cliente reciba el contenido original.
+     *
+     * @param bucket     nombre del bucket del objeto.
+     * @param objectName nombre del objeto.
+     * @param expiry     vigencia de la URL, o {@code null} para usar la configurada por defecto.
+     * @return la URL prefirmada para un {@code GET}.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public PresignedUrlDto presignGet(String bucket, String objectName, Duration expiry)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        String encoding = compressionProperties.getBuckets().contains(bucket) ? encoding(bucket, objectName) : null;
+        return presign(Method.GET, bucket, objectName, encoding, expiry);
+    }
+
+    /**
+     * Obtiene una URL prefirmada para subir un objeto con un único {@code PUT}.
+     * Las URLs se cachean igual que las de descarga. No se firman subidas de contenido deduplicado.
+     *
+     * @param bucket     nombre del bucket destino.
+     * @param objectName nombre del objeto destino.
+     * @param expiry     vigencia de la URL, o {@code null} para usar la configurada por defecto.
+     * @return la URL prefirmada para un {@code PUT}.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public PresignedUrlDto presignPut(String bucket, String objectName, Duration expiry)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        dedupProperties.checkNotReserved(objectName);
+        return presign(Method.PUT, bucket, objectName, null, expiry);
+    }
+
+    /**
+     * Obtiene una política POST prefirmada para subir un archivo desde un formulario HTML.
+     * Un nombre terminado en {@code /} permite cualquier objeto bajo ese prefijo, y un tipo de
+     * contenido terminado en {@code *} cualquier tipo que empiece igual, por ejemplo {@code image/*}.
+     * Las políticas no se cachean, ya que cada una lleva sus propias condiciones. No se firman
+     * políticas que permitan subir contenido deduplicado.
+     *
+     * @param bucket      nombre del bucket destino.
+     * @param objectName  nombre del objeto destino, o prefijo terminado en {@code /}.
+     * @param contentType tipo de contenido exigido, puede ser {@code null}.
+     * @param maxSize     tamaño máximo en bytes del archivo, o {@code null} para usar el máximo configurado.
+     * @param expiry      vigencia de la política, o {@code null} para usar la configurada por defecto.
+     * @return la URL y los campos del formulario.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public PresignedPostDto presignPost(String bucket, String objectName, String contentType, Long maxSize, Duration expiry)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        Duration validity = validity(expiry);
+        long limit = properties.getMaxPostSize().toBytes();
+        if (maxSize != null && (maxSize < 1 || maxSize > limit)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "El tamaño máximo debe estar entre 1 y " + limit + " bytes");
+        }
+        boolean prefix = objectName.endsWith("/");
+        if (prefix) {
+            dedupProperties.checkNotReservedPrefix(objectName);
+        } else {
+            dedupProperties.checkNotReserved(objectName);
+        }
+        Target target = target(bucket);
+        ZonedDateTime expiresAt = ZonedDateTime.now(ZoneOffset.UTC).plus(validity);
+
+        PostPolicy policy = new PostPolicy(bucket, expiresAt);
+        if (prefix) {
+            policy.addStartsWithCondition("key", objectName);
+        } else {
+            policy.addEqualsCondition("key", objectName);
+        }
+        boolean anyType = contentType != null && contentType.endsWith("*");
+        if (anyType) {
+            policy.addStartsWithCondition("Content-Type", contentType.substring(0, contentType.length() - 1));
+        } else if (contentType != null) {
+            policy.addEqualsCondition("Content-Type", contentType);
+        }
+        policy.addContentLengthRangeCondition(0L, maxSize != null ? maxSize : limit);
+
+        Map<String, String> formData = new LinkedHashMap<>();
+        //con un prefijo, S3 reemplaza ${filename} por el nombre del archivo enviado
+        formData.put("key", prefix ? objectName + "${filename}" : objectName);
+        if (contentType != null && !anyType) {
+            formData.put("Content-Type", contentType);
+        }
+        formData.putAll(storageMetrics.record("presignPost", bucket,
+                () -> target.client().getPresignedPostFormData(policy)));
+        return PresignedPostDto.builder()
+                .url(target.url().newBuilder().addPathSegment(bucket).build().toString())
+                .bucket(bucket)
+                .formData(formData)
+                .expiresAt(expiresAt.toInstant())
+                .build();
+    }
+
+    /**
+     * Obtiene la codificación con la que se guardó un objeto, o {@code null} si no está comprimido.
+     */
+    private String encoding(String bucket, String objectName)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        Target target = target(bucket);
+        try {
+            StatObjectResponse stat = storageMetrics.record("stat", bucket, () -> target.client().statObject(
+                    StatObjectArgs.builder().bucket(bucket).object(objectName).build()));
+            return CompressionProperties.encodingOf(stat.headers());
+        } catch (ErrorResponseException e) {
+            if (NO_SUCH_KEY.equals(e.errorResponse().code())) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND, "El archivo no existe");
+            }
+            throw e;
+        }
+    }
+
+    private PresignedUrlDto presign(Method method, String bucket, String objectName, String encoding, Duration expiry)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        Duration validity = validity(expiry);
+        Target target = target(bucket);
+        PresignKey key = new PresignKey(method, target.id(), bucket, objectName, encoding, validity.getSeconds());
+        PresignedUrlDto cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        //se toma antes de firmar, para que el vencimiento informado nunca sea posterior al real
+        Instant signedAt = Instant.now();
+        GetPresignedObjectUrlArgs.Builder args = GetPresignedObjectUrlArgs.builder()
+                .method(method)
+                .bucket(bucket)
+                .object(objectName)
+                .expiry((int) validity.getSeconds());
+        if (encoding != null) {
+            args.extraQueryParams(Map.of(RESPONSE_CONTENT_ENCODING, encoding));
+        }
+        String url = storageMetrics.record("presign", bucket, () -> target.client().getPresignedObjectUrl(args.build()));
+        PresignedUrlDto presigned = PresignedUrlDto.builder()
+                .method(method.name())
+                .bucket(bucket)
+                .objectName(objectName)
+                .url(url)
+                .expiresAt(signedAt.plus(validity))
+                .build();
+        if (validity.compareTo(properties.getRenewBefore()) > 0) {
+            cache.put(key, presigned);
+        }
+        return presigned;
+    }
+
+    private Duration validity(Duration requested) {
+        Duration max = properties.effectiveMaxExpiry();
+        if (requested == null) {
+            Duration defaultExpiry = properties.getDefaultExpiry();
+            return defaultExpiry.compareTo(max) > 0 ? max : defaultExpiry;
+        }
+        if (requested.getSeconds() < 1 || requested.compareTo(max) > 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "La vigencia debe estar entre 1s y " + max);
+        }
+        return requested;
+    }
+
+    /**
+     * Tiempo durante el cual se reutiliza una URL cacheada.
+     */
+    private Duration reuseFor(PresignedUrlDto presigned) {
+        Duration remaining = Duration.between(Instant.now(), presigned.getExpiresAt().minus(properties.getRenewBefore()));
+        return remaining.isNegative() ? Duration.ZERO : remaining;
+    }
+
+    /**
+     * Obtiene el servidor que firma las URLs de un bucket. Con el reparto habilitado es el servidor
+     * que guarda el bucket, ya que la firma incluye su host y sus credenciales.
+     */
+    private Target target(String bucket) {
+        if (!router.isEnabled()) {
+            return defaultTarget;
+        }
+        MinioEndpoint endpoint = router.owner(bucket);
+        MinioClient client = endpointClients.computeIfAbsent(endpoint.id(), id -> MinioClient.builder()
+                .endpoint(endpoint.url())
+                .credentials(endpoint.accessKey(), endpoint.secretKey())
+                .region(region)
+                .httpClient(httpClient)
+                .build());
+        return new Target(endpoint.id(), endpoint.url(), client);
+    }
+}
@@ -0,0 +1,252 @@
+package gabri.dev.minio.services.impl;
+
+import gabri.dev.minio.clients.MinioFutures;
+import gabri.dev.minio.services.StorageMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.minio.errors.*;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Service("storageMetrics")
+public class StorageMetricsImpl implements StorageMetrics {
+
+    /**
+     * Duración de cada operación contra MinIO, por operación, bucket y resultado.
+     */
+    private static final String OPERATIONS = "minio.storage.operations";
+
+    /**
+     * Operaciones contra MinIO en curso, por operación. Las subidas en curso son las de {@code upload}.
+     */
+    private static final String OPERATIONS_ACTIVE = "minio.storage.operations.active";
+
+    /**
+     * Descargas cuyo contenido se está leyendo de MinIO.
+     */
+    private static final String DOWNLOADS_ACTIVE = "minio.storage.downloads.active";
+
+    /**
+     * Bytes enviados y recibidos de MinIO.
+     */
+    private static final String BYTES = "minio.storage.bytes";
+
+    /**
+     * Tiempo desde que se pide un objeto hasta que se lee su primer byte.
+     */
+    private static final String TIME_TO_FIRST_BYTE = "minio.storage.download.ttfb";
+
+    private static final String NONE = "none";
+
+    private final MeterRegistry registry;
+    private final boolean bucketTag;
+    private final Map<String, AtomicInteger> activeOperations = new ConcurrentHashMap<>();
+    private final AtomicInteger activeDownloads = new AtomicInteger();
+
+    /**
+     * Crea el servicio de métricas.
+     *
+     * @param registry  el registro de Micrometer.
+     * @param bucketTag si las métricas se etiquetan con el bucket. Con muchos buckets conviene
+     *                  deshabilitarlo para no multiplicar las series.
+     */
+    public StorageMetricsImpl(MeterRegistry registry, @Value("${minio.metrics.bucket-tag:true}") boolean bucketTag) {
+        this.registry = registry;
+        this.bucketTag = bucketTag;
+        Gauge.builder(DOWNLOADS_ACTIVE, activeDownloads, AtomicInteger::get)
+                .description("Descargas de MinIO en curso")
+                .register(registry);
+    }
+
+    @Override
+    public <T> T record(String operation, String bucket, MinioCall<T> call)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        long start = start(operation);
+        try {
+            T result = call.call();
+            stop(operation, bucket, start, null);
+            return result;
+        } catch (Exception e) {
+            stop(operation, bucket, start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> T measure(String operation, String bucket, Supplier<T> call) {
+        long start = start(operation);
+        try {
+            T result = call.get();
+            stop(operation, bucket, start, null);
+            return result;
+        } catch (RuntimeException e) {
+            stop(operation, bucket, start, e);
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<T> recordAsync(String operation, String bucket, Supplier<CompletableFuture<T>> call) {
+        long start = start(operation);
+        CompletableFuture<T> future;
+        try {
+            future = call.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, error) -> stop(operation, bucket, start, error));
+    }
+
+    @Override
+    public InputStream download(String bucket, long startNanos, InputStream stream) {
+        activeDownloads.incrementAndGet();
+        Counter bytes = bytes("download", bucket);
+        Timer firstByte = Timer.builder(TIME_TO_FIRST_BYTE)
+                .description("Tiempo hasta el primer byte de una descarga de MinIO")
+                .tag("bucket", bucketTag(bucket))
+                .register(registry);
+        return new MeteredInputStream(stream, bytes,
+                () -> firstByte.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS),
+                activeDownloads::decrementAndGet);
+    }
+
+    @Override
+    public InputStream upload(String bucket, InputStream stream) {
+        return new MeteredInputStream(stream, bytes("upload", bucket), () -> {
+        }, () -> {
+        });
+    }
+
+    private long start(String operation) {
+        activeOperations.computeIfAbsent(operation, op -> {
+            AtomicInteger active = new AtomicInteger();
+            Gauge.builder(OPERATIONS_ACTIVE, active, AtomicInteger::get)
+                    .description("Operaciones contra MinIO en curso")
+                    .tag("operation", op)
+                    .register(registry);
+            return active;
+        }).incrementAndGet();
+        return System.nanoTime();
+    }
+
+    private void stop(String operation, String bucket, long start, Throwable error) {
+        long elapsed = System.nanoTime() - start;
+        activeOperations.get(operation).decrementAndGet();
+        Timer.builder(OPERATIONS)
+                .description("Duración de las operaciones contra MinIO")
+                .tag("operation", operation)
+                .tag("bucket", bucketTag(bucket))
+                .tag("outcome", error == null ? "success" : "error")
+                .tag("error", errorTag(error))
+                .register(registry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    private Counter bytes(String direction, String bucket) {
+        return Counter.builder(BYTES)
+                .description("Bytes transferidos con MinIO")
+                .baseUnit("bytes")
+                .tag("direction", direction)
+                .tag("bucket", bucketTag(bucket))
+                .register(registry);
+    }
+
+    private String bucketTag(String bucket) {
+        if (bucket == null) {
+            return NONE;
+        }
+        return bucketTag ? bucket : "*";
+    }
+
+    /**
+     * El código de error de S3 si MinIO respondió con un error, o el tipo de la excepción.
+     */
+    private String errorTag(Throwable error) {
+        if (error == null) {
+            return NONE;
+        }
+        Throwable cause = MinioFutures.unwrap(error);
+        if (cause instanceof ErrorResponseException e && e.errorResponse() != null) {
+            return e.errorResponse().code();
+        }
+        return cause.getClass().getSimpleName();
+    }
+
+    /**
+     * Flujo que cuenta los bytes leídos, avisa al leer el primero y avisa una sola vez
+     * al terminar, ya sea al llegar al final o al cerrarse.
+     */
+    private static class MeteredInputStream extends FilterInputStream {
+
+        private final Counter bytes;
+        private final Runnable onFirstByte;
+        private final Runnable onEnd;
+        private final AtomicBoolean ended = new AtomicBoolean();
+        private boolean started;
+
+        MeteredInputStream(InputStream in, Counter bytes, Runnable onFirstByte, Runnable onEnd) {
+            super(in);
+            this.bytes = bytes;
+            this.onFirstByte = onFirstByte;
+            this.onEnd = onEnd;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            count(b < 0 ? -1 : 1);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            count(n);
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                end();
+            }
+        }
+
+        private void count(int n) {
+            if (n < 0) {
+                end();
+                return;
+            }
+            if (n > 0) {
+                if (!started) {
+                    started = true;
+                    onFirstByte.run();
+                }
+                bytes.increment(n);
+            }
+        }
+
+        private void end() {
+            if (ended.compareAndSet(false, true)) {
+                onEnd.run();
+            }
+        }
+    }
+}
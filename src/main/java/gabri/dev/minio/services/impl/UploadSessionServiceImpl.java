@@ -0,0 +1,374 @@
+package gabri.dev.minio.services.impl;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.Multimap;
+import gabri.dev.minio.clients.MinioFutures;
+import gabri.dev.minio.clients.MultipartMinioClient;
+import gabri.dev.minio.configs.DedupProperties;
+import gabri.dev.minio.configs.UploadProperties;
+import gabri.dev.minio.dtos.upload.UploadPartDto;
+import gabri.dev.minio.dtos.upload.UploadSessionDto;
+import gabri.dev.minio.entities.UploadSessionEntity;
+import gabri.dev.minio.entities.UploadSessionPartEntity;
+import gabri.dev.minio.entities.UploadSessionStatus;
+import gabri.dev.minio.repositories.UploadSessionPartRepository;
+import gabri.dev.minio.repositories.UploadSessionRepository;
+import gabri.dev.minio.services.MetadataIndexService;
+import gabri.dev.minio.services.UploadSessionService;
+import io.minio.MinioClient;
+import io.minio.ObjectWriteResponse;
+import io.minio.UploadPartResponse;
+import io.minio.errors.*;
+import io.minio.messages.Bucket;
+import io.minio.messages.ListMultipartUploadsResult;
+import io.minio.messages.Part;
+import io.minio.messages.Upload;
+import lombok.extern.slf4j.Slf4j;
+import org.modelmapper.ModelMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Slf4j
+@Service("uploadSessionService")
+public class UploadSessionServiceImpl implements UploadSessionService {
+
+    private static final String NO_SUCH_UPLOAD = "NoSuchUpload";
+
+    @Autowired
+    MinioClient minio;
+    @Autowired
+    MultipartMinioClient multipartClient;
+    @Autowired
+    UploadSessionRepository sessionRepository;
+    @Autowired
+    UploadSessionPartRepository partRepository;
+    @Autowired
+    UploadProperties uploadProperties;
+    @Autowired
+    ModelMapper modelMapper;
+    @Autowired
+    MetadataIndexService metadataIndexService;
+    @Autowired
+    DedupProperties dedupProperties;
+
+    /**
+     * Inicia una sesión de subida creando la subida multipart en MinIO. El destino no puede ser
+     * contenido deduplicado.
+     *
+     * @param bucket      nombre del bucket destino.
+     * @param objectName  nombre del objeto destino.
+     * @param contentType tipo de contenido del objeto, puede ser {@code null}.
+     * @return la sesión creada.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public UploadSessionDto initiate(String bucket, String objectName, String contentType)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        dedupProperties.checkNotReserved(objectName);
+        Multimap<String, String> headers = HashMultimap.create();
+        if (contentType != null) {
+            headers.put("Content-Type", contentType);
+        }
+        String uploadId = MinioFutures.await(multipartClient.createMultipartUploadAsync(
+                bucket, null, objectName, headers, null)).result().uploadId();
+
+        UploadSessionEntity session = new UploadSessionEntity();
+        session.setId(UUID.randomUUID().toString());
+        session.setBucket(bucket);
+        session.setObjectName(objectName);
+        session.setUploadId(uploadId);
+        session.setContentType(contentType);
+        session.setStatus(UploadSessionStatus.ACTIVE);
+        session.setCreatedAt(LocalDateTime.now());
+        session.setUpdatedAt(session.getCreatedAt());
+        return modelMapper.map(sessionRepository.save(session), UploadSessionDto.class);
+    }
+
+    /**
+     * Sube una parte de la sesión. Si la parte ya existía se reemplaza, lo que permite reintentarla.
+     *
+     * @param sessionId  identificador de la sesión.
+     * @param partNumber número de parte, de 1 a 10000.
+     * @param stream     contenido de la parte.
+     * @param size       tamaño en bytes de la parte.
+     * @return la parte recibida.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public UploadPartDto uploadPart(String sessionId, int partNumber, InputStream stream, long size)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        if (partNumber < 1 || partNumber > UploadProperties.MAX_PARTS) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "El número de parte debe estar entre 1 y " + UploadProperties.MAX_PARTS);
+        }
+        if (size < 0) {
+            throw new ResponseStatusException(HttpStatus.LENGTH_REQUIRED, "Se requiere el tamaño de la parte");
+        }
+        if (size > uploadProperties.getSessionMaxPartSize().toBytes()) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "La parte supera el tamaño máximo de " + uploadProperties.getSessionMaxPartSize());
+        }
+        UploadSessionEntity session = activeSession(sessionId);
+
+        //el SDK solo acepta partes en memoria, el tamaño queda acotado por sessionMaxPartSize
+        byte[] data = stream.readNBytes((int) size);
+        if (data.length < size) {
+            throw new EOFException("La parte " + partNumber + " llegó incompleta");
+        }
+        UploadPartResponse response = MinioFutures.await(multipartClient.uploadPartAsync(
+                session.getBucket(), null, session.getObjectName(), data, data.length,
+                session.getUploadId(), partNumber, null, null));
+
+        UploadSessionPartEntity part;
+        try {
+            part = savePart(sessionId, partNumber, response.etag(), size);
+        } catch (DataIntegrityViolationException e) {
+            //otra petición de la misma parte insertó la fila entretanto, se actualiza la existente
+            part = savePart(sessionId, partNumber, response.etag(), size);
+        }
+        return modelMapper.map(part, UploadPartDto.class);
+    }
+
+    private UploadSessionPartEntity savePart(String sessionId, int partNumber, String etag, long size) {
+        UploadSessionPartEntity part = partRepository.findBySessionIdAndPartNumber(sessionId, partNumber)
+                .orElseGet(UploadSessionPartEntity::new);
+        part.setSessionId(sessionId);
+        part.setPartNumber(partNumber);
+        part.setEtag(etag);
+        part.setSize(size);
+        part.setUploadedAt(LocalDateTime.now());
+        return partRepository.saveAndFlush(part);
+    }
+
+    /**
+     * Lista las partes recibidas de una sesión.
+     *
+     * @param sessionId identificador de la sesión.
+     * @return las partes ordenadas por número de parte.
+     */
+    @Override
+    public List<UploadPartDto> listParts(String sessionId) {
+        findSession(sessionId);
+        return partRepository.findBySessionIdOrderByPartNumberAsc(sessionId).stream()
+                .map(p -> modelMapper.map(p, UploadPartDto.class))
+                .toList();
+    }
+
+    /**
+     * Obtiene el bucket de una sesión, para aplicar sus límites a peticiones que no lo indican.
+     *
+     * @param sessionId identificador de la sesión.
+     * @return el bucket de la sesión, o vacío si no existe.
+     */
+    @Override
+    public Optional<String> findBucket(String sessionId) {
+        return sessionRepository.findById(sessionId).map(UploadSessionEntity::getBucket);
+    }
+
+    /**
+     * Completa la sesión uniendo las partes recibidas en el objeto final. La llamada a MinIO se hace
+     * fuera de una transacción, y el estado de la sesión se guarda después.
+     *
+     * @param sessionId identificador de la sesión.
+     * @return la sesión completada.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public UploadSessionDto complete(String sessionId)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        UploadSessionEntity session = activeSession(sessionId);
+        List<UploadSessionPartEntity> received = partRepository.findBySessionIdOrderByPartNumberAsc(sessionId);
+        if (received.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "La sesión no tiene partes");
+        }
+        Part[] parts = received.stream()
+                .map(p -> new Part(p.getPartNumber(), p.getEtag()))
+                .toArray(Part[]::new);
+        ObjectWriteResponse response = MinioFutures.await(multipartClient.completeMultipartUploadAsync(
+                session.getBucket(), null, session.getObjectName(), session.getUploadId(), parts, null, null));
+
+        session.setStatus(UploadSessionStatus.COMPLETED);
+        session.setEtag(response.etag());
+        session.setUpdatedAt(LocalDateTime.now());
+        UploadSessionEntity saved = sessionRepository.save(session);
+        partRepository.deleteBySessionId(sessionId);
+        metadataIndexService.record(session.getBucket(), session.getObjectName(),
+                received.stream().mapToLong(UploadSessionPartEntity::getSize).sum(),
+                response.etag(), session.getContentType());
+        return modelMapper.map(saved, UploadSessionDto.class);
+    }
+
+    /**
+     * Cancela la sesión y descarta en MinIO las partes recibidas.
+     *
+     * @param sessionId identificador de la sesión.
+     * @throws ServerException           si ocurre un error del lado del servidor de MinIO.
+     * @throws InsufficientDataException si los datos recibidos son insuficientes.
+     * @throws ErrorResponseException    si MinIO devuelve una respuesta de error.
+     * @throws IOException               si ocurre un error de entrada/salida.
+     * @throws NoSuchAlgorithmException  si el algoritmo criptográfico requerido no está disponible.
+     * @throws InvalidKeyException       si la clave proporcionada es inválida.
+     * @throws InvalidResponseException  si la respuesta de MinIO es inválida.
+     * @throws XmlParserException        si ocurre un error al analizar XML.
+     * @throws InternalException         si ocurre un error interno en la librería de MinIO.
+     */
+    @Override
+    public void abort(String sessionId)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        abort(activeSession(sessionId));
+    }
+
+    /**
+     * Cancela periódicamente las sesiones activas que no recibieron partes durante {@code sessionTtl},
+     * descartando en MinIO la subida multipart y sus partes. Un error en una sesión no detiene el
+     * resto, que se reintenta en la próxima ejecución. También descarta las subidas huérfanas, que
+     * la primera ejecución, al iniciar la aplicación, encuentra tras un reinicio.
+     */
+    @Scheduled(fixedDelayString = "${minio.upload.session-cleanup-interval:1h}")
+    public void abortExpired() {
+        LocalDateTime before = LocalDateTime.now().minus(uploadProperties.getSessionTtl());
+        for (UploadSessionEntity session : sessionRepository.findIdle(UploadSessionStatus.ACTIVE, before)) {
+            try {
+                abort(session);
+                log.info("Sesión de subida {} de {}/{} cancelada por inactividad", session.getId(),
+                        session.getBucket(), session.getObjectName());
+            } catch (Exception e) {
+                log.warn("No se pudo cancelar la sesión de subida vencida {}", session.getId(), e);
+            }
+        }
+        abortOrphaned();
+    }
+
+    /**
+     * Descarta en MinIO las subidas multipart iniciadas hace más de {@code sessionTtl} que no
+     * pertenecen a ninguna sesión activa. Las sesiones viven en una base en memoria: al reiniciar
+     * se pierden, pero sus subidas quedan abiertas en MinIO ocupando espacio con sus partes.
+     * Ninguna subida de la aplicación dura tanto sin una sesión, así que también se descartan las
+     * que dejó abiertas una subida multipart interrumpida por el reinicio.
+     */
+    private void abortOrphaned() {
+        ZonedDateTime before = ZonedDateTime.now().minus(uploadProperties.getSessionTtl());
+        List<Bucket> buckets;
+        try {
+            buckets = minio.listBuckets();
+        } catch (Exception e) {
+            log.warn("No se pudieron listar los buckets para descartar subidas huérfanas", e);
+            return;
+        }
+        for (Bucket bucket : buckets) {
+            try {
+                int aborted = abortOrphaned(bucket.name(), before);
+                if (aborted > 0) {
+                    log.info("Subidas multipart huérfanas descartadas en {}: {}", bucket.name(), aborted);
+                }
+            } catch (Exception e) {
+                log.warn("No se pudieron descartar las subidas huérfanas del bucket {}", bucket.name(), e);
+            }
+        }
+    }
+
+    private int abortOrphaned(String bucket, ZonedDateTime before)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        int aborted = 0;
+        String keyMarker = null;
+        String uploadIdMarker = null;
+        ListMultipartUploadsResult result;
+        do {
+            result = MinioFutures.await(multipartClient.listMultipartUploadsAsync(bucket, null, null, null,
+                    keyMarker, null, null, uploadIdMarker, null, null)).result();
+            for (Upload upload : result.uploads()) {
+                if (upload.initiated() == null || !upload.initiated().isBefore(before)
+                        || sessionRepository.existsByUploadIdAndStatus(upload.uploadId(), UploadSessionStatus.ACTIVE)) {
+                    continue;
+                }
+                try {
+                    MinioFutures.await(multipartClient.abortMultipartUploadAsync(
+                            bucket, null, upload.objectName(), upload.uploadId(), null, null));
+                    aborted++;
+                } catch (ErrorResponseException e) {
+                    if (!MinioFutures.isErrorCode(e, NO_SUCH_UPLOAD)) {
+                        throw e;
+                    }
+                }
+            }
+            keyMarker = result.nextKeyMarker();
+            uploadIdMarker = result.nextUploadIdMarker();
+        } while (result.isTruncated());
+        return aborted;
+    }
+
+    /**
+     * Descarta la subida multipart en MinIO y después marca la sesión como cancelada y borra sus partes.
+     * Si MinIO ya no tiene la subida, la sesión se cancela igual.
+     */
+    private void abort(UploadSessionEntity session)
+            throws ServerException, InsufficientDataException, ErrorResponseException, IOException, NoSuchAlgorithmException, InvalidKeyException, InvalidResponseException, XmlParserException, InternalException {
+        try {
+            MinioFutures.await(multipartClient.abortMultipartUploadAsync(
+                    session.getBucket(), null, session.getObjectName(), session.getUploadId(), null, null));
+        } catch (ErrorResponseException e) {
+            if (!MinioFutures.isErrorCode(e, NO_SUCH_UPLOAD)) {
+                throw e;
+            }
+        }
+
+        session.setStatus(UploadSessionStatus.ABORTED);
+        session.setUpdatedAt(LocalDateTime.now());
+        sessionRepository.save(session);
+        partRepository.deleteBySessionId(session.getId());
+    }
+
+    private UploadSessionEntity findSession(String sessionId) {
+        return sessionRepository.findById(sessionId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND,
+                        "No existe la sesión de subida " + sessionId));
+    }
+
+    private UploadSessionEntity activeSession(String sessionId) {
+        UploadSessionEntity session = findSession(sessionId);
+        if (session.getStatus() != UploadSessionStatus.ACTIVE) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT,
+                    "La sesión de subida " + sessionId + " está " + session.getStatus());
+        }
+        return session;
+    }
+}
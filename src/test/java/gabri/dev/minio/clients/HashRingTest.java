@@ -0,0 +1,105 @@
+package gabri.dev.minio.clients;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashRingTest {
+
+    private static final int VIRTUAL_NODES = 160;
+    private static final List<String> KEYS = IntStream.range(0, 20000).mapToObj(i -> "bucket-" + i).toList();
+
+    @Test
+    void lookupReturnsEveryNodeOnceStartingWithTheOwner() {
+        HashRing<String> ring = ring(Map.of("a", 1, "b", 1, "c", 1));
+
+        for (String key : KEYS.subList(0, 100)) {
+            List<String> nodes = ring.lookup(key);
+            assertThat(nodes).containsExactlyInAnyOrder("a", "b", "c");
+            assertThat(nodes.get(0)).isEqualTo(ring.lookup(key).get(0));
+        }
+    }
+
+    @Test
+    void sameNodesGiveTheSameOwners() {
+        HashRing<String> ring = ring(Map.of("a", 1, "b", 2, "c", 1));
+        HashRing<String> other = ring(Map.of("c", 1, "a", 1, "b", 2));
+
+        for (String key : KEYS) {
+            assertThat(other.lookup(key).get(0)).isEqualTo(ring.lookup(key).get(0));
+        }
+    }
+
+    @Test
+    void addingANodeOnlyMovesKeysToThatNode() {
+        HashRing<String> before = ring(Map.of("a", 1, "b", 1, "c", 1));
+        HashRing<String> after = ring(Map.of("a", 1, "b", 1, "c", 1, "d", 1));
+
+        int moved = 0;
+        for (String key : KEYS) {
+            String oldOwner = before.lookup(key).get(0);
+            String newOwner = after.lookup(key).get(0);
+            if (!oldOwner.equals(newOwner)) {
+                assertThat(newOwner).isEqualTo("d");
+                moved++;
+            }
+        }
+        //el nodo nuevo se queda con cerca de un cuarto de las claves
+        assertThat((double) moved / KEYS.size()).isBetween(0.15, 0.35);
+    }
+
+    @Test
+    void removingANodeOnlyMovesItsKeys() {
+        HashRing<String> before = ring(Map.of("a", 1, "b", 1, "c", 1));
+        HashRing<String> after = ring(Map.of("a", 1, "c", 1));
+
+        for (String key : KEYS) {
+            List<String> preference = before.lookup(key);
+            String newOwner = after.lookup(key).get(0);
+            if (!preference.get(0).equals("b")) {
+                assertThat(newOwner).isEqualTo(preference.get(0));
+            } else {
+                //las claves del nodo quitado pasan al siguiente en su orden de preferencia
+                assertThat(newOwner).isEqualTo(preference.get(1));
+            }
+        }
+    }
+
+    @Test
+    void keysAreSharedInProportionToWeight() {
+        HashRing<String> ring = ring(Map.of("a", 1, "b", 2, "c", 1));
+
+        Map<String, Integer> owned = new HashMap<>();
+        for (String key : KEYS) {
+            owned.merge(ring.lookup(key).get(0), 1, Integer::sum);
+        }
+        assertThat((double) owned.get("b") / KEYS.size()).isBetween(0.42, 0.58);
+        assertThat((double) owned.get("a") / KEYS.size()).isBetween(0.18, 0.32);
+        assertThat((double) owned.get("c") / KEYS.size()).isBetween(0.18, 0.32);
+    }
+
+    @Test
+    void changingAWeightKeepsKeysOfTheOtherNodesInPlace() {
+        HashRing<String> before = ring(Map.of("a", 1, "b", 1, "c", 1));
+        HashRing<String> after = ring(Map.of("a", 1, "b", 2, "c", 1));
+
+        for (String key : KEYS) {
+            String oldOwner = before.lookup(key).get(0);
+            String newOwner = after.lookup(key).get(0);
+            if (!oldOwner.equals(newOwner)) {
+                //solo se agregan puntos de b, así que solo b puede ganar claves
+                assertThat(newOwner).isEqualTo("b");
+            }
+        }
+    }
+
+    private static HashRing<String> ring(Map<String, Integer> weights) {
+        List<String> nodes = weights.keySet().stream().sorted().toList();
+        return new HashRing<>(nodes, node -> node, weights::get, VIRTUAL_NODES);
+    }
+}
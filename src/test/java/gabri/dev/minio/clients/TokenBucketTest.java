@@ -0,0 +1,79 @@
+package gabri.dev.minio.clients;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class TokenBucketTest {
+
+    /**
+     * Ritmo tan lento que la recarga durante la prueba no altera el saldo.
+     */
+    private static final double NO_REFILL = 0.001;
+
+    @Test
+    void startsFullAndAdmitsABurstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(NO_REFILL, 100);
+
+        assertThat(bucket.reserve(100, 0)).isZero();
+        assertThat(bucket.available()).isCloseTo(0, within(0.01));
+    }
+
+    @Test
+    void waitIsTheTimeToRefillTheMissingTokens() {
+        TokenBucket bucket = new TokenBucket(1000, 1000);
+        bucket.reserve(1000, 0);
+
+        //faltan 100 fichas a 1000 por segundo: unos 100ms, menos lo que se recargó entretanto
+        long wait = bucket.waitFor(100);
+        assertThat(wait).isBetween(TimeUnit.MILLISECONDS.toNanos(50), TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    void refillsOverTimeWithoutExceedingCapacity() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(1000, 50);
+        bucket.reserve(50, 0);
+
+        Thread.sleep(20);
+        assertThat(bucket.available()).isGreaterThanOrEqualTo(15);
+
+        Thread.sleep(100);
+        assertThat(bucket.available()).isEqualTo(50);
+    }
+
+    @Test
+    void reservationsBeyondTheBalanceQueueBehindEachOther() {
+        TokenBucket bucket = new TokenBucket(1, 10);
+
+        assertThat(bucket.reserve(10, 0)).isZero();
+        long first = bucket.reserve(5, Long.MAX_VALUE);
+        long second = bucket.reserve(5, Long.MAX_VALUE);
+
+        assertThat(bucket.available()).isLessThan(-9);
+        assertThat(first).isGreaterThan(TimeUnit.SECONDS.toNanos(4));
+        assertThat(second).isGreaterThan(first + TimeUnit.SECONDS.toNanos(4));
+    }
+
+    @Test
+    void rejectsWithoutReservingWhenTheWaitIsTooLong() {
+        TokenBucket bucket = new TokenBucket(NO_REFILL, 10);
+
+        assertThat(bucket.reserve(20, TimeUnit.SECONDS.toNanos(1))).isEqualTo(-1);
+        assertThat(bucket.available()).isCloseTo(10, within(0.01));
+    }
+
+    @Test
+    void refundsUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(NO_REFILL, 10);
+        bucket.reserve(4, 0);
+
+        bucket.refund(3);
+        assertThat(bucket.available()).isCloseTo(9, within(0.01));
+
+        bucket.refund(100);
+        assertThat(bucket.available()).isEqualTo(10);
+    }
+}
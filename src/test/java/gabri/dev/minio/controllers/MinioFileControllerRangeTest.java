@@ -0,0 +1,180 @@
+package gabri.dev.minio.controllers;
+
+import gabri.dev.minio.services.DiskCacheService;
+import gabri.dev.minio.services.MinioFilesService;
+import gabri.dev.minio.services.ObjectCacheService;
+import io.minio.StatObjectResponse;
+import okhttp3.Headers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class MinioFileControllerRangeTest {
+
+    private static final String BUCKET = "docs";
+    private static final String OBJECT = "carpeta/archivo.bin";
+    private static final String ETAG = "0123456789abcdef";
+    private static final byte[] CONTENT = content(1000);
+
+    private MockMvc mvc;
+    private MinioFilesService fileService;
+    private DiskCacheService diskCacheService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fileService = mock(MinioFilesService.class);
+        ObjectCacheService objectCacheService = mock(ObjectCacheService.class);
+        diskCacheService = mock(DiskCacheService.class);
+        when(fileService.stat(BUCKET, OBJECT)).thenReturn(new StatObjectResponse(Headers.of(
+                "ETag", "\"" + ETAG + "\"",
+                "Last-Modified", "Tue, 15 Oct 2024 10:00:00 GMT",
+                "Content-Length", String.valueOf(CONTENT.length),
+                "Content-Type", "application/octet-stream"), BUCKET, null, OBJECT));
+        when(fileService.download(BUCKET, OBJECT)).thenAnswer(i -> new ByteArrayInputStream(CONTENT));
+        when(fileService.download(eq(BUCKET), eq(OBJECT), anyLong(), anyLong())).thenAnswer(i -> {
+            int offset = (int) (long) i.getArgument(2);
+            int length = (int) (long) i.getArgument(3);
+            return new ByteArrayInputStream(CONTENT, offset, length);
+        });
+        //el objeto no entra en la caché en memoria y se pide a la caché en disco, que no lo tiene
+        when(objectCacheService.isCacheable(anyLong())).thenReturn(false);
+        when(diskCacheService.isCacheable(anyLong())).thenReturn(true);
+
+        MinioFileController controller = new MinioFileController();
+        controller.fileService = fileService;
+        controller.objectCacheService = objectCacheService;
+        controller.diskCacheService = diskCacheService;
+        controller.cacheControl = "no-cache";
+        mvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void withoutRangeSendsTheWholeObject() throws Exception {
+        MockHttpServletResponse response = download(null);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentLengthLong()).isEqualTo(CONTENT.length);
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+        verify(diskCacheService).find(BUCKET, OBJECT, ETAG, true);
+    }
+
+    @Test
+    void singleRangeSendsOnlyThoseBytes() throws Exception {
+        MockHttpServletResponse response = download("bytes=100-199");
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 100-199/1000");
+        assertThat(response.getContentLengthLong()).isEqualTo(100);
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(CONTENT, 100, 200));
+        //un rango nunca espera la descarga del objeto completo a la caché en disco
+        verify(diskCacheService).find(BUCKET, OBJECT, ETAG, false);
+    }
+
+    @Test
+    void endPastTheObjectIsClampedToTheLastByte() throws Exception {
+        MockHttpServletResponse response = download("bytes=900-5000");
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 900-999/1000");
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(CONTENT, 900, 1000));
+    }
+
+    @Test
+    void suffixRangeSendsTheLastBytes() throws Exception {
+        MockHttpServletResponse response = download("bytes=-10");
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 990-999/1000");
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(CONTENT, 990, 1000));
+    }
+
+    @Test
+    void rangeStartingAtTheEndIsNotSatisfiable() throws Exception {
+        MockHttpServletResponse response = download("bytes=1000-");
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */1000");
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void anyUnsatisfiableRangeFailsTheWholeRequest() throws Exception {
+        MockHttpServletResponse response = download("bytes=0-9,2000-2100");
+
+        assertThat(response.getStatus()).isEqualTo(416);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */1000");
+    }
+
+    @Test
+    void invalidRangeHeaderIsIgnored() throws Exception {
+        MockHttpServletResponse response = download("bytes=abc");
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void ifRangeWithAnotherEtagSendsTheWholeObject() throws Exception {
+        MockHttpServletResponse response = mvc.perform(request("bytes=0-9")
+                        .header(HttpHeaders.IF_RANGE, "\"otra-version\""))
+                .andReturn().getResponse();
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getContentAsByteArray()).isEqualTo(CONTENT);
+    }
+
+    @Test
+    void multipleRangesAreSentAsByteranges() throws Exception {
+        MockHttpServletResponse response = download("bytes=0-9,500-599,-5");
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getContentType()).startsWith("multipart/byteranges; boundary=");
+        byte[] body = response.getContentAsByteArray();
+        //el Content-Length calculado de antemano coincide con lo escrito
+        assertThat(response.getContentLengthLong()).isEqualTo(body.length);
+
+        String boundary = response.getContentType().substring(response.getContentType().indexOf('=') + 1);
+        String text = new String(body, StandardCharsets.ISO_8859_1);
+        assertThat(text).startsWith("\r\n--" + boundary + "\r\n");
+        assertThat(text).endsWith("\r\n--" + boundary + "--\r\n");
+        assertThat(text).contains("Content-Range: bytes 0-9/1000\r\n",
+                "Content-Range: bytes 500-599/1000\r\n", "Content-Range: bytes 995-999/1000\r\n");
+        assertThat(text.split("--" + boundary + "\r\n", -1)).hasSize(4);
+        assertThat(text).contains(new String(Arrays.copyOfRange(CONTENT, 500, 600), StandardCharsets.ISO_8859_1));
+    }
+
+    private MockHttpServletResponse download(String range) throws Exception {
+        return mvc.perform(request(range)).andReturn().getResponse();
+    }
+
+    private MockHttpServletRequestBuilder request(String range) {
+        MockHttpServletRequestBuilder request = get("/minio/file/download")
+                .param("bucket", BUCKET)
+                .param("objectName", OBJECT);
+        return range != null ? request.header(HttpHeaders.RANGE, range) : request;
+    }
+
+    private static byte[] content(int size) {
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) ('a' + i % 26);
+        }
+        return data;
+    }
+}
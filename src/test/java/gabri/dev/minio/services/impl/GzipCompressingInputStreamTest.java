@@ -0,0 +1,104 @@
+package gabri.dev.minio.services.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GzipCompressingInputStreamTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 1000, 64 * 1024, 64 * 1024 + 1, 3 * 1024 * 1024})
+    void roundTripsThroughGzipInputStream(int size) throws IOException {
+        byte[] original = content(size);
+
+        byte[] compressed = new GzipCompressingInputStream(new ByteArrayInputStream(original), 6).readAllBytes();
+
+        //GZIPInputStream verifica el CRC32 y el tamaño del pie al llegar al final
+        assertThat(decompress(compressed)).isEqualTo(original);
+    }
+
+    @Test
+    void trailerHasTheCrcAndTheOriginalSize() throws IOException {
+        byte[] original = "contenido de prueba".repeat(1000).getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(original);
+
+        byte[] compressed = new GzipCompressingInputStream(new ByteArrayInputStream(original), 9).readAllBytes();
+
+        int end = compressed.length;
+        assertThat(littleEndian(compressed, end - 8)).isEqualTo(crc.getValue());
+        assertThat(littleEndian(compressed, end - 4)).isEqualTo(original.length);
+        assertThat(compressed.length).isLessThan(original.length / 10);
+    }
+
+    @Test
+    void singleByteReadsGiveTheSameStream() throws IOException {
+        byte[] original = content(200 * 1024);
+        byte[] bulk = new GzipCompressingInputStream(new ByteArrayInputStream(original), 6).readAllBytes();
+
+        ByteArrayOutputStream single = new ByteArrayOutputStream();
+        try (InputStream stream = new GzipCompressingInputStream(new ByteArrayInputStream(original), 6)) {
+            int b;
+            while ((b = stream.read()) != -1) {
+                single.write(b);
+            }
+        }
+
+        assertThat(single.toByteArray()).isEqualTo(bulk);
+    }
+
+    @Test
+    void sourceThatReturnsShortReadsIsFullyCompressed() throws IOException {
+        byte[] original = content(300 * 1024);
+        InputStream trickle = new ByteArrayInputStream(original) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 7));
+            }
+        };
+
+        byte[] compressed = new GzipCompressingInputStream(trickle, 1).readAllBytes();
+
+        assertThat(decompress(compressed)).isEqualTo(original);
+    }
+
+    /**
+     * Mitad texto repetido, comprimible, y mitad bytes aleatorios, que no lo son.
+     */
+    private static byte[] content(int size) {
+        byte[] data = new byte[size];
+        byte[] text = "línea de registro 0123456789\n".getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < size / 2; i++) {
+            data[i] = text[i % text.length];
+        }
+        byte[] random = new byte[size - size / 2];
+        new Random(42).nextBytes(random);
+        System.arraycopy(random, 0, data, size / 2, random.length);
+        return data;
+    }
+
+    private static byte[] decompress(byte[] compressed) throws IOException {
+        try (InputStream stream = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return stream.readAllBytes();
+        }
+    }
+
+    private static long littleEndian(byte[] data, int offset) {
+        long value = 0;
+        for (int i = 3; i >= 0; i--) {
+            value = (value << 8) | (data[offset + i] & 0xff);
+        }
+        return value;
+    }
+}